@@ -28,6 +28,7 @@ import bisq.common.observable.Observable;
 import bisq.common.observable.collection.ObservableSet;
 import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceClient;
+import bisq.persistence.PersistenceScheduler;
 import bisq.persistence.PersistenceService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -47,7 +48,7 @@ public class AccountService implements PersistenceClient<AccountStore>, Service
     private transient final ObservableSet<Account<?, ? extends PaymentMethod<?>>> accounts = new ObservableSet<>();
 
     public AccountService(PersistenceService persistenceService) {
-        persistence = persistenceService.getOrCreatePersistence(this, persistableStore);
+        persistence = persistenceService.getOrCreatePersistence(this, persistableStore, PersistenceScheduler.Priority.HIGH);
     }
 
     @Override
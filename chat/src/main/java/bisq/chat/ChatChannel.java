@@ -117,7 +117,8 @@ public abstract class ChatChannel<M extends ChatMessage> implements Proto {
     }
 
     public void removeChatMessages(Collection<M> messages) {
-        messages.forEach(this::removeChatMessage);
+        // Observers get notified once for all removed messages
+        getChatMessages().batch(chatMessages -> messages.forEach(this::removeChatMessage));
     }
 
     public abstract String getDisplayString();
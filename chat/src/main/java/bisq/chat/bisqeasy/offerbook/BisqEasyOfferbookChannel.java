@@ -22,10 +22,17 @@ import bisq.chat.ChatChannelNotificationType;
 import bisq.chat.pub.PublicChatChannel;
 import bisq.common.currency.Market;
 import bisq.i18n.Res;
+import bisq.offer.bisq_easy.BisqEasyOffer;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Getter
 @ToString(callSuper = true)
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
@@ -37,6 +44,10 @@ public final class BisqEasyOfferbookChannel extends PublicChatChannel<BisqEasyOf
     }
 
     private final Market market;
+    // Index for looking up the message of an offer without iterating all messages
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient final Map<String, Set<BisqEasyOfferbookMessage>> messagesByOfferId = new ConcurrentHashMap<>();
 
     public BisqEasyOfferbookChannel(Market market) {
         this(createId(market), market);
@@ -62,6 +73,35 @@ public final class BisqEasyOfferbookChannel extends PublicChatChannel<BisqEasyOf
                 Market.fromProto(proto.getMarket()));
     }
 
+    @Override
+    public boolean addChatMessage(BisqEasyOfferbookMessage chatMessage) {
+        boolean changed = super.addChatMessage(chatMessage);
+        if (changed) {
+            chatMessage.getBisqEasyOffer().ifPresent(offer ->
+                    messagesByOfferId.computeIfAbsent(offer.getId(), key -> ConcurrentHashMap.newKeySet()).add(chatMessage));
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean removeChatMessage(BisqEasyOfferbookMessage chatMessage) {
+        boolean changed = super.removeChatMessage(chatMessage);
+        if (changed) {
+            chatMessage.getBisqEasyOffer().ifPresent(offer ->
+                    messagesByOfferId.computeIfPresent(offer.getId(), (key, messages) -> {
+                        messages.remove(chatMessage);
+                        return messages.isEmpty() ? null : messages;
+                    }));
+        }
+        return changed;
+    }
+
+    public Optional<BisqEasyOfferbookMessage> findMessageByOffer(BisqEasyOffer offer) {
+        return messagesByOfferId.getOrDefault(offer.getId(), Set.of()).stream()
+                .filter(chatMessage -> offer.equals(chatMessage.getBisqEasyOffer().orElse(null)))
+                .findAny();
+    }
+
     @Override
     public String getDisplayString() {
         return market.getMarketCodes();
@@ -19,7 +19,6 @@ package bisq.chat.bisqeasy.offerbook;
 
 import bisq.chat.ChatChannelDomain;
 import bisq.chat.Citation;
-import bisq.chat.pub.PublicChatChannel;
 import bisq.chat.pub.PublicChatChannelService;
 import bisq.common.currency.Market;
 import bisq.common.currency.MarketRepository;
@@ -131,10 +130,7 @@ public class BisqEasyOfferbookChannelService extends PublicChatChannelService<Bi
 
     public Optional<BisqEasyOfferbookMessage> findMessageByOffer(BisqEasyOffer offer) {
         return findChannel(offer.getMarket())
-                .map(PublicChatChannel::getChatMessages).stream()
-                .flatMap(Collection::stream)
-                .filter(chatMessage -> offer.equals(chatMessage.getBisqEasyOffer().orElse(null)))
-                .findAny();
+                .flatMap(channel -> channel.findMessageByOffer(offer));
     }
 
 
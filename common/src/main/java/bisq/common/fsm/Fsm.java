@@ -21,8 +21,8 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 
@@ -30,9 +30,12 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 @Slf4j
-
 public class Fsm<M extends FsmModel> {
     private final Map<Pair<State, Class<? extends Event>>, Transition> transitionMap = new HashMap<>();
+    // Compiled lazily from the transitionMap at the first handled event and reset when a transition is added.
+    // Only accessed inside the synchronized block of the handle method or at configuration.
+    private TransitionTable transitionTable;
+    private final Map<Class<? extends EventHandler>, EventHandler> eventHandlerByClass = new HashMap<>();
     @Getter
     protected final M model;
 
@@ -45,7 +48,17 @@ public class Fsm<M extends FsmModel> {
         // Subclasses might use that for transition config
     }
 
+    /**
+     * If enabled, the event handler created for a handler class is reused for all further events handled by that
+     * class instead of creating a new instance per event. Only subclasses which use stateless event handlers
+     * (e.g. only holding references passed at construction) should enable it.
+     */
+    protected boolean isEventHandlerReuseEnabled() {
+        return false;
+    }
+
     public void handle(Event event) throws FsmException {
+        Event currentEvent = event;
         try {
             checkNotNull(event, "event must not be null");
             synchronized (this) {
@@ -55,53 +68,93 @@ public class Fsm<M extends FsmModel> {
                     log.warn("We have reached the final state and do not allow further state transition");
                     return;
                 }
+                TransitionTable table = getTransitionTable();
                 Class<? extends Event> eventClass = event.getClass();
-                Pair<State, Class<? extends Event>> transitionKey = new Pair<>(currentState, eventClass);
-                Transition transition = transitionMap.get(transitionKey);
-                if (transition != null) {
-                    Optional<Class<? extends EventHandler>> eventHandlerClass = transition.getEventHandlerClass();
-                    if (eventHandlerClass.isPresent()) {
-                        EventHandler eventHandlerFromClass = newEventHandlerFromClass(eventHandlerClass.get());
-                        eventHandlerFromClass.handle(event);
+                Transition transition = table.find(currentState, eventClass);
+                if (transition == null) {
+                    if (table.containsEventClass(eventClass) && !model.processedEvents.contains(eventClass)) {
+                        model.eventQueue.add(event);
                     }
-                    State targetState = transition.getTargetState();
-                    model.setNewState(targetState);
-                    model.eventQueue.remove(event);
-                    if (targetState.isFinalState()) {
-                        model.processedEvents.clear();
-                        model.eventQueue.clear();
-                    } else {
-                        model.processedEvents.add(eventClass);
-                        // Clone set to avoid ConcurrentModificationException
-                        new HashSet<>(model.getEventQueue()).forEach(this::handle);
+                    return;
+                }
+
+                applyTransition(transition, event);
+
+                // Apply queued events in the order they have been received until none matches the current state.
+                boolean applied = true;
+                while (applied && !model.getState().isFinalState()) {
+                    applied = false;
+                    for (Event queuedEvent : model.eventQueue) {
+                        Transition queuedTransition = table.find(model.getState(), queuedEvent.getClass());
+                        if (queuedTransition != null) {
+                            currentEvent = queuedEvent;
+                            // We leave the loop after applying as the eventQueue got modified
+                            applyTransition(queuedTransition, queuedEvent);
+                            applied = true;
+                            break;
+                        }
                     }
-                } else {
-                    transitionMap.keySet().stream()
-                            .filter(key -> key.getSecond().equals(eventClass) &&
-                                    !model.processedEvents.contains(eventClass))
-                            .forEach(e -> model.eventQueue.add(event));
                 }
             }
         } catch (Exception e) {
             // If a queued event caused an exception we prefer to remove it.
             model.eventQueue.remove(event);
+            model.eventQueue.remove(currentEvent);
             log.error("Error at handling event.", e);
             throw new FsmException(e);
         }
     }
 
+    private void applyTransition(Transition transition, Event event) throws Exception {
+        Optional<Class<? extends EventHandler>> eventHandlerClass = transition.getEventHandlerClass();
+        if (eventHandlerClass.isPresent()) {
+            getEventHandler(eventHandlerClass.get()).handle(event);
+        }
+        State targetState = transition.getTargetState();
+        model.setNewState(targetState);
+        model.eventQueue.remove(event);
+        if (targetState.isFinalState()) {
+            model.processedEvents.clear();
+            model.eventQueue.clear();
+        } else {
+            model.processedEvents.add(event.getClass());
+        }
+    }
+
+    private EventHandler getEventHandler(Class<? extends EventHandler> handlerClass) throws Exception {
+        if (!isEventHandlerReuseEnabled()) {
+            return newEventHandlerFromClass(handlerClass);
+        }
+        EventHandler eventHandler = eventHandlerByClass.get(handlerClass);
+        if (eventHandler == null) {
+            eventHandler = newEventHandlerFromClass(handlerClass);
+            eventHandlerByClass.put(handlerClass, eventHandler);
+        }
+        return eventHandler;
+    }
+
     protected EventHandler newEventHandlerFromClass(Class<? extends EventHandler> handlerClass)
             throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
         return handlerClass.getDeclaredConstructor().newInstance();
     }
 
+    private TransitionTable getTransitionTable() {
+        if (transitionTable == null) {
+            transitionTable = new TransitionTable(transitionMap.values());
+        }
+        return transitionTable;
+    }
+
     private void addTransition(Transition transition) throws FsmException {
         try {
             checkArgument(transition.isValid(), "Invalid transition. transition=%s", transition);
             Pair<State, Class<? extends Event>> pair = new Pair<>(transition.getSourceState(), transition.getEventClass());
             checkArgument(!transitionMap.containsKey(pair),
                     "A transition exists already with the state/event pair. pair=%s", pair);
-            transitionMap.put(pair, transition);
+            synchronized (this) {
+                transitionMap.put(pair, transition);
+                transitionTable = null;
+            }
         } catch (Exception e) {
             throw new FsmException(e);
         }
@@ -144,4 +197,43 @@ public class Fsm<M extends FsmModel> {
             fsm.addTransition(transition);
         }
     }
+
+    /**
+     * Maps states and event classes to dense integer IDs and stores the transitions in an array indexed by those IDs,
+     * so that the lookup per event does not allocate a key object.
+     */
+    private static class TransitionTable {
+        private final Map<State, Integer> stateIds = new HashMap<>();
+        private final Map<Class<? extends Event>, Integer> eventIds = new HashMap<>();
+        private final Transition[][] transitions;
+
+        private TransitionTable(Collection<Transition> transitionList) {
+            transitionList.forEach(transition -> {
+                stateIds.putIfAbsent(transition.getSourceState(), stateIds.size());
+                eventIds.putIfAbsent(transition.getEventClass(), eventIds.size());
+            });
+            transitions = new Transition[stateIds.size()][eventIds.size()];
+            transitionList.forEach(transition -> {
+                int stateId = stateIds.get(transition.getSourceState());
+                int eventId = eventIds.get(transition.getEventClass());
+                transitions[stateId][eventId] = transition;
+            });
+        }
+
+        private Transition find(State state, Class<? extends Event> eventClass) {
+            Integer stateId = stateIds.get(state);
+            if (stateId == null) {
+                return null;
+            }
+            Integer eventId = eventIds.get(eventClass);
+            if (eventId == null) {
+                return null;
+            }
+            return transitions[stateId][eventId];
+        }
+
+        private boolean containsEventClass(Class<? extends Event> eventClass) {
+            return eventIds.containsKey(eventClass);
+        }
+    }
 }
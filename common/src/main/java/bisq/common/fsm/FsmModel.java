@@ -25,6 +25,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Slf4j
@@ -34,7 +35,8 @@ public class FsmModel {
     private final Observable<State> state = new Observable<>();
 
     // Package visibility for access from Fsm mutating the collections 
-    final Set<Event> eventQueue = new HashSet<>();
+    // The eventQueue keeps the insertion order, so that queued events get applied in the order they have been received
+    final Set<Event> eventQueue = new LinkedHashSet<>();
     final Set<Class<? extends Event>> processedEvents = new HashSet<>();
 
     public FsmModel(State initialState) {
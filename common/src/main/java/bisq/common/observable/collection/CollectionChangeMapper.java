@@ -31,6 +31,8 @@ import java.util.stream.Collectors;
  * executor (usually runs the runnable on the JavaFX Application Thread).
  * This is useful for mirroring changes of the source collection on the target collection while supporting
  * the UI frameworks constraints and mapping to different element types (usually ListItems).
+ * Changes which arrive while a previous change is waiting to be executed are coalesced with it, so a burst of
+ * changes results in one executor call and one addAll or removeAll on the target collection.
  *
  * @param <S> The type of the collection element of the source collection
  * @param <T> The type of the collection element of the target collection
@@ -41,6 +43,18 @@ final class CollectionChangeMapper<S, T> implements CollectionObserver<S> {
     private final Collection<T> targetCollection;
     private final Function<S, T> mapFunction;
     private final Consumer<Runnable> executor;
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final TargetCollectionUpdater targetCollectionUpdater = new TargetCollectionUpdater();
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Object lock = new Object();
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private CollectionChanges<S> pendingChanges = new CollectionChanges<>();
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean flushScheduled;
 
     CollectionChangeMapper(Collection<T> targetCollection,
                            Function<S, T> mapFunction,
@@ -52,50 +66,111 @@ final class CollectionChangeMapper<S, T> implements CollectionObserver<S> {
 
     @Override
     public void add(S element) {
-        executor.accept(() -> {
-            T item = mapFunction.apply(element);
-            if (!targetCollection.contains(item)) {
-                targetCollection.add(item);
-            }
-        });
+        enqueue(changes -> changes.add(element));
     }
 
     @Override
     public void addAll(Collection<? extends S> values) {
-        executor.accept(() -> {
-            targetCollection.addAll(values.stream()
-                    .map(mapFunction)
-                    .filter(item -> !targetCollection.contains(item))
-                    .collect(Collectors.toList()));
-        });
+        enqueue(changes -> changes.addAll(values));
     }
 
     @Override
     public void setAll(Collection<? extends S> values) {
-        executor.accept(() -> {
-            targetCollection.clear();
-            targetCollection.addAll(values.stream()
-                    .map(mapFunction)
-                    .collect(Collectors.toList()));
-        });
+        enqueue(changes -> changes.setAll(values));
     }
 
     @Override
     public void remove(Object element) {
-        //noinspection unchecked
-        executor.accept(() -> targetCollection.remove(mapFunction.apply((S) element)));
+        enqueue(changes -> changes.remove(element));
     }
 
     @Override
     public void removeAll(Collection<?> values) {
-        //noinspection unchecked
-        executor.accept(() -> targetCollection.removeAll(values.stream()
-                .map(element -> mapFunction.apply((S) element))
-                .collect(Collectors.toSet())));
+        enqueue(changes -> changes.removeAll(values));
     }
 
     @Override
     public void clear() {
-        executor.accept(targetCollection::clear);
+        enqueue(CollectionChanges::clear);
+    }
+
+    private void enqueue(Consumer<CollectionChanges<S>> change) {
+        synchronized (lock) {
+            change.accept(pendingChanges);
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        executor.accept(this::flush);
+    }
+
+    // Changes added while we apply the pending ones get applied in the same run
+    private void flush() {
+        while (true) {
+            CollectionChanges<S> changes;
+            synchronized (lock) {
+                if (pendingChanges.isEmpty()) {
+                    flushScheduled = false;
+                    return;
+                }
+                changes = pendingChanges;
+                pendingChanges = new CollectionChanges<>();
+            }
+            try {
+                changes.applyTo(targetCollectionUpdater);
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    flushScheduled = false;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private final class TargetCollectionUpdater implements CollectionObserver<S> {
+        @Override
+        public void add(S element) {
+            T item = mapFunction.apply(element);
+            if (!targetCollection.contains(item)) {
+                targetCollection.add(item);
+            }
+        }
+
+        @Override
+        public void addAll(Collection<? extends S> values) {
+            targetCollection.addAll(values.stream()
+                    .map(mapFunction)
+                    .distinct()
+                    .filter(item -> !targetCollection.contains(item))
+                    .collect(Collectors.toList()));
+        }
+
+        @Override
+        public void setAll(Collection<? extends S> values) {
+            targetCollection.clear();
+            targetCollection.addAll(values.stream()
+                    .map(mapFunction)
+                    .collect(Collectors.toList()));
+        }
+
+        @Override
+        public void remove(Object element) {
+            //noinspection unchecked
+            targetCollection.remove(mapFunction.apply((S) element));
+        }
+
+        @Override
+        public void removeAll(Collection<?> values) {
+            //noinspection unchecked
+            targetCollection.removeAll(values.stream()
+                    .map(element -> mapFunction.apply((S) element))
+                    .collect(Collectors.toSet()));
+        }
+
+        @Override
+        public void clear() {
+            targetCollection.clear();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.observable.collection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Records the changes of an ObservableCollection for notifying them later at once. Consecutive adds and consecutive
+ * removes get merged into one addAll or removeAll, and a clear or setAll replaces all previous changes.
+ * Not thread safe.
+ */
+final class CollectionChanges<S> implements CollectionObserver<S> {
+    private enum Type {
+        ADD,
+        REMOVE,
+        SET_ALL,
+        CLEAR
+    }
+
+    private static final class Change {
+        private final Type type;
+        private final List<Object> elements = new ArrayList<>();
+
+        private Change(Type type) {
+            this.type = type;
+        }
+    }
+
+    private final List<Change> changes = new ArrayList<>();
+
+    @Override
+    public void add(S element) {
+        getOrAddChange(Type.ADD).elements.add(element);
+    }
+
+    @Override
+    public void addAll(Collection<? extends S> values) {
+        getOrAddChange(Type.ADD).elements.addAll(values);
+    }
+
+    @Override
+    public void setAll(Collection<? extends S> values) {
+        changes.clear();
+        Change change = new Change(Type.SET_ALL);
+        change.elements.addAll(values);
+        changes.add(change);
+    }
+
+    @Override
+    public void remove(Object element) {
+        getOrAddChange(Type.REMOVE).elements.add(element);
+    }
+
+    @Override
+    public void removeAll(Collection<?> values) {
+        getOrAddChange(Type.REMOVE).elements.addAll(values);
+    }
+
+    @Override
+    public void clear() {
+        changes.clear();
+        changes.add(new Change(Type.CLEAR));
+    }
+
+    boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Notifies the recorded changes to the observer, with one call per merged change.
+     */
+    void applyTo(CollectionObserver<S> observer) {
+        for (Change change : changes) {
+            //noinspection unchecked
+            List<S> elements = (List<S>) (List<?>) change.elements;
+            switch (change.type) {
+                case ADD:
+                    if (elements.size() == 1) {
+                        observer.add(elements.get(0));
+                    } else {
+                        observer.addAll(elements);
+                    }
+                    break;
+                case REMOVE:
+                    if (elements.size() == 1) {
+                        observer.remove(elements.get(0));
+                    } else {
+                        observer.removeAll(elements);
+                    }
+                    break;
+                case SET_ALL:
+                    observer.setAll(elements);
+                    break;
+                case CLEAR:
+                    observer.clear();
+                    break;
+            }
+        }
+    }
+
+    private Change getOrAddChange(Type type) {
+        if (!changes.isEmpty()) {
+            Change last = changes.get(changes.size() - 1);
+            if (last.type == type) {
+                return last;
+            }
+        }
+        Change change = new Change(type);
+        changes.add(change);
+        return change;
+    }
+}
@@ -52,7 +52,7 @@ public class ObservableArray<S> extends ObservableCollection<S> implements List<
     public boolean addAll(int index, @NotNull Collection<? extends S> c) {
         boolean result = getList().addAll(index, c);
         if (result) {
-            observers.forEach(observer -> observer.addAll(c));
+            notifyObservers(observer -> observer.addAll(c));
         }
         return result;
     }
@@ -60,20 +60,20 @@ public class ObservableArray<S> extends ObservableCollection<S> implements List<
     @Override
     public S set(int index, S element) {
         S previous = getList().set(index, element);
-        observers.forEach(observer -> observer.add(element));
+        notifyObservers(observer -> observer.add(element));
         return previous;
     }
 
     @Override
     public void add(int index, S element) {
         getList().add(index, element);
-        observers.forEach(observer -> observer.add(element));
+        notifyObservers(observer -> observer.add(element));
     }
 
     @Override
     public S remove(int index) {
         S removedElement = getList().remove(index);
-        observers.forEach(observer -> observer.remove(removedElement));
+        notifyObservers(observer -> observer.remove(removedElement));
         return removedElement;
     }
 
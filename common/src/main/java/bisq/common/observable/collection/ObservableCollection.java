@@ -32,6 +32,8 @@ public abstract class ObservableCollection<S> implements Collection<S> {
 
     // Must be a list, not a set as otherwise if 2 instances of the same component is using it, one would get replaced.
     protected final List<CollectionObserver<S>> observers = new CopyOnWriteArrayList<>();
+    // Changes of the current thread inside a batch, notified to the observers at the end of the batch
+    private final ThreadLocal<CollectionChanges<S>> batchChanges = new ThreadLocal<>();
 
     protected ObservableCollection() {
     }
@@ -63,11 +65,31 @@ public abstract class ObservableCollection<S> implements Collection<S> {
         return () -> observers.remove(collectionChangeMapper);
     }
 
+    /**
+     * Applies the changes and notifies the observers at the end, with consecutive adds and removes merged into one
+     * addAll or removeAll. Only the changes done by the calling thread are batched.
+     */
+    public void batch(Consumer<ObservableCollection<S>> changes) {
+        if (batchChanges.get() != null) {
+            // Nested batch, gets notified with the outer one
+            changes.accept(this);
+            return;
+        }
+        CollectionChanges<S> collectionChanges = new CollectionChanges<>();
+        batchChanges.set(collectionChanges);
+        try {
+            changes.accept(this);
+        } finally {
+            batchChanges.remove();
+            observers.forEach(collectionChanges::applyTo);
+        }
+    }
+
     @Override
     public boolean add(S element) {
         boolean changed = collection.add(element);
         if (changed) {
-            observers.forEach(observer -> observer.add(element));
+            notifyObservers(observer -> observer.add(element));
         }
         return changed;
     }
@@ -76,7 +98,7 @@ public abstract class ObservableCollection<S> implements Collection<S> {
     public boolean addAll(@NotNull Collection<? extends S> values) {
         boolean changed = collection.addAll(values);
         if (changed) {
-            observers.forEach(observer -> observer.addAll(values));
+            notifyObservers(observer -> observer.addAll(values));
         }
         return changed;
     }
@@ -84,14 +106,14 @@ public abstract class ObservableCollection<S> implements Collection<S> {
     public void setAll(@NotNull Collection<? extends S> values) {
         collection.clear();
         collection.addAll(values);
-        observers.forEach(observer -> observer.setAll(values));
+        notifyObservers(observer -> observer.setAll(values));
     }
 
     @Override
     public boolean remove(Object element) {
         boolean changed = collection.remove(element);
         if (changed) {
-            observers.forEach(observer -> observer.remove(element));
+            notifyObservers(observer -> observer.remove(element));
         }
         return changed;
     }
@@ -100,7 +122,7 @@ public abstract class ObservableCollection<S> implements Collection<S> {
     public boolean removeAll(@NotNull Collection<?> values) {
         boolean changed = collection.removeAll(values);
         if (changed) {
-            observers.forEach(observer -> observer.removeAll(values));
+            notifyObservers(observer -> observer.removeAll(values));
         }
         return changed;
     }
@@ -108,7 +130,7 @@ public abstract class ObservableCollection<S> implements Collection<S> {
     @Override
     public void clear() {
         collection.clear();
-        observers.forEach(CollectionObserver::clear);
+        notifyObservers(CollectionObserver::clear);
     }
 
     @Override
@@ -155,4 +177,13 @@ public abstract class ObservableCollection<S> implements Collection<S> {
     public String toString() {
         return collection.toString();
     }
+
+    protected void notifyObservers(Consumer<CollectionObserver<S>> notification) {
+        CollectionChanges<S> changes = batchChanges.get();
+        if (changes != null) {
+            notification.accept(changes);
+        } else {
+            observers.forEach(notification);
+        }
+    }
 }
\ No newline at end of file
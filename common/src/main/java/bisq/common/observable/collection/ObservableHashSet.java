@@ -0,0 +1,77 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.observable.collection;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ObservableSet backed by a concurrent hash set instead of a CopyOnWriteArraySet. Adding, removing and contains are
+ * O(1) and do not copy the whole set, which matters for large sets like the messages of busy chat channels.
+ * The iteration order is not defined, the iterators are weakly consistent.
+ * Bulk operations notify the observers with one event containing only the actually added or removed elements.
+ */
+public class ObservableHashSet<S> extends ObservableSet<S> {
+    public ObservableHashSet() {
+        super();
+    }
+
+    public ObservableHashSet(Collection<S> values) {
+        super(values);
+    }
+
+    @Override
+    protected Collection<S> createCollection() {
+        return ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public boolean addAll(@NotNull Collection<? extends S> values) {
+        List<S> added = new ArrayList<>(values.size());
+        for (S value : values) {
+            if (collection.add(value)) {
+                added.add(value);
+            }
+        }
+        if (added.isEmpty()) {
+            return false;
+        }
+        notifyObservers(observer -> observer.addAll(added));
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(@NotNull Collection<?> values) {
+        List<S> removed = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (collection.remove(value)) {
+                //noinspection unchecked
+                removed.add((S) value);
+            }
+        }
+        if (removed.isEmpty()) {
+            return false;
+        }
+        notifyObservers(observer -> observer.removeAll(removed));
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.threading;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Executor with a fixed number of single threaded stripes. Tasks with the same key are executed on the same stripe,
+ * thus in the order they got submitted, while tasks with different keys can run in parallel.
+ */
+public class StripedExecutor {
+    private final ExecutorService[] stripes;
+
+    public StripedExecutor(String name, int numStripes) {
+        stripes = new ExecutorService[Math.max(1, numStripes)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = ExecutorFactory.newSingleThreadExecutor(name + "-" + i);
+        }
+    }
+
+    public void execute(Object key, Runnable task) {
+        getExecutor(key).execute(task);
+    }
+
+    public ExecutorService getExecutor(Object key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    public int getNumStripes() {
+        return stripes.length;
+    }
+
+    public void shutdown() {
+        for (ExecutorService stripe : stripes) {
+            ExecutorFactory.shutdownAndAwaitTermination(stripe);
+        }
+    }
+}
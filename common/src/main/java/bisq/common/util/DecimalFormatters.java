@@ -36,22 +36,28 @@ public class DecimalFormatters {
 
         /**
          * Wrapper to make DecimalFormat immutable and expose only what we use.
+         * As DecimalFormat is not thread safe we synchronize the format calls.
          */
         public Format(DecimalFormat decimalFormat) {
             this.decimalFormat = decimalFormat;
         }
 
         public String format(long number) {
-            return decimalFormat.format(number);
+            synchronized (decimalFormat) {
+                return decimalFormat.format(number);
+            }
         }
 
         public String format(double number) {
-            return decimalFormat.format(number);
+            synchronized (decimalFormat) {
+                return decimalFormat.format(number);
+            }
         }
     }
 
     /**
-     * Caches formatters which have the same parameters. We use formatters as stateless immutable objects.
+     * Caches formatters which have the same parameters. For formatting Monetary or PriceQuote values use
+     * FixedPointFormatters, which does not need to synchronize.
      */
     private static final LoadingCache<Pair<Locale, Integer>, Format> decimalFormatCache = CacheBuilder.newBuilder()
             .build(CacheLoader.from(DecimalFormatters::getDecimalFormat));
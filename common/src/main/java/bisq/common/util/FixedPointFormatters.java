@@ -0,0 +1,152 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.util;
+
+import bisq.common.data.Pair;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats fixed point values (a long value with a precision as used in Monetary and PriceQuote) without converting
+ * them to double. The formats are immutable and can be used concurrently.
+ */
+public class FixedPointFormatters {
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    @EqualsAndHashCode
+    @ToString
+    public static final class Format {
+        private final int precision;
+        private final char decimalSeparator;
+        private final char minusSign;
+        private final char zeroDigit;
+
+        private Format(int precision, DecimalFormatSymbols symbols) {
+            this.precision = precision;
+            decimalSeparator = symbols.getDecimalSeparator();
+            minusSign = symbols.getMinusSign();
+            zeroDigit = symbols.getZeroDigit();
+        }
+
+        /**
+         * @param value          The fixed point value
+         * @param valuePrecision The number of decimal places of the value
+         * @return The value formatted with the precision of the format. If the precision of the format is lower than
+         * the value precision, the value gets rounded half up. As with DecimalFormat, a negative value which gets
+         * rounded to zero keeps its minus sign (e.g. "-0.00").
+         */
+        public String format(long value, int valuePrecision) {
+            if (value == Long.MIN_VALUE) {
+                // Math.abs would overflow. Not expected in practice, so we do not care about allocations here.
+                return format(BigDecimal.valueOf(value, valuePrecision).setScale(precision, RoundingMode.HALF_UP));
+            }
+
+            boolean isNegative = value < 0;
+            long absValue = Math.abs(value);
+            int shift = valuePrecision - precision;
+            long scaled;
+            int trailingZeros = 0;
+            if (shift > 0) {
+                if (shift >= POWERS_OF_TEN.length) {
+                    // Any long is smaller than half of 10^19
+                    scaled = 0;
+                } else {
+                    long divisor = POWERS_OF_TEN[shift];
+                    scaled = absValue / divisor;
+                    if ((absValue % divisor) * 2 >= divisor) {
+                        scaled++;
+                    }
+                }
+            } else {
+                scaled = absValue;
+                trailingZeros = -shift;
+            }
+            return format(isNegative, Long.toString(scaled), trailingZeros);
+        }
+
+        private String format(BigDecimal value) {
+            return format(value.signum() < 0, value.unscaledValue().abs().toString(), 0);
+        }
+
+        private String format(boolean isNegative, String digits, int trailingZeros) {
+            int numDigits = digits.length() + trailingZeros;
+            // We need at least one integer digit
+            int leadingZeros = Math.max(0, precision + 1 - numDigits);
+            int numIntegerDigits = numDigits + leadingZeros - precision;
+
+            StringBuilder sb = new StringBuilder(numDigits + leadingZeros + 2);
+            if (isNegative) {
+                sb.append(minusSign);
+            }
+            int position = 0;
+            for (int i = 0; i < leadingZeros; i++) {
+                position = appendDigit(sb, '0', position, numIntegerDigits);
+            }
+            for (int i = 0; i < digits.length(); i++) {
+                position = appendDigit(sb, digits.charAt(i), position, numIntegerDigits);
+            }
+            for (int i = 0; i < trailingZeros; i++) {
+                position = appendDigit(sb, '0', position, numIntegerDigits);
+            }
+            return sb.toString();
+        }
+
+        private int appendDigit(StringBuilder sb, char digit, int position, int numIntegerDigits) {
+            if (position == numIntegerDigits) {
+                sb.append(decimalSeparator);
+            }
+            sb.append((char) (zeroDigit + (digit - '0')));
+            return position + 1;
+        }
+    }
+
+    /**
+     * Caches formats which have the same parameters.
+     */
+    private static final LoadingCache<Pair<Locale, Integer>, Format> formatCache = CacheBuilder.newBuilder()
+            .build(CacheLoader.from(FixedPointFormatters::createFormat));
+
+    /**
+     * @param locale    The locale used for the decimal separator, minus sign and digits
+     * @param precision The number of decimal places to display
+     * @return Returns cached Format object.
+     */
+    public static Format getFormat(Locale locale, int precision) {
+        return formatCache.getUnchecked(new Pair<>(locale, precision));
+    }
+
+    private static Format createFormat(Pair<Locale, Integer> pair) {
+        int precision = Math.max(0, pair.getSecond());
+        return new Format(precision, DecimalFormatSymbols.getInstance(pair.getFirst()));
+    }
+}
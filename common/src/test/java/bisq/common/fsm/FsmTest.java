@@ -21,6 +21,8 @@ import lombok.Getter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
@@ -353,6 +355,42 @@ public class FsmTest {
     }
 
 
+    @Test
+    void testEventHandlerReuse() throws FsmException {
+        MockModel model = new MockModel(MockState.INIT);
+        Fsm<MockModel> fsm = new Fsm<>(model) {
+            @Override
+            protected boolean isEventHandlerReuseEnabled() {
+                return true;
+            }
+        };
+        fsm.addTransition()
+                .from(MockState.INIT)
+                .on(MockEvent1.class)
+                .run(CountingEventHandler.class)
+                .to(MockState.S1);
+        fsm.addTransition()
+                .from(MockState.S1)
+                .on(MockEvent2.class)
+                .run(CountingEventHandler.class)
+                .to(MockState.S2);
+        fsm.addTransition()
+                .from(MockState.S2)
+                .on(MockEvent3.class)
+                .run(CountingEventHandler.class)
+                .to(MockState.S3);
+        CountingEventHandler.numInstances.set(0);
+
+        // Queued events get applied in the order they have been received
+        fsm.handle(new MockEvent3(model, "test3"));
+        fsm.handle(new MockEvent2(model, "test2"));
+        fsm.handle(new MockEvent1(model, "test1"));
+        assertEquals(MockState.S3, fsm.getModel().getState());
+        assertEquals("test3", model.data);
+        assertEquals(0, fsm.getModel().getEventQueue().size());
+        assertEquals(1, CountingEventHandler.numInstances.get());
+    }
+
     @Getter
     public enum MockState implements State {
         INIT,
@@ -423,6 +461,22 @@ public class FsmTest {
         }
     }
 
+    public static class CountingEventHandler implements EventHandler {
+        private static final AtomicInteger numInstances = new AtomicInteger();
+
+        public CountingEventHandler() {
+            numInstances.incrementAndGet();
+        }
+
+        @Override
+        public void handle(Event event) {
+            if (event instanceof MockEvent1) {
+                MockEvent1 mockEvent = (MockEvent1) event;
+                mockEvent.model.data = mockEvent.data;
+            }
+        }
+    }
+
     public static class MockModel extends FsmModel {
         public MockModel(MockState state) {
             super(state);
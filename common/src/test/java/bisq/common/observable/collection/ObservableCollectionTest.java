@@ -0,0 +1,118 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.observable.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ObservableCollectionTest {
+    @Test
+    void testBatchNotifiesOnce() {
+        ObservableArray<Integer> array = new ObservableArray<>();
+        List<String> events = new ArrayList<>();
+        array.addObserver(new CollectionObserver<>() {
+            @Override
+            public void add(Integer element) {
+                events.add("add " + element);
+            }
+
+            @Override
+            public void addAll(Collection<? extends Integer> values) {
+                events.add("addAll " + values);
+            }
+
+            @Override
+            public void remove(Object element) {
+                events.add("remove " + element);
+            }
+
+            @Override
+            public void removeAll(Collection<?> values) {
+                events.add("removeAll " + values);
+            }
+
+            @Override
+            public void clear() {
+                events.add("clear");
+            }
+        });
+        events.clear();
+
+        array.batch(collection -> {
+            for (int i = 0; i < 1000; i++) {
+                collection.add(i);
+            }
+            collection.remove(0);
+            collection.remove(1);
+            collection.add(1000);
+        });
+
+        assertEquals(3, events.size());
+        assertEquals("removeAll [0, 1]", events.get(1));
+        assertEquals("add 1000", events.get(2));
+        assertEquals(999, array.size());
+    }
+
+    @Test
+    void testCollectionChangeMapperCoalescesChanges() {
+        ObservableSet<Integer> set = new ObservableSet<>();
+        List<String> target = new ArrayList<>();
+        List<Runnable> pendingTasks = new ArrayList<>();
+        set.addCollectionChangeMapper(target, String::valueOf, pendingTasks::add);
+        pendingTasks.forEach(Runnable::run);
+        pendingTasks.clear();
+
+        // The executor queues the tasks like the UI thread would do. All changes until the task runs are applied at once.
+        for (int i = 0; i < 2000; i++) {
+            set.add(i);
+        }
+        set.remove(5);
+        assertEquals(1, pendingTasks.size());
+        pendingTasks.get(0).run();
+        assertEquals(1999, target.size());
+
+        // After a flush a new change schedules a new task
+        set.add(5);
+        assertEquals(2, pendingTasks.size());
+        pendingTasks.get(1).run();
+        assertEquals(2000, target.size());
+    }
+
+    @Test
+    void testCollectionChangeMapperWithSynchronousExecutor() {
+        ObservableSet<Integer> set = new ObservableSet<>(List.of(1, 2));
+        List<String> target = new ArrayList<>();
+        AtomicInteger numTasks = new AtomicInteger();
+        set.addCollectionChangeMapper(target, String::valueOf, runnable -> {
+            numTasks.incrementAndGet();
+            runnable.run();
+        });
+        assertEquals(List.of("1", "2"), target);
+
+        set.add(3);
+        set.remove(1);
+        assertEquals(List.of("2", "3"), target);
+        assertEquals(3, numTasks.get());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.observable.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ObservableHashSetTest {
+    @Test
+    void testBulkOperationsNotifyOnce() {
+        ObservableHashSet<Integer> set = new ObservableHashSet<>(List.of(1, 2));
+        List<Collection<? extends Integer>> addedBatches = new ArrayList<>();
+        List<Collection<?>> removedBatches = new ArrayList<>();
+        set.addObserver(new CollectionObserver<>() {
+            @Override
+            public void add(Integer element) {
+            }
+
+            @Override
+            public void addAll(Collection<? extends Integer> values) {
+                addedBatches.add(values);
+            }
+
+            @Override
+            public void remove(Object element) {
+            }
+
+            @Override
+            public void removeAll(Collection<?> values) {
+                removedBatches.add(values);
+            }
+
+            @Override
+            public void clear() {
+            }
+        });
+        // The initial values are passed at addObserver
+        addedBatches.clear();
+
+        assertTrue(set.addAll(List.of(2, 3, 4)));
+        assertEquals(1, addedBatches.size());
+        assertEquals(List.of(3, 4), addedBatches.get(0));
+        assertFalse(set.addAll(List.of(1, 3)));
+        assertEquals(1, addedBatches.size());
+
+        assertTrue(set.removeAll(List.of(1, 5)));
+        assertEquals(1, removedBatches.size());
+        assertEquals(List.of(1), removedBatches.get(0));
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    void testLargeSet() {
+        int numElements = 10_000;
+        List<String> elements = IntStream.range(0, numElements)
+                .mapToObj(i -> "message-" + i)
+                .collect(Collectors.toList());
+        ObservableHashSet<String> set = new ObservableHashSet<>();
+        AtomicInteger numEvents = new AtomicInteger();
+        set.addObserver(numEvents::incrementAndGet);
+        // The observer is called once at addObserver
+        numEvents.set(0);
+
+        elements.forEach(set::add);
+        assertEquals(numElements, set.size());
+        elements.forEach(element -> assertTrue(set.contains(element)));
+        elements.forEach(set::add);
+        assertEquals(numElements, numEvents.get());
+
+        elements.forEach(set::remove);
+        assertTrue(set.isEmpty());
+        assertEquals(2 * numElements, numEvents.get());
+    }
+}
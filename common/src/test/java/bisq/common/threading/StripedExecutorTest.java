@@ -0,0 +1,120 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.threading;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedExecutorTest {
+    private static final int NUM_STRIPES = 4;
+
+    private final StripedExecutor executor = new StripedExecutor("StripedExecutorTest", NUM_STRIPES);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void tasksWithSameKeyRunInOrder() throws InterruptedException {
+        int numKeys = 16;
+        int numTasksPerKey = 1000;
+        List<List<Integer>> resultsByKey = IntStream.range(0, numKeys)
+                .mapToObj(key -> new ArrayList<Integer>())
+                .collect(Collectors.toList());
+        CountDownLatch latch = new CountDownLatch(numKeys * numTasksPerKey);
+        for (int i = 0; i < numTasksPerKey; i++) {
+            int taskIndex = i;
+            for (int key = 0; key < numKeys; key++) {
+                // The lists are only accessed from the stripe of their key
+                List<Integer> results = resultsByKey.get(key);
+                executor.execute("key-" + key, () -> {
+                    results.add(taskIndex);
+                    latch.countDown();
+                });
+            }
+        }
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+
+        List<Integer> expected = IntStream.range(0, numTasksPerKey).boxed().collect(Collectors.toList());
+        resultsByKey.forEach(results -> assertThat(results).isEqualTo(expected));
+    }
+
+    @Test
+    public void blockedStripeDoesNotBlockOtherKeys() throws InterruptedException {
+        // Integer keys use their value as hashCode, so 0 and 1 map to different stripes
+        CountDownLatch otherKeyExecuted = new CountDownLatch(1);
+        CountDownLatch blockingTaskDone = new CountDownLatch(1);
+        executor.execute(0, () -> {
+            try {
+                // Would time out if the task of key 1 had to wait for this one
+                if (otherKeyExecuted.await(10, TimeUnit.SECONDS)) {
+                    blockingTaskDone.countDown();
+                }
+            } catch (InterruptedException ignore) {
+            }
+        });
+        executor.execute(1, otherKeyExecuted::countDown);
+
+        assertThat(blockingTaskDone.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void throughputScalesWithNumStripes() throws InterruptedException {
+        int numTasks = 200;
+        AtomicInteger numRunning = new AtomicInteger();
+        AtomicInteger maxNumRunning = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(numTasks);
+        for (int i = 0; i < numTasks; i++) {
+            executor.execute(i, () -> {
+                int running = numRunning.incrementAndGet();
+                maxNumRunning.accumulateAndGet(running, Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ignore) {
+                }
+                numRunning.decrementAndGet();
+                latch.countDown();
+            });
+        }
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Tasks of different stripes run in parallel, but never more than one per stripe
+        assertThat(maxNumRunning.get()).isGreaterThan(1).isLessThanOrEqualTo(NUM_STRIPES);
+    }
+
+    @Test
+    public void keysAreSpreadOverAllStripes() {
+        assertThat(executor.getNumStripes()).isEqualTo(NUM_STRIPES);
+        long numUsedStripes = IntStream.range(0, 100)
+                .mapToObj(i -> executor.getExecutor("connection-" + i))
+                .distinct()
+                .count();
+        assertThat(numUsedStripes).isEqualTo(NUM_STRIPES);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FixedPointFormattersTest {
+    @Test
+    public void testFormat() {
+        assertEquals("1.00000000", FixedPointFormatters.getFormat(Locale.US, 8).format(100000000L, 8));
+        assertEquals("1,00000000", FixedPointFormatters.getFormat(Locale.GERMAN, 8).format(100000000L, 8));
+        assertEquals("51234.1234", FixedPointFormatters.getFormat(Locale.US, 4).format(512341234L, 4));
+        assertEquals("0.070000", FixedPointFormatters.getFormat(Locale.US, 6).format(7L, 2));
+        assertEquals("123", FixedPointFormatters.getFormat(Locale.US, 0).format(12345L, 2));
+        assertEquals("-0.01", FixedPointFormatters.getFormat(Locale.US, 2).format(-50L, 4));
+        // Same as DecimalFormat, the sign is kept if a negative value gets rounded to zero
+        assertEquals("-0.00", FixedPointFormatters.getFormat(Locale.US, 2).format(-5L, 4));
+    }
+
+    @Test
+    public void testRounding() {
+        assertEquals("51234.13", FixedPointFormatters.getFormat(Locale.US, 2).format(512341250L, 4));
+        assertEquals("51234.12", FixedPointFormatters.getFormat(Locale.US, 2).format(512341249L, 4));
+        assertEquals("10.00", FixedPointFormatters.getFormat(Locale.US, 2).format(99999L, 4));
+        assertEquals("-922337203685477.58", FixedPointFormatters.getFormat(Locale.US, 2).format(Long.MIN_VALUE, 4));
+    }
+
+    @Test
+    public void testConcurrentFormat() {
+        FixedPointFormatters.Format format = FixedPointFormatters.getFormat(Locale.US, 4);
+        assertTrue(IntStream.range(0, 100_000).parallel()
+                .allMatch(i -> format.format(i * 10_001L, 4).equals(String.format(Locale.US, "%.4f", i * 1.0001))));
+    }
+}
@@ -22,17 +22,18 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 @Slf4j
 public class Res {
-    private static final List<ResourceBundle> bundles = new ArrayList<>();
+    // Replaced as a whole at a language change, so that readers never see a partially built index
+    private static volatile ResourceIndex resourceIndex;
 
     public static void setLanguage(String languageCode) {
         Locale locale = Locale.forLanguageTag(languageCode);
-        bundles.clear();
-        bundles.addAll(List.of(
+        List<ResourceBundle> bundles = List.of(
                 ResourceBundle.getBundle("default", locale),
                 ResourceBundle.getBundle("application", locale),
                 ResourceBundle.getBundle("chat", locale),
@@ -44,36 +45,76 @@ public class Res {
                 ResourceBundle.getBundle("payment_method", locale),
                 ResourceBundle.getBundle("wallet", locale),
                 ResourceBundle.getBundle("settings", locale)
-        ));
+        );
+        resourceIndex = new ResourceIndex(bundles);
     }
 
     public static String get(String key, Object... arguments) {
-        return MessageFormat.format(get(key), arguments);
+        ResourceIndex index = getResourceIndex(key);
+        Optional<MessageFormat> messageFormat = index.findMessageFormat(key);
+        if (messageFormat.isEmpty()) {
+            return MessageFormat.format(get(key), arguments);
+        }
+        // MessageFormat is not thread safe
+        synchronized (messageFormat.get()) {
+            return messageFormat.get().format(arguments);
+        }
     }
 
     public static String get(String key) {
-        checkArgument(!bundles.isEmpty(), "Res.get cannot be called as bundles is still empty. key=" + key);
-        try {
-            return bundles.stream()
-                    .filter(bundle -> bundle.containsKey(key))
-                    .map(bundle -> bundle.getString(key))
-                    .findFirst()
-                    .orElseGet(() -> {
-                        log.error("Missing resource for key: {}", key);
-                        if (DevMode.isDevMode()) {
-                            return "MISSING: " + key;
-                        } else {
-                            return "[" + key + "!]";
-                        }
-                    });
-        } catch (MissingResourceException e) {
-            log.warn("Missing resource for key: " + key, e);
-            return "[" + key + "!!!]";
+        String value = getResourceIndex(key).valueByKey.get(key);
+        if (value != null) {
+            return value;
+        }
+        log.error("Missing resource for key: {}", key);
+        if (DevMode.isDevMode()) {
+            return "MISSING: " + key;
+        } else {
+            return "[" + key + "!]";
         }
     }
 
     public static boolean has(String key) {
-        return bundles.stream().anyMatch(bundle -> bundle.containsKey(key));
+        ResourceIndex index = resourceIndex;
+        return index != null && index.valueByKey.containsKey(key);
+    }
+
+    private static ResourceIndex getResourceIndex(String key) {
+        ResourceIndex index = resourceIndex;
+        checkArgument(index != null, "Res.get cannot be called as bundles is still empty. key=" + key);
+        return index;
     }
-}
 
+    /**
+     * Flattens the bundles of the selected language into one map. If a key is contained in multiple bundles, the
+     * value of the first bundle is used. The compiled MessageFormat instances are cached per key.
+     */
+    private static class ResourceIndex {
+        private final Map<String, String> valueByKey;
+        private final Map<String, MessageFormat> messageFormatByKey = new ConcurrentHashMap<>();
+
+        private ResourceIndex(List<ResourceBundle> bundles) {
+            Map<String, String> map = new HashMap<>();
+            for (ResourceBundle bundle : bundles) {
+                for (String key : bundle.keySet()) {
+                    if (!map.containsKey(key)) {
+                        try {
+                            map.put(key, bundle.getString(key));
+                        } catch (MissingResourceException | ClassCastException e) {
+                            log.warn("Missing resource for key: " + key, e);
+                        }
+                    }
+                }
+            }
+            valueByKey = Map.copyOf(map);
+        }
+
+        private Optional<MessageFormat> findMessageFormat(String key) {
+            String pattern = valueByKey.get(key);
+            if (pattern == null) {
+                return Optional.empty();
+            }
+            return Optional.of(messageFormatByKey.computeIfAbsent(key, k -> new MessageFormat(pattern)));
+        }
+    }
+}
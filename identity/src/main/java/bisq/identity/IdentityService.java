@@ -23,6 +23,7 @@ import bisq.common.util.StringUtils;
 import bisq.network.NetworkService;
 import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceClient;
+import bisq.persistence.PersistenceScheduler;
 import bisq.persistence.PersistenceService;
 import bisq.security.KeyPairService;
 import bisq.security.PubKey;
@@ -73,7 +74,7 @@ public class IdentityService implements PersistenceClient<IdentityStore>, Servic
                            PersistenceService persistenceService,
                            SecurityService securityService,
                            NetworkService networkService) {
-        persistence = persistenceService.getOrCreatePersistence(this, persistableStore);
+        persistence = persistenceService.getOrCreatePersistence(this, persistableStore, PersistenceScheduler.Priority.HIGH);
         keyPairService = securityService.getKeyPairService();
         this.networkService = networkService;
         minPoolSize = config.minPoolSize;
@@ -25,4 +25,26 @@ public interface TransportConfig {
     int getDefaultNodePort();
 
     int getSocketTimeout();
+
+    /**
+     * @return If true the node uses a small fixed set of selector threads for all its connections instead of one
+     * blocking read thread per connection. Only supported by transports which provide selectable channels.
+     */
+    default boolean isNonBlockingIo() {
+        return false;
+    }
+
+    /**
+     * @return The max. number of messages which can be queued for sending per connection.
+     */
+    default int getSendQueueCapacity() {
+        return 1000;
+    }
+
+    /**
+     * @return The policy applied if the send queue of a connection is full. One of DROP_LOWEST_PRIORITY, BLOCK or CLOSE.
+     */
+    default String getSendQueueOverflowPolicy() {
+        return "DROP_LOWEST_PRIORITY";
+    }
 }
@@ -23,9 +23,12 @@ import bisq.network.common.Address;
 import bisq.network.common.TransportType;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.Capability;
+import bisq.network.p2p.node.ConnectionException;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.network.p2p.node.envelope.NetworkEnvelopeDeserializer;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
+import bisq.network.p2p.node.envelope.ProtoBufMessageLengthWriter;
 import bisq.network.p2p.node.handshake.ConnectionHandshake;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import bisq.persistence.PersistenceService;
@@ -49,6 +52,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class NetworkEnvelopeSocketChannelTests {
 
@@ -180,6 +184,17 @@ public class NetworkEnvelopeSocketChannelTests {
         assertThat(receivedNetworkEnvelopes).containsExactly(requestNetworkEnvelope);
     }
 
+    @Test
+    void rejectMessageExceedingMaxMessageSize() throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(16);
+        ProtoBufMessageLengthWriter.writeToBuffer(NetworkEnvelopeDeserializer.MAX_MESSAGE_SIZE + 1, byteBuffer);
+        byteBuffer.flip();
+        serverToClientSocketChannel.write(byteBuffer);
+
+        assertThatThrownBy(() -> networkEnvelopeSocketChannel.receiveNetworkEnvelopes())
+                .isInstanceOf(ConnectionException.class);
+    }
+
     private NetworkEnvelope createHandshakeRequestMessage() {
         List<TransportType> supportedTransportTypes = new ArrayList<>(1);
         supportedTransportTypes.add(TransportType.CLEAR);
@@ -47,6 +47,7 @@ import static org.mockito.Mockito.mock;
 
 @Slf4j
 public class OutboundConnectionsMultiplexerTest {
+    private static final int SOCKET_TIMEOUT = 120_000;
 
     private final Path tmpDir = FileUtils.createTempDir();
 
@@ -65,6 +66,7 @@ public class OutboundConnectionsMultiplexerTest {
                 new NetworkLoad(),
                 mock(BanList.class),
                 createAuthorizationService(),
+                SOCKET_TIMEOUT,
                 mock(Node.class),
                 ServerSocketChannel.open()
         );
@@ -91,6 +93,7 @@ public class OutboundConnectionsMultiplexerTest {
                         mock(BanList.class),
                         new NetworkLoad(),
                         outboundCapability,
+                        SOCKET_TIMEOUT,
                         mock(Node.class),
                         selector
                 );
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.network.common.TransportConfig;
+import bisq.network.common.TransportType;
+import bisq.network.p2p.node.authorization.AuthorizationService;
+import bisq.security.pow.HashCashService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class ClearNetNonBlockingNodesByIdIntegrationTest extends BaseNodesByIdTest {
+
+    @Test
+    void test_messageRoundTrip() throws InterruptedException {
+        super.test_messageRoundTrip(getConfig(TransportType.CLEAR));
+    }
+
+    @Test
+    void test_initializeServer() throws InterruptedException {
+        super.test_initializeServer(getConfig(TransportType.CLEAR));
+    }
+
+    @Override
+    protected Node.Config getConfig(TransportType transportType, Set<TransportType> supportedTransportTypes) {
+        return new Node.Config(transportType,
+                supportedTransportTypes,
+                new AuthorizationService(new HashCashService()),
+                getTransportConfig(getBaseDir()),
+                (int) TimeUnit.SECONDS.toMillis(120),
+                true,
+                SendQueue.Config.DEFAULT);
+    }
+
+    @Override
+    protected TransportConfig getTransportConfig(Path dataDir) {
+        TransportConfig transportConfig = super.getTransportConfig(dataDir);
+        return new TransportConfig() {
+            @Override
+            public Path getDataDir() {
+                return transportConfig.getDataDir();
+            }
+
+            @Override
+            public int getDefaultNodePort() {
+                return transportConfig.getDefaultNodePort();
+            }
+
+            @Override
+            public int getSocketTimeout() {
+                return transportConfig.getSocketTimeout();
+            }
+
+            @Override
+            public boolean isNonBlockingIo() {
+                return true;
+            }
+        };
+    }
+
+    @Override
+    protected long getTimeout() {
+        return 2;
+    }
+}
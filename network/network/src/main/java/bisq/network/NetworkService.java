@@ -22,7 +22,9 @@ import bisq.common.application.Service;
 import bisq.common.observable.Observable;
 import bisq.common.observable.map.ObservableHashMap;
 import bisq.common.threading.ExecutorFactory;
+import bisq.common.threading.StripedExecutor;
 import bisq.common.util.CompletableFutureUtils;
+import bisq.common.util.OsUtils;
 import bisq.network.http.BaseHttpClient;
 import bisq.network.http.HttpClientRepository;
 import bisq.network.identity.NetworkId;
@@ -91,6 +93,13 @@ public class NetworkService implements PersistenceClient<NetworkServiceStore>, S
     public static final String NETWORK_DB_PATH = "db" + File.separator + "network";
     public static final ExecutorService NETWORK_IO_POOL = ExecutorFactory.newCachedThreadPool("NetworkService.network-IO-pool");
     public static final ExecutorService DISPATCHER = ExecutorFactory.newSingleThreadExecutor("NetworkService.dispatcher");
+    // Messages and events of a connection are dispatched on the stripe of the connection ID, so they keep their order
+    // while different connections are handled in parallel.
+    public static final StripedExecutor CONNECTION_DISPATCHER = new StripedExecutor("NetworkService.connection-dispatcher",
+            OsUtils.availableProcessors());
+    // For CPU heavy work like signature verification, decryption and building inventories, so it does not block
+    // the dispatchers. It is bounded to the number of cores.
+    public static final ExecutorService COMPUTE_POOL = ExecutorFactory.newFixedThreadPool("NetworkService.compute-pool");
 
     public static class SendMessageResult extends HashMap<TransportType, ConfidentialMessageService.Result> {
         public SendMessageResult() {
@@ -122,7 +131,7 @@ public class NetworkService implements PersistenceClient<NetworkServiceStore>, S
         Set<ServiceNode.Service> services = config.getServiceNodeConfig().getServices();
 
         dataService = services.contains(ServiceNode.Service.DATA) ?
-                Optional.of(new DataService(new StorageService(persistenceService))) :
+                Optional.of(new DataService(new StorageService(persistenceService, config.isMemoryMappedDataStores()))) :
                 Optional.empty();
 
         messageDeliveryStatusService = services.contains(ServiceNode.Service.ACK) && services.contains(ServiceNode.Service.CONFIDENTIAL) ?
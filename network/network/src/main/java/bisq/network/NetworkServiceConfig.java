@@ -18,6 +18,7 @@
 package bisq.network;
 
 import bisq.common.util.ConfigUtil;
+import bisq.common.util.OsUtils;
 import bisq.network.common.Address;
 import bisq.network.common.TransportConfig;
 import bisq.network.common.TransportType;
@@ -86,6 +87,10 @@ public final class NetworkServiceConfig {
 
         Map<TransportType, TransportConfig> configByTransportType = createConfigByTransportType(config, baseDir);
 
+        // Memory mapped files cannot be replaced on Windows while they are mapped, so we do not support it there
+        boolean memoryMappedDataStores = config.hasPath("memoryMappedDataStores") &&
+                config.getBoolean("memoryMappedDataStores") &&
+                !OsUtils.isWindows();
 
         return new NetworkServiceConfig(baseDir.toAbsolutePath().toString(),
                 supportedTransportTypes,
@@ -94,7 +99,8 @@ public final class NetworkServiceConfig {
                 peerGroupServiceConfigByTransport,
                 defaultNodePortByTransportType,
                 seedAddressesByTransport,
-                Optional.empty());
+                Optional.empty(),
+                memoryMappedDataStores);
     }
 
     private static Map<TransportType, Integer> createDefaultNodePortByTransportType(Config config) {
@@ -171,6 +177,7 @@ public final class NetworkServiceConfig {
     private final Map<TransportType, Integer> defaultNodePortByTransportType;
     private final Map<TransportType, Set<Address>> seedAddressesByTransport;
     private final Optional<String> socks5ProxyAddress;
+    private final boolean memoryMappedDataStores;
 
     public NetworkServiceConfig(String baseDir,
                                 Set<TransportType> supportedTransportTypes,
@@ -179,7 +186,8 @@ public final class NetworkServiceConfig {
                                 Map<TransportType, PeerGroupManager.Config> peerGroupServiceConfigByTransport,
                                 Map<TransportType, Integer> defaultNodePortByTransportType,
                                 Map<TransportType, Set<Address>> seedAddressesByTransport,
-                                Optional<String> socks5ProxyAddress) {
+                                Optional<String> socks5ProxyAddress,
+                                boolean memoryMappedDataStores) {
         this.baseDir = baseDir;
         this.supportedTransportTypes = supportedTransportTypes;
         this.configByTransportType = filterMap(supportedTransportTypes, configByTransportType);
@@ -188,6 +196,7 @@ public final class NetworkServiceConfig {
         this.defaultNodePortByTransportType = filterMap(supportedTransportTypes, defaultNodePortByTransportType);
         this.seedAddressesByTransport = filterMap(supportedTransportTypes, seedAddressesByTransport);
         this.socks5ProxyAddress = socks5ProxyAddress;
+        this.memoryMappedDataStores = memoryMappedDataStores;
     }
 
     // In case our config contains not supported transport types we remove them
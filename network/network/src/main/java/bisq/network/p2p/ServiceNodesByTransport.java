@@ -32,6 +32,7 @@ import bisq.network.identity.TorIdentity;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
+import bisq.network.p2p.node.SendQueue;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.network_load.NetworkLoadService;
 import bisq.network.p2p.node.transport.BootstrapInfo;
@@ -106,7 +107,10 @@ public class ServiceNodesByTransport implements PersistenceClient<ServiceNodesBy
                     supportedTransportTypes,
                     new AuthorizationService(proofOfWorkService),
                     transportConfig,
-                    transportConfig.getSocketTimeout());
+                    transportConfig.getSocketTimeout(),
+                    transportConfig.isNonBlockingIo(),
+                    new SendQueue.Config(transportConfig.getSendQueueCapacity(),
+                            SendQueue.OverflowPolicy.valueOf(transportConfig.getSendQueueOverflowPolicy())));
             Set<Address> seedAddresses = seedAddressesByTransport.get(transportType);
             checkNotNull(seedAddresses, "Seed nodes must be setup for %s", transportType);
             PeerGroupManager.Config peerGroupServiceConfig = peerGroupServiceConfigByTransport.get(transportType);
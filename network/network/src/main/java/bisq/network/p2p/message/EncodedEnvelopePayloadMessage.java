@@ -0,0 +1,43 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.message;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * EnvelopePayloadMessage together with its serialized proto bytes. Used for sending the same message to multiple
+ * peers (e.g. at broadcast) so that the message is serialized only once. The bytes are used as proof of work payload
+ * and are spliced into the serialized NetworkEnvelope of each peer.
+ */
+@Getter
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public final class EncodedEnvelopePayloadMessage {
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private final EnvelopePayloadMessage envelopePayloadMessage;
+    private final byte[] serialized;
+
+    public EncodedEnvelopePayloadMessage(EnvelopePayloadMessage envelopePayloadMessage) {
+        this.envelopePayloadMessage = envelopePayloadMessage;
+        this.serialized = envelopePayloadMessage.toProto().toByteArray();
+    }
+}
@@ -47,6 +47,15 @@ public interface EnvelopePayloadMessage extends Proto {
 
     bisq.network.protobuf.EnvelopePayloadMessage toProto();
 
+    /**
+     * @return The proto used as proof of work payload. Older versions verify the payload by re-serializing the message
+     * they have parsed, which drops the fields unknown to them. Messages with fields added for newer versions exclude
+     * those fields here.
+     */
+    default bisq.network.protobuf.EnvelopePayloadMessage toProofOfWorkPayloadProto() {
+        return toProto();
+    }
+
     static EnvelopePayloadMessage fromProto(bisq.network.protobuf.EnvelopePayloadMessage proto) {
         switch (proto.getMessageCase()) {
             case CONNECTIONHANDSHAKEREQUEST: {
@@ -20,11 +20,17 @@ package bisq.network.p2p.message;
 import bisq.common.proto.Proto;
 import bisq.network.p2p.node.ConnectionException;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
+import com.google.protobuf.CodedOutputStream;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Outside data structure to be sent over the wire.
  */
@@ -38,15 +44,40 @@ public final class NetworkEnvelope implements Proto {
     private final int version;
     private final AuthorizationToken authorizationToken;
     private final EnvelopePayloadMessage envelopePayloadMessage;
+    // Serialized envelopePayloadMessage if the sender has encoded it already. Only used for serialization.
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final byte[] serializedEnvelopePayloadMessage;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile byte[] serialized;
 
     public NetworkEnvelope(AuthorizationToken authorizationToken, EnvelopePayloadMessage envelopePayloadMessage) {
         this(VERSION, authorizationToken, envelopePayloadMessage);
     }
 
+    public NetworkEnvelope(AuthorizationToken authorizationToken, EncodedEnvelopePayloadMessage encodedEnvelopePayloadMessage) {
+        this(VERSION,
+                authorizationToken,
+                encodedEnvelopePayloadMessage.getEnvelopePayloadMessage(),
+                encodedEnvelopePayloadMessage.getSerialized());
+    }
+
     public NetworkEnvelope(int version, AuthorizationToken authorizationToken, EnvelopePayloadMessage envelopePayloadMessage) {
+        this(version, authorizationToken, envelopePayloadMessage, null);
+    }
+
+    private NetworkEnvelope(int version,
+                            AuthorizationToken authorizationToken,
+                            EnvelopePayloadMessage envelopePayloadMessage,
+                            @Nullable byte[] serializedEnvelopePayloadMessage) {
         this.version = version;
         this.authorizationToken = authorizationToken;
         this.envelopePayloadMessage = envelopePayloadMessage;
+        this.serializedEnvelopePayloadMessage = serializedEnvelopePayloadMessage;
     }
 
     public bisq.network.protobuf.NetworkEnvelope toProto() {
@@ -57,6 +88,32 @@ public final class NetworkEnvelope implements Proto {
                 .build();
     }
 
+    /**
+     * @return The serialized NetworkEnvelope. Produces the same bytes as toProto().toByteArray(), but if the payload
+     * message was already encoded, its bytes are used instead of serializing it again.
+     */
+    public byte[] toByteArray() {
+        byte[] result = serialized;
+        if (result == null) {
+            result = serializedEnvelopePayloadMessage != null ? encode(serializedEnvelopePayloadMessage) : toProto().toByteArray();
+            serialized = result;
+        }
+        return result;
+    }
+
+    public int getSerializedSize() {
+        return toByteArray().length;
+    }
+
+    public void writeDelimitedTo(OutputStream outputStream) throws IOException {
+        byte[] bytes = toByteArray();
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(outputStream,
+                CodedOutputStream.computeUInt32SizeNoTag(bytes.length) + bytes.length);
+        codedOutputStream.writeUInt32NoTag(bytes.length);
+        codedOutputStream.writeRawBytes(bytes);
+        codedOutputStream.flush();
+    }
+
     public static NetworkEnvelope fromProto(bisq.network.protobuf.NetworkEnvelope proto) {
         return new NetworkEnvelope(proto.getVersion(),
                 AuthorizationToken.fromProto(proto.getAuthorizationToken()),
@@ -72,4 +129,25 @@ public final class NetworkEnvelope implements Proto {
         }
     }
 
-}
\ No newline at end of file
+    // Writes the fields in the same way as the generated protobuf code. Embedded messages are length delimited, so we
+    // can write the already serialized payload message as bytes.
+    private byte[] encode(byte[] serializedEnvelopePayloadMessage) {
+        byte[] serializedAuthorizationToken = authorizationToken.toProto().toByteArray();
+        int size = (version != 0 ? CodedOutputStream.computeSInt32Size(1, version) : 0) +
+                CodedOutputStream.computeByteArraySize(2, serializedAuthorizationToken) +
+                CodedOutputStream.computeByteArraySize(3, serializedEnvelopePayloadMessage);
+        byte[] result = new byte[size];
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(result);
+        try {
+            if (version != 0) {
+                codedOutputStream.writeSInt32(1, version);
+            }
+            codedOutputStream.writeByteArray(2, serializedAuthorizationToken);
+            codedOutputStream.writeByteArray(3, serializedEnvelopePayloadMessage);
+            codedOutputStream.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("Serializing NetworkEnvelope failed", e);
+        }
+        return result;
+    }
+}
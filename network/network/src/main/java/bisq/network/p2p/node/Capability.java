@@ -21,12 +21,15 @@ import bisq.common.proto.Proto;
 import bisq.common.util.ProtobufUtils;
 import bisq.network.common.TransportType;
 import bisq.network.common.Address;
+import com.google.common.base.Enums;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Getter
@@ -35,12 +38,28 @@ import java.util.stream.Collectors;
 public final class Capability implements Proto {
     private final Address address;
     private final List<TransportType> supportedTransportTypes;
+    // Features are not part of the Capability proto, as older versions re-serialize the messages containing the
+    // Capability for the proof of work check and would drop the unknown field. They are exchanged in the
+    // ConnectionHandshake messages instead, outside the proof of work payload. As peers learned from other sources
+    // (e.g. the peer exchange) have no features, we do not use them for equality.
+    @EqualsAndHashCode.Exclude
+    private final List<Feature> features;
 
     public Capability(Address address, List<TransportType> supportedTransportTypes) {
+        this(address, supportedTransportTypes, new ArrayList<>());
+    }
+
+    public Capability(Address address, List<TransportType> supportedTransportTypes, List<Feature> features) {
         this.address = address;
         this.supportedTransportTypes = supportedTransportTypes;
+        this.features = features;
         // We need to sort deterministically as the data is used in the proof of work check
         Collections.sort(this.supportedTransportTypes);
+        Collections.sort(this.features);
+    }
+
+    public boolean supports(Feature feature) {
+        return features.contains(feature);
     }
 
     public bisq.network.protobuf.Capability toProto() {
@@ -52,10 +71,25 @@ public final class Capability implements Proto {
                 .build();
     }
 
+    public List<String> featuresToProto() {
+        return features.stream()
+                .map(Enum::name)
+                .collect(Collectors.toList());
+    }
+
     public static Capability fromProto(bisq.network.protobuf.Capability proto) {
+        return fromProto(proto, new ArrayList<>());
+    }
+
+    public static Capability fromProto(bisq.network.protobuf.Capability proto, List<String> featuresProto) {
         List<TransportType> supportedTransportTypes = proto.getSupportedTransportTypesList().stream()
                 .map(e -> ProtobufUtils.enumFromProto(TransportType.class, e))
                 .collect(Collectors.toList());
-        return new Capability(Address.fromProto(proto.getAddress()), supportedTransportTypes);
+        // Features unknown to us (added in newer versions) are ignored
+        List<Feature> features = featuresProto.stream()
+                .map(e -> Enums.getIfPresent(Feature.class, e).orNull())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new Capability(Address.fromProto(proto.getAddress()), supportedTransportTypes, features);
     }
 }
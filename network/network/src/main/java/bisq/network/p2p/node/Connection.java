@@ -19,10 +19,12 @@ package bisq.network.p2p.node;
 
 import bisq.common.util.StringUtils;
 import bisq.network.NetworkService;
+import bisq.network.p2p.message.EncodedEnvelopePayloadMessage;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocket;
+import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadService;
 import bisq.network.common.Address;
@@ -33,7 +35,9 @@ import javax.annotation.Nullable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.net.Socket;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -54,6 +58,10 @@ public abstract class Connection {
         void handleNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage, AuthorizationToken authorizationToken, Connection connection);
 
         void handleConnectionClosed(Connection connection, CloseReason closeReason);
+
+        default SendQueue.Config getSendQueueConfig() {
+            return SendQueue.Config.DEFAULT;
+        }
     }
 
     public interface Listener {
@@ -71,13 +79,17 @@ public abstract class Connection {
     @Getter
     private final ConnectionMetrics connectionMetrics;
 
+    // Only one of networkEnvelopeSocket or networkEnvelopeSocketChannel is set, depending on the IO mode of the node.
+    @Nullable
     private NetworkEnvelopeSocket networkEnvelopeSocket;
+    @Nullable
+    private final NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel;
     private final Handler handler;
+    private final SendQueue sendQueue;
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     @Nullable
     private Future<?> inputHandlerFuture;
     private final AtomicInteger sentMessageCounter = new AtomicInteger(0);
-    private final Object writeLock = new Object();
     private volatile boolean isStopped;
     private volatile boolean listeningStopped;
 
@@ -91,6 +103,8 @@ public abstract class Connection {
         this.peersNetworkLoadService = peersNetworkLoadService;
         this.handler = handler;
         this.connectionMetrics = connectionMetrics;
+        this.networkEnvelopeSocketChannel = null;
+        sendQueue = createSendQueue();
 
         try {
             this.networkEnvelopeSocket = new NetworkEnvelopeSocket(socket);
@@ -112,15 +126,7 @@ public abstract class Connection {
                         long ts = System.currentTimeMillis();
                         NetworkEnvelope networkEnvelope = NetworkEnvelope.fromProto(proto);
                         long deserializeTime = System.currentTimeMillis() - ts;
-
-                        networkEnvelope.verifyVersion();
-                        EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
-                        log.debug("Received message: {} at: {}",
-                                StringUtils.truncate(envelopePayloadMessage.toString(), 200), this);
-                        connectionMetrics.onReceived(networkEnvelope, deserializeTime);
-                        NetworkService.DISPATCHER.submit(() -> handler.handleNetworkMessage(envelopePayloadMessage,
-                                networkEnvelope.getAuthorizationToken(),
-                                this));
+                        onNetworkEnvelope(networkEnvelope, deserializeTime);
                     }
                 }
             } catch (Exception exception) {
@@ -137,6 +143,23 @@ public abstract class Connection {
         });
     }
 
+    /**
+     * Used for connections in non-blocking IO mode. We do not start a read thread as reading is done by the selector
+     * thread which owns the channel and which passes the received envelopes to {@link #onNetworkEnvelopes}.
+     */
+    protected Connection(NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                         Capability peersCapability,
+                         NetworkLoadService peersNetworkLoadService,
+                         ConnectionMetrics connectionMetrics,
+                         Handler handler) {
+        this.peersCapability = peersCapability;
+        this.peersNetworkLoadService = peersNetworkLoadService;
+        this.handler = handler;
+        this.connectionMetrics = connectionMetrics;
+        this.networkEnvelopeSocketChannel = networkEnvelopeSocketChannel;
+        sendQueue = createSendQueue();
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////////
     // Public API
     ///////////////////////////////////////////////////////////////////////////////////////////////////
@@ -173,7 +196,7 @@ public abstract class Connection {
     @Override
     public String toString() {
         return "'" + getClass().getSimpleName() + " [peerAddress=" + getPeersCapability().getAddress() +
-                ", socket=" + networkEnvelopeSocket +
+                ", socket=" + (networkEnvelopeSocketChannel != null ? networkEnvelopeSocketChannel : networkEnvelopeSocket) +
                 ", keyId=" + getId() + "]'";
     }
 
@@ -183,45 +206,23 @@ public abstract class Connection {
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
     Connection send(EnvelopePayloadMessage envelopePayloadMessage, AuthorizationToken authorizationToken) {
-        if (isStopped) {
-            log.warn("Message not sent as connection has been shut down already. Message={}, Connection={}",
-                    StringUtils.truncate(envelopePayloadMessage.toString(), 200), this);
-            throw new ConnectionClosedException(this);
-        }
-        try {
-            NetworkEnvelope networkEnvelope = new NetworkEnvelope(authorizationToken, envelopePayloadMessage);
-            boolean sent = false;
-            long ts = System.currentTimeMillis();
-            synchronized (writeLock) {
-                try {
-                    networkEnvelopeSocket.send(networkEnvelope);
-                    sent = true;
-                } catch (Throwable throwable) {
-                    if (!isStopped) {
-                        throw throwable;
-                    }
-                }
-            }
-            if (sent) {
-                connectionMetrics.onSent(networkEnvelope, System.currentTimeMillis() - ts);
-                if (envelopePayloadMessage instanceof CloseConnectionMessage) {
-                    log.info("Sent {} from {}",
-                            StringUtils.truncate(envelopePayloadMessage.toString(), 300), this);
-                } else {
-                    log.debug("Sent {} from {}",
-                            StringUtils.truncate(envelopePayloadMessage.toString(), 300), this);
-                }
-            }
-            return this;
-        } catch (IOException exception) {
-            if (!isStopped) {
-                log.error("Call shutdown from send {} due exception={}", this, exception.toString());
-                close(CloseReason.EXCEPTION.exception(exception));
-            }
-            // We wrap any exception (also expected EOFException in case of connection close), to inform the caller 
-            // that the "send proto" intent failed.
-            throw new ConnectionException(exception);
-        }
+        return sendAsync(envelopePayloadMessage, authorizationToken).join();
+    }
+
+    /**
+     * Adds the message to the send queue and returns without waiting for the socket write.
+     * The returned future completes once the message has been written, or exceptionally with a ConnectionException
+     * if the message could not be sent (e.g. connection got closed or message got dropped at an overflow of the
+     * send queue).
+     */
+    CompletableFuture<Connection> sendAsync(EnvelopePayloadMessage envelopePayloadMessage,
+                                            AuthorizationToken authorizationToken) {
+        return sendAsync(new NetworkEnvelope(authorizationToken, envelopePayloadMessage));
+    }
+
+    CompletableFuture<Connection> sendAsync(EncodedEnvelopePayloadMessage encodedEnvelopePayloadMessage,
+                                            AuthorizationToken authorizationToken) {
+        return sendAsync(new NetworkEnvelope(authorizationToken, encodedEnvelopePayloadMessage));
     }
 
     void stopListening() {
@@ -238,17 +239,34 @@ public abstract class Connection {
         if (inputHandlerFuture != null) {
             inputHandlerFuture.cancel(true);
         }
+        sendQueue.close();
         try {
-            networkEnvelopeSocket.close();
+            if (networkEnvelopeSocketChannel != null) {
+                networkEnvelopeSocketChannel.close();
+            } else if (networkEnvelopeSocket != null) {
+                networkEnvelopeSocket.close();
+            }
         } catch (IOException ignore) {
         }
-        NetworkService.DISPATCHER.submit(() -> {
+        dispatch(() -> {
             handler.handleConnectionClosed(this, closeReason);
             listeners.forEach(listener -> listener.onConnectionClosed(closeReason));
             listeners.clear();
         });
     }
 
+    /**
+     * Called from the selector thread in non-blocking IO mode with the envelopes read from the channel.
+     */
+    void onNetworkEnvelopes(List<NetworkEnvelope> networkEnvelopes) {
+        for (NetworkEnvelope networkEnvelope : networkEnvelopes) {
+            if (!isInputStreamActive()) {
+                return;
+            }
+            onNetworkEnvelope(networkEnvelope, 0);
+        }
+    }
+
     void notifyListeners(EnvelopePayloadMessage envelopePayloadMessage) {
         listeners.forEach(listener -> listener.onNetworkMessage(envelopePayloadMessage));
     }
@@ -266,6 +284,77 @@ public abstract class Connection {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    private CompletableFuture<Connection> sendAsync(NetworkEnvelope networkEnvelope) {
+        EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
+        if (isStopped) {
+            log.warn("Message not sent as connection has been shut down already. Message={}, Connection={}",
+                    StringUtils.truncate(envelopePayloadMessage.toString(), 200), this);
+            return CompletableFuture.failedFuture(new ConnectionClosedException(this));
+        }
+        return sendQueue.enqueue(networkEnvelope)
+                .handle((nil, throwable) -> {
+                    if (throwable == null) {
+                        if (envelopePayloadMessage instanceof CloseConnectionMessage) {
+                            log.info("Sent {} from {}",
+                                    StringUtils.truncate(envelopePayloadMessage.toString(), 300), this);
+                        } else {
+                            log.debug("Sent {} from {}",
+                                    StringUtils.truncate(envelopePayloadMessage.toString(), 300), this);
+                        }
+                        return this;
+                    }
+
+                    Throwable cause = throwable.getCause();
+                    if (cause instanceof IOException && !isStopped) {
+                        log.error("Call shutdown from send {} due exception={}", this, cause.toString());
+                        close(CloseReason.EXCEPTION.exception(cause));
+                    }
+                    // We wrap any exception (also expected EOFException in case of connection close), to inform the caller
+                    // that the "send proto" intent failed.
+                    throw throwable instanceof ConnectionException ?
+                            (ConnectionException) throwable :
+                            new ConnectionException(throwable);
+                });
+    }
+
+    private void onNetworkEnvelope(NetworkEnvelope networkEnvelope, long deserializeTime) {
+        networkEnvelope.verifyVersion();
+        EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
+        log.debug("Received message: {} at: {}",
+                StringUtils.truncate(envelopePayloadMessage.toString(), 200), this);
+        connectionMetrics.onReceived(networkEnvelope, deserializeTime);
+        dispatch(() -> handler.handleNetworkMessage(envelopePayloadMessage,
+                networkEnvelope.getAuthorizationToken(),
+                this));
+    }
+
+    /**
+     * Runs the task on the dispatcher stripe of that connection, so events and messages of one connection are
+     * handled in order.
+     */
+    void dispatch(Runnable task) {
+        NetworkService.CONNECTION_DISPATCHER.execute(getId(), task);
+    }
+
+    private SendQueue createSendQueue() {
+        SendQueue.Config sendQueueConfig = handler.getSendQueueConfig();
+        return new SendQueue(sendQueueConfig != null ? sendQueueConfig : SendQueue.Config.DEFAULT,
+                this::write,
+                NetworkService.NETWORK_IO_POOL,
+                connectionMetrics,
+                () -> close(CloseReason.EXCEPTION.details("Send queue overflow")));
+    }
+
+    // Called only from the writer task of the send queue, which guarantees that there is only one writer at a time.
+    private CompletableFuture<Void> write(List<NetworkEnvelope> networkEnvelopes) throws IOException {
+        if (networkEnvelopeSocketChannel != null) {
+            return networkEnvelopeSocketChannel.send(networkEnvelopes);
+        } else {
+            checkNotNull(networkEnvelopeSocket, "networkEnvelopeSocket must not be null").send(networkEnvelopes);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
     private String getThreadNameId() {
         return StringUtils.truncate(getPeersCapability().getAddress().toString() + "-" + id.substring(0, 8));
     }
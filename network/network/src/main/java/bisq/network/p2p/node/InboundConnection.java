@@ -17,6 +17,7 @@
 
 package bisq.network.p2p.node;
 
+import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadService;
 import bisq.network.p2p.node.transport.ServerSocketResult;
@@ -24,11 +25,14 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.net.Socket;
 import java.util.function.BiConsumer;
 
 @Slf4j
 public class InboundConnection extends Connection {
+    // Not available for connections created by the ServerChannel in non-blocking IO mode
+    @Nullable
     @Getter
     private final ServerSocketResult serverSocketResult;
 
@@ -47,6 +51,15 @@ public class InboundConnection extends Connection {
         log.debug("Create inboundConnection from server: {}", serverSocketResult);
     }
 
+    protected InboundConnection(NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                                Capability peersCapability,
+                                NetworkLoadService peersNetworkLoadService,
+                                ConnectionMetrics connectionMetrics,
+                                Handler handler) {
+        super(networkEnvelopeSocketChannel, peersCapability, peersNetworkLoadService, connectionMetrics, handler);
+        this.serverSocketResult = null;
+    }
+
     @Override
     public boolean isPeerAddressVerified() {
         return isPeerAddressVerified;
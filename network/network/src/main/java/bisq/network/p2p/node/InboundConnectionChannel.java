@@ -20,24 +20,24 @@ package bisq.network.p2p.node;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadService;
-import lombok.Setter;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * InboundConnection used in non-blocking IO mode. Reading is done by the selector thread of the ServerChannel.
+ */
 @Slf4j
-public class InboundConnectionChannel extends ConnectionChannel {
-    @Setter
-    private boolean isPeerAddressVerified;
+public class InboundConnectionChannel extends InboundConnection {
+    @Getter
+    private final NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel;
 
     public InboundConnectionChannel(Capability peersCapability,
                                     NetworkLoadService peersNetworkLoadService,
                                     NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
-                                    ConnectionMetrics connectionMetrics) {
-        super(peersCapability, peersNetworkLoadService, networkEnvelopeSocketChannel, connectionMetrics);
+                                    ConnectionMetrics connectionMetrics,
+                                    Handler handler) {
+        super(networkEnvelopeSocketChannel, peersCapability, peersNetworkLoadService, connectionMetrics, handler);
+        this.networkEnvelopeSocketChannel = networkEnvelopeSocketChannel;
         log.debug("Create inboundConnection");
     }
-
-    @Override
-    public boolean isPeerAddressVerified() {
-        return isPeerAddressVerified;
-    }
 }
@@ -18,6 +18,8 @@
 package bisq.network.p2p.node;
 
 import bisq.common.data.Pair;
+import bisq.common.threading.ExecutorFactory;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
@@ -31,14 +33,22 @@ import bisq.network.common.Address;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.net.SocketTimeoutException;
 import java.nio.channels.*;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 
+/**
+ * Handles accepting, handshake and reading of inbound connections in non-blocking IO mode.
+ * All methods except the getters are expected to be called from the selector thread of the ServerChannel.
+ * The handshake includes the PoW verification and minting, so it runs on the handshake executor. Reading from the
+ * channel is paused meanwhile.
+ */
 @Slf4j
 public class InboundConnectionsManager {
 
@@ -46,20 +56,22 @@ public class InboundConnectionsManager {
     private final Capability myCapability;
     private final NetworkLoad myNetworkLoad;
     private final AuthorizationService authorizationService;
+    private final int socketTimeout;
 
     private final ServerSocketChannel serverSocketChannel;
     private final Selector selector;
     private final Node node;
-    private final List<SocketChannel> inboundHandshakeChannels = new CopyOnWriteArrayList<>();
-    private final List<SocketChannel> verifiedConnections = new CopyOnWriteArrayList<>();
+    private final Set<SocketChannel> inboundHandshakeChannels = ConcurrentHashMap.newKeySet();
     private final Map<SocketChannel, InboundConnectionChannel> connectionByChannel = new ConcurrentHashMap<>();
     private final Map<Address, InboundConnectionChannel> connectionByAddress = new ConcurrentHashMap<>();
     private final Map<SocketChannel, NetworkEnvelopeSocketChannel> networkEnvelopeChannelBySocketChannel = new ConcurrentHashMap<>();
+    private final ExecutorService handshakeExecutor = ExecutorFactory.newFixedThreadPool("InboundConnectionsManager.handshake");
 
     public InboundConnectionsManager(BanList banList,
                                      Capability myCapability,
                                      NetworkLoad myNetworkLoad,
                                      AuthorizationService authorizationService,
+                                     int socketTimeout,
                                      ServerSocketChannel serverSocketChannel,
                                      Selector selector,
                                      Node node) {
@@ -67,6 +79,7 @@ public class InboundConnectionsManager {
         this.myCapability = myCapability;
         this.myNetworkLoad = myNetworkLoad;
         this.authorizationService = authorizationService;
+        this.socketTimeout = socketTimeout;
         this.serverSocketChannel = serverSocketChannel;
         this.selector = selector;
         this.node = node;
@@ -88,11 +101,18 @@ public class InboundConnectionsManager {
         try {
             ServerSocketChannel nextReadySocketChannel = (ServerSocketChannel) selectionKey.channel();
             newConnectionSocketChannel = nextReadySocketChannel.accept();
+            if (newConnectionSocketChannel == null) {
+                // Another accept call has taken the pending connection already.
+                return;
+            }
             log.info("Accepted new inbound connection with peer: {}", newConnectionSocketChannel.getRemoteAddress());
 
             newConnectionSocketChannel.configureBlocking(false);
-            newConnectionSocketChannel.register(selector, SelectionKey.OP_READ);
+            SelectionKey newSelectionKey = newConnectionSocketChannel.register(selector, SelectionKey.OP_READ);
 
+            NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = new NetworkEnvelopeSocketChannel(newConnectionSocketChannel);
+            networkEnvelopeSocketChannel.setSelectionKey(newSelectionKey);
+            networkEnvelopeChannelBySocketChannel.put(newConnectionSocketChannel, networkEnvelopeSocketChannel);
             inboundHandshakeChannels.add(newConnectionSocketChannel);
         } catch (IOException e) {
             log.warn("Cannot accept new connection", e);
@@ -107,59 +127,79 @@ public class InboundConnectionsManager {
     }
 
     public void handleInboundConnection(SocketChannel socketChannel) {
+        NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = networkEnvelopeChannelBySocketChannel.get(socketChannel);
+        if (networkEnvelopeSocketChannel == null) {
+            return;
+        }
+
         if (inboundHandshakeChannels.contains(socketChannel)) {
-            NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = new NetworkEnvelopeSocketChannel(socketChannel);
-            networkEnvelopeChannelBySocketChannel.put(socketChannel, networkEnvelopeSocketChannel);
+            List<NetworkEnvelope> requestEnvelopes;
+            try {
+                requestEnvelopes = networkEnvelopeSocketChannel.receiveNetworkEnvelopes();
+            } catch (Exception e) {
+                log.warn("Couldn't receive handshake request from socketChannel", e);
+                removeHandshakeChannel(socketChannel);
+                closeChannel(networkEnvelopeSocketChannel);
+                return;
+            }
 
-            log.debug("Inbound handshake request at: {}", myCapability.getAddress());
-            Optional<InboundConnectionChannel> inboundConnectionOptional = performHandshake(networkEnvelopeSocketChannel);
-
-            if (inboundConnectionOptional.isPresent()) {
-                InboundConnectionChannel inboundConnection = inboundConnectionOptional.get();
-                Address peerAddress = inboundConnection.getPeerAddress();
-                log.debug("Inbound handshake completed: Initiated by {} to {}",
-                        peerAddress, myCapability.getAddress());
-
-                if (isAlreadyConnectedToPeer(peerAddress)) {
-                    log.warn("Node {} have already an InboundConnection from {}. This can happen when a " + "handshake was in progress while we received a new connection from that address. " + "We will close the socket of that new connection and use the existing instead.", this, peerAddress);
-                    closeChannel(networkEnvelopeSocketChannel);
-                } else {
-                    connectionByChannel.put(socketChannel, inboundConnection);
-                    connectionByAddress.put(peerAddress, inboundConnection);
-                    verifiedConnections.add(socketChannel);
-
-                    log.info("Calling node.onNewIncomingConnection for peer {}", peerAddress.getFullAddress());
-                    node.onNewIncomingConnection(inboundConnection);
+            if (requestEnvelopes.isEmpty()) {
+                if (!socketChannel.isOpen()) {
+                    // Peer closed the channel before completing the handshake
+                    removeHandshakeChannel(socketChannel);
                 }
-
-            } else {
-                closeChannel(networkEnvelopeSocketChannel);
+                // Otherwise we have received only a part of the request and wait for the remaining data
+                return;
             }
 
             inboundHandshakeChannels.remove(socketChannel);
-
-        } else if (verifiedConnections.contains(socketChannel)) {
+            log.debug("Inbound handshake request at: {}", myCapability.getAddress());
+            // We do not read until the handshake is completed, so that no message gets processed before the
+            // connection has been created.
+            networkEnvelopeSocketChannel.setReadInterest(false);
+            handshakeExecutor.execute(() -> completeHandshake(socketChannel, networkEnvelopeSocketChannel, requestEnvelopes));
+        } else {
             InboundConnectionChannel inboundConnection = connectionByChannel.get(socketChannel);
+            if (inboundConnection == null) {
+                return;
+            }
             Address peerAddress = inboundConnection.getPeerAddress();
-
-            NetworkEnvelopeSocketChannel networkEnvelopeChannel = networkEnvelopeChannelBySocketChannel.get(socketChannel);
             try {
-                List<NetworkEnvelope> networkEnvelopes = networkEnvelopeChannel.receiveNetworkEnvelopes();
+                List<NetworkEnvelope> networkEnvelopes = networkEnvelopeSocketChannel.receiveNetworkEnvelopes();
                 log.debug("Received {} messages from peer {}.", networkEnvelopes.size(), peerAddress.getFullAddress());
+                inboundConnection.onNetworkEnvelopes(networkEnvelopes);
 
-                networkEnvelopes.forEach(networkEnvelope -> node.handleNetworkMessage(
-                        networkEnvelope.getEnvelopePayloadMessage(),
-                        networkEnvelope.getAuthorizationToken(),
-                        inboundConnection
-                ));
-            } catch (IOException e) {
-                log.error("Couldn't receive messages from socketChannel", e);
+                if (!socketChannel.isOpen()) {
+                    // End of stream. Peer has closed the connection.
+                    inboundConnection.close(CloseReason.EXCEPTION.details("Peer closed the channel"));
+                }
+            } catch (Exception e) {
+                log.debug("Couldn't receive messages from socketChannel", e);
+                inboundConnection.close(CloseReason.EXCEPTION.exception(e));
+            }
+        }
+    }
+
+    public void handleWritableChannel(SocketChannel socketChannel) {
+        NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = networkEnvelopeChannelBySocketChannel.get(socketChannel);
+        if (networkEnvelopeSocketChannel == null) {
+            return;
+        }
+        try {
+            networkEnvelopeSocketChannel.flushPendingWrites();
+        } catch (IOException e) {
+            log.debug("Couldn't write pending data to socketChannel", e);
+            InboundConnectionChannel inboundConnection = connectionByChannel.get(socketChannel);
+            if (inboundConnection != null) {
+                inboundConnection.close(CloseReason.EXCEPTION.exception(e));
+            } else {
+                closeChannel(networkEnvelopeSocketChannel);
             }
         }
     }
 
     public boolean isInboundConnection(SocketChannel socketChannel) {
-        return inboundHandshakeChannels.contains(socketChannel) || verifiedConnections.contains(socketChannel);
+        return networkEnvelopeChannelBySocketChannel.containsKey(socketChannel);
     }
 
     public Optional<InboundConnectionChannel> getConnectionByAddress(Address address) {
@@ -171,7 +211,82 @@ public class InboundConnectionsManager {
         return connectionByAddress.values();
     }
 
-    private Optional<InboundConnectionChannel> performHandshake(NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel) {
+    /**
+     * Closes the channels which did not receive any data within the socket timeout. For channels in the handshake this
+     * is the time since the connection got accepted. This matches the socket timeout used in blocking IO mode.
+     */
+    public void closeTimedOutChannels() {
+        long now = System.currentTimeMillis();
+        networkEnvelopeChannelBySocketChannel.forEach((socketChannel, networkEnvelopeSocketChannel) -> {
+            long idleTime = now - networkEnvelopeSocketChannel.getLastReadTime();
+            if (idleTime <= socketTimeout) {
+                return;
+            }
+            InboundConnectionChannel inboundConnection = connectionByChannel.get(socketChannel);
+            if (inboundConnection != null) {
+                log.info("Closing inbound connection to {} as we did not receive data for {} ms",
+                        inboundConnection.getPeerAddress().getFullAddress(), idleTime);
+                inboundConnection.close(CloseReason.EXCEPTION.exception(new SocketTimeoutException("Read timed out")));
+            } else {
+                log.info("Closing inbound channel as the handshake did not complete within {} ms", idleTime);
+                removeHandshakeChannel(socketChannel);
+                closeChannel(networkEnvelopeSocketChannel);
+            }
+        });
+    }
+
+    public void shutdown() {
+        ExecutorFactory.shutdownAndAwaitTermination(handshakeExecutor);
+        inboundHandshakeChannels.forEach(socketChannel -> {
+            try {
+                socketChannel.close();
+            } catch (IOException ignore) {
+            }
+        });
+        inboundHandshakeChannels.clear();
+    }
+
+    private void completeHandshake(SocketChannel socketChannel,
+                                   NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                                   List<NetworkEnvelope> requestEnvelopes) {
+        Optional<InboundConnectionChannel> inboundConnectionOptional = performHandshake(networkEnvelopeSocketChannel, requestEnvelopes);
+
+        if (inboundConnectionOptional.isPresent()) {
+            InboundConnectionChannel inboundConnection = inboundConnectionOptional.get();
+            Address peerAddress = inboundConnection.getPeerAddress();
+            log.debug("Inbound handshake completed: Initiated by {} to {}",
+                    peerAddress, myCapability.getAddress());
+
+            // Handshakes run in parallel, so we must check and add the connection atomically.
+            if (connectionByAddress.putIfAbsent(peerAddress, inboundConnection) != null) {
+                log.warn("Node {} have already an InboundConnection from {}. This can happen when a " + "handshake was in progress while we received a new connection from that address. " + "We will close the socket of that new connection and use the existing instead.", this, peerAddress);
+                networkEnvelopeChannelBySocketChannel.remove(socketChannel);
+                closeChannel(networkEnvelopeSocketChannel);
+            } else {
+                connectionByChannel.put(socketChannel, inboundConnection);
+                inboundConnection.addListener(new Connection.Listener() {
+                    @Override
+                    public void onNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage) {
+                    }
+
+                    @Override
+                    public void onConnectionClosed(CloseReason closeReason) {
+                        removeConnection(socketChannel, inboundConnection);
+                    }
+                });
+
+                log.info("Calling node.onNewIncomingConnection for peer {}", peerAddress.getFullAddress());
+                node.onNewIncomingConnection(inboundConnection);
+                networkEnvelopeSocketChannel.setReadInterest(true);
+            }
+        } else {
+            networkEnvelopeChannelBySocketChannel.remove(socketChannel);
+            closeChannel(networkEnvelopeSocketChannel);
+        }
+    }
+
+    private Optional<InboundConnectionChannel> performHandshake(NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                                                                List<NetworkEnvelope> requestEnvelopes) {
         try {
             var handshakeResponder = new ConnectionHandshakeResponder(
                     banList,
@@ -181,15 +296,19 @@ public class InboundConnectionsManager {
                     networkEnvelopeSocketChannel
             );
             Pair<ConnectionHandshake.Request, NetworkEnvelope>
-                    requestAndResponseNetworkEnvelopes = handshakeResponder.verifyAndBuildRespond();
+                    requestAndResponseNetworkEnvelopes = handshakeResponder.verifyAndBuildRespond(requestEnvelopes);
 
             ConnectionHandshake.Request handshakeRequest = requestAndResponseNetworkEnvelopes.getFirst();
             Address peerAddress = handshakeRequest.getCapability().getAddress();
 
             log.debug("Sending PoW response to peer {}", peerAddress.getFullAddress());
-            bisq.network.p2p.message.NetworkEnvelope responseEnvelope = requestAndResponseNetworkEnvelopes.getSecond();
+            NetworkEnvelope responseEnvelope = requestAndResponseNetworkEnvelopes.getSecond();
+            ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+            connectionMetrics.onReceived(requestEnvelopes.get(0), 0);
             try {
+                long ts = System.currentTimeMillis();
                 networkEnvelopeSocketChannel.send(responseEnvelope);
+                connectionMetrics.onSent(responseEnvelope, System.currentTimeMillis() - ts);
             } catch (IOException e) {
                 log.warn("Couldn't send PoW response to peer {}", peerAddress.getFullAddress(), e);
                 throw e;
@@ -202,7 +321,8 @@ public class InboundConnectionsManager {
                             handshakeRequest.getCapability(),
                             peersNetworkLoadService,
                             networkEnvelopeSocketChannel,
-                            new ConnectionMetrics()
+                            connectionMetrics,
+                            node
                     )
             );
         } catch (ConnectionException e) {
@@ -214,8 +334,15 @@ public class InboundConnectionsManager {
         return Optional.empty();
     }
 
-    private boolean isAlreadyConnectedToPeer(Address peerAddress) {
-        return connectionByAddress.containsKey(peerAddress);
+    private void removeHandshakeChannel(SocketChannel socketChannel) {
+        inboundHandshakeChannels.remove(socketChannel);
+        networkEnvelopeChannelBySocketChannel.remove(socketChannel);
+    }
+
+    private void removeConnection(SocketChannel socketChannel, InboundConnectionChannel inboundConnection) {
+        networkEnvelopeChannelBySocketChannel.remove(socketChannel);
+        connectionByChannel.remove(socketChannel);
+        connectionByAddress.remove(inboundConnection.getPeerAddress(), inboundConnection);
     }
 
     private void closeChannel(NetworkEnvelopeSocketChannel networkEnvelopeSocket) {
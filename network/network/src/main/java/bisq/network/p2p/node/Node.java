@@ -24,6 +24,7 @@ import bisq.common.util.NetworkUtils;
 import bisq.common.util.StringUtils;
 import bisq.network.NetworkService;
 import bisq.network.common.TransportConfig;
+import bisq.network.p2p.message.EncodedEnvelopePayloadMessage;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
@@ -49,6 +50,7 @@ import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -58,7 +60,6 @@ import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
-import static bisq.network.NetworkService.DISPATCHER;
 import static bisq.network.p2p.node.Node.State.*;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.concurrent.CompletableFuture.runAsync;
@@ -87,6 +88,11 @@ public class Node implements Connection.Handler {
         TERMINATED
     }
 
+    /**
+     * onMessage, onConnection and onDisconnect are called on the NetworkService.CONNECTION_DISPATCHER stripe of the
+     * connection. So the calls for one connection are in order, but calls for different connections can happen
+     * concurrently and implementations must be thread safe.
+     */
     public interface Listener {
         void onMessage(EnvelopePayloadMessage envelopePayloadMessage, Connection connection, String nodeId);
 
@@ -109,17 +115,32 @@ public class Node implements Connection.Handler {
         private final AuthorizationService authorizationService;
         private final TransportConfig transportConfig;
         private final int socketTimeout;
+        private final boolean nonBlockingIo;
+        private final SendQueue.Config sendQueueConfig;
 
         public Config(TransportType transportType,
                       Set<TransportType> supportedTransportTypes,
                       AuthorizationService authorizationService,
                       TransportConfig transportConfig,
                       int socketTimeout) {
+            this(transportType, supportedTransportTypes, authorizationService, transportConfig, socketTimeout, false,
+                    SendQueue.Config.DEFAULT);
+        }
+
+        public Config(TransportType transportType,
+                      Set<TransportType> supportedTransportTypes,
+                      AuthorizationService authorizationService,
+                      TransportConfig transportConfig,
+                      int socketTimeout,
+                      boolean nonBlockingIo,
+                      SendQueue.Config sendQueueConfig) {
             this.transportType = transportType;
             this.supportedTransportTypes = supportedTransportTypes;
             this.authorizationService = authorizationService;
             this.transportConfig = transportConfig;
             this.socketTimeout = socketTimeout;
+            this.nonBlockingIo = nonBlockingIo;
+            this.sendQueueConfig = sendQueueConfig;
         }
     }
 
@@ -139,6 +160,8 @@ public class Node implements Connection.Handler {
     private final Map<String, ConnectionHandshake> connectionHandshakes = new ConcurrentHashMap<>();
     private final RetryPolicy<Boolean> retryPolicy;
     private Optional<Server> server = Optional.empty();
+    // Only used in non-blocking IO mode
+    private Optional<PeerConnectionsManager> peerConnectionsManager = Optional.empty();
     private Optional<Capability> myCapability = Optional.empty();
     @Getter
     public final AtomicReference<State> state = new AtomicReference<>(State.NEW);
@@ -209,7 +232,22 @@ public class Node implements Connection.Handler {
 
     private void createServerAndListen(int port) {
         ServerSocketResult serverSocketResult = transportService.getServerSocket(port, nodeId);
-        myCapability = Optional.of(new Capability(serverSocketResult.getAddress(), new ArrayList<>(config.getSupportedTransportTypes())));
+        myCapability = Optional.of(new Capability(serverSocketResult.getAddress(),
+                new ArrayList<>(config.getSupportedTransportTypes()),
+                new ArrayList<>(List.of(Feature.values()))));
+        if (config.isNonBlockingIo()) {
+            if (serverSocketResult.getServerSocket().getChannel() != null) {
+                PeerConnectionsManager manager = new PeerConnectionsManager(config,
+                        banList,
+                        networkLoadService.getCurrentNetworkLoad(),
+                        authorizationService);
+                peerConnectionsManager = Optional.of(manager);
+                manager.start(this, serverSocketResult, myCapability.get());
+                return;
+            } else {
+                log.warn("Non-blocking IO is not supported by transport {}. We use blocking sockets instead.", transportType);
+            }
+        }
         server = Optional.of(new Server(serverSocketResult,
                 socket -> onClientSocket(socket, serverSocketResult, myCapability.get()),
                 exception -> {
@@ -252,7 +290,7 @@ public class Node implements Connection.Handler {
                     this,
                     this::handleException);
             inboundConnectionsByAddress.put(connection.getPeerAddress(), connection);
-            DISPATCHER.submit(() -> listeners.forEach(listener -> listener.onConnection(connection)));
+            connection.dispatch(() -> listeners.forEach(listener -> listener.onConnection(connection)));
         } catch (Throwable throwable) {
             connectionHandshake.shutdown();
             connectionHandshakes.remove(connectionHandshake.getId());
@@ -265,18 +303,17 @@ public class Node implements Connection.Handler {
         }
     }
 
+    // Called from the selector thread of the ServerChannel once the handshake has been completed
     public void onNewIncomingConnection(InboundConnectionChannel inboundConnectionChannel) {
-        try {
-            // inboundConnectionsByAddress.put(inboundConnectionChannel.getPeerAddress(), inboundConnectionChannel);
-            // DISPATCHER.submit(() -> listeners.forEach(listener -> listener.onConnection(inboundConnectionChannel)));
-        } catch (Throwable throwable) {
-            try {
-                inboundConnectionChannel.getNetworkEnvelopeSocketChannel().close();
-            } catch (IOException ignore) {
-            }
-
-            handleException(throwable);
+        Address address = inboundConnectionChannel.getPeerAddress();
+        if (inboundConnectionsByAddress.containsKey(address)) {
+            log.warn("Node {} have already an InboundConnection from {}. This can happen when a " + "handshake was in progress while we received a new connection from that address. " + "We will close the socket of that new connection and use the existing instead.", this, address);
+            inboundConnectionChannel.close(CloseReason.DUPLICATE_CONNECTION);
+            return;
         }
+
+        inboundConnectionsByAddress.put(address, inboundConnectionChannel);
+        inboundConnectionChannel.dispatch(() -> listeners.forEach(listener -> listener.onConnection(inboundConnectionChannel)));
     }
 
 
@@ -290,25 +327,54 @@ public class Node implements Connection.Handler {
     }
 
     public Connection send(EnvelopePayloadMessage envelopePayloadMessage, Connection connection) {
+        return sendAsync(envelopePayloadMessage, connection).join();
+    }
+
+    /**
+     * Enqueues the message at the send queue of the connection. The returned future completes once the message has
+     * been written or completes exceptionally with a ConnectionClosedException if it could not be sent.
+     */
+    public CompletableFuture<Connection> sendAsync(EnvelopePayloadMessage envelopePayloadMessage, Connection connection) {
+        if (connection.isStopped()) {
+            return CompletableFuture.failedFuture(new ConnectionClosedException(connection));
+        }
+        try {
+            return sendAsync(new EncodedEnvelopePayloadMessage(envelopePayloadMessage), connection);
+        } catch (Throwable throwable) {
+            handleSendException(connection, throwable);
+            return CompletableFuture.failedFuture(new ConnectionClosedException(connection));
+        }
+    }
+
+    /**
+     * Used if the same message is sent to multiple peers. The message is serialized only once by the caller and only
+     * the AuthorizationToken is serialized per connection.
+     */
+    public CompletableFuture<Connection> sendAsync(EncodedEnvelopePayloadMessage encodedEnvelopePayloadMessage,
+                                                   Connection connection) {
         if (connection.isStopped()) {
-            throw new ConnectionClosedException(connection);
+            return CompletableFuture.failedFuture(new ConnectionClosedException(connection));
         }
         try {
-            AuthorizationToken token = authorizationService.createToken(envelopePayloadMessage,
+            AuthorizationToken token = authorizationService.createToken(encodedEnvelopePayloadMessage,
                     connection.getPeersNetworkLoadService().getCurrentNetworkLoad(),
                     connection.getPeerAddress().getFullAddress(),
                     connection.getSentMessageCounter().incrementAndGet());
-            return connection.send(envelopePayloadMessage, token);
+            return connection.sendAsync(encodedEnvelopePayloadMessage, token)
+                    .exceptionally(throwable -> {
+                        if (throwable instanceof SendQueueOverflowException) {
+                            // The message got dropped, but the connection is still usable
+                            throw (SendQueueOverflowException) throwable;
+                        }
+                        handleSendException(connection, throwable);
+                        throw new ConnectionClosedException(connection);
+                    });
         } catch (Throwable throwable) {
-            if (connection.isRunning()) {
-                handleException(connection, throwable);
-                closeConnection(connection, CloseReason.EXCEPTION.exception(throwable));
-            }
-            throw new ConnectionClosedException(connection);
+            handleSendException(connection, throwable);
+            return CompletableFuture.failedFuture(new ConnectionClosedException(connection));
         }
     }
 
-
     ///////////////////////////////////////////////////////////////////////////////////////////////////
     // Connection
     ///////////////////////////////////////////////////////////////////////////////////////////////////
@@ -348,6 +414,9 @@ public class Node implements Connection.Handler {
         if (banList.isBanned(address)) {
             throw new ConnectionException("Create outbound connection failed. PeerAddress is banned. address=" + address);
         }
+        if (peerConnectionsManager.isPresent()) {
+            return createOutboundConnectionChannel(address, peerConnectionsManager.get());
+        }
         Socket socket;
         try {
             socket = transportService.getSocket(address); // Blocking call
@@ -399,7 +468,7 @@ public class Node implements Connection.Handler {
                     this,
                     this::handleException);
             outboundConnectionsByAddress.put(address, connection);
-            DISPATCHER.submit(() -> listeners.forEach(listener -> listener.onConnection(connection)));
+            connection.dispatch(() -> listeners.forEach(listener -> listener.onConnection(connection)));
             return connection;
         } catch (Throwable throwable) {
             connectionHandshake.shutdown();
@@ -414,6 +483,29 @@ public class Node implements Connection.Handler {
         }
     }
 
+    private Connection createOutboundConnectionChannel(Address address, PeerConnectionsManager peerConnectionsManager) {
+        log.debug("Outbound handshake started: Initiated by {} to {}", findMyAddress().orElse(null), address);
+        OutboundConnectionChannel connection;
+        try {
+            connection = peerConnectionsManager.createOutboundConnection(address); // Blocking call
+        } catch (ConnectionException e) {
+            handleException(e);
+            throw e;
+        }
+
+        // As time passed we check again if connection is still not available
+        OutboundConnection existing = outboundConnectionsByAddress.putIfAbsent(address, connection);
+        if (existing != null) {
+            if (existing != connection) {
+                log.warn("Node {} has already an OutboundConnection to {}. We close the new connection and use the existing instead.", this, address);
+                connection.close(CloseReason.DUPLICATE_CONNECTION);
+            }
+            return existing;
+        }
+        connection.dispatch(() -> listeners.forEach(listener -> listener.onConnection(connection)));
+        return connection;
+    }
+
     public Stream<Connection> getAllConnections() {
         return Stream.concat(inboundConnectionsByAddress.values().stream(), outboundConnectionsByAddress.values().stream());
     }
@@ -451,46 +543,19 @@ public class Node implements Connection.Handler {
         }
     }
 
-    public void handleNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage, AuthorizationToken authorizationToken, ConnectionChannel connection) {
-        if (isShutdown()) {
-            return;
-        }
-        String myAddress = findMyAddress().orElseThrow().getFullAddress();
-        boolean isAuthorized = authorizationService.isAuthorized(envelopePayloadMessage,
-                authorizationToken,
-                networkLoadService.getCurrentNetworkLoad(),
-                networkLoadService.getPreviousNetworkLoad(),
-                connection.getId(),
-                myAddress);
-        if (isAuthorized) {
-            if (envelopePayloadMessage instanceof CloseConnectionMessage) {
-                CloseConnectionMessage closeConnectionMessage = (CloseConnectionMessage) envelopePayloadMessage;
-                log.debug("Node {} received CloseConnectionMessage from {} with reason: {}", this, connection.getPeerAddress(), closeConnectionMessage.getCloseReason());
-                // closeConnection(connection, CloseReason.CLOSE_MSG_RECEIVED.details(closeConnectionMessage.getCloseReason().name()));
-            } else {
-                // We got called from Connection on the dispatcher thread, so no mapping needed here.
-                connection.notifyListeners(envelopePayloadMessage);
-                // listeners.forEach(listener -> listener.onMessage(networkMessage, connection, nodeId));
-            }
-        } else {
-            //todo handle
-            log.warn("Message authorization failed. authorizedMessage={}", StringUtils.truncate(envelopePayloadMessage.toString()));
-        }
-    }
-
-
     @Override
     public void handleConnectionClosed(Connection connection, CloseReason closeReason) {
         Address peerAddress = connection.getPeerAddress();
         log.debug("Node {} got called onConnectionClosed. connection={}, peerAddress={}", this, connection, peerAddress);
+        authorizationService.removeReplayWindow(connection.getId());
         boolean wasRemoved = false;
         if (connection instanceof InboundConnection) {
-            wasRemoved = inboundConnectionsByAddress.remove(peerAddress) != null;
+            wasRemoved = inboundConnectionsByAddress.remove(peerAddress, connection);
             if (!wasRemoved) {
                 log.debug("Node {} did not had entry in inboundConnections at onConnectionClosed. " + "This can happen if different threads triggered a close. connection={}, peerAddress={}", this, connection, peerAddress);
             }
         } else if (connection instanceof OutboundConnection) {
-            wasRemoved = outboundConnectionsByAddress.remove(peerAddress) != null;
+            wasRemoved = outboundConnectionsByAddress.remove(peerAddress, connection);
             if (!wasRemoved) {
                 log.debug("Node {} did not had entry in outboundConnections at onConnectionClosed. " + "This can happen if different threads triggered a close. connection={}, peerAddress={}", this, connection, peerAddress);
             }
@@ -500,6 +565,11 @@ public class Node implements Connection.Handler {
         }
     }
 
+    @Override
+    public SendQueue.Config getSendQueueConfig() {
+        return config.getSendQueueConfig();
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////////
     // Close
     ///////////////////////////////////////////////////////////////////////////////////////////////////
@@ -533,6 +603,7 @@ public class Node implements Connection.Handler {
         setState(State.STOPPING);
 
         server.ifPresent(Server::shutdown);
+        peerConnectionsManager.ifPresent(PeerConnectionsManager::shutdown);
         connectionHandshakes.values().forEach(ConnectionHandshake::shutdown);
         Stream<CompletableFuture<Void>> futures = getAllConnections()
                 .map(connection -> closeConnectionGracefullyAsync(connection, CloseReason.SHUTDOWN));
@@ -564,7 +635,8 @@ public class Node implements Connection.Handler {
     }
 
     public Optional<Address> findMyAddress() {
-        return server.map(Server::getAddress);
+        return server.map(Server::getAddress)
+                .or(() -> peerConnectionsManager.flatMap(PeerConnectionsManager::findMyAddress));
     }
 
     public int getNumConnections() {
@@ -589,6 +661,13 @@ public class Node implements Connection.Handler {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    private void handleSendException(Connection connection, Throwable throwable) {
+        if (connection.isRunning()) {
+            handleException(connection, throwable);
+            closeConnection(connection, CloseReason.EXCEPTION.exception(throwable));
+        }
+    }
+
     private void handleException(Connection connection, Throwable exception) {
         log.warn("Node {} got called handleException. connection={}, exception={}", this, connection, exception.getMessage());
         if (isShutdown()) {
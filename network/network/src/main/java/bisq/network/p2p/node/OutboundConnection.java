@@ -17,6 +17,7 @@
 
 package bisq.network.p2p.node;
 
+import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadService;
 import bisq.network.common.Address;
@@ -45,6 +46,18 @@ public class OutboundConnection extends Connection {
         log.debug("Create outboundConnection to {}", address);
     }
 
+    protected OutboundConnection(NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                                 Address address,
+                                 Capability peersCapability,
+                                 NetworkLoadService peersNetworkLoadService,
+                                 ConnectionMetrics connectionMetrics,
+                                 Handler handler) {
+        super(networkEnvelopeSocketChannel, peersCapability, peersNetworkLoadService, connectionMetrics, handler);
+
+        this.address = address;
+        log.debug("Create outboundConnection to {}", address);
+    }
+
     @Override
     public boolean isPeerAddressVerified() {
         return true;
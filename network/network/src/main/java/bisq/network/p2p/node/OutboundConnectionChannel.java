@@ -17,40 +17,29 @@
 
 package bisq.network.p2p.node;
 
+import bisq.network.common.Address;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadService;
-import bisq.network.common.Address;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * OutboundConnection used in non-blocking IO mode. Reading is done by the selector thread of the
+ * OutboundConnectionMultiplexer.
+ */
 @Slf4j
-public class OutboundConnectionChannel extends ConnectionChannel {
-
+public class OutboundConnectionChannel extends OutboundConnection {
     @Getter
-    private final Address address;
+    private final NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel;
 
-    public OutboundConnectionChannel(Capability peersCapability,
+    public OutboundConnectionChannel(Address address,
+                                     Capability peersCapability,
                                      NetworkLoadService peersNetworkLoadService,
                                      NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
-                                     ConnectionMetrics connectionMetrics) {
-        super(peersCapability, peersNetworkLoadService, networkEnvelopeSocketChannel, connectionMetrics);
-
-        this.address = peersCapability.getAddress();
-        log.debug("Create outboundConnection to {}", this.address);
-    }
-
-    @Override
-    public boolean isPeerAddressVerified() {
-        return true;
-    }
-
-    /**
-     * @return Peer address used when connecting to the peer, NOT the address reported by the peer. This matters when
-     * connecting to a clearnet seed, because the reported seed address will always be 127.0.0.1.
-     */
-    @Override
-    public Address getPeerAddress() {
-        return address;
+                                     ConnectionMetrics connectionMetrics,
+                                     Handler handler) {
+        super(networkEnvelopeSocketChannel, address, peersCapability, peersNetworkLoadService, connectionMetrics, handler);
+        this.networkEnvelopeSocketChannel = networkEnvelopeSocketChannel;
     }
 }
@@ -17,25 +17,24 @@
 
 package bisq.network.p2p.node;
 
+import bisq.common.threading.ExecutorFactory;
+import bisq.network.common.Address;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
-import bisq.network.p2p.node.envelope.ProtoBufMessageLengthWriter;
 import bisq.network.p2p.node.handshake.ConnectionHandshake;
 import bisq.network.p2p.node.handshake.ConnectionHandshakeInitiator;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import bisq.network.p2p.node.network_load.NetworkLoadService;
 import bisq.network.p2p.services.peergroup.BanList;
-import bisq.network.common.Address;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.net.ConnectException;
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
-import java.nio.channels.ClosedChannelException;
+import java.net.SocketTimeoutException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
@@ -46,7 +45,14 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 
+/**
+ * Handles connecting, handshake and reading of outbound connections in non-blocking IO mode.
+ * Apart from {@link #createNewConnection} and the getters, all methods are expected to be called from the selector
+ * thread of the OutboundConnectionMultiplexer. The handshake includes the PoW minting and verification, so it runs on
+ * the handshake executor. Reading from the channel is paused meanwhile.
+ */
 @Slf4j
 public class OutboundConnectionManager {
     public interface Listener {
@@ -57,151 +63,155 @@ public class OutboundConnectionManager {
     private final BanList banList;
     private final NetworkLoad myNetworkLoad;
     private final Capability myCapability;
+    private final int socketTimeout;
     private final Node node;
     @Getter
     private final Selector selector;
 
     private final Map<SocketChannel, Address> addressByChannel = new ConcurrentHashMap<>();
-    private final Map<Address, SocketChannel> channelByAddress = new ConcurrentHashMap<>();
+    private final Map<SocketChannel, NetworkEnvelopeSocketChannel> networkEnvelopeChannelBySocketChannel = new ConcurrentHashMap<>();
     private final Map<SocketChannel, ConnectionHandshakeInitiator> handshakeInitiatorByChannel = new ConcurrentHashMap<>();
-
-    private final List<SocketChannel> outboundHandshakeChannels = new CopyOnWriteArrayList<>();
-    private final List<SocketChannel> verifiedConnections = new CopyOnWriteArrayList<>();
+    private final Map<SocketChannel, ConnectionMetrics> handshakeMetricsByChannel = new ConcurrentHashMap<>();
+    private final Map<SocketChannel, Long> handshakeStartTimeByChannel = new ConcurrentHashMap<>();
 
     private final Map<SocketChannel, OutboundConnectionChannel> connectionByChannel = new ConcurrentHashMap<>();
+    private final Map<Address, OutboundConnectionChannel> connectionByAddress = new ConcurrentHashMap<>();
     private final Map<Address, CompletableFuture<OutboundConnectionChannel>> completableFutureByPeerAddress = new ConcurrentHashMap<>();
     private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService handshakeExecutor = ExecutorFactory.newFixedThreadPool("OutboundConnectionManager.handshake");
 
     public OutboundConnectionManager(AuthorizationService authorizationService,
                                      BanList banList,
                                      NetworkLoad myNetworkLoad,
                                      Capability myCapability,
+                                     int socketTimeout,
                                      Node node,
                                      Selector selector) {
         this.authorizationService = authorizationService;
         this.banList = banList;
         this.myNetworkLoad = myNetworkLoad;
         this.myCapability = myCapability;
+        this.socketTimeout = socketTimeout;
         this.node = node;
         this.selector = selector;
     }
 
     public CompletableFuture<OutboundConnectionChannel> createNewConnection(Address address) {
-        if (completableFutureByPeerAddress.containsKey(address)) {
-            return completableFutureByPeerAddress.get(address);
-        }
-
         var completableFuture = new CompletableFuture<OutboundConnectionChannel>();
-        completableFutureByPeerAddress.put(address, completableFuture);
+        CompletableFuture<OutboundConnectionChannel> pendingFuture = completableFutureByPeerAddress.putIfAbsent(address, completableFuture);
+        if (pendingFuture != null) {
+            return pendingFuture;
+        }
 
+        SocketChannel socketChannel = null;
         try {
-            SocketChannel socketChannel = SocketChannel.open();
+            socketChannel = SocketChannel.open();
             socketChannel.configureBlocking(false);
-            socketChannel.register(selector, SelectionKey.OP_CONNECT);
-
             addressByChannel.put(socketChannel, address);
-            channelByAddress.put(address, socketChannel);
+
+            SelectionKey selectionKey = socketChannel.register(selector, SelectionKey.OP_CONNECT);
+            NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = new NetworkEnvelopeSocketChannel(socketChannel);
+            networkEnvelopeSocketChannel.setSelectionKey(selectionKey);
+            networkEnvelopeChannelBySocketChannel.put(socketChannel, networkEnvelopeSocketChannel);
 
             InetSocketAddress socketAddress = new InetSocketAddress(address.getHost(), address.getPort());
             boolean isConnectedImmediately = socketChannel.connect(socketAddress);
             if (isConnectedImmediately) {
                 handleConnectedChannel(socketChannel);
             }
-
         } catch (IOException e) {
             log.warn("Couldn't create connection to " + address.getFullAddress(), e);
+            if (socketChannel != null) {
+                handleFailedConnection(socketChannel, e);
+            } else {
+                completableFutureByPeerAddress.remove(address);
+                completableFuture.completeExceptionally(new ConnectionException(e));
+            }
         }
 
         return completableFuture;
     }
 
-    public void handleConnectableChannel(SocketChannel socketChannel) throws IOException {
+    public void handleConnectableChannel(SocketChannel socketChannel) {
         try {
-            socketChannel.finishConnect();
-            handleConnectedChannel(socketChannel);
-
-        } catch (ConnectException e) {
+            if (socketChannel.finishConnect()) {
+                handleConnectedChannel(socketChannel);
+            }
+        } catch (IOException e) {
             // Couldn't connect to peer, nothing we can do.
-            Address address = addressByChannel.get(socketChannel);
-            channelByAddress.remove(address);
-
-            addressByChannel.remove(socketChannel);
+            handleFailedConnection(socketChannel, e);
         }
     }
 
-    public void handleWritableChannel(SocketChannel socketChannel) throws IOException {
-        if (outboundHandshakeChannels.contains(socketChannel)) {
-            var handshakeInitiator = new ConnectionHandshakeInitiator(
-                    myCapability,
-                    authorizationService,
-                    banList,
-                    myNetworkLoad,
-                    addressByChannel.get(socketChannel)
-            );
-            handshakeInitiatorByChannel.put(socketChannel, handshakeInitiator);
-
-            NetworkEnvelope handshakeRequest = handshakeInitiator.initiate();
-            ByteBuffer byteBuffer = wrapPayloadInByteBuffer(handshakeRequest);
-
-            socketChannel.register(selector, SelectionKey.OP_READ);
-
-            log.info("Sending PoW request to peer.");
-            socketChannel.write(byteBuffer);
+    public void handleWritableChannel(SocketChannel socketChannel) {
+        NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = networkEnvelopeChannelBySocketChannel.get(socketChannel);
+        if (networkEnvelopeSocketChannel == null) {
+            return;
+        }
+        try {
+            networkEnvelopeSocketChannel.flushPendingWrites();
+        } catch (IOException e) {
+            log.debug("Couldn't write pending data to socketChannel", e);
+            handleException(socketChannel, e);
         }
     }
 
-    public void handleReadableChannel(SocketChannel socketChannel) throws IOException {
-        if (outboundHandshakeChannels.contains(socketChannel)) {
-            NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = new NetworkEnvelopeSocketChannel(socketChannel);
-            List<NetworkEnvelope> networkEnvelopeList = networkEnvelopeSocketChannel.receiveNetworkEnvelopes();
-
-            ConnectionHandshakeInitiator handshakeInitiator = handshakeInitiatorByChannel.get(socketChannel);
-            ConnectionHandshake.Response handshakeResponse = handshakeInitiator.finish(networkEnvelopeList);
-
-            verifiedConnections.add(socketChannel);
-            outboundHandshakeChannels.remove(socketChannel);
-
-            Capability peerCapability = handshakeResponse.getCapability();
-            // We got the peers network load passed in the response message.
-            NetworkLoadService peersNetworkLoadService = new NetworkLoadService(handshakeResponse.getNetworkLoad());
-            OutboundConnectionChannel outboundConnectionChannel = new OutboundConnectionChannel(
-                    peerCapability,
-                    peersNetworkLoadService,
-                    networkEnvelopeSocketChannel,
-                    new ConnectionMetrics()
-            );
-
-            connectionByChannel.put(socketChannel, outboundConnectionChannel);
-            listeners.forEach(l -> l.onNewConnection(outboundConnectionChannel));
-
-            CompletableFuture<OutboundConnectionChannel> completableFuture =
-                    completableFutureByPeerAddress.get(peerCapability.getAddress());
-            completableFuture.complete(outboundConnectionChannel);
+    public void handleReadableChannel(SocketChannel socketChannel) {
+        NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = networkEnvelopeChannelBySocketChannel.get(socketChannel);
+        if (networkEnvelopeSocketChannel == null) {
+            return;
+        }
 
-        } else if (verifiedConnections.contains(socketChannel)) {
+        if (handshakeInitiatorByChannel.containsKey(socketChannel)) {
+            try {
+                List<NetworkEnvelope> networkEnvelopeList = networkEnvelopeSocketChannel.receiveNetworkEnvelopes();
+                if (networkEnvelopeList.isEmpty()) {
+                    if (!socketChannel.isOpen()) {
+                        throw new ConnectionException("Peer closed the channel before completing the handshake");
+                    }
+                    // We have received only a part of the response and wait for the remaining data
+                    return;
+                }
+                // We do not read until the handshake is completed, so that no message gets processed before the
+                // connection has been created.
+                networkEnvelopeSocketChannel.setReadInterest(false);
+                handshakeExecutor.execute(() -> {
+                    try {
+                        completeHandshake(socketChannel, networkEnvelopeSocketChannel, networkEnvelopeList);
+                        networkEnvelopeSocketChannel.setReadInterest(true);
+                    } catch (Exception e) {
+                        log.warn("Outbound handshake with {} failed", addressByChannel.get(socketChannel), e);
+                        handleFailedConnection(socketChannel, e);
+                    }
+                });
+            } catch (Exception e) {
+                log.warn("Outbound handshake with {} failed", addressByChannel.get(socketChannel), e);
+                handleFailedConnection(socketChannel, e);
+            }
+        } else {
             OutboundConnectionChannel connectionChannel = connectionByChannel.get(socketChannel);
-
-            NetworkEnvelopeSocketChannel envelopeSocketChannel = connectionChannel.getNetworkEnvelopeSocketChannel();
-            List<NetworkEnvelope> networkEnvelopes = envelopeSocketChannel.receiveNetworkEnvelopes();
-            log.debug("Received {} messages from peer {}.",
-                    networkEnvelopes.size(), connectionChannel.getPeerAddress().getFullAddress());
-
-            networkEnvelopes.forEach(networkEnvelope -> node.handleNetworkMessage(
-                    networkEnvelope.getEnvelopePayloadMessage(),
-                    networkEnvelope.getAuthorizationToken(),
-                    connectionChannel
-            ));
+            if (connectionChannel == null) {
+                return;
+            }
+            try {
+                List<NetworkEnvelope> networkEnvelopes = networkEnvelopeSocketChannel.receiveNetworkEnvelopes();
+                log.debug("Received {} messages from peer {}.",
+                        networkEnvelopes.size(), connectionChannel.getPeerAddress().getFullAddress());
+                connectionChannel.onNetworkEnvelopes(networkEnvelopes);
+
+                if (!socketChannel.isOpen()) {
+                    // End of stream. Peer has closed the connection.
+                    connectionChannel.close(CloseReason.EXCEPTION.details("Peer closed the channel"));
+                }
+            } catch (Exception e) {
+                log.debug("Couldn't receive messages from socketChannel", e);
+                connectionChannel.close(CloseReason.EXCEPTION.exception(e));
+            }
         }
     }
 
     public Optional<OutboundConnectionChannel> getConnection(Address address) {
-        if (channelByAddress.containsKey(address)) {
-            SocketChannel socketChannel = channelByAddress.get(address);
-            OutboundConnectionChannel connectionChannel = connectionByChannel.get(socketChannel);
-            return Optional.ofNullable(connectionChannel);
-        }
-
-        return Optional.empty();
+        return Optional.ofNullable(connectionByAddress.get(address));
     }
 
     public Collection<OutboundConnectionChannel> getAllOutboundConnections() {
@@ -216,32 +226,158 @@ public class OutboundConnectionManager {
         listeners.remove(l);
     }
 
-    private void handleConnectedChannel(SocketChannel socketChannel) {
-        try {
-            socketChannel.register(selector, SelectionKey.OP_WRITE);
-            outboundHandshakeChannels.add(socketChannel);
+    /**
+     * Closes the channels which did not receive any data within the socket timeout. For channels in the handshake this
+     * is the time since the connection attempt started. This matches the socket timeout used in blocking IO mode.
+     */
+    public void closeTimedOutChannels() {
+        long now = System.currentTimeMillis();
+        networkEnvelopeChannelBySocketChannel.forEach((socketChannel, networkEnvelopeSocketChannel) -> {
+            long idleTime = now - networkEnvelopeSocketChannel.getLastReadTime();
+            if (idleTime <= socketTimeout) {
+                return;
+            }
+            OutboundConnectionChannel connectionChannel = connectionByChannel.get(socketChannel);
+            if (connectionChannel != null) {
+                log.info("Closing outbound connection to {} as we did not receive data for {} ms",
+                        connectionChannel.getPeerAddress().getFullAddress(), idleTime);
+                connectionChannel.close(CloseReason.EXCEPTION.exception(new SocketTimeoutException("Read timed out")));
+            } else {
+                log.info("Closing outbound channel to {} as the handshake did not complete within {} ms",
+                        addressByChannel.get(socketChannel), idleTime);
+                handleFailedConnection(socketChannel, new SocketTimeoutException("Handshake timed out"));
+            }
+        });
+    }
 
-            Address address = addressByChannel.get(socketChannel);
-            log.info("Created outbound connection to {}", address.getFullAddress());
-        } catch (ClosedChannelException e) {
-            log.error("Couldn't connect to channel.", e);
+    public void shutdown() {
+        ExecutorFactory.shutdownAndAwaitTermination(handshakeExecutor);
+        handshakeInitiatorByChannel.keySet().forEach(socketChannel ->
+                handleFailedConnection(socketChannel, new ConnectionException("Shutdown")));
+    }
 
-            // Connection closed.
-            Address address = addressByChannel.get(socketChannel);
-            channelByAddress.remove(address);
+    private void handleConnectedChannel(SocketChannel socketChannel) throws IOException {
+        Address address = addressByChannel.get(socketChannel);
+        log.info("Created outbound connection to {}", address.getFullAddress());
+
+        // We read only after the request has been sent.
+        socketChannel.register(selector, 0);
+        handshakeExecutor.execute(() -> {
+            try {
+                sendHandshakeRequest(socketChannel, address);
+            } catch (Exception e) {
+                log.warn("Sending handshake request to {} failed", address.getFullAddress(), e);
+                handleFailedConnection(socketChannel, e);
+            }
+        });
+    }
 
-            addressByChannel.remove(socketChannel);
+    private void sendHandshakeRequest(SocketChannel socketChannel, Address address) throws IOException {
+        NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = networkEnvelopeChannelBySocketChannel.get(socketChannel);
+        if (networkEnvelopeSocketChannel == null) {
+            // Channel got closed in the meantime
+            return;
         }
+        var handshakeInitiator = new ConnectionHandshakeInitiator(
+                myCapability,
+                authorizationService,
+                banList,
+                myNetworkLoad,
+                address
+        );
+        NetworkEnvelope handshakeRequest = handshakeInitiator.initiate();
+        handshakeInitiatorByChannel.put(socketChannel, handshakeInitiator);
+        ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+        handshakeMetricsByChannel.put(socketChannel, connectionMetrics);
+        long ts = System.currentTimeMillis();
+        handshakeStartTimeByChannel.put(socketChannel, ts);
+
+        log.info("Sending PoW request to peer.");
+        networkEnvelopeSocketChannel.send(handshakeRequest);
+        connectionMetrics.onSent(handshakeRequest, System.currentTimeMillis() - ts);
+        networkEnvelopeSocketChannel.setReadInterest(true);
     }
 
-    private ByteBuffer wrapPayloadInByteBuffer(NetworkEnvelope networkEnvelope) {
-        bisq.network.protobuf.NetworkEnvelope poWRequest = networkEnvelope.toProto();
-        byte[] requestInBytes = poWRequest.toByteArray();
-        ByteBuffer byteBuffer = ByteBuffer.allocate(1024);
-        ProtoBufMessageLengthWriter.writeToBuffer(requestInBytes.length, byteBuffer);
-        byteBuffer.put(requestInBytes);
+    private void completeHandshake(SocketChannel socketChannel,
+                                   NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                                   List<NetworkEnvelope> networkEnvelopeList) {
+        ConnectionHandshakeInitiator handshakeInitiator = handshakeInitiatorByChannel.remove(socketChannel);
+        ConnectionMetrics connectionMetrics = handshakeMetricsByChannel.remove(socketChannel);
+        Long startTime = handshakeStartTimeByChannel.remove(socketChannel);
+        ConnectionHandshake.Response handshakeResponse = handshakeInitiator.finish(networkEnvelopeList);
+        connectionMetrics.onReceived(networkEnvelopeList.get(0), 0);
+        if (startTime != null) {
+            connectionMetrics.addRtt(System.currentTimeMillis() - startTime);
+        }
+
+        // We use the address we used for connecting, not the one reported by the peer.
+        Address address = addressByChannel.get(socketChannel);
+        Capability peerCapability = handshakeResponse.getCapability();
+        // We got the peers network load passed in the response message.
+        NetworkLoadService peersNetworkLoadService = new NetworkLoadService(handshakeResponse.getNetworkLoad());
+        OutboundConnectionChannel outboundConnectionChannel = new OutboundConnectionChannel(
+                address,
+                peerCapability,
+                peersNetworkLoadService,
+                networkEnvelopeSocketChannel,
+                connectionMetrics,
+                node
+        );
+        outboundConnectionChannel.addListener(new Connection.Listener() {
+            @Override
+            public void onNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage) {
+            }
+
+            @Override
+            public void onConnectionClosed(CloseReason closeReason) {
+                removeConnection(socketChannel, outboundConnectionChannel);
+            }
+        });
+
+        connectionByChannel.put(socketChannel, outboundConnectionChannel);
+        connectionByAddress.put(address, outboundConnectionChannel);
+        listeners.forEach(l -> l.onNewConnection(outboundConnectionChannel));
+
+        CompletableFuture<OutboundConnectionChannel> completableFuture = completableFutureByPeerAddress.remove(address);
+        if (completableFuture != null) {
+            completableFuture.complete(outboundConnectionChannel);
+        }
+    }
+
+    private void handleException(SocketChannel socketChannel, Exception exception) {
+        OutboundConnectionChannel connectionChannel = connectionByChannel.get(socketChannel);
+        if (connectionChannel != null) {
+            connectionChannel.close(CloseReason.EXCEPTION.exception(exception));
+        } else {
+            handleFailedConnection(socketChannel, exception);
+        }
+    }
+
+    private void handleFailedConnection(SocketChannel socketChannel, Throwable throwable) {
+        handshakeInitiatorByChannel.remove(socketChannel);
+        handshakeMetricsByChannel.remove(socketChannel);
+        handshakeStartTimeByChannel.remove(socketChannel);
+        networkEnvelopeChannelBySocketChannel.remove(socketChannel);
+        try {
+            socketChannel.close();
+        } catch (IOException ignore) {
+        }
+
+        Address address = addressByChannel.remove(socketChannel);
+        if (address != null) {
+            CompletableFuture<OutboundConnectionChannel> completableFuture = completableFutureByPeerAddress.remove(address);
+            if (completableFuture != null) {
+                completableFuture.completeExceptionally(throwable instanceof ConnectionException ?
+                        throwable :
+                        new ConnectionException(throwable));
+            }
+        }
+    }
 
-        byteBuffer.flip();
-        return byteBuffer;
+    private void removeConnection(SocketChannel socketChannel, OutboundConnectionChannel outboundConnectionChannel) {
+        networkEnvelopeChannelBySocketChannel.remove(socketChannel);
+        addressByChannel.remove(socketChannel);
+        connectionByChannel.remove(socketChannel);
+        connectionByAddress.remove(outboundConnectionChannel.getPeerAddress(), outboundConnectionChannel);
     }
 }
@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
@@ -31,13 +32,19 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
+/**
+ * Runs the selector thread for all outbound connections of a node in non-blocking IO mode.
+ */
 @Slf4j
 public class OutboundConnectionMultiplexer implements OutboundConnectionManager.Listener {
+    // Max. time we block in select, so that we check for timed out channels even if there is no IO.
+    private static final long SELECT_TIMEOUT = 1000;
 
     private final Selector selector;
     private final OutboundConnectionManager outboundConnectionManager;
 
     private Optional<Thread> workerThread = Optional.empty();
+    private volatile boolean isStopped;
 
 
     public OutboundConnectionMultiplexer(OutboundConnectionManager outboundConnectionManager) {
@@ -48,13 +55,19 @@ public class OutboundConnectionMultiplexer implements OutboundConnectionManager.
     public void start() {
         outboundConnectionManager.registerListener(this);
 
-        var thread = new Thread(this::workerLoop);
+        var thread = new Thread(this::workerLoop, "OutboundConnectionMultiplexer.selector");
         workerThread = Optional.of(thread);
         thread.start();
     }
 
     public void shutdown() {
+        isStopped = true;
         workerThread.ifPresent(Thread::interrupt);
+        outboundConnectionManager.shutdown();
+        try {
+            selector.close();
+        } catch (IOException ignore) {
+        }
     }
 
     public CompletableFuture<OutboundConnectionChannel> getConnection(Address address) {
@@ -82,20 +95,32 @@ public class OutboundConnectionMultiplexer implements OutboundConnectionManager.
     }
 
     private void workerLoop() {
-        while (true) {
-            selectorLoop();
+        while (!isStopped && !Thread.currentThread().isInterrupted()) {
+            try {
+                selectorLoop();
+            } catch (ClosedSelectorException e) {
+                return;
+            }
         }
     }
 
     private void selectorLoop() {
         try {
-            while (selector.select() > 0) {
-                Set<SelectionKey> readyKeys = selector.selectedKeys();
-                Iterator<SelectionKey> keyIterator = readyKeys.iterator();
+            // A return value of 0 is expected if the selector got woken up, e.g. for a new connection request.
+            selector.select(SELECT_TIMEOUT);
+            outboundConnectionManager.closeTimedOutChannels();
 
-                while (keyIterator.hasNext()) {
-                    SelectionKey selectionKey = keyIterator.next();
-                    keyIterator.remove();
+            Set<SelectionKey> readyKeys = selector.selectedKeys();
+            Iterator<SelectionKey> keyIterator = readyKeys.iterator();
+
+            while (keyIterator.hasNext()) {
+                SelectionKey selectionKey = keyIterator.next();
+                keyIterator.remove();
+
+                try {
+                    if (!selectionKey.isValid()) {
+                        continue;
+                    }
 
                     SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
 
@@ -103,20 +128,19 @@ public class OutboundConnectionMultiplexer implements OutboundConnectionManager.
                         outboundConnectionManager.handleConnectableChannel(socketChannel);
                     }
 
-                    if (selectionKey.isReadable()) {
+                    if (selectionKey.isValid() && selectionKey.isReadable()) {
                         outboundConnectionManager.handleReadableChannel(socketChannel);
                     }
 
-                    if (selectionKey.isWritable()) {
+                    if (selectionKey.isValid() && selectionKey.isWritable()) {
                         outboundConnectionManager.handleWritableChannel(socketChannel);
                     }
-
+                } catch (CancelledKeyException e) {
+                    // Connection got closed in the meantime. Nothing we can do here.
                 }
             }
         } catch (IOException e) {
             log.warn("IOException in OutboundConnectionMultiplexer selector.", e);
-        } catch (CancelledKeyException e) {
-            // Connection attempt failed. Nothing we can do here.
         }
     }
 }
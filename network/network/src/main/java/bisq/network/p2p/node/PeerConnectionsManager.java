@@ -17,18 +17,16 @@
 
 package bisq.network.p2p.node;
 
+import bisq.network.common.Address;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import bisq.network.p2p.node.transport.ServerSocketResult;
-import bisq.network.p2p.node.transport.TransportService;
 import bisq.network.p2p.services.peergroup.BanList;
-import bisq.network.common.Address;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.spi.SelectorProvider;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Optional;
@@ -37,41 +35,41 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Stream;
 
-import static java.util.concurrent.TimeUnit.MINUTES;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+/**
+ * Manages the ServerChannel and the OutboundConnectionMultiplexer of a node in non-blocking IO mode.
+ * Each of them runs one selector thread, so the number of threads does not depend on the number of connections.
+ */
 @Slf4j
 public class PeerConnectionsManager {
 
     private final Node.Config config;
-    private final String nodeId;
     private final BanList banList;
     private final NetworkLoad myNetworkLoad;
     private final AuthorizationService authorizationService;
-    private final TransportService transportService;
 
     private Optional<ServerChannel> server = Optional.empty();
-    private Optional<OutboundConnectionMultiplexer> outboundConnectionMultiplexer;
+    private Optional<OutboundConnectionMultiplexer> outboundConnectionMultiplexer = Optional.empty();
 
     public PeerConnectionsManager(Node.Config config,
-                                  String nodeId,
                                   BanList banList,
                                   NetworkLoad myNetworkLoad,
-                                  AuthorizationService authorizationService,
-                                  TransportService transportService) {
+                                  AuthorizationService authorizationService) {
         this.config = config;
-        this.nodeId = nodeId;
         this.banList = banList;
         this.myNetworkLoad = myNetworkLoad;
         this.authorizationService = authorizationService;
-        this.transportService = transportService;
     }
 
-    public void start(Node node, int port) {
+    public void start(Node node, ServerSocketResult serverSocketResult, Capability myCapability) {
         try {
-            Capability myCapability = createServerAndListen(node, port);
+            createServerAndListen(node, serverSocketResult, myCapability);
             createAndStartOutboundConnectionMultiplexer(myCapability, node);
         } catch (IOException e) {
             log.error("Couldn't start PeerConnectionsManager", e);
+            throw new ConnectionException(e);
         }
     }
 
@@ -84,27 +82,24 @@ public class PeerConnectionsManager {
         return server.map(ServerChannel::getAddress);
     }
 
-    public ConnectionChannel getConnection(Address address) {
-        if (server.isPresent()) {
-            Optional<InboundConnectionChannel> connectionOptional = server.get().getConnectionByAddress(address);
-            if (connectionOptional.isPresent()) {
-                return connectionOptional.get();
-            }
-        }
-
-        if (outboundConnectionMultiplexer.isPresent()) {
-            CompletableFuture<OutboundConnectionChannel> connection = outboundConnectionMultiplexer.get().getConnection(address);
-            try {
-                return connection.get(2, MINUTES);
-            } catch (InterruptedException | ExecutionException | TimeoutException e) {
-                log.warn("Couldn't connect to {}", address);
-            }
+    /**
+     * Blocks until the connection is created and the handshake completed or the socket timeout is reached.
+     */
+    public OutboundConnectionChannel createOutboundConnection(Address address) {
+        OutboundConnectionMultiplexer multiplexer = outboundConnectionMultiplexer
+                .orElseThrow(() -> new ConnectionException("OutboundConnectionMultiplexer not started"));
+        CompletableFuture<OutboundConnectionChannel> connection = multiplexer.getConnection(address);
+        try {
+            return connection.get(config.getSocketTimeout(), MILLISECONDS);
+        } catch (InterruptedException | TimeoutException e) {
+            connection.cancel(true);
+            throw new ConnectionException(e);
+        } catch (ExecutionException e) {
+            throw new ConnectionException(e.getCause());
         }
-
-        return null;
     }
 
-    public Stream<ConnectionChannel> getAllConnections() {
+    public Stream<Connection> getAllConnections() {
         return Stream.concat(getInboundConnections().stream(), getOutboundConnections().stream());
     }
 
@@ -121,39 +116,35 @@ public class PeerConnectionsManager {
                 outboundConnectionMultiplexer.get().getAllOutboundConnections() : Collections.emptyList();
     }
 
-    private Capability createServerAndListen(Node node, int port) throws IOException {
-        ServerSocketResult serverSocketResult = transportService.getServerSocket(port, nodeId);
-        Capability serverCapability = new Capability(serverSocketResult.getAddress(), new ArrayList<>(config.getSupportedTransportTypes()));
+    private void createServerAndListen(Node node, ServerSocketResult serverSocketResult, Capability myCapability) {
+        ServerSocketChannel serverSocketChannel = checkNotNull(serverSocketResult.getServerSocket().getChannel(),
+                "Non-blocking IO requires a server socket created from a ServerSocketChannel");
         ServerChannel serverChannel = new ServerChannel(
-                serverCapability,
+                myCapability,
                 myNetworkLoad,
                 banList,
                 authorizationService,
+                config.getSocketTimeout(),
                 node,
-                ServerSocketChannel.open()
+                serverSocketChannel
         );
         server = Optional.of(serverChannel);
         serverChannel.start();
-
-        return serverCapability;
     }
 
-    private void createAndStartOutboundConnectionMultiplexer(Capability serverCapability, Node node) {
-        try {
-            OutboundConnectionManager outboundConnectionManager = new OutboundConnectionManager(
-                    authorizationService,
-                    banList,
-                    myNetworkLoad,
-                    serverCapability,
-                    node,
-                    SelectorProvider.provider().openSelector()
-            );
-            OutboundConnectionMultiplexer connectionMultiplexer =
-                    new OutboundConnectionMultiplexer(outboundConnectionManager);
-            outboundConnectionMultiplexer = Optional.of(connectionMultiplexer);
-            connectionMultiplexer.start();
-        } catch (IOException e) {
-            log.error("Couldn't create OutboundConnectionManager", e);
-        }
+    private void createAndStartOutboundConnectionMultiplexer(Capability myCapability, Node node) throws IOException {
+        OutboundConnectionManager outboundConnectionManager = new OutboundConnectionManager(
+                authorizationService,
+                banList,
+                myNetworkLoad,
+                myCapability,
+                config.getSocketTimeout(),
+                node,
+                SelectorProvider.provider().openSelector()
+        );
+        OutboundConnectionMultiplexer connectionMultiplexer =
+                new OutboundConnectionMultiplexer(outboundConnectionManager);
+        outboundConnectionMultiplexer = Optional.of(connectionMultiplexer);
+        connectionMultiplexer.start();
     }
 }
@@ -0,0 +1,333 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.authorization.ReplayWindow;
+import bisq.network.p2p.node.network_load.ConnectionMetrics;
+import bisq.network.p2p.services.data.DataRequest;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Bounded outbound queue of a connection. Senders enqueue the envelope and get back a future which completes once the
+ * envelope has been written to the socket. A single writer task drains the queue and writes all envelopes which are
+ * queued at that moment with one write and one flush, so a burst of small messages does not cost a syscall each.
+ * The next batch is only taken from the queue after the previous one has been written completely, so envelopes of a
+ * slow peer stay in the queue and the overflow policy applies. The writer task is only running while there are queued
+ * envelopes, thus idle connections do not occupy a thread.
+ * <p>
+ * Envelopes are written in the order they got queued. The priority is only used to decide which envelope gets dropped
+ * at an overflow.
+ */
+@Slf4j
+public class SendQueue {
+    interface Writer {
+        /**
+         * @return A future which completes once all envelopes have been written to the socket. In non-blocking mode
+         * this is after the selector has signaled that the remaining bytes could be written.
+         */
+        CompletableFuture<Void> write(List<NetworkEnvelope> networkEnvelopes) throws IOException;
+    }
+
+    public enum OverflowPolicy {
+        // Drop a queued envelope with lower priority than the new one, otherwise reject the new envelope
+        DROP_LOWEST_PRIORITY,
+        // Block the sender until there is space in the queue
+        BLOCK,
+        // Close the connection as the peer cannot keep up with our messages
+        CLOSE
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    public static final class Config {
+        // The message counters for the replay protection are assigned before the messages are queued. Queued messages
+        // can be overtaken by messages which are still minting their proof of work, so we keep the capacity well below
+        // the replay window size.
+        public static final int MAX_CAPACITY = ReplayWindow.WINDOW_SIZE / 4;
+        public static final Config DEFAULT = new Config(1000, OverflowPolicy.DROP_LOWEST_PRIORITY);
+
+        private final int capacity;
+        private final OverflowPolicy overflowPolicy;
+
+        public Config(int capacity, OverflowPolicy overflowPolicy) {
+            checkArgument(capacity > 0 && capacity <= MAX_CAPACITY,
+                    "SendQueue capacity must be in the range 1 - %s. capacity=%s", MAX_CAPACITY, capacity);
+            this.capacity = capacity;
+            this.overflowPolicy = overflowPolicy;
+        }
+    }
+
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_BATCH_BYTES = 1024 * 1024;
+    static final int PRIORITY_LOW = 0;
+    static final int PRIORITY_NORMAL = 1;
+    static final int PRIORITY_HIGH = 2;
+
+    private static final class Entry {
+        private final NetworkEnvelope networkEnvelope;
+        private final int size;
+        private final int priority;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Entry(NetworkEnvelope networkEnvelope, int size, int priority) {
+            this.networkEnvelope = networkEnvelope;
+            this.size = size;
+            this.priority = priority;
+        }
+    }
+
+    private final Config config;
+    private final Writer writer;
+    private final ExecutorService executor;
+    private final ConnectionMetrics connectionMetrics;
+    private final Runnable overflowHandler;
+    private final Deque<Entry> queue = new ArrayDeque<>();
+    private boolean isWriterActive;
+    private boolean isClosed;
+
+    SendQueue(Config config,
+              Writer writer,
+              ExecutorService executor,
+              ConnectionMetrics connectionMetrics,
+              Runnable overflowHandler) {
+        this.config = config;
+        this.writer = writer;
+        this.executor = executor;
+        this.connectionMetrics = connectionMetrics;
+        this.overflowHandler = overflowHandler;
+    }
+
+    CompletableFuture<Void> enqueue(NetworkEnvelope networkEnvelope) {
+        Entry entry = new Entry(networkEnvelope,
+                networkEnvelope.getSerializedSize(),
+                getPriority(networkEnvelope.getEnvelopePayloadMessage()));
+        boolean closeConnection = false;
+        synchronized (queue) {
+            if (isClosed) {
+                entry.future.completeExceptionally(new ConnectionException("SendQueue is closed"));
+                return entry.future;
+            }
+            if (queue.size() >= config.getCapacity()) {
+                switch (config.getOverflowPolicy()) {
+                    case DROP_LOWEST_PRIORITY: {
+                        Entry dropped = removeEntryWithLowerPriority(entry.priority);
+                        if (dropped == null) {
+                            log.warn("SendQueue is full and no queued message has a lower priority. We drop the new message {}",
+                                    networkEnvelope.getEnvelopePayloadMessage().getClass().getSimpleName());
+                            entry.future.completeExceptionally(new SendQueueOverflowException("SendQueue is full"));
+                            return entry.future;
+                        }
+                        log.warn("SendQueue is full. We drop the queued message {}",
+                                dropped.networkEnvelope.getEnvelopePayloadMessage().getClass().getSimpleName());
+                        connectionMetrics.onDequeued(dropped.size);
+                        dropped.future.completeExceptionally(new SendQueueOverflowException("Message dropped as SendQueue was full"));
+                        break;
+                    }
+                    case BLOCK: {
+                        try {
+                            while (!isClosed && queue.size() >= config.getCapacity()) {
+                                queue.wait();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            entry.future.completeExceptionally(new ConnectionException(e));
+                            return entry.future;
+                        }
+                        if (isClosed) {
+                            entry.future.completeExceptionally(new ConnectionException("SendQueue is closed"));
+                            return entry.future;
+                        }
+                        break;
+                    }
+                    case CLOSE: {
+                        closeConnection = true;
+                        break;
+                    }
+                }
+            }
+            if (!closeConnection) {
+                queue.add(entry);
+                connectionMetrics.onEnqueued(entry.size);
+                if (!isWriterActive) {
+                    isWriterActive = true;
+                    executor.submit(this::drain);
+                }
+            }
+        }
+
+        if (closeConnection) {
+            log.warn("SendQueue is full. We close the connection as the peer cannot keep up with our messages.");
+            entry.future.completeExceptionally(new ConnectionException("SendQueue is full"));
+            overflowHandler.run();
+        }
+        return entry.future;
+    }
+
+    void close() {
+        List<Entry> pending;
+        synchronized (queue) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            pending = new ArrayList<>(queue);
+            queue.clear();
+            queue.notifyAll();
+        }
+        pending.forEach(entry -> {
+            connectionMetrics.onDequeued(entry.size);
+            entry.future.completeExceptionally(new ConnectionException("SendQueue is closed"));
+        });
+    }
+
+    int size() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            List<Entry> batch = new ArrayList<>();
+            synchronized (queue) {
+                long batchBytes = 0;
+                while (!queue.isEmpty() && batch.size() < MAX_BATCH_SIZE &&
+                        (batch.isEmpty() || batchBytes + queue.peek().size <= MAX_BATCH_BYTES)) {
+                    Entry entry = queue.poll();
+                    batchBytes += entry.size;
+                    batch.add(entry);
+                }
+                if (batch.isEmpty()) {
+                    isWriterActive = false;
+                    return;
+                }
+                queue.notifyAll();
+            }
+
+            List<NetworkEnvelope> networkEnvelopes = new ArrayList<>(batch.size());
+            batch.forEach(entry -> networkEnvelopes.add(entry.networkEnvelope));
+            long ts = System.currentTimeMillis();
+            CompletableFuture<Void> writeFuture;
+            try {
+                writeFuture = writer.write(networkEnvelopes);
+            } catch (Throwable throwable) {
+                writeFuture = CompletableFuture.failedFuture(throwable);
+            }
+
+            if (!writeFuture.isDone()) {
+                // The socket could not take all bytes. We continue once the batch has been written and do not hold
+                // the thread meanwhile. Queued envelopes wait in the queue, so the overflow policy applies.
+                writeFuture.whenCompleteAsync((nil, throwable) -> {
+                    if (onBatchWritten(batch, ts, unwrap(throwable))) {
+                        drain();
+                    }
+                }, executor);
+                return;
+            }
+
+            Throwable failure = null;
+            try {
+                writeFuture.join();
+            } catch (Throwable throwable) {
+                failure = unwrap(throwable);
+            }
+            if (!onBatchWritten(batch, ts, failure)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if the writer can continue with the next batch.
+     */
+    private boolean onBatchWritten(List<Entry> batch, long ts, Throwable failure) {
+        long spentTimePerMessage = (System.currentTimeMillis() - ts) / batch.size();
+        for (Entry entry : batch) {
+            connectionMetrics.onDequeued(entry.size);
+            if (failure == null) {
+                connectionMetrics.onSent(entry.networkEnvelope, spentTimePerMessage);
+                entry.future.complete(null);
+            } else {
+                entry.future.completeExceptionally(new ConnectionException(failure));
+            }
+        }
+        if (failure != null) {
+            // The writer failed, so the connection is not usable anymore. The caller closes the connection.
+            close();
+            synchronized (queue) {
+                isWriterActive = false;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    private Entry removeEntryWithLowerPriority(int priority) {
+        Entry candidate = null;
+        // We iterate from the tail to drop the most recent of the lowest priority entries.
+        Iterator<Entry> iterator = queue.descendingIterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.priority < priority && (candidate == null || entry.priority < candidate.priority)) {
+                candidate = entry;
+            }
+        }
+        if (candidate != null) {
+            queue.removeLastOccurrence(candidate);
+        }
+        return candidate;
+    }
+
+    // Only the gossiped data requests get the low priority, as they are sent to many peers and a dropped one is still
+    // received from other peers. InventoryRequest and InventoryResponse are BroadcastMessages as well, but they are
+    // point-to-point messages which must not get dropped first.
+    static int getPriority(EnvelopePayloadMessage envelopePayloadMessage) {
+        if (envelopePayloadMessage instanceof CloseConnectionMessage) {
+            return PRIORITY_HIGH;
+        } else if (envelopePayloadMessage instanceof DataRequest) {
+            return PRIORITY_LOW;
+        } else {
+            return PRIORITY_NORMAL;
+        }
+    }
+}
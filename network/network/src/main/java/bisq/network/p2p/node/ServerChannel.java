@@ -27,6 +27,8 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
@@ -34,8 +36,14 @@ import java.nio.channels.SocketChannel;
 import java.nio.channels.spi.SelectorProvider;
 import java.util.*;
 
+/**
+ * Server used in non-blocking IO mode. A single selector thread accepts new connections, performs the handshake and
+ * reads and writes the data of all inbound connections.
+ */
 @Slf4j
 public class ServerChannel {
+    // Max. time we block in select, so that we check for timed out channels even if there is no IO.
+    private static final long SELECT_TIMEOUT = 1000;
 
     public interface Listener {
         void onServerReady();
@@ -45,11 +53,14 @@ public class ServerChannel {
     private final NetworkLoad myNetworkLoad;
     private final BanList banList;
     private final AuthorizationService authorizationService;
+    private final int socketTimeout;
     private final Node node;
 
     private final ServerSocketChannel serverSocketChannel;
 
     private Thread serverThread;
+    private volatile Selector selector;
+    private volatile boolean isStopped;
     private Optional<InboundConnectionsManager> inboundConnectionsManager = Optional.empty();
 
     @Setter
@@ -59,12 +70,14 @@ public class ServerChannel {
                          NetworkLoad myNetworkLoad,
                          BanList banList,
                          AuthorizationService authorizationService,
+                         int socketTimeout,
                          Node node,
                          ServerSocketChannel serverSocketChannel) {
         this.myCapability = myCapability;
         this.myNetworkLoad = myNetworkLoad;
         this.banList = banList;
         this.authorizationService = authorizationService;
+        this.socketTimeout = socketTimeout;
         this.node = node;
         this.serverSocketChannel = serverSocketChannel;
     }
@@ -75,19 +88,23 @@ public class ServerChannel {
 
         serverThread = new Thread(() -> {
             try {
-                InetSocketAddress socketAddress = new InetSocketAddress(
-                        InetAddress.getLocalHost(),
-                        myAddress.getPort()
-                );
-                serverSocketChannel.socket().bind(socketAddress);
+                // The server socket channel might have been bound already by the transport service
+                if (!serverSocketChannel.socket().isBound()) {
+                    InetSocketAddress socketAddress = new InetSocketAddress(
+                            InetAddress.getLocalHost(),
+                            myAddress.getPort()
+                    );
+                    serverSocketChannel.socket().bind(socketAddress);
+                }
 
-                Selector selector = SelectorProvider.provider().openSelector();
+                selector = SelectorProvider.provider().openSelector();
                 InboundConnectionsManager inboundConnectionsManager =
                         new InboundConnectionsManager(
                                 banList,
                                 myCapability,
                                 myNetworkLoad,
                                 authorizationService,
+                                socketTimeout,
                                 serverSocketChannel,
                                 selector,
                                 node
@@ -97,10 +114,13 @@ public class ServerChannel {
                 inboundConnectionsManager.registerOpAccept();
                 onServerReadyListener.ifPresent(Listener::onServerReady);
 
-                while (selector.select() > 0) {
+                while (!isServerStopped()) {
+                    // A return value of 0 is expected if the selector got woken up, e.g. for changing interest ops.
+                    selector.select(SELECT_TIMEOUT);
                     if (isServerStopped()) {
                         return;
                     }
+                    inboundConnectionsManager.closeTimedOutChannels();
 
                     Set<SelectionKey> readyKeys = selector.selectedKeys();
                     Iterator<SelectionKey> keyIterator = readyKeys.iterator();
@@ -109,22 +129,35 @@ public class ServerChannel {
                         SelectionKey selectionKey = keyIterator.next();
                         keyIterator.remove();
 
-                        if (selectionKey.isAcceptable()) {
-                            inboundConnectionsManager.acceptNewConnection(selectionKey);
-                        }
+                        try {
+                            if (!selectionKey.isValid()) {
+                                continue;
+                            }
+
+                            if (selectionKey.isAcceptable()) {
+                                inboundConnectionsManager.acceptNewConnection(selectionKey);
+                                continue;
+                            }
 
-                        if (selectionKey.isReadable()) {
                             SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
-                            log.info("Received message from {}", socketChannel.getRemoteAddress());
+                            if (!inboundConnectionsManager.isInboundConnection(socketChannel)) {
+                                continue;
+                            }
 
-                            if (inboundConnectionsManager.isInboundConnection(socketChannel)) {
+                            if (selectionKey.isReadable()) {
+                                log.debug("Received data from {}", socketChannel.getRemoteAddress());
                                 inboundConnectionsManager.handleInboundConnection(socketChannel);
                             }
+
+                            if (selectionKey.isValid() && selectionKey.isWritable()) {
+                                inboundConnectionsManager.handleWritableChannel(socketChannel);
+                            }
+                        } catch (CancelledKeyException e) {
+                            // Channel got closed in the meantime. Nothing we can do here.
                         }
                     }
                 }
-
-            } catch (IOException e) {
+            } catch (IOException | ClosedSelectorException e) {
                 if (!isServerStopped()) {
                     log.error("Unhandled exception in ServerChannel: ", e);
                     shutdown();
@@ -142,8 +175,13 @@ public class ServerChannel {
             log.info("shutdown {}", myAddress);
 
             if (!isServerStopped()) {
+                isStopped = true;
                 serverThread.interrupt();
+                inboundConnectionsManager.ifPresent(InboundConnectionsManager::shutdown);
                 serverSocketChannel.close();
+                if (selector != null) {
+                    selector.close();
+                }
             }
 
         } catch (IOException ignore) {
@@ -151,7 +189,7 @@ public class ServerChannel {
     }
 
     private boolean isServerStopped() {
-        return serverThread.isInterrupted();
+        return isStopped || serverThread.isInterrupted();
     }
 
     public Address getAddress() {
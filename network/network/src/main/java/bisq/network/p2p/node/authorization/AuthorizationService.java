@@ -19,6 +19,7 @@ package bisq.network.p2p.node.authorization;
 
 import bisq.common.util.ByteArrayUtils;
 import bisq.common.util.MathUtils;
+import bisq.network.p2p.message.EncodedEnvelopePayloadMessage;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import bisq.security.DigestUtil;
@@ -30,9 +31,7 @@ import lombok.extern.slf4j.Slf4j;
 import javax.annotation.Nullable;
 import java.math.BigInteger;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
@@ -43,7 +42,7 @@ public class AuthorizationService {
 
     private final ProofOfWorkService proofOfWorkService;
     // Keep track of message counter per connection to avoid reuse of pow
-    private final Map<String, Set<Integer>> receivedMessageCountersByConnectionId = new ConcurrentHashMap<>();
+    private final Map<String, ReplayWindow> replayWindowByConnectionId = new ConcurrentHashMap<>();
 
     public AuthorizationService(ProofOfWorkService proofOfWorkService) {
         this.proofOfWorkService = proofOfWorkService;
@@ -53,10 +52,29 @@ public class AuthorizationService {
                                           NetworkLoad networkLoad,
                                           String peerAddress,
                                           int messageCounter) {
+        return createToken(message, getPayload(message), networkLoad, peerAddress, messageCounter);
+    }
+
+    // The serialized message is used as pow payload, thus we avoid to serialize it again.
+    public AuthorizationToken createToken(EncodedEnvelopePayloadMessage encodedMessage,
+                                          NetworkLoad networkLoad,
+                                          String peerAddress,
+                                          int messageCounter) {
+        return createToken(encodedMessage.getEnvelopePayloadMessage(),
+                encodedMessage.getSerialized(),
+                networkLoad,
+                peerAddress,
+                messageCounter);
+    }
+
+    private AuthorizationToken createToken(EnvelopePayloadMessage message,
+                                           byte[] payload,
+                                           NetworkLoad networkLoad,
+                                           String peerAddress,
+                                           int messageCounter) {
         long ts = System.currentTimeMillis();
         double difficulty = calculateDifficulty(message, networkLoad);
         byte[] challenge = getChallenge(peerAddress, messageCounter);
-        byte[] payload = getPayload(message);
         AuthorizationToken token = proofOfWorkService.mint(payload, challenge, difficulty)
                 .thenApply(proofOfWork -> new AuthorizationToken(proofOfWork, messageCounter))
                 .join();
@@ -82,19 +100,13 @@ public class AuthorizationService {
         ProofOfWork proofOfWork = authorizationToken.getProofOfWork();
         int messageCounter = authorizationToken.getMessageCounter();
 
-        // Verify that pow is not reused
-        Set<Integer> receivedMessageCounters;
-        if (receivedMessageCountersByConnectionId.containsKey(connectionId)) {
-            receivedMessageCounters = receivedMessageCountersByConnectionId.get(connectionId);
-            if (receivedMessageCounters.contains(messageCounter)) {
-                log.warn("Invalid receivedMessageCounters. We received the proofOfWork for that message already.");
-                return false;
-            }
-        } else {
-            receivedMessageCounters = new HashSet<>();
-            receivedMessageCountersByConnectionId.put(connectionId, receivedMessageCounters);
+        // Verify that pow is not reused. We only mark the counter as received after all other checks have passed, so
+        // that an invalid message does not consume the counter.
+        ReplayWindow replayWindow = replayWindowByConnectionId.computeIfAbsent(connectionId, id -> new ReplayWindow());
+        if (!replayWindow.isAcceptable(messageCounter)) {
+            logInvalidMessageCounter(messageCounter);
+            return false;
         }
-        receivedMessageCounters.add(messageCounter);
 
         // Verify payload
         if (!Arrays.equals(getPayload(message), proofOfWork.getPayload())) {
@@ -124,7 +136,28 @@ public class AuthorizationService {
                 }
             }
         }
-        return proofOfWorkService.verify(proofOfWork);
+        if (!proofOfWorkService.verify(proofOfWork)) {
+            return false;
+        }
+
+        // Another thread might have accepted the same message in the meantime
+        if (!replayWindow.tryAccept(messageCounter)) {
+            logInvalidMessageCounter(messageCounter);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Needs to be called when the connection got closed, otherwise the replay window would be kept.
+     */
+    public void removeReplayWindow(String connectionId) {
+        replayWindowByConnectionId.remove(connectionId);
+    }
+
+    private static void logInvalidMessageCounter(int messageCounter) {
+        log.warn("Invalid messageCounter. We received the proofOfWork for that message already or the " +
+                "messageCounter is outside the replay window. messageCounter={}", messageCounter);
     }
 
     private static boolean isInvalidDifficulty(double difficulty, ProofOfWork proofOfWork) {
@@ -138,7 +171,7 @@ public class AuthorizationService {
     }
 
     private byte[] getPayload(EnvelopePayloadMessage message) {
-        return message.toProto().toByteArray();
+        return message.toProofOfWorkPayloadProto().toByteArray();
     }
 
     private byte[] getChallenge(String peerAddress, int messageCounter) {
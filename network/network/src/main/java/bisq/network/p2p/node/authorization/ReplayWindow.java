@@ -0,0 +1,107 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.node.authorization;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window for replay protection of the message counters of one connection, similar to the anti-replay window
+ * of IPsec. We keep a bitmap of the last WINDOW_SIZE counters below the highest received counter. Counters inside
+ * the window are accepted once, counters older than the window are rejected. Memory usage is constant, independent
+ * of the number of received messages.
+ * <p>
+ * The sender assigns the counter before minting the proof of work and before the message waits in the SendQueue, so
+ * messages can arrive reordered by up to the number of messages in flight on the connection. The window is therefore
+ * much larger than the maximum SendQueue capacity (see SendQueue.Config.MAX_CAPACITY).
+ */
+public class ReplayWindow {
+    public static final int WINDOW_SIZE = 16384;
+    private static final int MASK = WINDOW_SIZE - 1;
+
+    private final long[] bitmap = new long[WINDOW_SIZE / Long.SIZE];
+    private long highestCounter = -1;
+
+    /**
+     * Only checks the counter without marking it as received.
+     *
+     * @return true if the counter was not received before and is not older than the window.
+     */
+    public synchronized boolean isAcceptable(int counter) {
+        if (counter < 0) {
+            return false;
+        }
+        if (counter > highestCounter) {
+            return true;
+        }
+        return highestCounter - counter < WINDOW_SIZE && !isSet(counter);
+    }
+
+    /**
+     * Checks the counter and marks it as received if it is acceptable.
+     *
+     * @return true if the counter was not received before and is not older than the window.
+     */
+    public synchronized boolean tryAccept(int counter) {
+        if (counter < 0) {
+            return false;
+        }
+        if (counter > highestCounter) {
+            long shift = counter - highestCounter;
+            if (shift >= WINDOW_SIZE) {
+                Arrays.fill(bitmap, 0);
+            } else {
+                // Clear the slots of the skipped counters, they are reused from counters which left the window
+                for (long skipped = highestCounter + 1; skipped < counter; skipped++) {
+                    clear(skipped);
+                }
+            }
+            set(counter);
+            highestCounter = counter;
+            return true;
+        }
+
+        if (highestCounter - counter >= WINDOW_SIZE) {
+            return false;
+        }
+        if (isSet(counter)) {
+            return false;
+        }
+        set(counter);
+        return true;
+    }
+
+    int getBitmapLength() {
+        return bitmap.length;
+    }
+
+    private boolean isSet(long counter) {
+        int index = (int) (counter & MASK);
+        return (bitmap[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void set(long counter) {
+        int index = (int) (counter & MASK);
+        bitmap[index >>> 6] |= 1L << index;
+    }
+
+    private void clear(long counter) {
+        int index = (int) (counter & MASK);
+        bitmap[index >>> 6] &= ~(1L << index);
+    }
+}
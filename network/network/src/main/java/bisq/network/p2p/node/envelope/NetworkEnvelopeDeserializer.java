@@ -17,6 +17,7 @@
 
 package bisq.network.p2p.node.envelope;
 
+import bisq.network.p2p.node.ConnectionException;
 import bisq.network.protobuf.NetworkEnvelope;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +27,9 @@ import java.util.*;
 
 @Slf4j
 public class NetworkEnvelopeDeserializer {
+    // We allocate the message buffer based on the length prefix sent by the peer, so we must not trust it. The limit is
+    // large enough for an inventory response of an older peer which does not send it in chunks.
+    public static final int MAX_MESSAGE_SIZE = 64 * 1024 * 1024;
 
     private final ByteBuffer byteBuffer;
     private final ProtoBufMessageLengthParser messageLengthParser;
@@ -64,6 +68,10 @@ public class NetworkEnvelopeDeserializer {
     private void parseMessageLength() {
         long messageLength = messageLengthParser.parseMessageLength();
         if (isMessageLengthParsed(messageLength)) {
+            if (messageLength < 0 || messageLength > MAX_MESSAGE_SIZE) {
+                throw new ConnectionException("Message length " + messageLength + " exceeds the max. message size of " +
+                        MAX_MESSAGE_SIZE + " bytes");
+            }
             currentMessageLength = messageLength;
             parsedMessageLength = 0;
             parsingMessage = true;
@@ -20,16 +20,18 @@ package bisq.network.p2p.node.envelope;
 import bisq.network.p2p.message.NetworkEnvelope;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
-
-import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.List;
 
 @Slf4j
 public class NetworkEnvelopeSocket implements Closeable {
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     private final Socket socket;
     private final InputStream inputStream;
     private final OutputStream outputStream;
@@ -37,13 +39,19 @@ public class NetworkEnvelopeSocket implements Closeable {
     public NetworkEnvelopeSocket(Socket socket) throws IOException {
         this.socket = socket;
         this.inputStream = socket.getInputStream();
-        this.outputStream = socket.getOutputStream();
+        // Buffered so that multiple envelopes written before a flush are sent with one write to the socket
+        this.outputStream = new BufferedOutputStream(socket.getOutputStream(), OUTPUT_BUFFER_SIZE);
     }
 
     public void send(NetworkEnvelope networkEnvelope) throws IOException {
-        bisq.network.protobuf.NetworkEnvelope proto = checkNotNull(networkEnvelope.toProto(),
-                "networkEnvelope.toProto() must not be null");
-        proto.writeDelimitedTo(outputStream);
+        write(networkEnvelope);
+        outputStream.flush();
+    }
+
+    public void send(List<NetworkEnvelope> networkEnvelopes) throws IOException {
+        for (NetworkEnvelope networkEnvelope : networkEnvelopes) {
+            write(networkEnvelope);
+        }
         outputStream.flush();
     }
 
@@ -55,4 +63,8 @@ public class NetworkEnvelopeSocket implements Closeable {
     public void close() throws IOException {
         socket.close();
     }
+
+    private void write(NetworkEnvelope networkEnvelope) throws IOException {
+        networkEnvelope.writeDelimitedTo(outputStream);
+    }
 }
@@ -19,16 +19,21 @@ package bisq.network.p2p.node.envelope;
 
 import bisq.network.p2p.message.NetworkEnvelope;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-
-import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class NetworkEnvelopeSocketChannel implements Closeable {
@@ -36,11 +41,33 @@ public class NetworkEnvelopeSocketChannel implements Closeable {
 
     private static final int END_OF_STREAM = -1;
 
+    // The SendQueue only passes the next batch after the previous one has been written, so we expect only one batch
+    // plus a few handshake messages. More pending writes indicate a bug, and we fail the write instead of buffering
+    // without limit.
+    private static final int MAX_PENDING_WRITES = 16;
+
+    private static final class PendingWrite {
+        private final ByteBuffer buffer;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingWrite(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
     @Getter
     private final SocketChannel socketChannel;
     private final ByteBuffer byteBuffer;
     private final NetworkEnvelopeDeserializer networkEnvelopeDeserializer;
-
+    // Buffers which could not be written completely as the socket send buffer was full. Only used in non-blocking mode.
+    private final Queue<PendingWrite> pendingWrites = new ArrayDeque<>();
+    // Set by the selector thread owning the channel. Used for registering interest in OP_WRITE if we have pending writes.
+    @Setter
+    @Nullable
+    private volatile SelectionKey selectionKey;
+    // Used by the selector thread for closing channels which did not receive any data within the socket timeout.
+    @Getter
+    private volatile long lastReadTime = System.currentTimeMillis();
 
     public NetworkEnvelopeSocketChannel(SocketChannel socketChannel) {
         this(socketChannel, BYTE_BUFFER_SIZE);
@@ -52,19 +79,79 @@ public class NetworkEnvelopeSocketChannel implements Closeable {
         this.networkEnvelopeDeserializer = new NetworkEnvelopeDeserializer(byteBuffer);
     }
 
-    public void send(NetworkEnvelope networkEnvelope) throws IOException {
-        bisq.network.protobuf.NetworkEnvelope proto = checkNotNull(networkEnvelope.toProto(),
-                "networkEnvelope.toProto() must not be null");
-        byte[] protoInBytes = proto.toByteArray();
-        int messageLength = protoInBytes.length;
+    public CompletableFuture<Void> send(NetworkEnvelope networkEnvelope) throws IOException {
+        return send(List.of(networkEnvelope));
+    }
 
-        ByteBuffer byteBuffer1 = ByteBuffer.allocate(messageLength + 10);
-        ProtoBufMessageLengthWriter.writeToBuffer(messageLength, byteBuffer1);
+    /**
+     * Serializes all envelopes into a single buffer so that they are written with as few syscalls as possible.
+     *
+     * @return A future which completes once all bytes have been written to the socket. In non-blocking mode the
+     * remaining bytes are written by the selector thread once the channel is writable again.
+     */
+    public CompletableFuture<Void> send(List<NetworkEnvelope> networkEnvelopes) throws IOException {
+        List<byte[]> protosInBytes = new ArrayList<>(networkEnvelopes.size());
+        int bufferSize = 0;
+        for (NetworkEnvelope networkEnvelope : networkEnvelopes) {
+            byte[] protoInBytes = networkEnvelope.toByteArray();
+            protosInBytes.add(protoInBytes);
+            bufferSize += protoInBytes.length + 10;
+        }
 
-        byteBuffer1.put(protoInBytes);
+        ByteBuffer byteBuffer1 = ByteBuffer.allocate(bufferSize);
+        for (byte[] protoInBytes : protosInBytes) {
+            ProtoBufMessageLengthWriter.writeToBuffer(protoInBytes.length, byteBuffer1);
+            byteBuffer1.put(protoInBytes);
+        }
         byteBuffer1.flip();
 
-        socketChannel.write(byteBuffer1);
+        PendingWrite pendingWrite = new PendingWrite(byteBuffer1);
+        synchronized (pendingWrites) {
+            if (pendingWrites.size() >= MAX_PENDING_WRITES) {
+                throw new IOException("Too many pending writes. pendingWrites=" + pendingWrites.size());
+            }
+            pendingWrites.add(pendingWrite);
+            flushPendingWrites();
+        }
+        return pendingWrite.future;
+    }
+
+    /**
+     * Writes as much of the pending data as the socket accepts without blocking. If not all data could be written we
+     * register interest in OP_WRITE, so that the selector thread calls us again once the channel is writable.
+     *
+     * @return true if all pending data has been written.
+     */
+    public boolean flushPendingWrites() throws IOException {
+        synchronized (pendingWrites) {
+            try {
+                while (!pendingWrites.isEmpty()) {
+                    PendingWrite pendingWrite = pendingWrites.peek();
+                    socketChannel.write(pendingWrite.buffer);
+                    if (pendingWrite.buffer.hasRemaining()) {
+                        if (socketChannel.isBlocking()) {
+                            // In blocking mode write returns only once all bytes are written, but we stay defensive.
+                            continue;
+                        }
+                        setWriteInterest(true);
+                        return false;
+                    }
+                    pendingWrites.poll();
+                    pendingWrite.future.complete(null);
+                }
+            } catch (IOException e) {
+                failPendingWrites(e);
+                throw e;
+            }
+            setWriteInterest(false);
+            return true;
+        }
+    }
+
+    public boolean hasPendingWrites() {
+        synchronized (pendingWrites) {
+            return !pendingWrites.isEmpty();
+        }
     }
 
     public List<NetworkEnvelope> receiveNetworkEnvelopes() throws IOException {
@@ -75,6 +162,9 @@ public class NetworkEnvelopeSocketChannel implements Closeable {
             socketChannel.close();
             return Collections.emptyList();
         }
+        if (numberOfReadBytes > 0) {
+            lastReadTime = System.currentTimeMillis();
+        }
 
         byteBuffer.flip();
         networkEnvelopeDeserializer.readFromByteBuffer();
@@ -88,6 +178,48 @@ public class NetworkEnvelopeSocketChannel implements Closeable {
 
     @Override
     public void close() throws IOException {
+        synchronized (pendingWrites) {
+            failPendingWrites(new IOException("Channel got closed"));
+        }
         socketChannel.close();
     }
+
+    @Override
+    public String toString() {
+        return "NetworkEnvelopeSocketChannel{socketChannel=" + socketChannel + "}";
+    }
+
+    private void failPendingWrites(IOException exception) {
+        pendingWrites.forEach(pendingWrite -> pendingWrite.future.completeExceptionally(exception));
+        pendingWrites.clear();
+    }
+
+    /**
+     * Used for pausing reads while the handshake is processed outside the selector thread.
+     */
+    public void setReadInterest(boolean isReadInterested) {
+        synchronized (pendingWrites) {
+            setInterest(SelectionKey.OP_READ, isReadInterested);
+        }
+    }
+
+    private void setWriteInterest(boolean isWriteInterested) {
+        setInterest(SelectionKey.OP_WRITE, isWriteInterested);
+    }
+
+    // Called while holding the pendingWrites lock, so that concurrent updates of the interest ops do not get lost.
+    private void setInterest(int operation, boolean isInterested) {
+        SelectionKey key = selectionKey;
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        int interestOps = key.interestOps();
+        int newInterestOps = isInterested ?
+                interestOps | operation :
+                interestOps & ~operation;
+        if (interestOps != newInterestOps) {
+            key.interestOps(newInterestOps);
+            key.selector().wakeup();
+        }
+    }
 }
@@ -67,14 +67,25 @@ public final class ConnectionHandshake {
         @Override
         public bisq.network.protobuf.EnvelopePayloadMessage toProto() {
             return getNetworkMessageBuilder().setConnectionHandshakeRequest(
-                            bisq.network.protobuf.ConnectionHandshake.Request.newBuilder()
-                                    .setCapability(capability.toProto())
-                                    .setNetworkLoad(networkLoad.toProto()))
+                            getRequestBuilder().addAllFeatures(capability.featuresToProto()))
                     .build();
         }
 
+        // The features are not part of the proof of work payload, so that older versions can verify it.
+        @Override
+        public bisq.network.protobuf.EnvelopePayloadMessage toProofOfWorkPayloadProto() {
+            return getNetworkMessageBuilder().setConnectionHandshakeRequest(getRequestBuilder())
+                    .build();
+        }
+
+        private bisq.network.protobuf.ConnectionHandshake.Request.Builder getRequestBuilder() {
+            return bisq.network.protobuf.ConnectionHandshake.Request.newBuilder()
+                    .setCapability(capability.toProto())
+                    .setNetworkLoad(networkLoad.toProto());
+        }
+
         public static Request fromProto(bisq.network.protobuf.ConnectionHandshake.Request proto) {
-            return new Request(Capability.fromProto(proto.getCapability()),
+            return new Request(Capability.fromProto(proto.getCapability(), proto.getFeaturesList()),
                     NetworkLoad.fromProto(proto.getNetworkLoad()));
         }
 
@@ -99,14 +110,25 @@ public final class ConnectionHandshake {
         @Override
         public bisq.network.protobuf.EnvelopePayloadMessage toProto() {
             return getNetworkMessageBuilder().setConnectionHandshakeResponse(
-                            bisq.network.protobuf.ConnectionHandshake.Response.newBuilder()
-                                    .setCapability(capability.toProto())
-                                    .setNetworkLoad(networkLoad.toProto()))
+                            getResponseBuilder().addAllFeatures(capability.featuresToProto()))
                     .build();
         }
 
+        // The features are not part of the proof of work payload, so that older versions can verify it.
+        @Override
+        public bisq.network.protobuf.EnvelopePayloadMessage toProofOfWorkPayloadProto() {
+            return getNetworkMessageBuilder().setConnectionHandshakeResponse(getResponseBuilder())
+                    .build();
+        }
+
+        private bisq.network.protobuf.ConnectionHandshake.Response.Builder getResponseBuilder() {
+            return bisq.network.protobuf.ConnectionHandshake.Response.newBuilder()
+                    .setCapability(capability.toProto())
+                    .setNetworkLoad(networkLoad.toProto());
+        }
+
         public static Response fromProto(bisq.network.protobuf.ConnectionHandshake.Response proto) {
-            return new Response(Capability.fromProto(proto.getCapability()),
+            return new Response(Capability.fromProto(proto.getCapability(), proto.getFeaturesList()),
                     NetworkLoad.fromProto(proto.getNetworkLoad()));
         }
 
@@ -56,6 +56,14 @@ public class ConnectionHandshakeResponder {
 
     public Pair<ConnectionHandshake.Request, NetworkEnvelope> verifyAndBuildRespond() throws IOException {
         List<NetworkEnvelope> requestEnvelopes = networkEnvelopeSocketChannel.receiveNetworkEnvelopes();
+        return verifyAndBuildRespond(requestEnvelopes);
+    }
+
+    /**
+     * Used by the selector thread which has already read the request envelopes from the channel, as the request
+     * might have arrived in multiple chunks.
+     */
+    public Pair<ConnectionHandshake.Request, NetworkEnvelope> verifyAndBuildRespond(List<NetworkEnvelope> requestEnvelopes) {
         validateRequestEnvelopes(requestEnvelopes);
 
         NetworkEnvelope requestProto = requestEnvelopes.get(0);
@@ -86,13 +94,16 @@ public class ConnectionHandshakeResponder {
         String myAddress = capability.getAddress().getFullAddress();
         // As the request did not know our load at the initial request, they used the NetworkLoad.INITIAL_LOAD for the
         // AuthorizationToken.
+        // The connection does not exist yet, so we use a unique id and remove its replay window afterwards.
+        String connectionId = StringUtils.createUid();
         boolean isAuthorized = authorizationService.isAuthorized(
                 request,
                 requestNetworkEnvelope.getAuthorizationToken(),
                 NetworkLoad.INITIAL_LOAD,
-                StringUtils.createUid(),
+                connectionId,
                 myAddress
         );
+        authorizationService.removeReplayWindow(connectionId);
 
         if (isAuthorized) {
             log.debug("Peer {} passed PoW authorization.",
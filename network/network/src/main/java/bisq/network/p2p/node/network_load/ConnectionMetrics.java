@@ -43,6 +43,9 @@ public class ConnectionMetrics {
     private final TreeMap<Integer, AtomicLong> receivedBytesPerMinute = new TreeMap<>();
 
     private final AtomicLong numMessagesReceived = new AtomicLong();
+    // Messages and their bytes which are in the send queue or currently written to the socket
+    private final AtomicLong numQueuedMessages = new AtomicLong();
+    private final AtomicLong queuedBytes = new AtomicLong();
     private final List<Long> rrtList = new CopyOnWriteArrayList<>();
 
     public ConnectionMetrics() {
@@ -63,7 +66,7 @@ public class ConnectionMetrics {
 
         int ageInMinutes = getAgeInMinutes(now);
         sentBytesPerMinute.putIfAbsent(ageInMinutes, new AtomicLong());
-        sentBytesPerMinute.get(ageInMinutes).getAndAdd(networkEnvelope.toProto().getSerializedSize());
+        sentBytesPerMinute.get(ageInMinutes).getAndAdd(networkEnvelope.getSerializedSize());
 
         numMessagesSentPerMinute.putIfAbsent(ageInMinutes, new AtomicLong());
         numMessagesSentPerMinute.get(ageInMinutes).incrementAndGet();
@@ -87,6 +90,24 @@ public class ConnectionMetrics {
         deserializeTimePerMinute.get(ageInMinutes).getAndAdd(deserializeTime);
     }
 
+    public void onEnqueued(int size) {
+        numQueuedMessages.incrementAndGet();
+        queuedBytes.addAndGet(size);
+    }
+
+    public void onDequeued(int size) {
+        numQueuedMessages.decrementAndGet();
+        queuedBytes.addAndGet(-size);
+    }
+
+    public long getSendQueueDepth() {
+        return numQueuedMessages.get();
+    }
+
+    public long getBytesInFlight() {
+        return queuedBytes.get();
+    }
+
     public void addRtt(long value) {
         this.rrtList.add(value);
     }
@@ -9,8 +9,10 @@ import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -29,20 +31,39 @@ public class ClearNetTransportService implements TransportService {
 
             return new Config(dataDir,
                     config.hasPath("defaultNodePort") ? config.getInt("defaultNodePort") : -1,
-                    (int) TimeUnit.SECONDS.toMillis(config.getInt("socketTimeout")));
+                    (int) TimeUnit.SECONDS.toMillis(config.getInt("socketTimeout")),
+                    config.hasPath("nonBlockingIo") && config.getBoolean("nonBlockingIo"),
+                    config.hasPath("sendQueueCapacity") ? config.getInt("sendQueueCapacity") : 1000,
+                    config.hasPath("sendQueueOverflowPolicy") ? config.getString("sendQueueOverflowPolicy") : "DROP_LOWEST_PRIORITY");
         }
 
         private final int defaultNodePort;
         private final int socketTimeout;
         private final Path dataDir;
+        private final boolean nonBlockingIo;
+        private final int sendQueueCapacity;
+        private final String sendQueueOverflowPolicy;
 
         public Config(Path dataDir, int defaultNodePort, int socketTimeout) {
+            this(dataDir, defaultNodePort, socketTimeout, false, 1000, "DROP_LOWEST_PRIORITY");
+        }
+
+        public Config(Path dataDir,
+                      int defaultNodePort,
+                      int socketTimeout,
+                      boolean nonBlockingIo,
+                      int sendQueueCapacity,
+                      String sendQueueOverflowPolicy) {
             this.dataDir = dataDir;
             this.defaultNodePort = defaultNodePort;
             this.socketTimeout = socketTimeout;
+            this.nonBlockingIo = nonBlockingIo;
+            this.sendQueueCapacity = sendQueueCapacity;
+            this.sendQueueOverflowPolicy = sendQueueOverflowPolicy;
         }
     }
 
+    private final boolean nonBlockingIo;
     private int numSocketsCreated = 0;
     @Getter
     private final BootstrapInfo bootstrapInfo = new BootstrapInfo();
@@ -50,6 +71,7 @@ public class ClearNetTransportService implements TransportService {
     private Scheduler startBootstrapProgressUpdater;
 
     public ClearNetTransportService(TransportConfig config) {
+        nonBlockingIo = config.isNonBlockingIo();
     }
 
     @Override
@@ -86,7 +108,15 @@ public class ClearNetTransportService implements TransportService {
         bootstrapInfo.getBootstrapDetails().set("Start creating server");
 
         try {
-            ServerSocket serverSocket = new ServerSocket(port);
+            ServerSocket serverSocket;
+            if (nonBlockingIo) {
+                // The selector based ServerChannel requires a server socket created from a channel.
+                ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+                serverSocket = serverSocketChannel.socket();
+                serverSocket.bind(new InetSocketAddress(port));
+            } else {
+                serverSocket = new ServerSocket(port);
+            }
             Address address = Address.localHost(port);
             log.debug("ServerSocket created at port {}", port);
 
@@ -17,8 +17,9 @@
 
 package bisq.network.p2p.services.confidential;
 
-import bisq.common.threading.ExecutorFactory;
 import bisq.common.util.ExceptionUtil;
+import bisq.common.util.OsUtils;
+import bisq.network.NetworkService;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.CloseReason;
 import bisq.network.p2p.node.Connection;
@@ -34,22 +35,28 @@ import bisq.network.p2p.services.data.storage.mailbox.MailboxData;
 import bisq.network.p2p.services.data.storage.mailbox.MailboxMessage;
 import bisq.network.common.Address;
 import bisq.security.*;
+import com.google.common.collect.Lists;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.PublicKey;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.stream.Collectors;
 
 import static bisq.network.NetworkService.DISPATCHER;
 import static java.util.concurrent.CompletableFuture.*;
 
 @Slf4j
 public class ConfidentialMessageService implements Node.Listener, DataService.Listener {
+    private static final int MAX_PARALLEL_DECRYPTIONS = Math.max(1, OsUtils.availableProcessors() / 2);
 
     @Getter
     public static class Result {
@@ -83,6 +90,8 @@ public class ConfidentialMessageService implements Node.Listener, DataService.Li
     private final Optional<MessageDeliveryStatusService> messageDeliveryStatusService;
     private final Set<MessageListener> listeners = new CopyOnWriteArraySet<>();
     private final Set<ConfidentialMessageListener> confidentialMessageListeners = new CopyOnWriteArraySet<>();
+    // Value is the latest possible expiry date of the mailbox data. After that, it cannot be in the store anymore.
+    private final Map<MailboxData, Long> processedMailboxData = new ConcurrentHashMap<>();
 
     public ConfidentialMessageService(NodesById nodesById,
                                       KeyPairService keyPairService,
@@ -136,23 +145,29 @@ public class ConfidentialMessageService implements Node.Listener, DataService.Li
 
     @Override
     public void onMailboxDataAdded(MailboxData mailboxData) {
-        ConfidentialMessage confidentialMessage = mailboxData.getConfidentialMessage();
-        processConfidentialMessage(confidentialMessage)
-                .whenComplete((result, throwable) -> {
-                    if (throwable == null) {
-                        if (result) {
-                            dataService.ifPresent(service -> {
-                                // If we are successful the msg must be for us, so we have the key
-                                KeyPair myKeyPair = keyPairService.findKeyPair(confidentialMessage.getReceiverKeyId()).orElseThrow();
-                                service.removeMailboxData(mailboxData, myKeyPair);
-                            });
-                        } else {
-                            log.debug("We are not the receiver of that mailbox message");
-                        }
-                    } else {
-                        throwable.printStackTrace();
-                    }
-                });
+        String receiverKeyId = mailboxData.getConfidentialMessage().getReceiverKeyId();
+        if (keyPairService.findKeyPair(receiverKeyId).isEmpty()) {
+            log.debug("We are not the receiver of that mailbox message");
+            return;
+        }
+        processMailboxData(List.of(mailboxData));
+    }
+
+    @Override
+    public void onMailboxDataRemoved(MailboxData mailboxData) {
+        processedMailboxData.remove(mailboxData);
+    }
+
+    @Override
+    public void onMailboxDataBatchAdded(List<MailboxData> mailboxDataList) {
+        // We do not iterate the batch but look up the mailbox data addressed to our keys in the receiverKeyId index.
+        // That covers as well mailbox data we have not processed yet from earlier batches or from the persisted
+        // mailbox stores.
+        dataService.ifPresent(service -> {
+            List<MailboxData> myMailboxData = service.getMailboxData(keyPairService.getKeyIds())
+                    .collect(Collectors.toList());
+            processMailboxData(myMailboxData);
+        });
     }
 
 
@@ -282,23 +297,65 @@ public class ConfidentialMessageService implements Node.Listener, DataService.Li
         return keyPairService.findKeyPair(confidentialMessage.getReceiverKeyId())
                 .map(receiversKeyPair -> supplyAsync(() -> {
                     try {
-                        log.info("Found a matching key for processing confidentialMessage");
-                        ConfidentialData confidentialData = confidentialMessage.getConfidentialData();
-                        byte[] decryptedBytes = HybridEncryption.decryptAndVerify(confidentialData, receiversKeyPair);
-                        bisq.network.protobuf.EnvelopePayloadMessage decryptedProto = bisq.network.protobuf.EnvelopePayloadMessage.parseFrom(decryptedBytes);
-                        EnvelopePayloadMessage decryptedEnvelopePayloadMessage = EnvelopePayloadMessage.fromProto(decryptedProto);
-                        PublicKey senderPublicKey = KeyGeneration.generatePublic(confidentialData.getSenderPublicKey());
-                        log.info("Decrypted confidentialMessage");
-                        runAsync(() -> {
-                            listeners.forEach(l -> l.onMessage(decryptedEnvelopePayloadMessage));
-                            confidentialMessageListeners.forEach(l -> l.onMessage(decryptedEnvelopePayloadMessage, senderPublicKey));
-                        }, DISPATCHER);
+                        decryptAndDispatch(confidentialMessage, receiversKeyPair);
                         return true;
                     } catch (Exception e) {
                         log.error(ExceptionUtil.print(e));
                         throw new RuntimeException(e);
                     }
-                }, ExecutorFactory.WORKER_POOL))
+                }, NetworkService.COMPUTE_POOL))
                 .orElse(CompletableFuture.completedFuture(false)); // We don't have a key for that receiverKeyId
     }
+
+    /**
+     * Decrypts the mailbox data in a bounded number of parallel tasks instead of one task per entry. Each mailbox
+     * data is processed only once, even if it is still in the store because its removal failed. Mailbox data is
+     * removed from processedMailboxData when it got removed from the store, when its processing failed (so that it
+     * gets retried at the next batch) or after its TTL.
+     */
+    private void processMailboxData(List<MailboxData> mailboxDataList) {
+        long now = System.currentTimeMillis();
+        processedMailboxData.values().removeIf(expiryDate -> expiryDate < now);
+        List<MailboxData> notProcessed = mailboxDataList.stream()
+                .filter(mailboxData -> {
+                    long expiryDate = now + Math.min(MailboxData.MAX_TLL, mailboxData.getMetaData().getTtl());
+                    return processedMailboxData.putIfAbsent(mailboxData, expiryDate) == null;
+                })
+                .collect(Collectors.toList());
+        if (notProcessed.isEmpty()) {
+            return;
+        }
+        int numTasks = Math.min(notProcessed.size(), MAX_PARALLEL_DECRYPTIONS);
+        int chunkSize = (notProcessed.size() + numTasks - 1) / numTasks;
+        Lists.partition(notProcessed, chunkSize).forEach(chunk ->
+                runAsync(() -> chunk.forEach(this::processMailboxData), NetworkService.COMPUTE_POOL));
+    }
+
+    private void processMailboxData(MailboxData mailboxData) {
+        ConfidentialMessage confidentialMessage = mailboxData.getConfidentialMessage();
+        keyPairService.findKeyPair(confidentialMessage.getReceiverKeyId()).ifPresent(myKeyPair -> {
+            try {
+                decryptAndDispatch(confidentialMessage, myKeyPair);
+            } catch (Exception e) {
+                log.error(ExceptionUtil.print(e));
+                processedMailboxData.remove(mailboxData);
+                return;
+            }
+            dataService.ifPresent(service -> service.removeMailboxData(mailboxData, myKeyPair));
+        });
+    }
+
+    private void decryptAndDispatch(ConfidentialMessage confidentialMessage, KeyPair receiversKeyPair) throws Exception {
+        log.info("Found a matching key for processing confidentialMessage");
+        ConfidentialData confidentialData = confidentialMessage.getConfidentialData();
+        byte[] decryptedBytes = HybridEncryption.decryptAndVerify(confidentialData, receiversKeyPair);
+        bisq.network.protobuf.EnvelopePayloadMessage decryptedProto = bisq.network.protobuf.EnvelopePayloadMessage.parseFrom(decryptedBytes);
+        EnvelopePayloadMessage decryptedEnvelopePayloadMessage = EnvelopePayloadMessage.fromProto(decryptedProto);
+        PublicKey senderPublicKey = KeyGeneration.generatePublic(confidentialData.getSenderPublicKey());
+        log.info("Decrypted confidentialMessage");
+        runAsync(() -> {
+            listeners.forEach(l -> l.onMessage(decryptedEnvelopePayloadMessage));
+            confidentialMessageListeners.forEach(l -> l.onMessage(decryptedEnvelopePayloadMessage, senderPublicKey));
+        }, DISPATCHER);
+    }
 }
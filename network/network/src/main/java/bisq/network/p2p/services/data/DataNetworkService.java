@@ -27,6 +27,7 @@ import bisq.network.p2p.services.data.broadcast.Broadcaster;
 import bisq.network.p2p.services.data.filter.DataFilter;
 import bisq.network.p2p.services.data.inventory.Inventory;
 import bisq.network.p2p.services.data.inventory.InventoryService;
+import bisq.network.p2p.services.data.inventory.LazyInventory;
 import bisq.network.p2p.services.peergroup.PeerGroupManager;
 import bisq.network.p2p.services.peergroup.PeerGroupService;
 import lombok.extern.slf4j.Slf4j;
@@ -35,6 +36,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -61,7 +63,7 @@ public class DataNetworkService implements PeerGroupManager.Listener, Node.Liste
 
     public DataNetworkService(Node node,
                               PeerGroupManager peerGroupManager,
-                              Function<DataFilter, Inventory> inventoryProvider) {
+                              Function<DataFilter, LazyInventory> inventoryProvider) {
         this.node = node;
         peerGroupService = peerGroupManager.getPeerGroupService();
         this.peerGroupManager = peerGroupManager;
@@ -121,8 +123,8 @@ public class DataNetworkService implements PeerGroupManager.Listener, Node.Liste
         return broadcaster.reBroadcast(broadcastMessage);
     }
 
-    List<CompletableFuture<Inventory>> requestInventory(DataFilter dataFilter) {
-        return inventoryService.request(dataFilter);
+    List<CompletableFuture<Void>> requestInventory(DataFilter dataFilter, Consumer<Inventory> inventoryConsumer) {
+        return inventoryService.request(dataFilter, inventoryConsumer);
     }
 
     void addListener(DataNetworkService.Listener listener) {
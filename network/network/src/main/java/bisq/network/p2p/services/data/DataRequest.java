@@ -60,6 +60,11 @@ public interface DataRequest extends BroadcastMessage {
 
     boolean isExpired();
 
+    /**
+     * @return The date in ms after which the request is expired, or Long.MAX_VALUE if it never expires.
+     */
+    long getExpiryDate();
+
     long getCreated();
 
     int getMaxMapSize();
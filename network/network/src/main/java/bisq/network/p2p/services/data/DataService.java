@@ -18,12 +18,14 @@
 package bisq.network.p2p.services.data;
 
 import bisq.common.timer.Scheduler;
+import bisq.network.NetworkService;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
 import bisq.network.common.TransportType;
 import bisq.network.p2p.services.data.broadcast.BroadcastResult;
 import bisq.network.p2p.services.data.filter.DataFilter;
+import bisq.network.p2p.services.data.inventory.Inventory;
 import bisq.network.p2p.services.data.storage.DataStorageResult;
 import bisq.network.p2p.services.data.storage.StorageData;
 import bisq.network.p2p.services.data.storage.StorageService;
@@ -45,7 +47,9 @@ import java.security.KeyPair;
 import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -70,6 +74,9 @@ public class DataService implements DataNetworkService.Listener {
         }
     }
 
+    /**
+     * Listeners are called on the NetworkService.DISPATCHER thread for data received from the network.
+     */
     public interface Listener {
         default void onAuthorizedDataAdded(AuthorizedData authorizedData) {
         }
@@ -89,6 +96,14 @@ public class DataService implements DataNetworkService.Listener {
         default void onMailboxDataAdded(MailboxData mailboxData) {
         }
 
+        /**
+         * Called with the mailbox data added from one inventory response instead of a call of onMailboxDataAdded per
+         * entry.
+         */
+        default void onMailboxDataBatchAdded(List<MailboxData> mailboxDataList) {
+            mailboxDataList.forEach(this::onMailboxDataAdded);
+        }
+
         default void onMailboxDataRemoved(MailboxData mailboxData) {
         }
     }
@@ -101,36 +116,42 @@ public class DataService implements DataNetworkService.Listener {
     public DataService(StorageService storageService) {
         this.storageService = storageService;
 
+        // The stores notify on the thread of the update, which are the compute pool threads for network data. We
+        // switch to the dispatcher thread, so that our listeners do not get called concurrently.
         storageService.addListener(new StorageService.Listener() {
             @Override
             public void onAdded(StorageData storageData) {
-                if (storageData instanceof AuthorizedData) {
-                    listeners.forEach(e -> e.onAuthorizedDataAdded((AuthorizedData) storageData));
-                } else if (storageData instanceof AuthenticatedData) {
-                    listeners.forEach(e -> e.onAuthenticatedDataAdded((AuthenticatedData) storageData));
-                } else if (storageData instanceof MailboxData) {
-                    listeners.forEach(e -> e.onMailboxDataAdded((MailboxData) storageData));
-                } else if (storageData instanceof AppendOnlyData) {
-                    listeners.forEach(e -> e.onAppendOnlyDataAdded((AppendOnlyData) storageData));
-                }
+                NetworkService.DISPATCHER.execute(() -> {
+                    if (storageData instanceof AuthorizedData) {
+                        listeners.forEach(e -> e.onAuthorizedDataAdded((AuthorizedData) storageData));
+                    } else if (storageData instanceof AuthenticatedData) {
+                        listeners.forEach(e -> e.onAuthenticatedDataAdded((AuthenticatedData) storageData));
+                    } else if (storageData instanceof AppendOnlyData) {
+                        listeners.forEach(e -> e.onAppendOnlyDataAdded((AppendOnlyData) storageData));
+                    }
+                    // Added mailbox data is notified by processAddDataRequest, processInventory and addMailboxData,
+                    // so inventory responses can be handed over as one batch.
+                });
             }
 
             @Override
             public void onRemoved(StorageData storageData) {
-                if (storageData instanceof AuthorizedData) {
-                    listeners.forEach(e -> e.onAuthorizedDataRemoved((AuthorizedData) storageData));
-                } else if (storageData instanceof AuthenticatedData) {
-                    listeners.forEach(e -> e.onAuthenticatedDataRemoved((AuthenticatedData) storageData));
-                } else if (storageData instanceof MailboxData) {
-                    listeners.forEach(e -> e.onMailboxDataRemoved((MailboxData) storageData));
-                }
+                NetworkService.DISPATCHER.execute(() -> {
+                    if (storageData instanceof AuthorizedData) {
+                        listeners.forEach(e -> e.onAuthorizedDataRemoved((AuthorizedData) storageData));
+                    } else if (storageData instanceof AuthenticatedData) {
+                        listeners.forEach(e -> e.onAuthenticatedDataRemoved((AuthenticatedData) storageData));
+                    } else if (storageData instanceof MailboxData) {
+                        listeners.forEach(e -> e.onMailboxDataRemoved((MailboxData) storageData));
+                    }
+                });
             }
         });
     }
 
     // todo a bit of a hack that way...
     public DataNetworkService getDataServicePerTransport(TransportType transportType, Node defaultNode, PeerGroupManager peerGroupManager) {
-        DataNetworkService dataNetworkService = new DataNetworkService(defaultNode, peerGroupManager, storageService::getInventoryOfAllStores);
+        DataNetworkService dataNetworkService = new DataNetworkService(defaultNode, peerGroupManager, storageService::getLazyInventoryOfAllStores);
         dataNetworkServiceByTransportType.put(transportType, dataNetworkService);
         dataNetworkService.addListener(this);
         return dataNetworkService;
@@ -150,10 +171,14 @@ public class DataService implements DataNetworkService.Listener {
 
     @Override
     public void onMessage(EnvelopePayloadMessage envelopePayloadMessage, Connection connection, String nodeId) {
+        // Verifying the signatures is CPU heavy, so we do not block the dispatcher with it.
+        // The stores handle out of order add and remove requests by their sequence numbers.
         if (envelopePayloadMessage instanceof AddDataRequest) {
-            processAddDataRequest((AddDataRequest) envelopePayloadMessage, true);
+            CompletableFuture.runAsync(() -> processAddDataRequest((AddDataRequest) envelopePayloadMessage, true),
+                    NetworkService.COMPUTE_POOL);
         } else if (envelopePayloadMessage instanceof RemoveDataRequest) {
-            processRemoveDataRequest((RemoveDataRequest) envelopePayloadMessage, true);
+            CompletableFuture.runAsync(() -> processRemoveDataRequest((RemoveDataRequest) envelopePayloadMessage, true),
+                    NetworkService.COMPUTE_POOL);
         }
     }
 
@@ -190,6 +215,14 @@ public class DataService implements DataNetworkService.Listener {
         return storageService.getAuthenticatedData(storeName);
     }
 
+    /**
+     * @return The mailbox data addressed to any of the given receiverKeyIds. Uses the receiverKeyId index of the
+     * mailbox stores, so it does not iterate over the mailbox data of other receivers.
+     */
+    public Stream<MailboxData> getMailboxData(Set<String> receiverKeyIds) {
+        return storageService.getMailboxData(receiverKeyIds);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////
     // Add data
@@ -336,17 +369,9 @@ public class DataService implements DataNetworkService.Listener {
     }
 
     public void requestInventory(DataFilter dataFilter, DataNetworkService dataNetworkService) {
-        dataNetworkService.requestInventory(dataFilter).forEach(future -> {
-            future.whenComplete(((inventory, throwable) -> {
-                inventory.getEntries().forEach(dataRequest -> {
-                    if (dataRequest instanceof AddDataRequest) {
-                        processAddDataRequest((AddDataRequest) dataRequest, false);
-                    } else if (dataRequest instanceof RemoveDataRequest) {
-                        processRemoveDataRequest((RemoveDataRequest) dataRequest, false);
-                    }
-                });
-            }));
-        });
+        // Inventory chunks are applied as they arrive
+        dataNetworkService.requestInventory(dataFilter,
+                inventory -> CompletableFuture.runAsync(() -> processInventory(inventory), NetworkService.COMPUTE_POOL));
     }
 
 
@@ -367,45 +392,62 @@ public class DataService implements DataNetworkService.Listener {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    // Called on the compute pool
+    private void processInventory(Inventory inventory) {
+        List<AddDataRequest> addDataRequests = new ArrayList<>();
+        List<RemoveDataRequest> removeDataRequests = new ArrayList<>();
+        inventory.getEntries().forEach(dataRequest -> {
+            if (dataRequest instanceof AddDataRequest) {
+                addDataRequests.add((AddDataRequest) dataRequest);
+            } else if (dataRequest instanceof RemoveDataRequest) {
+                removeDataRequests.add((RemoveDataRequest) dataRequest);
+            }
+        });
+
+        // The add requests are validated in parallel
+        List<StorageData> addedData = storageService.onAddDataRequests(addDataRequests).stream()
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+        // The other added data got notified in order by the store listener
+        List<MailboxData> addedMailboxData = addedData.stream()
+                .filter(storageData -> storageData instanceof MailboxData)
+                .map(storageData -> (MailboxData) storageData)
+                .collect(Collectors.toList());
+        if (!addedMailboxData.isEmpty()) {
+            NetworkService.DISPATCHER.execute(() ->
+                    listeners.forEach(listener -> listener.onMailboxDataBatchAdded(addedMailboxData)));
+        }
+
+        removeDataRequests.forEach(removeDataRequest -> processRemoveDataRequest(removeDataRequest, false));
+    }
+
     private void processAddDataRequest(AddDataRequest addDataRequest, boolean allowReBroadcast) {
         storageService.onAddDataRequest(addDataRequest)
-                .whenComplete((optionalData, throwable) -> {
+                .whenCompleteAsync((optionalData, throwable) -> {
                     optionalData.ifPresent(storageData -> {
-                        // We get called on dispatcher thread with onMessage, and we don't switch thread in 
-                        // async calls
-
-                        if (storageData instanceof AuthorizedData) {
-                            listeners.forEach(e -> e.onAuthorizedDataAdded((AuthorizedData) storageData));
-                        } else if (storageData instanceof AuthenticatedData) {
-                            listeners.forEach(e -> e.onAuthenticatedDataAdded((AuthenticatedData) storageData));
-                        } else if (storageData instanceof MailboxData) {
+                        // The store listener notifies the added data in the order of the updates of the key, except
+                        // for mailbox data, which we notify here, so that inventory responses can be handed over as
+                        // one batch.
+                        if (storageData instanceof MailboxData) {
                             listeners.forEach(listener -> listener.onMailboxDataAdded((MailboxData) storageData));
-                        } else if (storageData instanceof AppendOnlyData) {
-                            listeners.forEach(listener -> listener.onAppendOnlyDataAdded((AppendOnlyData) storageData));
                         }
                         if (allowReBroadcast) {
                             dataNetworkServiceByTransportType.values().forEach(e -> e.reBroadcast(addDataRequest));
                         }
                     });
-                });
+                }, NetworkService.DISPATCHER);
     }
 
     private void processRemoveDataRequest(RemoveDataRequest removeDataRequest, boolean allowReBroadcast) {
         storageService.onRemoveDataRequest(removeDataRequest)
-                .whenComplete((optionalData, throwable) -> {
+                .whenCompleteAsync((optionalData, throwable) -> {
+                    // The removed data got notified in order by the store listener
                     optionalData.ifPresent(storageData -> {
-                        // We get called on dispatcher thread with onMessage, and we don't switch thread in 
-                        // async calls
-                        if (storageData instanceof AuthorizedData) {
-                            listeners.forEach(e -> e.onAuthorizedDataRemoved((AuthorizedData) storageData));
-                        } else if (storageData instanceof AuthenticatedData) {
-                            listeners.forEach(e -> e.onAuthenticatedDataRemoved((AuthenticatedData) storageData));
-                        }
                         if (allowReBroadcast) {
                             dataNetworkServiceByTransportType.values().forEach(e -> e.reBroadcast(removeDataRequest));
                         }
                     });
-                });
+                }, NetworkService.DISPATCHER);
     }
 
     private void doRequestInventory(DataNetworkService dataNetworkService) {
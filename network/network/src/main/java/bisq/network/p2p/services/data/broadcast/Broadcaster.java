@@ -19,6 +19,7 @@ package bisq.network.p2p.services.data.broadcast;
 
 import bisq.common.util.CollectionUtil;
 import bisq.network.NetworkService;
+import bisq.network.p2p.message.EncodedEnvelopePayloadMessage;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
 import bisq.network.p2p.services.peergroup.PeerGroupService;
@@ -89,22 +90,27 @@ public class Broadcaster {
                 broadcastMessage.getClass().getSimpleName(), numBroadcasts, numConnections, distributionFactor);
         List<Connection> allConnections = peerGroupService.getAllConnections().collect(Collectors.toList());
         Collections.shuffle(allConnections);
+        // We do not wait for the messages being written, so a slow peer does not delay the broadcast to the others.
         NetworkService.NETWORK_IO_POOL.submit(() -> {
+            // We serialize the message only once for all peers
+            EncodedEnvelopePayloadMessage encodedMessage = new EncodedEnvelopePayloadMessage(broadcastMessage);
             allConnections.stream()
                     .limit(numBroadcasts)
                     .forEach(connection -> {
                         log.debug("Node {} broadcast to {}", node, connection.getPeerAddress());
-                        try {
-                            node.send(broadcastMessage, connection);
-                            numSuccess.incrementAndGet();
-                        } catch (Throwable throwable) {
-                            numFaults.incrementAndGet();
-                        }
-                        if (numSuccess.get() + numFaults.get() == numBroadcasts) {
-                            future.complete(new BroadcastResult(numSuccess.get(),
-                                    numFaults.get(),
-                                    System.currentTimeMillis() - ts));
-                        }
+                        node.sendAsync(encodedMessage, connection)
+                                .whenComplete((result, throwable) -> {
+                                    if (throwable == null) {
+                                        numSuccess.incrementAndGet();
+                                    } else {
+                                        numFaults.incrementAndGet();
+                                    }
+                                    if (numSuccess.get() + numFaults.get() == numBroadcasts) {
+                                        future.complete(new BroadcastResult(numSuccess.get(),
+                                                numFaults.get(),
+                                                System.currentTimeMillis() - ts));
+                                    }
+                                });
                     });
         });
         return future;
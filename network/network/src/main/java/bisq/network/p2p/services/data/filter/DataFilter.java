@@ -23,8 +23,10 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Getter
@@ -32,24 +34,40 @@ import java.util.stream.Collectors;
 @EqualsAndHashCode
 public final class DataFilter implements Proto {
     private final List<FilterEntry> filterEntries;
+    // If present, the filterEntries are empty and the responder reconciles its inventory with the IBLT.
+    // Only sent to peers supporting Feature.INVENTORY_RECONCILIATION.
+    private final Optional<InvertibleBloomLookupTable> invertibleBloomLookupTable;
 
     public DataFilter(List<FilterEntry> filterEntries) {
+        this(filterEntries, Optional.empty());
+    }
+
+    public DataFilter(InvertibleBloomLookupTable invertibleBloomLookupTable) {
+        this(new ArrayList<>(), Optional.of(invertibleBloomLookupTable));
+    }
+
+    private DataFilter(List<FilterEntry> filterEntries, Optional<InvertibleBloomLookupTable> invertibleBloomLookupTable) {
         this.filterEntries = filterEntries;
+        this.invertibleBloomLookupTable = invertibleBloomLookupTable;
         // We need to sort deterministically as the data is used in the proof of work check
         Collections.sort(this.filterEntries);
     }
 
     public bisq.network.protobuf.DataFilter toProto() {
-        return bisq.network.protobuf.DataFilter.newBuilder()
+        var builder = bisq.network.protobuf.DataFilter.newBuilder()
                 .addAllFilterEntries(filterEntries.stream()
                         .map(FilterEntry::toProto)
-                        .collect(Collectors.toList()))
-                .build();
+                        .collect(Collectors.toList()));
+        invertibleBloomLookupTable.ifPresent(e -> builder.setInvertibleBloomLookupTable(e.toProto()));
+        return builder.build();
     }
 
     public static DataFilter fromProto(bisq.network.protobuf.DataFilter proto) {
         return new DataFilter(proto.getFilterEntriesList().stream()
                 .map(FilterEntry::fromProto)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList()),
+                proto.hasInvertibleBloomLookupTable() ?
+                        Optional.of(InvertibleBloomLookupTable.fromProto(proto.getInvertibleBloomLookupTable())) :
+                        Optional.empty());
     }
 }
\ No newline at end of file
@@ -0,0 +1,267 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.services.data.filter;
+
+import bisq.common.proto.Proto;
+import com.google.protobuf.ByteString;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Invertible Bloom lookup table (IBLT) over the FilterEntries (hash and sequence number) of a store.
+ * <p>
+ * The requester sends the IBLT of its entries instead of the full list. The responder subtracts it from the IBLT of
+ * its own entries and decodes the difference, which gives the entries the requester is missing (or has with another
+ * sequence number). The size of the IBLT depends only on the expected size of the difference, not on the number of
+ * entries. If the difference is too large to be decoded, the caller falls back to the full list of FilterEntries.
+ * <p>
+ * See https://arxiv.org/abs/1101.2245
+ */
+@Getter
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode
+public final class InvertibleBloomLookupTable implements Proto {
+    // With 4 hash functions decoding succeeds with high probability if the difference has less than about
+    // numCells / 2 entries. 120 cells have about 5 KB.
+    public static final int DEFAULT_NUM_CELLS = 120;
+    private static final int NUM_CELLS_PER_DIFFERENCE = 2;
+    public static final int MAX_NUM_CELLS = 12_000;
+    private static final int NUM_HASH_FUNCTIONS = 4;
+    private static final int HASH_LENGTH = 20;
+
+    @Getter
+    @EqualsAndHashCode
+    public static final class Difference {
+        // Entries contained only in the minuend
+        private final Set<FilterEntry> missingInSubtrahend;
+        // Entries contained only in the subtrahend
+        private final Set<FilterEntry> missingInMinuend;
+
+        private Difference(Set<FilterEntry> missingInSubtrahend, Set<FilterEntry> missingInMinuend) {
+            this.missingInSubtrahend = missingInSubtrahend;
+            this.missingInMinuend = missingInMinuend;
+        }
+    }
+
+    @ToString.Include
+    private final int numCells;
+    private final int[] counts;
+    private final byte[][] hashSums;
+    private final int[] sequenceNumberSums;
+    private final long[] checkSums;
+
+    public InvertibleBloomLookupTable(int numCells) {
+        this(new int[numCells], new byte[numCells][HASH_LENGTH], new int[numCells], new long[numCells]);
+    }
+
+    public InvertibleBloomLookupTable(int numCells, Collection<FilterEntry> filterEntries) {
+        this(numCells);
+        filterEntries.forEach(this::insert);
+    }
+
+    private InvertibleBloomLookupTable(int[] counts, byte[][] hashSums, int[] sequenceNumberSums, long[] checkSums) {
+        this.numCells = counts.length;
+        this.counts = counts;
+        this.hashSums = hashSums;
+        this.sequenceNumberSums = sequenceNumberSums;
+        this.checkSums = checkSums;
+
+        // Cells are split into one partition per hash function
+        checkArgument(numCells >= NUM_HASH_FUNCTIONS && numCells % NUM_HASH_FUNCTIONS == 0,
+                "numCells must be a positive multiple of " + NUM_HASH_FUNCTIONS);
+        checkArgument(numCells <= MAX_NUM_CELLS, "numCells must not be larger than " + MAX_NUM_CELLS);
+    }
+
+    /**
+     * @return The number of cells needed for decoding a difference of the given size with high probability, or empty
+     * if that exceeds MAX_NUM_CELLS.
+     */
+    public static Optional<Integer> getNumCellsForDifference(int estimatedDifference) {
+        long numCells = Math.max(DEFAULT_NUM_CELLS, (long) estimatedDifference * NUM_CELLS_PER_DIFFERENCE);
+        // Round up to a multiple of NUM_HASH_FUNCTIONS
+        numCells = (numCells + NUM_HASH_FUNCTIONS - 1) / NUM_HASH_FUNCTIONS * NUM_HASH_FUNCTIONS;
+        return numCells <= MAX_NUM_CELLS ? Optional.of((int) numCells) : Optional.empty();
+    }
+
+    public bisq.network.protobuf.InvertibleBloomLookupTable toProto() {
+        var builder = bisq.network.protobuf.InvertibleBloomLookupTable.newBuilder();
+        for (int i = 0; i < numCells; i++) {
+            builder.addCells(bisq.network.protobuf.InvertibleBloomLookupTableCell.newBuilder()
+                    .setCount(counts[i])
+                    .setHashSum(ByteString.copyFrom(hashSums[i]))
+                    .setSequenceNumberSum(sequenceNumberSums[i])
+                    .setCheckSum(checkSums[i]));
+        }
+        return builder.build();
+    }
+
+    public static InvertibleBloomLookupTable fromProto(bisq.network.protobuf.InvertibleBloomLookupTable proto) {
+        int numCells = proto.getCellsCount();
+        int[] counts = new int[numCells];
+        byte[][] hashSums = new byte[numCells][];
+        int[] sequenceNumberSums = new int[numCells];
+        long[] checkSums = new long[numCells];
+        for (int i = 0; i < numCells; i++) {
+            bisq.network.protobuf.InvertibleBloomLookupTableCell cell = proto.getCells(i);
+            counts[i] = cell.getCount();
+            hashSums[i] = cell.getHashSum().toByteArray();
+            checkArgument(hashSums[i].length == HASH_LENGTH, "hashSum must be " + HASH_LENGTH + " bytes");
+            sequenceNumberSums[i] = cell.getSequenceNumberSum();
+            checkSums[i] = cell.getCheckSum();
+        }
+        return new InvertibleBloomLookupTable(counts, hashSums, sequenceNumberSums, checkSums);
+    }
+
+    public void insert(FilterEntry filterEntry) {
+        update(filterEntry.getHash(), filterEntry.getSequenceNumber(), 1);
+    }
+
+    /**
+     * @return A new IBLT containing this minus the other IBLT. Both must have the same number of cells.
+     */
+    public InvertibleBloomLookupTable subtract(InvertibleBloomLookupTable other) {
+        checkArgument(numCells == other.numCells, "IBLTs must have the same number of cells");
+        int[] counts = new int[numCells];
+        byte[][] hashSums = new byte[numCells][HASH_LENGTH];
+        int[] sequenceNumberSums = new int[numCells];
+        long[] checkSums = new long[numCells];
+        for (int i = 0; i < numCells; i++) {
+            counts[i] = this.counts[i] - other.counts[i];
+            xor(hashSums[i], this.hashSums[i]);
+            xor(hashSums[i], other.hashSums[i]);
+            sequenceNumberSums[i] = this.sequenceNumberSums[i] ^ other.sequenceNumberSums[i];
+            checkSums[i] = this.checkSums[i] ^ other.checkSums[i];
+        }
+        return new InvertibleBloomLookupTable(counts, hashSums, sequenceNumberSums, checkSums);
+    }
+
+    /**
+     * Decodes the IBLT by repeatedly removing pure cells (cells containing exactly one entry).
+     * Should be called on the result of {@link #subtract}. The IBLT is not modified.
+     *
+     * @return The decoded difference or empty if the difference was too large to be decoded.
+     */
+    public Optional<Difference> decode() {
+        InvertibleBloomLookupTable copy = subtract(new InvertibleBloomLookupTable(numCells));
+        Set<FilterEntry> missingInSubtrahend = new HashSet<>();
+        Set<FilterEntry> missingInMinuend = new HashSet<>();
+        Deque<Integer> pureCells = new ArrayDeque<>();
+        for (int i = 0; i < numCells; i++) {
+            if (copy.isPure(i)) {
+                pureCells.add(i);
+            }
+        }
+        while (!pureCells.isEmpty()) {
+            int index = pureCells.poll();
+            if (!copy.isPure(index)) {
+                continue;
+            }
+            int count = copy.counts[index];
+            byte[] hash = copy.hashSums[index].clone();
+            int sequenceNumber = copy.sequenceNumberSums[index];
+            if (count == 1) {
+                missingInSubtrahend.add(new FilterEntry(hash, sequenceNumber));
+            } else {
+                missingInMinuend.add(new FilterEntry(hash, sequenceNumber));
+            }
+            for (int cellIndex : copy.update(hash, sequenceNumber, -count)) {
+                if (copy.isPure(cellIndex)) {
+                    pureCells.add(cellIndex);
+                }
+            }
+        }
+        if (!copy.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Difference(missingInSubtrahend, missingInMinuend));
+    }
+
+    private List<Integer> update(byte[] hash, int sequenceNumber, int delta) {
+        long checkSum = checkSum(hash, sequenceNumber);
+        List<Integer> cellIndices = new ArrayList<>(NUM_HASH_FUNCTIONS);
+        int partitionSize = numCells / NUM_HASH_FUNCTIONS;
+        for (int i = 0; i < NUM_HASH_FUNCTIONS; i++) {
+            int cellIndex = i * partitionSize + (int) Long.remainderUnsigned(mix(checkSum + i + 1), partitionSize);
+            counts[cellIndex] += delta;
+            xor(hashSums[cellIndex], hash);
+            sequenceNumberSums[cellIndex] ^= sequenceNumber;
+            checkSums[cellIndex] ^= checkSum;
+            cellIndices.add(cellIndex);
+        }
+        return cellIndices;
+    }
+
+    private boolean isPure(int index) {
+        return (counts[index] == 1 || counts[index] == -1) &&
+                checkSums[index] == checkSum(hashSums[index], sequenceNumberSums[index]);
+    }
+
+    private boolean isEmpty() {
+        for (int i = 0; i < numCells; i++) {
+            if (counts[i] != 0 || checkSums[i] != 0 || sequenceNumberSums[i] != 0 || !isZero(hashSums[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The hash is already a cryptographic hash, so we only need to mix in the sequence number
+    private static long checkSum(byte[] hash, int sequenceNumber) {
+        long result = 0;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            result = result * 31 + hash[i];
+        }
+        return mix(result ^ mix(sequenceNumber));
+    }
+
+    // Finalizer of SplitMix64
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private static void xor(byte[] target, byte[] source) {
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            target[i] ^= source[i];
+        }
+    }
+
+    private static boolean isZero(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
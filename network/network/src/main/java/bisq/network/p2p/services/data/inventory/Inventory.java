@@ -18,6 +18,7 @@
 package bisq.network.p2p.services.data.inventory;
 
 import bisq.common.data.ByteArray;
+import bisq.common.data.Pair;
 import bisq.common.proto.Proto;
 import bisq.network.p2p.services.data.DataRequest;
 import lombok.EqualsAndHashCode;
@@ -38,20 +39,44 @@ import java.util.stream.Collectors;
 public final class Inventory implements Proto {
     private final List<? extends DataRequest> entries;
     private final int peersNumEntries;
+    // Set by the responder if the difference to the requester's InvertibleBloomLookupTable could not be decoded.
+    // The requester has to repeat the request with the full DataFilter in that case.
+    private final boolean reconciliationFailed;
 
     public Inventory(Collection<? extends DataRequest> entries, int peersNumEntries) {
-        this.entries = new ArrayList<>(entries);
-        this.peersNumEntries = peersNumEntries;
+        this(serialize(entries), peersNumEntries, false);
+    }
+
+    /**
+     * @param serializedEntries The entries with their serialized form, if it is known already from building the chunks
+     *                          of the inventory.
+     */
+    static Inventory fromSerializedEntries(List<Pair<DataRequest, ByteArray>> serializedEntries, int peersNumEntries) {
+        return new Inventory(serializedEntries, peersNumEntries, false);
+    }
 
-        // We need to sort deterministically as the data is used in the proof of work check
-        // todo find cheaper solution or cache serialized result to avoid that its done repeatedly 
-        this.entries.sort(Comparator.comparing((DataRequest e) -> new ByteArray(e.serialize())));
+    public static Inventory reconciliationFailed(int peersNumEntries) {
+        return new Inventory(new ArrayList<>(), peersNumEntries, true);
+    }
+
+    private Inventory(List<Pair<DataRequest, ByteArray>> serializedEntries,
+                      int peersNumEntries,
+                      boolean reconciliationFailed) {
+        // We need to sort deterministically as the data is used in the proof of work check.
+        // Each entry is serialized only once for sorting.
+        this.entries = serializedEntries.stream()
+                .sorted(Comparator.comparing(Pair::getSecond))
+                .map(Pair::getFirst)
+                .collect(Collectors.toList());
+        this.peersNumEntries = peersNumEntries;
+        this.reconciliationFailed = reconciliationFailed;
     }
 
     public bisq.network.protobuf.Inventory toProto() {
         return bisq.network.protobuf.Inventory.newBuilder()
                 .addAllEntries(entries.stream().map(e -> e.toProto().getDataRequest()).collect(Collectors.toList()))
                 .setPeersNumEntries(peersNumEntries)
+                .setReconciliationFailed(reconciliationFailed)
                 .build();
     }
 
@@ -60,6 +85,12 @@ public final class Inventory implements Proto {
         List<DataRequest> entries = entriesList.stream()
                 .map(DataRequest::fromProto)
                 .collect(Collectors.toList());
-        return new Inventory(entries, proto.getPeersNumEntries());
+        return new Inventory(serialize(entries), proto.getPeersNumEntries(), proto.getReconciliationFailed());
+    }
+
+    private static List<Pair<DataRequest, ByteArray>> serialize(Collection<? extends DataRequest> entries) {
+        return entries.stream()
+                .map(entry -> new Pair<DataRequest, ByteArray>(entry, new ByteArray(entry.serialize())))
+                .collect(Collectors.toList());
     }
 }
@@ -34,6 +34,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static java.util.concurrent.CompletableFuture.supplyAsync;
@@ -43,37 +44,72 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 class InventoryHandler implements Connection.Listener {
     private final Node node;
     private final Connection connection;
-    private final CompletableFuture<Inventory> future = new CompletableFuture<>();
+    private final Consumer<Inventory> inventoryConsumer;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
     private final int nonce;
     private long ts;
+    private int nextChunkIndex;
+    private Optional<DataFilter> fallbackFilter = Optional.empty();
+    // Used for estimating the difference between our and the peer's inventory
+    private int numReceivedEntries;
+    private int peersNumEntries;
 
-    InventoryHandler(Node node, Connection connection) {
+    /**
+     * @param inventoryConsumer Gets called for each received chunk of the inventory.
+     */
+    InventoryHandler(Node node, Connection connection, Consumer<Inventory> inventoryConsumer) {
         this.node = node;
         this.connection = connection;
+        this.inventoryConsumer = inventoryConsumer;
 
         nonce = new Random().nextInt();
         connection.addListener(this);
     }
 
-    CompletableFuture<Inventory> request(DataFilter dataFilter) {
+    /**
+     * @return A future which completes when the last chunk of the inventory has been received.
+     */
+    CompletableFuture<Void> request(DataFilter dataFilter) {
         // log.debug("Node {} send GetInventoryRequest to {} with dataFilter {} and nonce {}. Connection={}",
         //        node, connection.getPeerAddress(), dataFilter, nonce, connection.getId());
         ts = System.currentTimeMillis();
-        supplyAsync(() -> node.send(new InventoryRequest(dataFilter, nonce), connection), NetworkService.NETWORK_IO_POOL)
-                .whenComplete((c, throwable) -> {
-                    if (throwable != null) {
-                        future.completeExceptionally(throwable);
-                        dispose();
-                    }
-                });
+        send(dataFilter);
         return future;
     }
 
+    /**
+     * Requests the inventory using the reconciliationFilter. If the peer cannot decode the difference we repeat the
+     * request with the fallbackFilter.
+     */
+    CompletableFuture<Void> request(DataFilter reconciliationFilter, DataFilter fallbackFilter) {
+        this.fallbackFilter = Optional.of(fallbackFilter);
+        return request(reconciliationFilter);
+    }
+
     @Override
     public void onNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage) {
         if (envelopePayloadMessage instanceof InventoryResponse) {
             InventoryResponse response = (InventoryResponse) envelopePayloadMessage;
             if (response.getRequestNonce() == nonce) {
+                if (response.getInventory().isReconciliationFailed() && fallbackFilter.isPresent()) {
+                    log.info("Inventory reconciliation with {} failed. We request the inventory with the full filter.",
+                            connection.getPeerAddress());
+                    DataFilter dataFilter = fallbackFilter.get();
+                    fallbackFilter = Optional.empty();
+                    send(dataFilter);
+                    return;
+                }
+                if (response.getChunkIndex() != nextChunkIndex) {
+                    // The chunks are sent in order over the same connection, so the missing chunks will not arrive
+                    // anymore. We fail the request, so that the peer gets included again at the next inventory request.
+                    log.warn("Received inventory chunk {} from {} but expected chunk {}. We fail the request.",
+                            response.getChunkIndex(), connection.getPeerAddress(), nextChunkIndex);
+                    removeListeners();
+                    future.completeExceptionally(new IllegalStateException("Unexpected inventory chunk index " +
+                            response.getChunkIndex() + ". Expected " + nextChunkIndex));
+                    return;
+                }
+                nextChunkIndex++;
                 Map<String, List<String>> details = new HashMap<>();
                 response.getInventory().getEntries()
                         .forEach(entry -> {
@@ -111,13 +147,21 @@ class InventoryHandler implements Connection.Listener {
                 if (report.isEmpty()) {
                     report = "No items received";
                 }
+                String chunkInfo = response.isHasMoreChunks() || response.getChunkIndex() > 0 ?
+                        " (chunk " + response.getChunkIndex() + ")" :
+                        "";
                 log.info("\n##########################################################################################\n" +
-                        "Inventory from: " + connection.getPeerAddress() + "\n" +
+                        "Inventory from: " + connection.getPeerAddress() + chunkInfo + "\n" +
                         report +
                         "\n##########################################################################################");
-                removeListeners();
-                connection.getConnectionMetrics().addRtt(System.currentTimeMillis() - ts);
-                future.complete(response.getInventory());
+                numReceivedEntries += response.getInventory().getEntries().size();
+                peersNumEntries = response.getInventory().getPeersNumEntries();
+                inventoryConsumer.accept(response.getInventory());
+                if (!response.isHasMoreChunks()) {
+                    removeListeners();
+                    connection.getConnectionMetrics().addRtt(System.currentTimeMillis() - ts);
+                    future.complete(null);
+                }
             } else {
                 log.warn("Node {} received Pong from {} with invalid nonce {}. Request nonce was {}. Connection={}",
                         node, connection.getPeerAddress(), response.getRequestNonce(), nonce, connection.getId());
@@ -130,6 +174,16 @@ class InventoryHandler implements Connection.Listener {
         dispose();
     }
 
+    private void send(DataFilter dataFilter) {
+        supplyAsync(() -> node.send(new InventoryRequest(dataFilter, nonce), connection), NetworkService.NETWORK_IO_POOL)
+                .whenComplete((c, throwable) -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(throwable);
+                        dispose();
+                    }
+                });
+    }
+
     void dispose() {
         removeListeners();
         future.cancel(true);
@@ -28,10 +28,20 @@ import lombok.ToString;
 public final class InventoryResponse implements BroadcastMessage {
     private final Inventory inventory;
     private final int requestNonce;
+    // If the inventory is sent in multiple chunks, the requester continues to wait for the following chunk as long
+    // as hasMoreChunks is set.
+    private final int chunkIndex;
+    private final boolean hasMoreChunks;
 
     public InventoryResponse(Inventory inventory, int requestNonce) {
+        this(inventory, requestNonce, 0, false);
+    }
+
+    public InventoryResponse(Inventory inventory, int requestNonce, int chunkIndex, boolean hasMoreChunks) {
         this.inventory = inventory;
         this.requestNonce = requestNonce;
+        this.chunkIndex = chunkIndex;
+        this.hasMoreChunks = hasMoreChunks;
     }
 
     @Override
@@ -39,12 +49,17 @@ public final class InventoryResponse implements BroadcastMessage {
         return getNetworkMessageBuilder().setInventoryResponse(
                         bisq.network.protobuf.InventoryResponse.newBuilder()
                                 .setInventory(inventory.toProto())
-                                .setRequestNonce(requestNonce))
+                                .setRequestNonce(requestNonce)
+                                .setChunkIndex(chunkIndex)
+                                .setHasMoreChunks(hasMoreChunks))
                 .build();
     }
 
     public static InventoryResponse fromProto(bisq.network.protobuf.InventoryResponse proto) {
-        return new InventoryResponse(Inventory.fromProto(proto.getInventory()), proto.getRequestNonce());
+        return new InventoryResponse(Inventory.fromProto(proto.getInventory()),
+                proto.getRequestNonce(),
+                proto.getChunkIndex(),
+                proto.getHasMoreChunks());
     }
 
 
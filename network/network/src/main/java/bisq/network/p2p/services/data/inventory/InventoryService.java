@@ -17,33 +17,51 @@
 
 package bisq.network.p2p.services.data.inventory;
 
+import bisq.common.data.ByteArray;
+import bisq.common.data.Pair;
 import bisq.network.NetworkService;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.CloseReason;
 import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.Feature;
 import bisq.network.p2p.node.Node;
+import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.filter.DataFilter;
+import bisq.network.p2p.services.data.filter.FilterEntry;
+import bisq.network.p2p.services.data.filter.InvertibleBloomLookupTable;
 import bisq.network.p2p.services.peergroup.PeerGroupService;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 public class InventoryService implements Node.Listener {
     private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    // Approximate serialized sizes in bytes, used for deciding if the IBLT is smaller than the full filter
+    private static final int IBLT_CELL_SIZE = 42;
+    private static final int FILTER_ENTRY_SIZE = 26;
+    private static final int MAX_CHUNK_SIZE = 1024 * 1024;
 
     private final Node node;
     private final PeerGroupService peerGroupService;
     private final Map<String, InventoryHandler> requestHandlerMap = new ConcurrentHashMap<>();
-    private final Function<DataFilter, Inventory> inventoryProvider;
+    private final Function<DataFilter, LazyInventory> inventoryProvider;
+    // Size of the difference between our and a peer's inventory as observed at the last completed request. -1 if we
+    // have not completed a request yet.
+    private volatile int estimatedDifference = -1;
 
-    public InventoryService(Node node, PeerGroupService peerGroupService, Function<DataFilter, Inventory> inventoryProvider) {
+    public InventoryService(Node node, PeerGroupService peerGroupService, Function<DataFilter, LazyInventory> inventoryProvider) {
         this.node = node;
         this.peerGroupService = peerGroupService;
         this.inventoryProvider = inventoryProvider;
@@ -53,18 +71,37 @@ public class InventoryService implements Node.Listener {
     public void initialize() {
     }
 
-    public List<CompletableFuture<Inventory>> request(DataFilter dataFilter) {
+    /**
+     * @param inventoryConsumer Gets called for each received inventory chunk, so the data can be applied before the
+     *                          whole inventory has arrived.
+     * @return A future per requested peer which completes when the last chunk of the peer's inventory was received.
+     */
+    public List<CompletableFuture<Void>> request(DataFilter dataFilter, Consumer<Inventory> inventoryConsumer) {
         int maxRequests = 400;
+        int myNumEntries = dataFilter.getFilterEntries().size();
+        Optional<DataFilter> reconciliationFilter = createReconciliationFilter(dataFilter);
         return peerGroupService.getAllConnections()
                 .filter(connection -> !requestHandlerMap.containsKey(connection.getId()))
                 .limit(maxRequests)
                 .map(connection -> {
                     String key = connection.getId();
-                    InventoryHandler handler = new InventoryHandler(node, connection);
+                    InventoryHandler handler = new InventoryHandler(node, connection, inventoryConsumer);
                     requestHandlerMap.put(key, handler);
-                    return handler.request(dataFilter)
-                            .orTimeout(TIMEOUT, TimeUnit.SECONDS)
-                            .whenComplete((__, throwable) -> requestHandlerMap.remove(key));
+                    CompletableFuture<Void> future;
+                    if (reconciliationFilter.isPresent() &&
+                            connection.getPeersCapability().supports(Feature.INVENTORY_RECONCILIATION)) {
+                        future = handler.request(reconciliationFilter.get(), dataFilter);
+                    } else {
+                        future = handler.request(dataFilter);
+                    }
+                    return future
+                            .orTimeout(TIMEOUT, TimeUnit.MILLISECONDS)
+                            .whenComplete((__, throwable) -> {
+                                requestHandlerMap.remove(key);
+                                if (throwable == null) {
+                                    updateEstimatedDifference(handler, myNumEntries);
+                                }
+                            });
                 })
                 .collect(Collectors.toList());
     }
@@ -79,10 +116,25 @@ public class InventoryService implements Node.Listener {
         if (envelopePayloadMessage instanceof InventoryRequest) {
             InventoryRequest request = (InventoryRequest) envelopePayloadMessage;
             log.debug("Node {} received GetInventoryRequest with nonce {} from {}", node, request.getNonce(), connection.getPeerAddress());
-            Inventory inventory = inventoryProvider.apply(request.getDataFilter());
-            NetworkService.NETWORK_IO_POOL.submit(() -> node.send(new InventoryResponse(inventory, request.getNonce()), connection));
-            log.debug("Node {} sent GetInventoryResponse with inventory {} and nonce {} to {}. Connection={}",
-                    node, inventory, request.getNonce(), connection.getPeerAddress(), connection.getId());
+            int nonce = request.getNonce();
+            // Creating the inventory can be expensive for large stores, so we do not block the dispatcher with it
+            CompletableFuture.supplyAsync(() -> inventoryProvider.apply(request.getDataFilter()), NetworkService.COMPUTE_POOL)
+                    .thenCompose(inventory -> {
+                        if (connection.getPeersCapability().supports(Feature.INVENTORY_CHUNKS)) {
+                            return sendInChunks(inventory, nonce, connection);
+                        } else {
+                            return node.sendAsync(new InventoryResponse(inventory.toInventory(), nonce), connection);
+                        }
+                    })
+                    .whenComplete((c, throwable) -> {
+                        if (throwable != null) {
+                            log.warn("Node {} failed to send GetInventoryResponse with nonce {} to {}. Connection={}. Error: {}",
+                                    node, nonce, connection.getPeerAddress(), connection.getId(), throwable.getMessage());
+                        } else {
+                            log.debug("Node {} sent GetInventoryResponse with nonce {} to {}. Connection={}",
+                                    node, nonce, connection.getPeerAddress(), connection.getId());
+                        }
+                    });
         }
     }
 
@@ -98,4 +150,106 @@ public class InventoryService implements Node.Listener {
             requestHandlerMap.remove(key);
         }
     }
-}
\ No newline at end of file
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The IBLT must be sized for the difference to the peer's inventory. If the difference cannot be decoded, the
+     * request has to be repeated with the full filter. So we use the IBLT only if we have an estimate of the difference
+     * from a previous request and if the IBLT is smaller than the full filter. Otherwise, we send the full filter
+     * right away.
+     */
+    private Optional<DataFilter> createReconciliationFilter(DataFilter dataFilter) {
+        if (estimatedDifference < 0) {
+            return Optional.empty();
+        }
+        List<FilterEntry> filterEntries = dataFilter.getFilterEntries();
+        return InvertibleBloomLookupTable.getNumCellsForDifference(estimatedDifference)
+                .filter(numCells -> (long) numCells * IBLT_CELL_SIZE < (long) filterEntries.size() * FILTER_ENTRY_SIZE)
+                .map(numCells -> new DataFilter(new InvertibleBloomLookupTable(numCells, filterEntries)));
+    }
+
+    private void updateEstimatedDifference(InventoryHandler handler, int myNumEntries) {
+        // The peer sent us the entries we were missing. The entries only we have are the ones not covered by the
+        // peer's entries which we have in common.
+        int numReceivedEntries = handler.getNumReceivedEntries();
+        int numCommonEntries = handler.getPeersNumEntries() - numReceivedEntries;
+        int numMissingAtPeer = Math.max(0, myNumEntries - numCommonEntries);
+        estimatedDifference = numReceivedEntries + numMissingAtPeer;
+    }
+
+    /**
+     * Sends the inventory as a sequence of InventoryResponses with at most MAX_CHUNK_SIZE bytes of entries. The entries
+     * are taken from the stores while building the chunks, and the next chunk is only built after the previous one was
+     * sent. So we never hold more than one chunk per requester in memory and do not sort the whole inventory.
+     */
+    private CompletableFuture<Connection> sendInChunks(LazyInventory inventory, int nonce, Connection connection) {
+        if (inventory.isReconciliationFailed()) {
+            return node.sendAsync(new InventoryResponse(inventory.toInventory(), nonce), connection);
+        }
+        InventoryChunker chunker = new InventoryChunker(inventory.getEntries().iterator(), MAX_CHUNK_SIZE);
+        return sendChunk(chunker, 0, inventory.getPeersNumEntries(), nonce, connection);
+    }
+
+    private CompletableFuture<Connection> sendChunk(InventoryChunker chunker,
+                                                    int chunkIndex,
+                                                    int peersNumEntries,
+                                                    int nonce,
+                                                    Connection connection) {
+        Inventory chunk = Inventory.fromSerializedEntries(chunker.nextChunk(), peersNumEntries);
+        boolean hasMoreChunks = chunker.hasMoreEntries();
+        return node.sendAsync(new InventoryResponse(chunk, nonce, chunkIndex, hasMoreChunks), connection)
+                .thenComposeAsync(c -> hasMoreChunks ?
+                                sendChunk(chunker, chunkIndex + 1, peersNumEntries, nonce, connection) :
+                                CompletableFuture.completedFuture(c),
+                        NetworkService.COMPUTE_POOL);
+    }
+
+    /**
+     * Splits the entries into chunks of at most maxChunkSize bytes. An entry larger than maxChunkSize gets a chunk on
+     * its own. Each entry is serialized once, and the serialized form is used for the size and for sorting the chunk.
+     */
+    static final class InventoryChunker {
+        private final Iterator<? extends DataRequest> entries;
+        private final int maxChunkSize;
+        // Entry which did not fit into the previous chunk
+        @Nullable
+        private Pair<DataRequest, ByteArray> pending;
+
+        InventoryChunker(Iterator<? extends DataRequest> entries, int maxChunkSize) {
+            this.entries = entries;
+            this.maxChunkSize = maxChunkSize;
+        }
+
+        boolean hasMoreEntries() {
+            return pending != null || entries.hasNext();
+        }
+
+        /**
+         * @return The next chunk, which is empty only if there are no more entries.
+         */
+        List<Pair<DataRequest, ByteArray>> nextChunk() {
+            List<Pair<DataRequest, ByteArray>> chunk = new ArrayList<>();
+            int chunkSize = 0;
+            while (hasMoreEntries()) {
+                Pair<DataRequest, ByteArray> entry = pending != null ? pending : serialize(entries.next());
+                pending = null;
+                int size = entry.getSecond().getBytes().length;
+                if (!chunk.isEmpty() && chunkSize + size > maxChunkSize) {
+                    pending = entry;
+                    break;
+                }
+                chunk.add(entry);
+                chunkSize += size;
+            }
+            return chunk;
+        }
+
+        private static Pair<DataRequest, ByteArray> serialize(DataRequest entry) {
+            return new Pair<>(entry, new ByteArray(entry.serialize()));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.inventory;
+
+import bisq.network.p2p.services.data.DataRequest;
+import lombok.Getter;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Inventory whose entries are streamed from the stores. It allows sending the inventory in chunks without collecting
+ * and sorting all entries first. The entries can be consumed only once.
+ */
+@Getter
+public final class LazyInventory {
+    private final Stream<? extends DataRequest> entries;
+    private final int peersNumEntries;
+    private final boolean reconciliationFailed;
+
+    public LazyInventory(Stream<? extends DataRequest> entries, int peersNumEntries) {
+        this(entries, peersNumEntries, false);
+    }
+
+    public static LazyInventory reconciliationFailed(int peersNumEntries) {
+        return new LazyInventory(Stream.empty(), peersNumEntries, true);
+    }
+
+    private LazyInventory(Stream<? extends DataRequest> entries, int peersNumEntries, boolean reconciliationFailed) {
+        this.entries = entries;
+        this.peersNumEntries = peersNumEntries;
+        this.reconciliationFailed = reconciliationFailed;
+    }
+
+    public Inventory toInventory() {
+        return reconciliationFailed ?
+                Inventory.reconciliationFailed(peersNumEntries) :
+                new Inventory(entries.collect(Collectors.toList()), peersNumEntries);
+    }
+}
@@ -21,23 +21,31 @@ import bisq.common.data.ByteArray;
 import bisq.common.util.StringUtils;
 import bisq.network.NetworkService;
 import bisq.network.p2p.services.data.DataRequest;
-import bisq.persistence.Persistence;
+import bisq.persistence.AppendLogPersistence;
 import bisq.persistence.PersistenceService;
+import bisq.persistence.PersistenceScheduler;
 import bisq.persistence.RateLimitedPersistenceClient;
+import com.google.protobuf.ByteString;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 public abstract class DataStorageService<T extends DataRequest> extends RateLimitedPersistenceClient<DataStore<T>> {
     public static final String STORE_POST_FIX = "Store";
+    // Pruning only polls the due entries from the expiry index, so we can run it often to remove expired entries
+    // close to their TTL.
+    protected static final long PRUNE_INTERVAL_SEC = 1;
+    private static final int NUM_UPDATE_LOCKS = 64;
 
     @Getter
-    protected final Persistence<DataStore<T>> persistence;
+    protected final AppendLogPersistence<DataStore<T>> persistence;
     @Getter
     public final DataStore<T> persistableStore = new DataStore<>();
     @Getter
@@ -45,13 +53,37 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
     @Getter
     protected final String subDirectory;
     protected Optional<Integer> maxMapSize = Optional.empty();
+    protected final ExpiryIndex expiryIndex = new ExpiryIndex();
+    private final boolean memoryMapped;
+    private volatile boolean expiryIndexInitialized;
+    private final Object[] updateLocks = new Object[NUM_UPDATE_LOCKS];
 
-    public DataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
+    /**
+     * @param memoryMapped If set, the persisted store is memory mapped at read and the entries are decoded at their
+     *                     first access.
+     */
+    public DataStorageService(PersistenceService persistenceService,
+                              String storeName,
+                              String storeKey,
+                              boolean memoryMapped) {
         super();
+        for (int i = 0; i < updateLocks.length; i++) {
+            updateLocks[i] = new Object();
+        }
         this.storeKey = storeKey;
+        this.memoryMapped = memoryMapped;
         String storageFileName = StringUtils.camelCaseToSnakeCase(storeKey + STORE_POST_FIX);
         subDirectory = NetworkService.NETWORK_DB_PATH + File.separator + storeName;
-        persistence = persistenceService.getOrCreatePersistence(this, subDirectory, storageFileName, persistableStore);
+        Optional<Function<ByteString, DataStore<T>>> memoryMappedDecoder = memoryMapped ?
+                Optional.of(DataStore::fromMappedProto) :
+                Optional.empty();
+        persistence = persistenceService.getOrCreateAppendLogPersistence(this,
+                subDirectory,
+                storageFileName,
+                persistableStore,
+                DataStore::new,
+                memoryMappedDecoder,
+                PersistenceScheduler.Priority.LOW);
     }
 
     public void shutdown() {
@@ -68,22 +100,110 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
         if (map.isEmpty()) {
             return persisted;
         }
+        if (memoryMapped) {
+            return pruneMappedPersisted(persisted);
+        }
 
-        Map<ByteArray, T> pruned = map.entrySet().stream()
+        List<Map.Entry<ByteArray, T>> notExpired = map.entrySet().stream()
                 .filter(entry -> !entry.getValue().isExpired())
-                .sorted((o1, o2) -> Long.compare(o2.getValue().getCreated(), o1.getValue().getCreated()))
-                .limit(getMaxMapSize())
+                .collect(Collectors.toList());
+        int maxMapSize = getMaxMapSize(persisted);
+        if (notExpired.size() == map.size() && notExpired.size() <= maxMapSize) {
+            return persisted;
+        }
+
+        // Only if we exceed the max map size we need to sort to keep the most recent entries
+        Map<ByteArray, T> pruned = (notExpired.size() > maxMapSize ?
+                notExpired.stream()
+                        .sorted((o1, o2) -> Long.compare(o2.getValue().getCreated(), o1.getValue().getCreated()))
+                        .limit(maxMapSize) :
+                notExpired.stream())
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
         map.clear();
         map.putAll(pruned);
         return persisted;
     }
 
+    /**
+     * Same as the pruning of not memory mapped stores, but based on the expiry and creation dates stored next to the
+     * encoded values, so that we do not need to decode them.
+     */
+    private DataStore<T> pruneMappedPersisted(DataStore<T> persisted) {
+        long now = System.currentTimeMillis();
+        List<ByteArray> expired = persisted.streamExpiryDates()
+                .filter(entry -> now > entry.getValue())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        persisted.removeKeys(expired);
+
+        int maxMapSize = getMaxMapSize(persisted);
+        int numExceeding = persisted.getMap().size() - maxMapSize;
+        if (numExceeding > 0) {
+            // We keep the most recent entries
+            List<ByteArray> oldest = persisted.streamCreationDates()
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(numExceeding)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            persisted.removeKeys(oldest);
+        }
+        return persisted;
+    }
+
+    @Override
+    public void onPersistedApplied(DataStore<T> persisted) {
+        // The applied entries get added to the expiry index at the next pruning
+        expiryIndexInitialized = false;
+    }
+
+    /**
+     * Appends the added or updated entry to the log instead of writing the whole store. As it is called at each
+     * update of the map we update the expiry index as well.
+     */
+    protected void persist(ByteArray key, T value) {
+        persistence.appendAsync(DataStore.toLogRecord(key, value));
+        expiryIndex.put(key, value.getExpiryDate());
+    }
+
+    protected void persistRemoval(ByteArray key) {
+        persistence.appendAsync(DataStore.toRemovalLogRecord(key));
+        expiryIndex.remove(key);
+    }
+
+    /**
+     * @return The keys of the entries which are due to get pruned. At the first call after the persisted store got
+     * applied, all entries are added to the expiry index.
+     */
+    protected List<ByteArray> pollDueKeys() {
+        if (!expiryIndexInitialized) {
+            expiryIndexInitialized = true;
+            // For entries which have not been decoded yet we use the expiry date stored next to the encoded value
+            persistableStore.streamExpiryDates().forEach(entry ->
+                    expiryIndex.putIfAbsent(entry.getKey(), entry.getValue()));
+        }
+        return expiryIndex.pollDue(System.currentTimeMillis());
+    }
+
+    /**
+     * Updates of a key and the notification of the listeners about that update are done while holding the lock of
+     * that key. This way listeners get notified in the order the updates got applied, even if they come from different
+     * threads. Keys are spread over a fixed number of locks, so updates of different keys rarely block each other.
+     * Listeners must not block, as they are called while holding the lock.
+     */
+    protected Object getUpdateLock(ByteArray key) {
+        return updateLocks[Math.floorMod(key.hashCode(), updateLocks.length)];
+    }
+
     protected int getMaxMapSize() {
+        return getMaxMapSize(persistableStore);
+    }
+
+    // All entries of a store are of the same type, so we only need to decode the first one
+    private int getMaxMapSize(DataStore<T> dataStore) {
         if (maxMapSize.isPresent()) {
             return maxMapSize.get();
         }
-        maxMapSize = persistableStore.getMap().values().stream().map(DataRequest::getMaxMapSize).findFirst();
+        maxMapSize = dataStore.getValues().stream().map(DataRequest::getMaxMapSize).findFirst();
         return maxMapSize.orElse(MetaData.MAX_MAP_SIZE_10_000);
     }
 }
@@ -21,39 +21,104 @@ import bisq.common.data.ByteArray;
 import bisq.common.proto.ProtoResolver;
 import bisq.common.proto.UnresolvableProtobufMessageException;
 import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
+import bisq.persistence.AppendLogPersistableStore;
 import bisq.persistence.PersistableStore;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
-import lombok.Getter;
+import com.google.protobuf.WireFormat;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @ToString
-public final class DataStore<T extends DataRequest> implements PersistableStore<DataStore<T>> {
-    @Getter
-    private final Map<ByteArray, T> map = new ConcurrentHashMap<>();
+public final class DataStore<T extends DataRequest> implements AppendLogPersistableStore<DataStore<T>> {
+    private final LazyDecodingMap<T> map;
+    // Set for stores read from a memory mapped file
+    private boolean decodeLazily;
 
     public DataStore() {
+        map = new LazyDecodingMap<>();
     }
 
     public DataStore(Map<ByteArray, T> map) {
-        this.map.putAll(map);
+        this.map = new LazyDecodingMap<>(map);
+    }
+
+    public Map<ByteArray, T> getMap() {
+        return map;
+    }
+
+    /**
+     * Read-only view of the values backed by the live map. No copy is created. Iteration is weakly consistent: it
+     * never throws a ConcurrentModificationException but might or might not reflect concurrent changes.
+     */
+    public Collection<T> getValues() {
+        return Collections.unmodifiableCollection(map.values());
+    }
+
+    /**
+     * Read-only view of the entries backed by the live map. Same consistency guarantees as {@link #getValues()}.
+     */
+    public Set<Map.Entry<ByteArray, T>> getEntrySet() {
+        return Collections.unmodifiableMap(map).entrySet();
+    }
+
+    /**
+     * Expiry dates of all entries, taken from the persisted record for entries which have not been decoded yet.
+     */
+    public Stream<Map.Entry<ByteArray, Long>> streamExpiryDates() {
+        return map.streamExpiryDates();
+    }
+
+    /**
+     * Sequence numbers of all entries as used for the FilterEntries, taken from the persisted record for entries
+     * which have not been decoded yet.
+     */
+    public Stream<Map.Entry<ByteArray, Integer>> streamSequenceNumbers() {
+        return map.streamSequenceNumbers();
+    }
+
+    /**
+     * ReceiverKeyIds of the AddMailboxRequests, empty for other entries. Taken from the persisted record for entries
+     * which have not been decoded yet.
+     */
+    public Stream<Map.Entry<ByteArray, String>> streamReceiverKeyIds() {
+        return map.streamReceiverKeyIds();
+    }
+
+    /**
+     * Creation dates of all entries, taken from the persisted record for entries which have not been decoded yet.
+     */
+    public Stream<Map.Entry<ByteArray, Long>> streamCreationDates() {
+        return map.streamCreationDates();
+    }
+
+    /**
+     * Removes the entries without decoding them.
+     */
+    public void removeKeys(Collection<ByteArray> keys) {
+        map.removeKeys(keys);
     }
 
     @Override
     public bisq.network.protobuf.DataStore toProto() {
         // Protobuf map do not support bytes as key
-        List<bisq.network.protobuf.DataStore.MapEntry> mapEntries = map.entrySet().stream()
-                .map(e -> bisq.network.protobuf.DataStore.MapEntry.newBuilder()
-                        .setKey(e.getKey().toProto())
-                        .setValue(e.getValue().toProto().getDataRequest())
-                        .build())
-                .collect(Collectors.toList());
+        // Entries which have not been decoded yet are written without decoding them
+        List<bisq.network.protobuf.DataStore.MapEntry> mapEntries = map.toProtoEntries().collect(Collectors.toList());
         return bisq.network.protobuf.DataStore.newBuilder()
                 .addAllMapEntries(mapEntries)
                 .build();
@@ -64,6 +129,131 @@ public final class DataStore<T extends DataRequest> implements PersistableStore<
                 .collect(Collectors.toMap(e -> ByteArray.fromProto(e.getKey()), e -> DataRequest.fromProto(e.getValue()))));
     }
 
+    /**
+     * Creates a DataStore from the serialized DataStore without decoding the values. We only read the keys and keep
+     * the values as ByteString, which aliases the memory mapped file. Values get decoded at the first access. Log
+     * records applied to that store are kept encoded as well.
+     */
+    public static <T extends DataRequest> DataStore<T> fromMappedProto(ByteString bytes) {
+        DataStore<T> dataStore = new DataStore<>();
+        dataStore.decodeLazily = true;
+        try {
+            CodedInputStream inputStream = bytes.newCodedInput();
+            inputStream.enableAliasing(true);
+            while (!inputStream.isAtEnd()) {
+                int tag = inputStream.readTag();
+                if (WireFormat.getTagFieldNumber(tag) != bisq.network.protobuf.DataStore.MAPENTRIES_FIELD_NUMBER) {
+                    inputStream.skipField(tag);
+                    continue;
+                }
+                int oldLimit = inputStream.pushLimit(inputStream.readRawVarint32());
+                dataStore.applyEncodedMapEntry(inputStream);
+                inputStream.popLimit(oldLimit);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return dataStore;
+    }
+
+    // We use the MapEntry as log record. A record without value represents a removal.
+    public static byte[] toLogRecord(ByteArray key, DataRequest value) {
+        return bisq.network.protobuf.DataStore.MapEntry.newBuilder()
+                .setKey(key.toProto())
+                .setValue(value.toProto().getDataRequest())
+                .setExpiryDate(value.getExpiryDate())
+                .setCreated(value.getCreated())
+                .setSequenceNumber(getSequenceNumber(value))
+                .setReceiverKeyId(getReceiverKeyId(value))
+                .build()
+                .toByteArray();
+    }
+
+    public static byte[] toRemovalLogRecord(ByteArray key) {
+        return bisq.network.protobuf.DataStore.MapEntry.newBuilder()
+                .setKey(key.toProto())
+                .build()
+                .toByteArray();
+    }
+
+    @Override
+    public void applyLogRecord(byte[] record) throws IOException {
+        if (decodeLazily) {
+            applyEncodedMapEntry(CodedInputStream.newInstance(record));
+            return;
+        }
+        bisq.network.protobuf.DataStore.MapEntry mapEntry = bisq.network.protobuf.DataStore.MapEntry.parseFrom(record);
+        ByteArray key = ByteArray.fromProto(mapEntry.getKey());
+        if (mapEntry.hasValue()) {
+            //noinspection unchecked
+            map.put(key, (T) DataRequest.fromProto(mapEntry.getValue()));
+        } else {
+            map.remove(key);
+        }
+    }
+
+    /**
+     * The sequence number used for the FilterEntry of that request. Mailbox requests are not covered and use 0. We
+     * must not change that, as peers compare the FilterEntries.
+     */
+    public static int getSequenceNumber(DataRequest dataRequest) {
+        if (dataRequest instanceof AddAuthenticatedDataRequest) {
+            return ((AddAuthenticatedDataRequest) dataRequest).getAuthenticatedSequentialData().getSequenceNumber();
+        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest) {
+            return ((RemoveAuthenticatedDataRequest) dataRequest).getSequenceNumber();
+        }
+        return 0;
+    }
+
+    /**
+     * The receiverKeyId of an AddMailboxRequest, or an empty string for other requests.
+     */
+    public static String getReceiverKeyId(DataRequest dataRequest) {
+        if (dataRequest instanceof AddMailboxRequest) {
+            return ((AddMailboxRequest) dataRequest).getMailboxSequentialData().getMailboxData()
+                    .getConfidentialMessage().getReceiverKeyId();
+        }
+        return "";
+    }
+
+    // Reads the fields of a MapEntry and applies it without decoding the value. An entry without value is a removal.
+    private void applyEncodedMapEntry(CodedInputStream inputStream) throws IOException {
+        ByteString key = null;
+        ByteString value = null;
+        long expiryDate = 0;
+        long created = 0;
+        int sequenceNumber = 0;
+        String receiverKeyId = "";
+        while (!inputStream.isAtEnd()) {
+            int entryTag = inputStream.readTag();
+            int fieldNumber = WireFormat.getTagFieldNumber(entryTag);
+            if (fieldNumber == bisq.network.protobuf.DataStore.MapEntry.KEY_FIELD_NUMBER) {
+                key = inputStream.readBytes();
+            } else if (fieldNumber == bisq.network.protobuf.DataStore.MapEntry.VALUE_FIELD_NUMBER) {
+                value = inputStream.readBytes();
+            } else if (fieldNumber == bisq.network.protobuf.DataStore.MapEntry.EXPIRYDATE_FIELD_NUMBER) {
+                expiryDate = inputStream.readSInt64();
+            } else if (fieldNumber == bisq.network.protobuf.DataStore.MapEntry.CREATED_FIELD_NUMBER) {
+                created = inputStream.readSInt64();
+            } else if (fieldNumber == bisq.network.protobuf.DataStore.MapEntry.SEQUENCENUMBER_FIELD_NUMBER) {
+                sequenceNumber = inputStream.readSInt32();
+            } else if (fieldNumber == bisq.network.protobuf.DataStore.MapEntry.RECEIVERKEYID_FIELD_NUMBER) {
+                receiverKeyId = inputStream.readStringRequireUtf8();
+            } else {
+                inputStream.skipField(entryTag);
+            }
+        }
+        if (key == null) {
+            return;
+        }
+        ByteArray byteArray = ByteArray.fromProto(bisq.common.protobuf.ByteArray.parseFrom(key));
+        if (value != null) {
+            map.putEncoded(byteArray, value, expiryDate, created, sequenceNumber, receiverKeyId);
+        } else {
+            map.removeKeys(List.of(byteArray));
+        }
+    }
+
     @Override
     public ProtoResolver<PersistableStore<?>> getResolver() {
         return any -> {
@@ -78,11 +268,18 @@ public final class DataStore<T extends DataRequest> implements PersistableStore<
     @Override
     public void applyPersisted(DataStore<T> persisted) {
         map.clear();
-        map.putAll(persisted.getMap());
+        map.putAllFrom(persisted.map);
     }
 
+    /**
+     * Returns a snapshot of the current entries. Keys and values are immutable, so we only copy the references and do
+     * not decode entries which have not been decoded yet. With the append log it is only called when the whole store
+     * gets written.
+     */
     @Override
     public DataStore<T> getClone() {
-        return new DataStore<>(map);
+        DataStore<T> clone = new DataStore<>();
+        clone.map.putAllFrom(map);
+        return clone;
     }
 }
\ No newline at end of file
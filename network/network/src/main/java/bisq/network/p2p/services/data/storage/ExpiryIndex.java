@@ -0,0 +1,108 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Min-heap of the expiry dates of the entries of a DataStore, so that pruning only touches the entries which are due.
+ * An update of a key adds a new heap entry, the outdated ones are dropped when they get polled.
+ */
+public final class ExpiryIndex {
+    private static final class Entry {
+        private final ByteArray key;
+        private final long expiryDate;
+
+        private Entry(ByteArray key, long expiryDate) {
+            this.key = key;
+            this.expiryDate = expiryDate;
+        }
+    }
+
+    // If the outdated heap entries exceed the current ones by that number we rebuild the heap
+    private static final int MAX_OUTDATED_ENTRIES = 1000;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.expiryDate));
+    private final Map<ByteArray, Long> expiryDateByKey = new HashMap<>();
+
+    public synchronized void put(ByteArray key, long expiryDate) {
+        if (expiryDate == Long.MAX_VALUE) {
+            remove(key);
+            return;
+        }
+        Long previous = expiryDateByKey.put(key, expiryDate);
+        if (previous == null || previous != expiryDate) {
+            queue.add(new Entry(key, expiryDate));
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Used at a full scan, which must not override the expiry date of a concurrent update.
+     */
+    public synchronized void putIfAbsent(ByteArray key, long expiryDate) {
+        if (!expiryDateByKey.containsKey(key)) {
+            put(key, expiryDate);
+        }
+    }
+
+    public synchronized void remove(ByteArray key) {
+        if (expiryDateByKey.remove(key) != null) {
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Removes and returns the keys with an expiry date before the given date.
+     */
+    public synchronized List<ByteArray> pollDue(long date) {
+        List<ByteArray> dueKeys = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().expiryDate < date) {
+            Entry entry = queue.poll();
+            Long expiryDate = expiryDateByKey.get(entry.key);
+            if (expiryDate != null && expiryDate == entry.expiryDate) {
+                expiryDateByKey.remove(entry.key);
+                dueKeys.add(entry.key);
+            }
+        }
+        return dueKeys;
+    }
+
+    public synchronized int size() {
+        return expiryDateByKey.size();
+    }
+
+    public synchronized void clear() {
+        queue.clear();
+        expiryDateByKey.clear();
+    }
+
+    private void compactIfNeeded() {
+        if (queue.size() > expiryDateByKey.size() + MAX_OUTDATED_ENTRIES) {
+            queue.clear();
+            expiryDateByKey.forEach((key, expiryDate) -> queue.add(new Entry(key, expiryDate)));
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.common.proto.UnresolvableProtobufMessageException;
+import bisq.network.p2p.services.data.DataRequest;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * ConcurrentMap which can hold values in their serialized form. Those are decoded at the first access and replaced by
+ * the decoded value. Used for DataStores which are read from a memory mapped file, so at startup only the index of
+ * keys to the serialized values is created.
+ */
+final class LazyDecodingMap<T extends DataRequest> extends AbstractMap<ByteArray, T> implements ConcurrentMap<ByteArray, T> {
+    private static final class Encoded {
+        private final ByteString bytes;
+        // Stored next to the value, so we can prune and build filters without decoding. The expiry date is 0 if
+        // the entry was written by an older version, which did not store those fields.
+        private final long expiryDate;
+        private final long created;
+        private final int sequenceNumber;
+        private final String receiverKeyId;
+
+        private Encoded(ByteString bytes, long expiryDate, long created, int sequenceNumber, String receiverKeyId) {
+            this.bytes = bytes;
+            this.expiryDate = expiryDate;
+            this.created = created;
+            this.sequenceNumber = sequenceNumber;
+            this.receiverKeyId = receiverKeyId;
+        }
+
+        private boolean hasMetaData() {
+            return expiryDate != 0;
+        }
+    }
+
+    // Values are either of type T or Encoded
+    private final ConcurrentHashMap<ByteArray, Object> map = new ConcurrentHashMap<>();
+
+    LazyDecodingMap() {
+    }
+
+    LazyDecodingMap(Map<ByteArray, T> map) {
+        this.map.putAll(map);
+    }
+
+    void putEncoded(ByteArray key,
+                    ByteString value,
+                    long expiryDate,
+                    long created,
+                    int sequenceNumber,
+                    String receiverKeyId) {
+        map.put(key, new Encoded(value, expiryDate, created, sequenceNumber, receiverKeyId));
+    }
+
+    // Removes the entries without decoding them
+    void removeKeys(Collection<ByteArray> keys) {
+        keys.forEach(map::remove);
+    }
+
+    /**
+     * Expiry dates of all entries. Encoded values are only decoded if their expiry date is unknown.
+     */
+    Stream<Map.Entry<ByteArray, Long>> streamExpiryDates() {
+        return map.entrySet().stream()
+                .map(entry -> new SimpleImmutableEntry<>(entry.getKey(), getExpiryDate(entry.getKey(), entry.getValue())));
+    }
+
+    /**
+     * Creation dates of all entries. Encoded values are only decoded if their creation date is unknown.
+     */
+    Stream<Map.Entry<ByteArray, Long>> streamCreationDates() {
+        return map.entrySet().stream()
+                .map(entry -> new SimpleImmutableEntry<>(entry.getKey(), getCreated(entry.getKey(), entry.getValue())));
+    }
+
+    /**
+     * Sequence numbers of all entries as used for the FilterEntries. Encoded values are only decoded if their
+     * sequence number is unknown.
+     */
+    Stream<Map.Entry<ByteArray, Integer>> streamSequenceNumbers() {
+        return map.entrySet().stream()
+                .map(entry -> new SimpleImmutableEntry<>(entry.getKey(), getSequenceNumber(entry.getKey(), entry.getValue())));
+    }
+
+    /**
+     * ReceiverKeyIds of all entries, which are empty for entries other than AddMailboxRequests. Encoded values are
+     * only decoded if their receiverKeyId is unknown.
+     */
+    Stream<Map.Entry<ByteArray, String>> streamReceiverKeyIds() {
+        return map.entrySet().stream()
+                .map(entry -> new SimpleImmutableEntry<>(entry.getKey(), getReceiverKeyId(entry.getKey(), entry.getValue())));
+    }
+
+    // Takes over the entries without decoding them
+    void putAllFrom(LazyDecodingMap<T> other) {
+        map.putAll(other.map);
+    }
+
+    /**
+     * Entries as protobuf MapEntries. Encoded values are only parsed to the protobuf message, not to the DataRequest.
+     * Their stored fields are taken over as they are, even if unknown.
+     */
+    Stream<bisq.network.protobuf.DataStore.MapEntry> toProtoEntries() {
+        return map.entrySet().stream()
+                .map(entry -> {
+                    Object value = entry.getValue();
+                    var builder = bisq.network.protobuf.DataStore.MapEntry.newBuilder()
+                            .setKey(entry.getKey().toProto())
+                            .setValue(toProto(value));
+                    if (value instanceof Encoded) {
+                        Encoded encoded = (Encoded) value;
+                        return builder.setExpiryDate(encoded.expiryDate)
+                                .setCreated(encoded.created)
+                                .setSequenceNumber(encoded.sequenceNumber)
+                                .setReceiverKeyId(encoded.receiverKeyId)
+                                .build();
+                    }
+                    DataRequest dataRequest = (DataRequest) value;
+                    return builder.setExpiryDate(dataRequest.getExpiryDate())
+                            .setCreated(dataRequest.getCreated())
+                            .setSequenceNumber(DataStore.getSequenceNumber(dataRequest))
+                            .setReceiverKeyId(DataStore.getReceiverKeyId(dataRequest))
+                            .build();
+                });
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public T get(Object key) {
+        Object value = map.get(key);
+        return value == null ? null : resolve((ByteArray) key, value);
+    }
+
+    @Override
+    public T put(ByteArray key, T value) {
+        Object previous = map.put(key, Objects.requireNonNull(value));
+        return previous == null ? null : decode(previous);
+    }
+
+    @Override
+    public T remove(Object key) {
+        Object previous = map.remove(key);
+        return previous == null ? null : decode(previous);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public T putIfAbsent(ByteArray key, T value) {
+        Object previous = map.putIfAbsent(key, Objects.requireNonNull(value));
+        return previous == null ? null : resolve(key, previous);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        Object current = map.get(key);
+        return current != null && Objects.equals(resolve((ByteArray) key, current), value) && map.remove(key, current);
+    }
+
+    @Override
+    public boolean replace(ByteArray key, T oldValue, T newValue) {
+        Object current = map.get(key);
+        return current != null && Objects.equals(resolve(key, current), oldValue) &&
+                map.replace(key, current, Objects.requireNonNull(newValue));
+    }
+
+    @Override
+    public T replace(ByteArray key, T value) {
+        Object previous = map.replace(key, Objects.requireNonNull(value));
+        return previous == null ? null : decode(previous);
+    }
+
+    /**
+     * Atomic per key, as the function is executed by the underlying ConcurrentHashMap exactly once while the bin of
+     * that key is locked. The default implementation of ConcurrentMap would retry the function on contention.
+     */
+    @Override
+    public T compute(ByteArray key, BiFunction<? super ByteArray, ? super T, ? extends T> remappingFunction) {
+        Object result = map.compute(key, (k, current) -> remappingFunction.apply(k, current == null ? null : decode(current)));
+        //noinspection unchecked
+        return (T) result;
+    }
+
+    @Override
+    public T computeIfPresent(ByteArray key, BiFunction<? super ByteArray, ? super T, ? extends T> remappingFunction) {
+        Object result = map.computeIfPresent(key, (k, current) -> remappingFunction.apply(k, decode(current)));
+        //noinspection unchecked
+        return (T) result;
+    }
+
+    @Override
+    public Set<Map.Entry<ByteArray, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<ByteArray, T>> iterator() {
+                Iterator<Map.Entry<ByteArray, Object>> iterator = map.entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<ByteArray, T> next() {
+                        Map.Entry<ByteArray, Object> entry = iterator.next();
+                        return new SimpleImmutableEntry<>(entry.getKey(), resolve(entry.getKey(), entry.getValue()));
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+        };
+    }
+
+    private long getExpiryDate(ByteArray key, Object value) {
+        if (value instanceof Encoded && ((Encoded) value).hasMetaData()) {
+            return ((Encoded) value).expiryDate;
+        }
+        return resolve(key, value).getExpiryDate();
+    }
+
+    private long getCreated(ByteArray key, Object value) {
+        if (value instanceof Encoded && ((Encoded) value).hasMetaData()) {
+            return ((Encoded) value).created;
+        }
+        return resolve(key, value).getCreated();
+    }
+
+    private int getSequenceNumber(ByteArray key, Object value) {
+        if (value instanceof Encoded && ((Encoded) value).hasMetaData()) {
+            return ((Encoded) value).sequenceNumber;
+        }
+        return DataStore.getSequenceNumber(resolve(key, value));
+    }
+
+    private String getReceiverKeyId(ByteArray key, Object value) {
+        if (value instanceof Encoded && ((Encoded) value).hasMetaData()) {
+            return ((Encoded) value).receiverKeyId;
+        }
+        return DataStore.getReceiverKeyId(resolve(key, value));
+    }
+
+    // Decodes the value if needed and replaces the encoded value in the map, so we decode only once
+    private T resolve(ByteArray key, Object value) {
+        if (value instanceof Encoded) {
+            T decoded = decode(value);
+            map.replace(key, value, decoded);
+            return decoded;
+        }
+        //noinspection unchecked
+        return (T) value;
+    }
+
+    private T decode(Object value) {
+        if (value instanceof Encoded) {
+            //noinspection unchecked
+            return (T) DataRequest.fromProto(toProto(value));
+        }
+        //noinspection unchecked
+        return (T) value;
+    }
+
+    private static bisq.network.protobuf.DataRequest toProto(Object value) {
+        if (value instanceof Encoded) {
+            try {
+                return bisq.network.protobuf.DataRequest.parseFrom(((Encoded) value).bytes);
+            } catch (InvalidProtocolBufferException e) {
+                throw new UnresolvableProtobufMessageException(e);
+            }
+        }
+        return ((DataRequest) value).toProto().getDataRequest();
+    }
+}
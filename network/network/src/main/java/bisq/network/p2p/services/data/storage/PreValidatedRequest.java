@@ -0,0 +1,52 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Optional;
+
+/**
+ * An add request with its map key and the result of the validations which do not depend on the map. Those
+ * validations (hash, signature, data validity) are the expensive part of an add, so they are done before the map
+ * lock is taken, and for batches in parallel.
+ */
+@Getter
+@ToString
+public class PreValidatedRequest<R> {
+    private final R request;
+    private final ByteArray key;
+    private final Optional<DataStorageResult> failure;
+
+    public PreValidatedRequest(R request, ByteArray key) {
+        this(request, key, Optional.empty());
+    }
+
+    public PreValidatedRequest(R request, ByteArray key, DataStorageResult failure) {
+        this(request, key, Optional.of(failure));
+    }
+
+    private PreValidatedRequest(R request, ByteArray key, Optional<DataStorageResult> failure) {
+        this.request = request;
+        this.key = key;
+        this.failure = failure;
+    }
+}
@@ -27,7 +27,9 @@ import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.RemoveDataRequest;
 import bisq.network.p2p.services.data.filter.DataFilter;
 import bisq.network.p2p.services.data.filter.FilterEntry;
+import bisq.network.p2p.services.data.filter.InvertibleBloomLookupTable;
 import bisq.network.p2p.services.data.inventory.Inventory;
+import bisq.network.p2p.services.data.inventory.LazyInventory;
 import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
 import bisq.network.p2p.services.data.storage.append.AppendOnlyData;
 import bisq.network.p2p.services.data.storage.append.AppendOnlyDataStorageService;
@@ -50,6 +52,8 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -80,11 +84,23 @@ public class StorageService {
     final Map<String, AuthenticatedDataStorageService> authenticatedDataStores = new ConcurrentHashMap<>();
     final Map<String, MailboxDataStorageService> mailboxStores = new ConcurrentHashMap<>();
     final Map<String, AppendOnlyDataStorageService> appendOnlyDataStores = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<AuthenticatedDataStorageService>> authenticatedDataStoreFutures = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<MailboxDataStorageService>> mailboxStoreFutures = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<AppendOnlyDataStorageService>> appendOnlyDataStoreFutures = new ConcurrentHashMap<>();
     private final PersistenceService persistenceService;
+    private final boolean memoryMappedStores;
     private final Set<StorageService.Listener> listeners = new CopyOnWriteArraySet<>();
 
     public StorageService(PersistenceService persistenceService) {
+        this(persistenceService, false);
+    }
+
+    /**
+     * @param memoryMappedStores If set, the persisted stores are memory mapped and entries are decoded lazily.
+     */
+    public StorageService(PersistenceService persistenceService, boolean memoryMappedStores) {
         this.persistenceService = persistenceService;
+        this.memoryMappedStores = memoryMappedStores;
 
         // We create all stores for those files we have already persisted.
         // Persisted data is read at the very early stages of the application start.
@@ -95,7 +111,7 @@ public class StorageService {
             if (new File(directory).exists()) {
                 getExistingStoreKeys(directory)
                         .forEach(storeKey -> {
-                            AuthenticatedDataStorageService dataStore = new AuthenticatedDataStorageService(persistenceService, authStoreName, storeKey);
+                            AuthenticatedDataStorageService dataStore = new AuthenticatedDataStorageService(persistenceService, authStoreName, storeKey, memoryMappedStores);
                             dataStore.addListener(new AuthenticatedDataStorageService.Listener() {
                                 @Override
                                 public void onAdded(AuthenticatedData authenticatedData) {
@@ -115,7 +131,7 @@ public class StorageService {
             if (new File(directory).exists()) {
                 getExistingStoreKeys(directory)
                         .forEach(storeKey -> {
-                            MailboxDataStorageService dataStore = new MailboxDataStorageService(persistenceService, mailboxStoreName, storeKey);
+                            MailboxDataStorageService dataStore = new MailboxDataStorageService(persistenceService, mailboxStoreName, storeKey, memoryMappedStores);
                             dataStore.addListener(new MailboxDataStorageService.Listener() {
                                 @Override
                                 public void onAdded(MailboxData mailboxData) {
@@ -136,7 +152,7 @@ public class StorageService {
             if (new File(directory).exists()) {
                 getExistingStoreKeys(directory)
                         .forEach(storeKey -> {
-                            AppendOnlyDataStorageService dataStore = new AppendOnlyDataStorageService(persistenceService, appendStoreName, storeKey);
+                            AppendOnlyDataStorageService dataStore = new AppendOnlyDataStorageService(persistenceService, appendStoreName, storeKey, memoryMappedStores);
                             dataStore.addListener(appendOnlyData -> listeners.forEach(listener -> listener.onAdded(appendOnlyData)));
                             appendOnlyDataStores.put(storeKey, dataStore);
                         });
@@ -177,8 +193,15 @@ public class StorageService {
         return stores.flatMap(this::getAuthenticatedData);
     }
 
+    /**
+     * @return The mailbox data of all mailbox stores addressed to any of the given receiverKeyIds.
+     */
+    public Stream<MailboxData> getMailboxData(Set<String> receiverKeyIds) {
+        return mailboxStores.values().stream().flatMap(store -> store.getMailboxData(receiverKeyIds).stream());
+    }
+
     private Stream<AuthenticatedData> getAuthenticatedData(DataStorageService<? extends DataRequest> store) {
-        return store.getPersistableStore().getClone().getMap().values().stream()
+        return store.getPersistableStore().getValues().stream()
                 .filter(e -> e instanceof AddAuthenticatedDataRequest)
                 .map(e -> (AddAuthenticatedDataRequest) e)
                 .map(e -> e.getAuthenticatedSequentialData().getAuthenticatedData());
@@ -203,52 +226,84 @@ public class StorageService {
         }
     }
 
+    /**
+     * Adds a batch of requests, e.g. from an inventory. The hashes, signatures and the other validations which do not
+     * depend on the maps are done in parallel. Only the remaining checks and the puts are done inside the atomic per key
+     * updates of the stores, in the order of the requests.
+     * The validations run on a parallel stream and therefore on the common ForkJoinPool, not on the bounded
+     * {@link bisq.network.NetworkService#COMPUTE_POOL}. The caller is usually a thread of the compute pool, and waiting
+     * there for other tasks of the compute pool could starve it. The calling thread takes part in the work of the
+     * parallel stream, so the batch makes progress even if the common pool is busy.
+     * It blocks until all requests are applied, so it must not be called from the dispatcher.
+     *
+     * @return The added data for each request, or empty if the request was not added.
+     */
+    public List<Optional<StorageData>> onAddDataRequests(List<AddDataRequest> addDataRequests) {
+        // preValidate only looks up the stores, so we create missing stores before.
+        addDataRequests.forEach(addDataRequest -> {
+            if (addDataRequest instanceof AddMailboxRequest) {
+                getOrCreateMailboxDataStore(((AddMailboxRequest) addDataRequest).getMailboxSequentialData()
+                        .getMailboxData().getClassName()).join();
+            } else if (addDataRequest instanceof AddAuthenticatedDataRequest) {
+                getOrCreateAuthenticatedDataStore(((AddAuthenticatedDataRequest) addDataRequest).getAuthenticatedSequentialData()
+                        .getAuthenticatedData().getClassName()).join();
+            }
+        });
+
+        List<Supplier<Optional<StorageData>>> pendingAdds = addDataRequests.parallelStream()
+                .map(this::preValidate)
+                .collect(Collectors.toList());
+        return pendingAdds.stream()
+                .map(Supplier::get)
+                .collect(Collectors.toList());
+    }
+
+    private Supplier<Optional<StorageData>> preValidate(AddDataRequest addDataRequest) {
+        if (addDataRequest instanceof AddMailboxRequest) {
+            AddMailboxRequest request = (AddMailboxRequest) addDataRequest;
+            MailboxData mailboxData = request.getMailboxSequentialData().getMailboxData();
+            MailboxDataStorageService store = mailboxStores.get(mailboxData.getClassName());
+            PreValidatedRequest<AddMailboxRequest> preValidatedRequest = store.preValidate(request);
+            return () -> toStorageData(store.add(preValidatedRequest), mailboxData);
+        } else if (addDataRequest instanceof AddAuthenticatedDataRequest) {
+            AddAuthenticatedDataRequest request = (AddAuthenticatedDataRequest) addDataRequest;
+            AuthenticatedData authenticatedData = request.getAuthenticatedSequentialData().getAuthenticatedData();
+            AuthenticatedDataStorageService store = authenticatedDataStores.get(authenticatedData.getClassName());
+            PreValidatedRequest<AddAuthenticatedDataRequest> preValidatedRequest = store.preValidate(request);
+            return () -> toStorageData(store.add(preValidatedRequest), authenticatedData);
+        } else {
+            // AppendOnlyData has no signature, so there is nothing to validate in parallel
+            return () -> onAddDataRequest(addDataRequest).join();
+        }
+    }
+
     private CompletableFuture<Optional<StorageData>> onAddMailboxRequest(AddMailboxRequest request) {
         MailboxData mailboxData = request.getMailboxSequentialData().getMailboxData();
         return getOrCreateMailboxDataStore(mailboxData.getClassName())
-                .thenApply(store -> {
-                    DataStorageResult dataStorageResult = store.add(request);
-                    if (dataStorageResult.isSuccess()) {
-                        return Optional.of(mailboxData);
-                    } else {
-                        if (dataStorageResult.isSevereFailure()) {
-                            log.warn("AddAuthenticatedDataRequest was not added to store. Result={}", dataStorageResult);
-                        }
-                        return Optional.empty();
-                    }
-                });
+                .thenApply(store -> toStorageData(store.add(request), mailboxData));
     }
 
     private CompletableFuture<Optional<StorageData>> onAddAuthenticatedDataRequest(AddAuthenticatedDataRequest request) {
         AuthenticatedData authenticatedData = request.getAuthenticatedSequentialData().getAuthenticatedData();
         return getOrCreateAuthenticatedDataStore(authenticatedData.getClassName())
-                .thenApply(store -> {
-                    DataStorageResult dataStorageResult = store.add(request);
-                    if (dataStorageResult.isSuccess()) {
-                        return Optional.of(authenticatedData);
-                    } else {
-                        if (dataStorageResult.isSevereFailure()) {
-                            log.warn("AddAuthenticatedDataRequest was not added to store. Result={}", dataStorageResult);
-                        }
-                        return Optional.empty();
-                    }
-                });
+                .thenApply(store -> toStorageData(store.add(request), authenticatedData));
     }
 
     private CompletableFuture<Optional<StorageData>> onAddAppendOnlyDataRequest(AddAppendOnlyDataRequest request) {
         AppendOnlyData appendOnlyData = request.getAppendOnlyData();
         return getOrCreateAppendOnlyDataStore(appendOnlyData.getMetaData().getClassName())
-                .thenApply(store -> {
-                    DataStorageResult dataStorageResult = store.add(request);
-                    if (dataStorageResult.isSuccess()) {
-                        return Optional.of(appendOnlyData);
-                    } else {
-                        if (dataStorageResult.isSevereFailure()) {
-                            log.warn("AddAuthenticatedDataRequest was not added to store. Result={}", dataStorageResult);
-                        }
-                        return Optional.empty();
-                    }
-                });
+                .thenApply(store -> toStorageData(store.add(request), appendOnlyData));
+    }
+
+    private Optional<StorageData> toStorageData(DataStorageResult dataStorageResult, StorageData storageData) {
+        if (dataStorageResult.isSuccess()) {
+            return Optional.of(storageData);
+        } else {
+            if (dataStorageResult.isSevereFailure()) {
+                log.warn("AddAuthenticatedDataRequest was not added to store. Result={}", dataStorageResult);
+            }
+            return Optional.empty();
+        }
     }
 
 
@@ -304,21 +359,60 @@ public class StorageService {
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
     public Inventory getInventoryOfAllStores(DataFilter dataFilter) {
-        return getInventory(dataFilter, getAllStores()
-                .flatMap(store -> store.getPersistableStore().getClone().getMap().entrySet().stream()).collect(Collectors.toSet()));
+        return getLazyInventoryOfAllStores(dataFilter).toInventory();
+    }
+
+    public LazyInventory getLazyInventoryOfAllStores(DataFilter dataFilter) {
+        return getLazyInventory(dataFilter, getAllStores()
+                .<DataStore<? extends DataRequest>>map(DataStorageService::getPersistableStore)
+                .collect(Collectors.toList()));
     }
 
     public Inventory getInventoryFromStore(DataFilter dataFilter, DataStorageService<? extends DataRequest> store) {
-        return getInventory(dataFilter, store.getPersistableStore().getClone().getMap().entrySet());
+        return getLazyInventory(dataFilter, List.of(store.getPersistableStore())).toInventory();
     }
 
-    private Inventory getInventory(DataFilter dataFilter,
-                                   Set<? extends Map.Entry<ByteArray, ? extends DataRequest>> entrySet) {
-        Set<? extends DataRequest> result = entrySet.stream()
-                .filter(mapEntry -> !dataFilter.getFilterEntries().contains(getFilterEntry(mapEntry)))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return new Inventory(result, entrySet.size());
+    /**
+     * The filter entries are built from the sequence numbers stored next to the encoded values, so we only decode the
+     * entries which we send to the peer. The entries are decoded when the returned inventory gets consumed.
+     */
+    private LazyInventory getLazyInventory(DataFilter dataFilter, List<? extends DataStore<? extends DataRequest>> dataStores) {
+        int numEntries = dataStores.stream().mapToInt(dataStore -> dataStore.getMap().size()).sum();
+        Predicate<FilterEntry> isMissingAtPeer;
+        if (dataFilter.getInvertibleBloomLookupTable().isPresent()) {
+            InvertibleBloomLookupTable peersTable = dataFilter.getInvertibleBloomLookupTable().get();
+            InvertibleBloomLookupTable myTable = new InvertibleBloomLookupTable(peersTable.getNumCells());
+            dataStores.forEach(dataStore -> getFilterEntries(dataStore).forEach(myTable::insert));
+            Optional<InvertibleBloomLookupTable.Difference> difference = myTable.subtract(peersTable).decode();
+            if (difference.isEmpty()) {
+                log.info("Inventory reconciliation failed as the difference was too large. numCells={}",
+                        peersTable.getNumCells());
+                return LazyInventory.reconciliationFailed(numEntries);
+            }
+            Set<FilterEntry> missingAtPeer = difference.get().getMissingInSubtrahend();
+            isMissingAtPeer = missingAtPeer::contains;
+        } else {
+            // The filter entries are a list, so we index them once to avoid a linear lookup per entry
+            Set<FilterEntry> filterEntries = new HashSet<>(dataFilter.getFilterEntries());
+            isMissingAtPeer = filterEntry -> !filterEntries.contains(filterEntry);
+        }
+        // Keys are unique over all stores, so the entries contain no duplicates.
+        // We concatenate the streams of the stores instead of using flatMap, as flatMap would decode all missing
+        // entries of a store at once if the entries are consumed by an iterator.
+        Stream<DataRequest> entries = dataStores.stream()
+                .map(dataStore -> getMissingAtPeer(dataStore, isMissingAtPeer))
+                .reduce(Stream.empty(), Stream::concat);
+        return new LazyInventory(entries, numEntries);
+    }
+
+    private static Stream<DataRequest> getMissingAtPeer(DataStore<? extends DataRequest> dataStore,
+                                                        Predicate<FilterEntry> isMissingAtPeer) {
+        Map<ByteArray, ? extends DataRequest> map = dataStore.getMap();
+        return dataStore.streamSequenceNumbers()
+                .filter(entry -> isMissingAtPeer.test(new FilterEntry(entry.getKey().getBytes(), entry.getValue())))
+                .map(entry -> (DataRequest) map.get(entry.getKey()))
+                // Might have been removed in the meantime
+                .filter(Objects::nonNull);
     }
 
 
@@ -335,26 +429,14 @@ public class StorageService {
     }
 
     private Set<FilterEntry> getFilterEntries(Stream<DataStorageService<? extends DataRequest>> stores) {
-        return stores.flatMap(store -> new HashMap<>(store.getPersistableStore().getMap()).entrySet().stream())
-                .map(this::getFilterEntry)
+        return stores.flatMap(store -> getFilterEntries(store.getPersistableStore()))
                 .collect(Collectors.toSet());
     }
 
-    private FilterEntry getFilterEntry(Map.Entry<ByteArray, ? extends DataRequest> mapEntry) {
-        DataRequest dataRequest = mapEntry.getValue();
-        int sequenceNumber = 0;
-        byte[] hash = mapEntry.getKey().getBytes();
-        if (dataRequest instanceof AddAppendOnlyDataRequest) {
-            // AddAppendOnlyDataRequest does not use a seq nr.
-            return new FilterEntry(hash, 0);
-        } else if (dataRequest instanceof AddAuthenticatedDataRequest) {
-            // AddMailboxRequest extends AddAuthenticatedDataRequest so its covered here as well
-            sequenceNumber = ((AddAuthenticatedDataRequest) dataRequest).getAuthenticatedSequentialData().getSequenceNumber();
-        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest) {
-            // RemoveMailboxRequest extends RemoveAuthenticatedDataRequest so its covered here as well
-            sequenceNumber = ((RemoveAuthenticatedDataRequest) dataRequest).getSequenceNumber();
-        }
-        return new FilterEntry(hash, sequenceNumber);
+    // Does not decode the entries which have not been decoded yet
+    private static Stream<FilterEntry> getFilterEntries(DataStore<? extends DataRequest> dataStore) {
+        return dataStore.streamSequenceNumbers()
+                .map(entry -> new FilterEntry(entry.getKey().getBytes(), entry.getValue()));
     }
 
 
@@ -362,11 +444,18 @@ public class StorageService {
     // Get or create stores
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    // Stores get created concurrently from the connection dispatcher stripes. We use one future per store key, so
+    // that a store is created and read only once, and all callers get it after it has been read.
     public CompletableFuture<AuthenticatedDataStorageService> getOrCreateAuthenticatedDataStore(String storeKey) {
-        if (!authenticatedDataStores.containsKey(storeKey)) {
+        return authenticatedDataStoreFutures.computeIfAbsent(storeKey, key -> {
+            AuthenticatedDataStorageService existingDataStore = authenticatedDataStores.get(key);
+            if (existingDataStore != null) {
+                return CompletableFuture.completedFuture(existingDataStore);
+            }
             AuthenticatedDataStorageService dataStore = new AuthenticatedDataStorageService(persistenceService,
                     AUTHENTICATED_DATA_STORE.getStoreName(),
-                    storeKey);
+                    key,
+                    memoryMappedStores);
             dataStore.addListener(new AuthenticatedDataStorageService.Listener() {
                 @Override
                 public void onAdded(AuthenticatedData authenticatedData) {
@@ -378,18 +467,21 @@ public class StorageService {
                     listeners.forEach(listener -> listener.onRemoved(authenticatedData));
                 }
             });
-            authenticatedDataStores.put(storeKey, dataStore);
+            authenticatedDataStores.put(key, dataStore);
             return dataStore.readPersisted().thenApplyAsync(store -> dataStore, NetworkService.DISPATCHER);
-        } else {
-            return CompletableFuture.completedFuture(authenticatedDataStores.get(storeKey));
-        }
+        });
     }
 
     public CompletableFuture<MailboxDataStorageService> getOrCreateMailboxDataStore(String storeKey) {
-        if (!mailboxStores.containsKey(storeKey)) {
+        return mailboxStoreFutures.computeIfAbsent(storeKey, key -> {
+            MailboxDataStorageService existingDataStore = mailboxStores.get(key);
+            if (existingDataStore != null) {
+                return CompletableFuture.completedFuture(existingDataStore);
+            }
             MailboxDataStorageService dataStore = new MailboxDataStorageService(persistenceService,
                     MAILBOX_DATA_STORE.getStoreName(),
-                    storeKey);
+                    key,
+                    memoryMappedStores);
             dataStore.addListener(new MailboxDataStorageService.Listener() {
                 @Override
                 public void onAdded(MailboxData mailboxData) {
@@ -401,23 +493,25 @@ public class StorageService {
                     listeners.forEach(listener -> listener.onRemoved(mailboxData));
                 }
             });
-            mailboxStores.put(storeKey, dataStore);
+            mailboxStores.put(key, dataStore);
             return dataStore.readPersisted().thenApply(nil -> dataStore);
-        } else {
-            return CompletableFuture.completedFuture(mailboxStores.get(storeKey));
-        }
+        });
     }
 
     public CompletableFuture<AppendOnlyDataStorageService> getOrCreateAppendOnlyDataStore(String storeKey) {
-        if (!appendOnlyDataStores.containsKey(storeKey)) {
+        return appendOnlyDataStoreFutures.computeIfAbsent(storeKey, key -> {
+            AppendOnlyDataStorageService existingDataStore = appendOnlyDataStores.get(key);
+            if (existingDataStore != null) {
+                return CompletableFuture.completedFuture(existingDataStore);
+            }
             AppendOnlyDataStorageService dataStore = new AppendOnlyDataStorageService(persistenceService,
                     APPEND_ONLY_DATA_STORE.getStoreName(),
-                    storeKey);
-            appendOnlyDataStores.put(storeKey, dataStore);
+                    key,
+                    memoryMappedStores);
+            dataStore.addListener(appendOnlyData -> listeners.forEach(listener -> listener.onAdded(appendOnlyData)));
+            appendOnlyDataStores.put(key, dataStore);
             return dataStore.readPersisted().thenApply(nil -> dataStore);
-        } else {
-            return CompletableFuture.completedFuture(appendOnlyDataStores.get(storeKey));
-        }
+        });
     }
 
 
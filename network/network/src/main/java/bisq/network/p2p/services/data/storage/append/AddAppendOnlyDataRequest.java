@@ -62,6 +62,11 @@ public final class AddAppendOnlyDataRequest implements AddDataRequest {
         return false;
     }
 
+    @Override
+    public long getExpiryDate() {
+        return Long.MAX_VALUE;
+    }
+
     @Override
     public long getCreated() {
         // Used for sorting at pruning, but AppendOnlyData does not get pruned 
@@ -42,8 +42,11 @@ public class AppendOnlyDataStorageService extends DataStorageService<AddAppendOn
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     private final Object mapAccessLock = new Object();
 
-    public AppendOnlyDataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
-        super(persistenceService, storeName, storeKey);
+    public AppendOnlyDataStorageService(PersistenceService persistenceService,
+                                        String storeName,
+                                        String storeKey,
+                                        boolean memoryMapped) {
+        super(persistenceService, storeName, storeKey, memoryMapped);
     }
 
     @Override
@@ -72,8 +75,8 @@ public class AppendOnlyDataStorageService extends DataStorageService<AddAppendOn
             }
 
             map.put(byteArray, addAppendOnlyDataRequest);
+            persist(byteArray, addAppendOnlyDataRequest);
         }
-        persist();
         listeners.forEach(listener -> listener.onAppended(appendOnlyData));
         return new DataStorageResult(true);
     }
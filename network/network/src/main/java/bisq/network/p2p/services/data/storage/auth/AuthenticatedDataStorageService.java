@@ -21,22 +21,29 @@ import bisq.common.data.ByteArray;
 import bisq.common.timer.Scheduler;
 import bisq.network.p2p.services.data.storage.DataStorageResult;
 import bisq.network.p2p.services.data.storage.DataStorageService;
+import bisq.network.p2p.services.data.storage.PreValidatedRequest;
 import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedData;
 import bisq.persistence.PersistenceService;
 import bisq.security.DigestUtil;
 import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 @Slf4j
 public class AuthenticatedDataStorageService extends DataStorageService<AuthenticatedDataRequest> {
+    /**
+     * Listeners are called on the thread which applied the update, after the update got applied. Updates of the same
+     * key are notified in the order they got applied.
+     */
     public interface Listener {
         void onAdded(AuthenticatedData authenticatedData);
 
@@ -47,12 +54,14 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
     }
 
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
-    private final Object mapAccessLock = new Object();
     private final Scheduler scheduler;
 
-    public AuthenticatedDataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
-        super(persistenceService, storeName, storeKey);
-        scheduler = Scheduler.run(this::pruneExpired).periodically(60, TimeUnit.SECONDS);
+    public AuthenticatedDataStorageService(PersistenceService persistenceService,
+                                           String storeName,
+                                           String storeKey,
+                                           boolean memoryMapped) {
+        super(persistenceService, storeName, storeKey, memoryMapped);
+        scheduler = Scheduler.run(this::pruneExpired).periodically(PRUNE_INTERVAL_SEC, TimeUnit.SECONDS);
     }
 
     @Override
@@ -62,181 +71,258 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
     }
 
     public DataStorageResult add(AddAuthenticatedDataRequest request) {
+        return add(preValidate(request));
+    }
+
+    /**
+     * Does the validations which do not depend on the map, thus they can be done outside the atomic update of the entry.
+     */
+    public PreValidatedRequest<AddAuthenticatedDataRequest> preValidate(AddAuthenticatedDataRequest request) {
         AuthenticatedSequentialData authenticatedSequentialData = request.getAuthenticatedSequentialData();
         AuthenticatedData authenticatedData = authenticatedSequentialData.getAuthenticatedData();
         byte[] hash = DigestUtil.hash(authenticatedData.serialize());
         ByteArray byteArray = new ByteArray(hash);
-        AuthenticatedDataRequest requestFromMap;
-        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (map.size() > getMaxMapSize()) {
-                return new DataStorageResult(false).maxMapSizeReached();
-            }
-            requestFromMap = map.get(byteArray);
-            if (request.equals(requestFromMap)) {
-                return new DataStorageResult(false).requestAlreadyReceived();
-            }
 
-            if (requestFromMap != null && authenticatedSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
+        // Most requests from an inventory are known already, so we check that before the expensive validations.
+        // It is checked again at the atomic update of the entry.
+        if (request.equals(persistableStore.getMap().get(byteArray))) {
+            return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).requestAlreadyReceived());
+        }
 
-            if (authenticatedSequentialData.isExpired()) {
-                log.info("Data is expired at add. request object={}",
-                        request.getAuthenticatedSequentialData().getAuthenticatedData().distributedData.getClass().getSimpleName());
-                log.debug("Data is expired at add. request={}", request);
-                return new DataStorageResult(false).expired();
-            }
+        if (authenticatedSequentialData.isExpired()) {
+            log.info("Data is expired at add. request object={}",
+                    request.getAuthenticatedSequentialData().getAuthenticatedData().distributedData.getClass().getSimpleName());
+            log.debug("Data is expired at add. request={}", request);
+            return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).expired());
+        }
 
-            if (authenticatedData.isDataInvalid(authenticatedSequentialData.getPubKeyHash())) {
-                log.warn("AuthenticatedData is invalid at add. request={}", request);
-                return new DataStorageResult(false).dataInvalid();
-            }
+        if (authenticatedData.isDataInvalid(authenticatedSequentialData.getPubKeyHash())) {
+            log.warn("AuthenticatedData is invalid at add. request={}", request);
+            return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).dataInvalid());
+        }
 
-            if (authenticatedData instanceof AuthorizedData) {
-                AuthorizedData authorizedData = (AuthorizedData) authenticatedData;
-                if (authorizedData.isNotAuthorized()) {
-                    log.warn("AuthorizedData is not authorized. request={}", request);
-                    return new DataStorageResult(false).isNotAuthorized();
-                }
+        if (authenticatedData instanceof AuthorizedData) {
+            AuthorizedData authorizedData = (AuthorizedData) authenticatedData;
+            if (authorizedData.isNotAuthorized()) {
+                log.warn("AuthorizedData is not authorized. request={}", request);
+                return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).isNotAuthorized());
             }
+        }
 
-            if (request.isPublicKeyInvalid()) {
-                log.warn("PublicKey is invalid at add. request={}", request);
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
+        if (request.isPublicKeyInvalid()) {
+            log.warn("PublicKey is invalid at add. request={}", request);
+            return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).publicKeyHashInvalid());
+        }
 
-            if (request.isSignatureInvalid()) {
-                log.warn("Signature is invalid at add. request={}", request);
-                return new DataStorageResult(false).signatureInvalid();
-            }
-            map.put(byteArray, request);
+        if (request.isSignatureInvalid()) {
+            log.warn("Signature is invalid at add. request={}", request);
+            return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).signatureInvalid());
+        }
+        return new PreValidatedRequest<>(request, byteArray);
+    }
+
+    /**
+     * Adds a request which passed {@link #preValidate(AddAuthenticatedDataRequest)}. Only the checks depending on the
+     * map entry are done inside the atomic compute of that key, so concurrent updates of different keys do not block
+     * each other.
+     */
+    public DataStorageResult add(PreValidatedRequest<AddAuthenticatedDataRequest> preValidatedRequest) {
+        if (preValidatedRequest.getFailure().isPresent()) {
+            return preValidatedRequest.getFailure().get();
+        }
+        AddAuthenticatedDataRequest request = preValidatedRequest.getRequest();
+        ByteArray byteArray = preValidatedRequest.getKey();
+        AuthenticatedSequentialData authenticatedSequentialData = request.getAuthenticatedSequentialData();
+        AuthenticatedData authenticatedData = authenticatedSequentialData.getAuthenticatedData();
+        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
+        if (map.size() > getMaxMapSize()) {
+            return new DataStorageResult(false).maxMapSizeReached();
         }
 
-        persist();
+        synchronized (getUpdateLock(byteArray)) {
+            AtomicReference<DataStorageResult> result = new AtomicReference<>();
+            map.compute(byteArray, (key, requestFromMap) -> {
+                if (request.equals(requestFromMap)) {
+                    result.set(new DataStorageResult(false).requestAlreadyReceived());
+                    return requestFromMap;
+                }
+                if (requestFromMap != null && authenticatedSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+                    result.set(new DataStorageResult(false).sequenceNrInvalid());
+                    return requestFromMap;
+                }
+                // Persisting only enqueues the write, the order of the writes for that key is the order of the updates.
+                persist(key, request);
+                result.set(new DataStorageResult(true));
+                return request;
+            });
 
-        // If we had already the data (only updated seq nr) we return false as well and do not notify listeners.
-       /* if (requestFromMap != null) {
-            log.warn("requestFromMap != null. request={}", request);
-            return new Result(false).payloadAlreadyStored();
-        }*/
+            // If we had already the data (only updated seq nr) we return false as well and do not notify listeners.
+           /* if (requestFromMap != null) {
+                log.warn("requestFromMap != null. request={}", request);
+                return new Result(false).payloadAlreadyStored();
+            }*/
 
-        listeners.forEach(listener -> listener.onAdded(authenticatedData));
-        return new DataStorageResult(true);
+            if (result.get().isSuccess()) {
+                listeners.forEach(listener -> listener.onAdded(authenticatedData));
+            }
+            return result.get();
+        }
     }
 
     public DataStorageResult remove(RemoveAuthenticatedDataRequest request) {
         ByteArray byteArray = new ByteArray(request.getHash());
-        AuthenticatedData authenticatedDataFromMap;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            AuthenticatedDataRequest requestFromMap = map.get(byteArray);
-            if (requestFromMap == null) {
-                log.debug("No entry at remove. hash={}", byteArray);
-                // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
-                // track of the sequence number
-                map.put(byteArray, request);
-                persist();
-                return new DataStorageResult(false).noEntry();
-            }
+        // We verify the signature outside the compute if we expect it to be needed.
+        Optional<Boolean> signatureInvalid = map.get(byteArray) instanceof AddAuthenticatedDataRequest ?
+                Optional.of(request.isSignatureInvalid()) :
+                Optional.empty();
+
+        AtomicReference<DataStorageResult> result = new AtomicReference<>();
+        synchronized (getUpdateLock(byteArray)) {
+            map.compute(byteArray, (key, requestFromMap) -> {
+                if (requestFromMap == null) {
+                    // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
+                    // track of the sequence number
+                    persist(key, request);
+                    result.set(new DataStorageResult(false).noEntry());
+                    return request;
+                }
 
-            if (requestFromMap instanceof RemoveAuthenticatedDataRequest) {
-                // log.debug("Already removed. request={}, map={}", request, map);
-                // We have had the entry already removed.
-                if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
-                    // We update the map with the new request with the fresh sequence number.
-                    map.put(byteArray, request);
-                    persist();
+                if (requestFromMap instanceof RemoveAuthenticatedDataRequest) {
+                    // We have had the entry already removed.
+                    result.set(new DataStorageResult(false).alreadyRemoved());
+                    if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+                        // We update the map with the new request with the fresh sequence number.
+                        persist(key, request);
+                        return request;
+                    }
+                    return requestFromMap;
                 }
-                return new DataStorageResult(false).alreadyRemoved();
-            }
 
-            // At that point we know requestFromMap is an AddProtectedDataRequest
-            checkArgument(requestFromMap instanceof AddAuthenticatedDataRequest,
-                    "requestFromMap expected be type of AddProtectedDataRequest");
-            AddAuthenticatedDataRequest addRequestFromMap = (AddAuthenticatedDataRequest) requestFromMap;
-
-            // The metaData provided in the RemoveAuthenticatedDataRequest must be the same as we had in the AddAuthenticatedDataRequest
-            // The AddAuthenticatedDataRequest does use the metaData from the code base, not one provided by the message, thus it is trusted.
-            if (!request.getMetaData().equals(addRequestFromMap.getAuthenticatedSequentialData().getAuthenticatedData().getMetaData())) {
-                log.warn("MetaData of remove request not matching the one from the addRequest from the map. {} vs. {}",
-                        request.getMetaData(),
-                        addRequestFromMap.getAuthenticatedSequentialData().getAuthenticatedData().getMetaData());
-                return new DataStorageResult(false).metaDataInvalid();
-            }
+                // At that point we know requestFromMap is an AddProtectedDataRequest
+                checkArgument(requestFromMap instanceof AddAuthenticatedDataRequest,
+                        "requestFromMap expected be type of AddProtectedDataRequest");
+                AddAuthenticatedDataRequest addRequestFromMap = (AddAuthenticatedDataRequest) requestFromMap;
+
+                // The metaData provided in the RemoveAuthenticatedDataRequest must be the same as we had in the AddAuthenticatedDataRequest
+                // The AddAuthenticatedDataRequest does use the metaData from the code base, not one provided by the message, thus it is trusted.
+                if (!request.getMetaData().equals(addRequestFromMap.getAuthenticatedSequentialData().getAuthenticatedData().getMetaData())) {
+                    log.warn("MetaData of remove request not matching the one from the addRequest from the map. {} vs. {}",
+                            request.getMetaData(),
+                            addRequestFromMap.getAuthenticatedSequentialData().getAuthenticatedData().getMetaData());
+                    result.set(new DataStorageResult(false).metaDataInvalid());
+                    return requestFromMap;
+                }
 
-            // We have an entry, lets validate if we can remove it
-            AuthenticatedSequentialData dataFromMap = addRequestFromMap.getAuthenticatedSequentialData();
-            authenticatedDataFromMap = dataFromMap.getAuthenticatedData();
-            if (request.isSequenceNrInvalid(dataFromMap.getSequenceNumber())) {
-                log.warn("SequenceNr has not increased at remove. request={}", request);
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
+                // We have an entry, lets validate if we can remove it
+                AuthenticatedSequentialData dataFromMap = addRequestFromMap.getAuthenticatedSequentialData();
+                if (request.isSequenceNrInvalid(dataFromMap.getSequenceNumber())) {
+                    result.set(new DataStorageResult(false).sequenceNrInvalid());
+                    return requestFromMap;
+                }
 
-            if (request.isPublicKeyHashInvalid(dataFromMap)) {
-                log.warn("PublicKey hash is invalid at remove. request={}", request);
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
+                if (request.isPublicKeyHashInvalid(dataFromMap)) {
+                    result.set(new DataStorageResult(false).publicKeyHashInvalid());
+                    return requestFromMap;
+                }
+
+                if (signatureInvalid.orElseGet(request::isSignatureInvalid)) {
+                    result.set(new DataStorageResult(false).signatureInvalid());
+                    return requestFromMap;
+                }
+                persist(key, request);
+                result.set(new DataStorageResult(true).removedData(dataFromMap.getAuthenticatedData()));
+                return request;
+            });
 
-            if (request.isSignatureInvalid()) {
-                log.warn("Signature is invalid at remove. request={}", request);
-                return new DataStorageResult(false).signatureInvalid();
+            if (result.get().isSuccess()) {
+                AuthenticatedData removedData = (AuthenticatedData) result.get().getRemovedData();
+                listeners.forEach(listener -> listener.onRemoved(removedData));
             }
-            map.put(byteArray, request);
         }
-        persist();
-        listeners.forEach(listener -> listener.onRemoved(authenticatedDataFromMap));
-        return new DataStorageResult(true).removedData(authenticatedDataFromMap);
+
+        // We log outside the compute as the toString of the request is expensive
+        DataStorageResult dataStorageResult = result.get();
+        if (dataStorageResult.isNoEntry()) {
+            log.debug("No entry at remove. hash={}", byteArray);
+        } else if (dataStorageResult.isSequenceNrInvalid()) {
+            log.warn("SequenceNr has not increased at remove. request={}", request);
+        } else if (dataStorageResult.isPublicKeyHashInvalid()) {
+            log.warn("PublicKey hash is invalid at remove. request={}", request);
+        } else if (dataStorageResult.isSignatureInvalid()) {
+            log.warn("Signature is invalid at remove. request={}", request);
+        }
+        return dataStorageResult;
     }
 
     public DataStorageResult refresh(RefreshAuthenticatedDataRequest request) {
         ByteArray byteArray = new ByteArray(request.getHash());
-        AddAuthenticatedDataRequest updatedRequest;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            AuthenticatedDataRequest requestFromMap = map.get(byteArray);
+        // We verify the signature outside the compute if we expect it to be needed.
+        Optional<Boolean> signatureInvalid = map.get(byteArray) instanceof AddAuthenticatedDataRequest ?
+                Optional.of(request.isSignatureInvalid()) :
+                Optional.empty();
+
+        AtomicReference<DataStorageResult> result = new AtomicReference<>();
+        synchronized (getUpdateLock(byteArray)) {
+            AtomicReference<AddAuthenticatedDataRequest> updatedRequest = new AtomicReference<>();
+            map.computeIfPresent(byteArray, (key, requestFromMap) -> {
+                if (requestFromMap instanceof RemoveAuthenticatedDataRequest) {
+                    result.set(new DataStorageResult(false).alreadyRemoved());
+                    return requestFromMap;
+                }
 
-            if (requestFromMap == null) {
-                return new DataStorageResult(false).noEntry();
-            }
+                // At that point we know requestFromMap is an AddProtectedDataRequest
+                checkArgument(requestFromMap instanceof AddAuthenticatedDataRequest,
+                        "requestFromMap expected be type of AddAuthenticatedDataRequest");
+                AddAuthenticatedDataRequest addRequestFromMap = (AddAuthenticatedDataRequest) requestFromMap;
+                // We have an entry, lets validate if we can remove it
+                AuthenticatedSequentialData dataFromMap = addRequestFromMap.getAuthenticatedSequentialData();
+                if (request.isSequenceNrInvalid(dataFromMap.getSequenceNumber())) {
+                    // Sequence number has not increased
+                    result.set(new DataStorageResult(false).sequenceNrInvalid());
+                    return requestFromMap;
+                }
 
-            if (requestFromMap instanceof RemoveAuthenticatedDataRequest) {
-                return new DataStorageResult(false).alreadyRemoved();
-            }
+                if (request.isPublicKeyInvalid(dataFromMap)) {
+                    // Hash of pubKey of data does not match provided one
+                    result.set(new DataStorageResult(false).publicKeyHashInvalid());
+                    return requestFromMap;
+                }
 
-            // At that point we know requestFromMap is an AddProtectedDataRequest
-            checkArgument(requestFromMap instanceof AddAuthenticatedDataRequest,
-                    "requestFromMap expected be type of AddAuthenticatedDataRequest");
-            AddAuthenticatedDataRequest addRequestFromMap = (AddAuthenticatedDataRequest) requestFromMap;
-            // We have an entry, lets validate if we can remove it
-            AuthenticatedSequentialData dataFromMap = addRequestFromMap.getAuthenticatedSequentialData();
-            if (request.isSequenceNrInvalid(dataFromMap.getSequenceNumber())) {
-                log.warn("SequenceNr is invalid at refresh. request={}", request);
-                // Sequence number has not increased
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
+                if (signatureInvalid.orElseGet(request::isSignatureInvalid)) {
+                    result.set(new DataStorageResult(false).signatureInvalid());
+                    return requestFromMap;
+                }
 
-            if (request.isPublicKeyInvalid(dataFromMap)) {
-                log.warn("PublicKey is invalid at refresh. request={}", request);
-                // Hash of pubKey of data does not match provided one
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
+                AuthenticatedSequentialData updatedData = AuthenticatedSequentialData.from(dataFromMap, request.getSequenceNumber());
+                AddAuthenticatedDataRequest newRequest = new AddAuthenticatedDataRequest(updatedData,
+                        addRequestFromMap.getSignature(),
+                        addRequestFromMap.getOwnerPublicKey());
+                persist(key, newRequest);
+                updatedRequest.set(newRequest);
+                result.set(new DataStorageResult(true));
+                return newRequest;
+            });
 
-            if (request.isSignatureInvalid()) {
-                log.warn("Signature is invalid at refresh. request={}", request);
-                return new DataStorageResult(false).signatureInvalid();
+            if (result.get() != null && result.get().isSuccess()) {
+                AuthenticatedData refreshedData = updatedRequest.get().getAuthenticatedSequentialData().getAuthenticatedData();
+                listeners.forEach(listener -> listener.onRefreshed(refreshedData));
             }
+        }
 
-            AuthenticatedSequentialData updatedData = AuthenticatedSequentialData.from(dataFromMap, request.getSequenceNumber());
-            updatedRequest = new AddAuthenticatedDataRequest(updatedData,
-                    addRequestFromMap.getSignature(),
-                    addRequestFromMap.getOwnerPublicKey());
-
-            map.put(byteArray, updatedRequest);
+        DataStorageResult dataStorageResult = result.get();
+        if (dataStorageResult == null) {
+            return new DataStorageResult(false).noEntry();
+        }
+        if (dataStorageResult.isSequenceNrInvalid()) {
+            log.warn("SequenceNr is invalid at refresh. request={}", request);
+        } else if (dataStorageResult.isPublicKeyHashInvalid()) {
+            log.warn("PublicKey is invalid at refresh. request={}", request);
+        } else if (dataStorageResult.isSignatureInvalid()) {
+            log.warn("Signature is invalid at refresh. request={}", request);
         }
-        persist();
-        listeners.forEach(listener -> listener.onRefreshed(updatedRequest.getAuthenticatedSequentialData().getAuthenticatedData()));
-        return new DataStorageResult(true);
+        return dataStorageResult;
     }
 
     public void addListener(Listener listener) {
@@ -249,30 +335,41 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
 
     @VisibleForTesting
     public int getSequenceNumber(byte[] hash) {
-        ByteArray byteArray = new ByteArray(hash);
-        int sequenceNumber = 0;
-        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (map.containsKey(byteArray)) {
-                sequenceNumber = map.get(byteArray).getSequenceNumber();
-            }
-        }
-        return sequenceNumber;
+        AuthenticatedDataRequest request = persistableStore.getMap().get(new ByteArray(hash));
+        return request != null ? request.getSequenceNumber() : 0;
     }
 
     private void pruneExpired() {
-        Set<Map.Entry<ByteArray, AuthenticatedDataRequest>> expiredEntries = persistableStore.getMap().entrySet().stream()
-                .filter(entry -> entry.getValue().isExpired())
-                .collect(Collectors.toSet());
-        if (!expiredEntries.isEmpty()) {
-            log.info("We remove {} expired entries from our map", expiredEntries.size());
-            expiredEntries.forEach(entry -> {
-                persistableStore.getMap().remove(entry.getKey());
-                if (entry.getValue() instanceof AddAuthenticatedDataRequest) {
-                    AuthenticatedData data = ((AddAuthenticatedDataRequest) entry.getValue()).getAuthenticatedSequentialData().getAuthenticatedData();
-                    listeners.forEach(listener -> listener.onRemoved(data));
+        List<ByteArray> dueKeys = pollDueKeys();
+        if (dueKeys.isEmpty()) {
+            return;
+        }
+        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
+        int numPruned = 0;
+        for (ByteArray byteArray : dueKeys) {
+            synchronized (getUpdateLock(byteArray)) {
+                AtomicReference<AuthenticatedDataRequest> prunedRequest = new AtomicReference<>();
+                map.computeIfPresent(byteArray, (key, requestFromMap) -> {
+                    if (!requestFromMap.isExpired()) {
+                        // The entry got updated in the meantime
+                        expiryIndex.put(key, requestFromMap.getExpiryDate());
+                        return requestFromMap;
+                    }
+                    persistRemoval(key);
+                    prunedRequest.set(requestFromMap);
+                    return null;
+                });
+                if (prunedRequest.get() != null) {
+                    numPruned++;
+                    if (prunedRequest.get() instanceof AddAuthenticatedDataRequest) {
+                        AuthenticatedData data = ((AddAuthenticatedDataRequest) prunedRequest.get()).getAuthenticatedSequentialData().getAuthenticatedData();
+                        listeners.forEach(listener -> listener.onRemoved(data));
+                    }
                 }
-            });
+            }
+        }
+        if (numPruned > 0) {
+            log.info("We removed {} expired entries from our map", numPruned);
         }
     }
 }
@@ -75,7 +75,11 @@ public final class AuthenticatedSequentialData implements Proto {
     }
 
     public boolean isExpired() {
-        return (System.currentTimeMillis() - created) > authenticatedData.getMetaData().getTtl();
+        return System.currentTimeMillis() > getExpiryDate();
+    }
+
+    public long getExpiryDate() {
+        return created + authenticatedData.getMetaData().getTtl();
     }
 
     public boolean isSequenceNrInvalid(long seqNumberFromMap) {
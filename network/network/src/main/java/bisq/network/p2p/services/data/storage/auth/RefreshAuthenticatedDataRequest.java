@@ -153,6 +153,12 @@ public final class RefreshAuthenticatedDataRequest implements DataRequest {
         return false;
     }
 
+    @Override
+    public long getExpiryDate() {
+        // Not used as not stored in map
+        return Long.MAX_VALUE;
+    }
+
     @Override
     public long getCreated() {
         // Not used as not stored in map and no pruning applied
@@ -172,7 +172,12 @@ public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRe
 
     @Override
     public boolean isExpired() {
-        return (System.currentTimeMillis() - created) > metaData.getTtl();
+        return System.currentTimeMillis() > getExpiryDate();
+    }
+
+    @Override
+    public long getExpiryDate() {
+        return created + metaData.getTtl();
     }
 
     @Override
@@ -21,18 +21,29 @@ import bisq.common.data.ByteArray;
 import bisq.common.timer.Scheduler;
 import bisq.network.p2p.services.data.storage.DataStorageResult;
 import bisq.network.p2p.services.data.storage.DataStorageService;
+import bisq.network.p2p.services.data.storage.DataStore;
+import bisq.network.p2p.services.data.storage.PreValidatedRequest;
 import bisq.persistence.PersistenceService;
 import bisq.security.DigestUtil;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Slf4j
 public class MailboxDataStorageService extends DataStorageService<MailboxRequest> {
+    /**
+     * Listeners are called on the thread which applied the update, after the update got applied. Updates of the same
+     * key are notified in the order they got applied.
+     */
     public interface Listener {
         void onAdded(MailboxData mailboxData);
 
@@ -40,12 +51,16 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
     }
 
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
-    private final Object mapAccessLock = new Object();
     private final Scheduler scheduler;
-
-    public MailboxDataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
-        super(persistenceService, storeName, storeKey);
-        scheduler = Scheduler.run(this::pruneExpired).periodically(60, TimeUnit.SECONDS);
+    // Hashes of the AddMailboxRequests by the receiverKeyId of their ConfidentialMessage
+    private final Map<String, Set<ByteArray>> hashesByReceiverKeyId = new ConcurrentHashMap<>();
+
+    public MailboxDataStorageService(PersistenceService persistenceService,
+                                     String storeName,
+                                     String storeKey,
+                                     boolean memoryMapped) {
+        super(persistenceService, storeName, storeKey, memoryMapped);
+        scheduler = Scheduler.run(this::pruneExpired).periodically(PRUNE_INTERVAL_SEC, TimeUnit.SECONDS);
     }
 
     @Override
@@ -54,105 +69,179 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
         scheduler.stop();
     }
 
+    @Override
+    public void onPersistedApplied(DataStore<MailboxRequest> persisted) {
+        super.onPersistedApplied(persisted);
+        hashesByReceiverKeyId.clear();
+        // The receiverKeyIds are stored next to the encoded entries, so we do not decode the store for the index
+        persistableStore.streamReceiverKeyIds()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .forEach(entry -> addToIndex(entry.getKey(), entry.getValue()));
+    }
+
     public DataStorageResult add(AddMailboxRequest request) {
+        return add(preValidate(request));
+    }
+
+    /**
+     * Does the validations which do not depend on the map, thus they can be done outside the atomic update of the entry.
+     */
+    public PreValidatedRequest<AddMailboxRequest> preValidate(AddMailboxRequest request) {
         MailboxSequentialData mailboxSequentialData = request.getMailboxSequentialData();
         MailboxData mailboxData = mailboxSequentialData.getMailboxData();
         byte[] hash = DigestUtil.hash(mailboxData.serialize());
         ByteArray byteArray = new ByteArray(hash);
-        MailboxRequest requestFromMap;
-        Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (map.size() > getMaxMapSize()) {
-                return new DataStorageResult(false).maxMapSizeReached();
-            }
-            requestFromMap = map.get(byteArray);
-            int sequenceNumberFromMap = requestFromMap != null ? requestFromMap.getSequenceNumber() : 0;
 
-            if (request.equals(requestFromMap)) {
-                return new DataStorageResult(false).requestAlreadyReceived();
-            }
-
-            if (requestFromMap != null && mailboxSequentialData.isSequenceNrInvalid(sequenceNumberFromMap)) {
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
+        // Most requests from an inventory are known already, so we check that before the expensive validations.
+        // It is checked again at the atomic update of the entry.
+        if (request.equals(persistableStore.getMap().get(byteArray))) {
+            return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).requestAlreadyReceived());
+        }
 
-            if (mailboxSequentialData.isExpired()) {
-                return new DataStorageResult(false).expired();
-            }
+        if (mailboxSequentialData.isExpired()) {
+            return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).expired());
+        }
 
-            if (mailboxData.isDataInvalid(mailboxSequentialData.getSenderPublicKeyHash())) {
-                return new DataStorageResult(false).dataInvalid();
-            }
+        if (mailboxData.isDataInvalid(mailboxSequentialData.getSenderPublicKeyHash())) {
+            return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).dataInvalid());
+        }
 
-            if (request.isPublicKeyInvalid()) {
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
+        if (request.isPublicKeyInvalid()) {
+            return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).publicKeyHashInvalid());
+        }
 
-            if (request.isSignatureInvalid()) {
-                return new DataStorageResult(false).signatureInvalid();
-            }
-            map.put(byteArray, request);
+        if (request.isSignatureInvalid()) {
+            return new PreValidatedRequest<>(request, byteArray, new DataStorageResult(false).signatureInvalid());
         }
-        persist();
+        return new PreValidatedRequest<>(request, byteArray);
+    }
 
-        // If we had already the data (only updated seq nr) we return false as well and do not notify listeners.
-        // This should only happen if client re-publishes mailbox data 
-        if (requestFromMap != null) {
-            return new DataStorageResult(false).payloadAlreadyStored();
+    /**
+     * Adds a request which passed {@link #preValidate(AddMailboxRequest)}. Only the checks depending on the map entry
+     * are done inside the atomic compute of that key, so concurrent updates of different keys do not block each other.
+     */
+    public DataStorageResult add(PreValidatedRequest<AddMailboxRequest> preValidatedRequest) {
+        if (preValidatedRequest.getFailure().isPresent()) {
+            return preValidatedRequest.getFailure().get();
         }
+        AddMailboxRequest request = preValidatedRequest.getRequest();
+        ByteArray byteArray = preValidatedRequest.getKey();
+        MailboxSequentialData mailboxSequentialData = request.getMailboxSequentialData();
+        MailboxData mailboxData = mailboxSequentialData.getMailboxData();
+        Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
+        if (map.size() > getMaxMapSize()) {
+            return new DataStorageResult(false).maxMapSizeReached();
+        }
+
+        synchronized (getUpdateLock(byteArray)) {
+            AtomicReference<DataStorageResult> result = new AtomicReference<>();
+            map.compute(byteArray, (key, requestFromMap) -> {
+                if (request.equals(requestFromMap)) {
+                    result.set(new DataStorageResult(false).requestAlreadyReceived());
+                    return requestFromMap;
+                }
 
-        listeners.forEach(listener -> listener.onAdded(mailboxData));
-        return new DataStorageResult(true);
+                if (requestFromMap != null && mailboxSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+                    result.set(new DataStorageResult(false).sequenceNrInvalid());
+                    return requestFromMap;
+                }
+                // Persisting only enqueues the write, the order of the writes for that key is the order of the updates.
+                persist(key, request);
+                addToIndex(key, request);
+
+                // If we had already the data (only updated seq nr) we return false as well and do not notify listeners.
+                // This should only happen if client re-publishes mailbox data
+                result.set(requestFromMap != null ?
+                        new DataStorageResult(false).payloadAlreadyStored() :
+                        new DataStorageResult(true));
+                return request;
+            });
+
+            if (result.get().isSuccess()) {
+                listeners.forEach(listener -> listener.onAdded(mailboxData));
+            }
+            return result.get();
+        }
     }
 
     public DataStorageResult remove(RemoveMailboxRequest request) {
         ByteArray byteArray = new ByteArray(request.getHash());
         Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
-        MailboxRequest requestFromMap = map.get(byteArray);
-        MailboxSequentialData sequentialDataFromMap;
-        synchronized (mapAccessLock) {
-            if (requestFromMap == null) {
-                // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
-                // track of the sequence number
-                map.put(byteArray, request);
-                persist();
-                return new DataStorageResult(false).noEntry();
-            }
+        // We verify the signature outside the compute if we expect it to be needed.
+        Optional<Boolean> signatureInvalid = map.get(byteArray) instanceof AddMailboxRequest ?
+                Optional.of(request.isSignatureInvalid()) :
+                Optional.empty();
+
+        synchronized (getUpdateLock(byteArray)) {
+            AtomicReference<DataStorageResult> result = new AtomicReference<>();
+            map.compute(byteArray, (key, requestFromMap) -> {
+                if (requestFromMap == null) {
+                    // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
+                    // track of the sequence number
+                    persist(key, request);
+                    result.set(new DataStorageResult(false).noEntry());
+                    return request;
+                }
 
-            if (requestFromMap instanceof RemoveMailboxRequest) {
-                // We have had the entry already removed.
-                if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
-                    // We update the request, so we have the latest sequence number.
-                    map.put(byteArray, request);
-                    persist();
+                if (requestFromMap instanceof RemoveMailboxRequest) {
+                    // We have had the entry already removed.
+                    result.set(new DataStorageResult(false).alreadyRemoved());
+                    if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+                        // We update the request, so we have the latest sequence number.
+                        persist(key, request);
+                        return request;
+                    }
+                    return requestFromMap;
                 }
-                return new DataStorageResult(false).alreadyRemoved();
-            }
 
-            // At that point we know requestFromMap is an AddMailboxRequest
-            AddMailboxRequest addRequest = (AddMailboxRequest) requestFromMap;
-            // We have an entry, lets validate if we can remove it
-            sequentialDataFromMap = addRequest.getMailboxSequentialData();
-            if (request.isSequenceNrInvalid(sequentialDataFromMap.getSequenceNumber())) {
-                // Sequence number has not increased
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
+                // At that point we know requestFromMap is an AddMailboxRequest
+                AddMailboxRequest addRequest = (AddMailboxRequest) requestFromMap;
+                // We have an entry, lets validate if we can remove it
+                MailboxSequentialData sequentialDataFromMap = addRequest.getMailboxSequentialData();
+                if (request.isSequenceNrInvalid(sequentialDataFromMap.getSequenceNumber())) {
+                    // Sequence number has not increased
+                    result.set(new DataStorageResult(false).sequenceNrInvalid());
+                    return requestFromMap;
+                }
 
-            if (request.isPublicKeyHashInvalid(sequentialDataFromMap)) {
-                // Hash of pubKey of data does not match provided one
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
+                if (request.isPublicKeyHashInvalid(sequentialDataFromMap)) {
+                    // Hash of pubKey of data does not match provided one
+                    result.set(new DataStorageResult(false).publicKeyHashInvalid());
+                    return requestFromMap;
+                }
 
-            if (request.isSignatureInvalid()) {
-                return new DataStorageResult(false).signatureInvalid();
-            }
+                if (signatureInvalid.orElseGet(request::isSignatureInvalid)) {
+                    result.set(new DataStorageResult(false).signatureInvalid());
+                    return requestFromMap;
+                }
 
-            map.put(byteArray, request);
-            listeners.forEach(listener -> listener.onRemoved(sequentialDataFromMap.getMailboxData()));
+                persist(key, request);
+                removeFromIndex(key, addRequest);
+                result.set(new DataStorageResult(true).removedData(sequentialDataFromMap.getMailboxData()));
+                return request;
+            });
+
+            DataStorageResult dataStorageResult = result.get();
+            if (dataStorageResult.isSuccess()) {
+                MailboxData removedData = (MailboxData) dataStorageResult.getRemovedData();
+                listeners.forEach(listener -> listener.onRemoved(removedData));
+            }
+            return dataStorageResult;
         }
+    }
 
-        persist();
-        return new DataStorageResult(true).removedData(sequentialDataFromMap.getMailboxData());
+    /**
+     * @return The not expired mailbox data addressed to any of the given receiverKeyIds. Uses the receiverKeyId index,
+     * so the other entries are not touched.
+     */
+    public List<MailboxData> getMailboxData(Set<String> receiverKeyIds) {
+        Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
+        return receiverKeyIds.stream()
+                .flatMap(receiverKeyId -> hashesByReceiverKeyId.getOrDefault(receiverKeyId, Set.of()).stream())
+                .map(map::get)
+                .filter(request -> request instanceof AddMailboxRequest && !request.isExpired())
+                .map(request -> ((AddMailboxRequest) request).getMailboxSequentialData().getMailboxData())
+                .collect(Collectors.toList());
     }
 
     public void addListener(Listener listener) {
@@ -169,22 +258,12 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
     int getSequenceNumber(byte[] hash) {
-        ByteArray byteArray = new ByteArray(hash);
-        int sequenceNumber = 0;
-        Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (map.containsKey(byteArray)) {
-                sequenceNumber = map.get(byteArray).getSequenceNumber();
-            }
-        }
-        return sequenceNumber;
+        MailboxRequest request = persistableStore.getMap().get(new ByteArray(hash));
+        return request != null ? request.getSequenceNumber() : 0;
     }
 
     boolean contains(byte[] hash) {
-        Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            return map.containsKey(new ByteArray(hash));
-        }
+        return persistableStore.getMap().containsKey(new ByteArray(hash));
     }
 
     boolean canAddMailboxMessage(MailboxData mailboxData) {
@@ -193,12 +272,48 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
     }
 
     private void pruneExpired() {
-        Set<Map.Entry<ByteArray, MailboxRequest>> expiredEntries = persistableStore.getMap().entrySet().stream()
-                .filter(entry -> entry.getValue().isExpired())
-                .collect(Collectors.toSet());
-        if (!expiredEntries.isEmpty()) {
-            log.info("We remove {} expired entries from our map", expiredEntries.size());
-            expiredEntries.forEach(entry -> persistableStore.getMap().remove(entry.getKey()));
+        List<ByteArray> dueKeys = pollDueKeys();
+        if (dueKeys.isEmpty()) {
+            return;
+        }
+        Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
+        AtomicInteger numPruned = new AtomicInteger();
+        dueKeys.forEach(byteArray -> map.computeIfPresent(byteArray, (key, requestFromMap) -> {
+            if (!requestFromMap.isExpired()) {
+                // The entry got updated in the meantime
+                expiryIndex.put(key, requestFromMap.getExpiryDate());
+                return requestFromMap;
+            }
+            persistRemoval(key);
+            removeFromIndex(key, requestFromMap);
+            numPruned.incrementAndGet();
+            return null;
+        }));
+        if (numPruned.get() > 0) {
+            log.info("We removed {} expired entries from our map", numPruned.get());
+        }
+    }
+
+    private void addToIndex(ByteArray hash, MailboxRequest request) {
+        if (request instanceof AddMailboxRequest) {
+            addToIndex(hash, DataStore.getReceiverKeyId(request));
+        }
+    }
+
+    private void addToIndex(ByteArray hash, String receiverKeyId) {
+        hashesByReceiverKeyId.compute(receiverKeyId, (key, hashes) -> {
+            Set<ByteArray> result = hashes != null ? hashes : ConcurrentHashMap.newKeySet();
+            result.add(hash);
+            return result;
+        });
+    }
+
+    private void removeFromIndex(ByteArray hash, MailboxRequest request) {
+        if (request instanceof AddMailboxRequest) {
+            hashesByReceiverKeyId.computeIfPresent(DataStore.getReceiverKeyId(request), (key, hashes) -> {
+                hashes.remove(hash);
+                return hashes.isEmpty() ? null : hashes;
+            });
         }
     }
 }
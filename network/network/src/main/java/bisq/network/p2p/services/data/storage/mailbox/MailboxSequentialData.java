@@ -125,6 +125,10 @@ public final class MailboxSequentialData implements Proto {
     }
 
     public boolean isExpired() {
-        return (System.currentTimeMillis() - created) > Math.min(MailboxData.MAX_TLL, mailboxData.getMetaData().getTtl());
+        return System.currentTimeMillis() > getExpiryDate();
+    }
+
+    public long getExpiryDate() {
+        return created + Math.min(MailboxData.MAX_TLL, mailboxData.getMetaData().getTtl());
     }
 }
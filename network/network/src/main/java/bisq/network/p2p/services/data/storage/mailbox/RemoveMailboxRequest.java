@@ -155,7 +155,12 @@ public final class RemoveMailboxRequest implements MailboxRequest, RemoveDataReq
 
     @Override
     public boolean isExpired() {
-        return (System.currentTimeMillis() - created) > Math.min(MailboxData.MAX_TLL, metaData.getTtl());
+        return System.currentTimeMillis() > getExpiryDate();
+    }
+
+    @Override
+    public long getExpiryDate() {
+        return created + Math.min(MailboxData.MAX_TLL, metaData.getTtl());
     }
 
     @Override
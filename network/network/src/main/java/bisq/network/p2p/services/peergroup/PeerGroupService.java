@@ -26,6 +26,7 @@ import bisq.network.p2p.node.OutboundConnection;
 import bisq.network.common.Address;
 import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceClient;
+import bisq.persistence.PersistenceScheduler;
 import bisq.persistence.PersistenceService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -93,7 +94,8 @@ public class PeerGroupService implements PersistenceClient<PeerGroupStore> {
         persistence = persistenceService.getOrCreatePersistence(this,
                 NetworkService.NETWORK_DB_PATH,
                 node.getTransportType().name().toLowerCase() + "_" + persistableStore.getClass().getSimpleName(),
-                persistableStore);
+                persistableStore,
+                PersistenceScheduler.Priority.LOW);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,213 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p;
+
+import bisq.common.util.FileUtils;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedData;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataStorageService;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedSequentialData;
+import bisq.network.p2p.services.data.storage.auth.DefaultAuthenticatedData;
+import bisq.network.p2p.services.data.storage.auth.RefreshAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.persistence.PersistenceService;
+import bisq.security.DigestUtil;
+import bisq.security.KeyGeneration;
+import bisq.security.SignatureUtil;
+import com.google.protobuf.StringValue;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthenticatedDataStorageServiceTests {
+    private static final class TestDistributedData implements DistributedData {
+        private final String id;
+
+        private TestDistributedData(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public StringValue toProto() {
+            return StringValue.of(id);
+        }
+
+        @Override
+        public MetaData getMetaData() {
+            return new MetaData(TestDistributedData.class.getSimpleName());
+        }
+
+        @Override
+        public boolean isDataInvalid(byte[] pubKeyHash) {
+            return false;
+        }
+
+        @Override
+        public double getCostFactor() {
+            return 0.5;
+        }
+    }
+
+    private enum Event {
+        ADDED, REMOVED, REFRESHED
+    }
+
+    @Test
+    void concurrentUpdatesOfSameKey() throws Exception {
+        String baseDir = FileUtils.createTempDir().toAbsolutePath().toString();
+        AuthenticatedDataStorageService store = new AuthenticatedDataStorageService(new PersistenceService(baseDir),
+                StorageService.StoreType.AUTHENTICATED_DATA_STORE.getStoreName(),
+                "TestData",
+                false);
+        List<Event> events = Collections.synchronizedList(new ArrayList<>());
+        store.addListener(new AuthenticatedDataStorageService.Listener() {
+            @Override
+            public void onAdded(AuthenticatedData authenticatedData) {
+                events.add(Event.ADDED);
+            }
+
+            @Override
+            public void onRemoved(AuthenticatedData authenticatedData) {
+                events.add(Event.REMOVED);
+            }
+
+            @Override
+            public void onRefreshed(AuthenticatedData authenticatedData) {
+                events.add(Event.REFRESHED);
+            }
+        });
+
+        KeyPair keyPair = KeyGeneration.generateKeyPair();
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestDistributedData("test"));
+        byte[] hash = DigestUtil.hash(authenticatedData.serialize());
+        // Adds, refreshes and removes of the same data with increasing sequence numbers. The last one is an add.
+        int numRequests = 300;
+        List<DataRequest> requests = new ArrayList<>();
+        for (int sequenceNumber = 1; sequenceNumber <= numRequests; sequenceNumber++) {
+            switch (sequenceNumber % 3) {
+                case 0:
+                    requests.add(createAddRequest(authenticatedData, sequenceNumber, keyPair));
+                    break;
+                case 1:
+                    requests.add(createRefreshRequest(authenticatedData, hash, sequenceNumber, keyPair));
+                    break;
+                default:
+                    requests.add(createRemoveRequest(authenticatedData, hash, sequenceNumber, keyPair));
+            }
+        }
+        Collections.shuffle(requests);
+
+        int numThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < numThreads; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    for (int i = offset; i < requests.size(); i += numThreads) {
+                        DataRequest request = requests.get(i);
+                        if (request instanceof AddAuthenticatedDataRequest) {
+                            store.add((AddAuthenticatedDataRequest) request);
+                        } else if (request instanceof RefreshAuthenticatedDataRequest) {
+                            store.refresh((RefreshAuthenticatedDataRequest) request);
+                        } else {
+                            store.remove((RemoveAuthenticatedDataRequest) request);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            store.shutdown();
+        }
+
+        // The add with the highest sequence number wins, independent of the order the requests got applied
+        AuthenticatedDataRequest requestFromMap = store.getPersistableStore().getMap().values().iterator().next();
+        assertThat(requestFromMap).isInstanceOf(AddAuthenticatedDataRequest.class);
+        assertThat(requestFromMap.getSequenceNumber()).isEqualTo(numRequests);
+
+        // The events are notified in the order the updates got applied, so they describe valid transitions and end
+        // in the final state.
+        boolean present = false;
+        for (Event event : events) {
+            if (event == Event.ADDED) {
+                present = true;
+            } else {
+                assertThat(present).isTrue();
+                present = event == Event.REFRESHED;
+            }
+        }
+        assertThat(present).isTrue();
+        assertThat(events.get(events.size() - 1)).isEqualTo(Event.ADDED);
+    }
+
+    private static AddAuthenticatedDataRequest createAddRequest(AuthenticatedData authenticatedData,
+                                                                int sequenceNumber,
+                                                                KeyPair keyPair) throws GeneralSecurityException {
+        byte[] pubKeyHash = DigestUtil.hash(keyPair.getPublic().getEncoded());
+        AuthenticatedSequentialData data = new AuthenticatedSequentialData(authenticatedData,
+                sequenceNumber,
+                pubKeyHash,
+                System.currentTimeMillis());
+        byte[] signature = SignatureUtil.sign(data.serialize(), keyPair.getPrivate());
+        return new AddAuthenticatedDataRequest(data, signature, keyPair.getPublic());
+    }
+
+    private static RefreshAuthenticatedDataRequest createRefreshRequest(AuthenticatedData authenticatedData,
+                                                                        byte[] hash,
+                                                                        int sequenceNumber,
+                                                                        KeyPair keyPair) throws GeneralSecurityException {
+        return new RefreshAuthenticatedDataRequest(authenticatedData.getMetaData(),
+                hash,
+                keyPair.getPublic(),
+                sequenceNumber,
+                SignatureUtil.sign(hash, keyPair.getPrivate()));
+    }
+
+    private static RemoveAuthenticatedDataRequest createRemoveRequest(AuthenticatedData authenticatedData,
+                                                                      byte[] hash,
+                                                                      int sequenceNumber,
+                                                                      KeyPair keyPair) throws GeneralSecurityException {
+        return new RemoveAuthenticatedDataRequest(authenticatedData.getMetaData(),
+                hash,
+                keyPair.getPublic(),
+                sequenceNumber,
+                SignatureUtil.sign(hash, keyPair.getPrivate()));
+    }
+}
@@ -23,6 +23,7 @@ import bisq.network.common.TransportType;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.Capability;
 import bisq.network.p2p.node.ConnectionException;
+import bisq.network.p2p.node.Feature;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
@@ -187,6 +188,64 @@ public class ConnectionHandshakeResponderTest {
         assertThat(response.getNetworkLoad()).isEqualTo(new NetworkLoad());
     }
 
+    @Test
+    void peerWithoutFeatures() throws IOException {
+        // Peers running an older version do not know about features, so their Capability has none
+        Capability peerCapability = new Capability(Address.localHost(2345), supportedTransportTypes);
+        ConnectionHandshake.Request request = new ConnectionHandshake.Request(peerCapability, new NetworkLoad());
+        AuthorizationToken token = authorizationService.createToken(request,
+                new NetworkLoad(),
+                responderCapability.getAddress().getFullAddress(),
+                0);
+        NetworkEnvelope requestNetworkEnvelope = new NetworkEnvelope(token, request);
+        when(networkEnvelopeSocketChannel.receiveNetworkEnvelopes()).thenReturn(List.of(requestNetworkEnvelope));
+
+        ConnectionHandshakeResponder featuresResponder = new ConnectionHandshakeResponder(
+                banList,
+                new Capability(Address.localHost(1234), supportedTransportTypes,
+                        new ArrayList<>(List.of(Feature.INVENTORY_RECONCILIATION))),
+                new NetworkLoad(),
+                authorizationService,
+                networkEnvelopeSocketChannel);
+        NetworkEnvelope responseNetworkEnvelope = featuresResponder.verifyAndBuildRespond().getSecond();
+
+        // An older peer drops the unknown features field and re-serializes the response for the proof of work check
+        bisq.network.protobuf.ConnectionHandshake.Response legacyResponseProto = responseNetworkEnvelope
+                .getEnvelopePayloadMessage().toProto().getConnectionHandshakeResponse().toBuilder()
+                .clearFeatures()
+                .build();
+        byte[] legacyPayload = bisq.network.protobuf.EnvelopePayloadMessage.newBuilder()
+                .setConnectionHandshakeResponse(legacyResponseProto)
+                .build()
+                .toByteArray();
+        assertThat(responseNetworkEnvelope.getAuthorizationToken().getProofOfWork().getPayload()).isEqualTo(legacyPayload);
+    }
+
+    @Test
+    void featuresAreNotPartOfProofOfWorkPayload() throws IOException {
+        Capability peerCapability = new Capability(Address.localHost(2345), supportedTransportTypes,
+                new ArrayList<>(List.of(Feature.INVENTORY_RECONCILIATION, Feature.INVENTORY_CHUNKS)));
+        ConnectionHandshake.Request request = new ConnectionHandshake.Request(peerCapability, new NetworkLoad());
+        AuthorizationToken token = authorizationService.createToken(request,
+                new NetworkLoad(),
+                responderCapability.getAddress().getFullAddress(),
+                0);
+        ConnectionHandshake.Request requestWithoutFeatures = new ConnectionHandshake.Request(
+                new Capability(Address.localHost(2345), supportedTransportTypes), new NetworkLoad());
+        assertThat(token.getProofOfWork().getPayload()).isEqualTo(requestWithoutFeatures.toProto().toByteArray());
+
+        // Features survive the serialization
+        ConnectionHandshake.Request receivedRequest = ConnectionHandshake.Request.fromProto(
+                request.toProto().getConnectionHandshakeRequest());
+        assertThat(receivedRequest.getCapability().getFeatures())
+                .containsExactly(Feature.INVENTORY_RECONCILIATION, Feature.INVENTORY_CHUNKS);
+
+        NetworkEnvelope requestNetworkEnvelope = new NetworkEnvelope(token, receivedRequest);
+        when(networkEnvelopeSocketChannel.receiveNetworkEnvelopes()).thenReturn(List.of(requestNetworkEnvelope));
+        ConnectionHandshake.Request verifiedRequest = handshakeResponder.verifyAndBuildRespond().getFirst();
+        assertThat(verifiedRequest.getCapability().supports(Feature.INVENTORY_CHUNKS)).isTrue();
+    }
+
     private NetworkEnvelope createValidRequest() {
         Capability peerCapability = new Capability(Address.localHost(2345), supportedTransportTypes);
         ConnectionHandshake.Request request = new ConnectionHandshake.Request(peerCapability, new NetworkLoad());
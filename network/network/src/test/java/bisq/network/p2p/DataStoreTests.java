@@ -0,0 +1,256 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p;
+
+import bisq.common.data.ByteArray;
+import bisq.common.proto.UnresolvableProtobufMessageException;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.storage.DataStore;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+public class DataStoreTests {
+    private final DataRequest dataRequest = mock(DataRequest.class);
+
+    @Test
+    void viewsReflectLiveMapButCloneDoesNot() {
+        DataStore<DataRequest> dataStore = createDataStore(10);
+        DataStore<DataRequest> clone = dataStore.getClone();
+
+        dataStore.getMap().put(toKey(10), dataRequest);
+
+        assertThat(dataStore.getValues()).hasSize(11);
+        assertThat(dataStore.getEntrySet()).hasSize(11);
+        // The clone is a copy taken at getClone, so it does not see later changes of the live map
+        assertThat(clone.getMap()).hasSize(10);
+        assertThat(clone.getMap().containsKey(toKey(10))).isFalse();
+    }
+
+    @Test
+    void fromMappedProtoDoesNotDecodeValues() {
+        bisq.network.protobuf.DataStore.Builder builder = bisq.network.protobuf.DataStore.newBuilder();
+        for (int i = 0; i < 10; i++) {
+            // An empty DataRequest cannot be decoded, so any access to the values would throw
+            builder.addMapEntries(bisq.network.protobuf.DataStore.MapEntry.newBuilder()
+                    .setKey(toKey(i).toProto())
+                    .setValue(bisq.network.protobuf.DataRequest.getDefaultInstance()));
+        }
+        bisq.network.protobuf.DataStore proto = builder.build();
+
+        DataStore<DataRequest> dataStore = DataStore.fromMappedProto(proto.toByteString());
+
+        assertThat(dataStore.getMap()).hasSize(10);
+        assertThat(dataStore.getMap().containsKey(toKey(3))).isTrue();
+        assertThat(dataStore.toProto().getMapEntriesList()).containsExactlyInAnyOrderElementsOf(proto.getMapEntriesList());
+        assertThatThrownBy(() -> dataStore.getMap().get(toKey(3))).isInstanceOf(UnresolvableProtobufMessageException.class);
+    }
+
+    @Test
+    void expiryAndCreationDatesWithoutDecoding() {
+        bisq.network.protobuf.DataStore.Builder builder = bisq.network.protobuf.DataStore.newBuilder();
+        for (int i = 0; i < 10; i++) {
+            // An empty DataRequest cannot be decoded, so any access to the values would throw
+            builder.addMapEntries(bisq.network.protobuf.DataStore.MapEntry.newBuilder()
+                    .setKey(toKey(i).toProto())
+                    .setValue(bisq.network.protobuf.DataRequest.getDefaultInstance())
+                    .setExpiryDate(1000 + i)
+                    .setCreated(100 + i));
+        }
+        DataStore<DataRequest> dataStore = DataStore.fromMappedProto(builder.build().toByteString());
+
+        Map<ByteArray, Long> expiryDates = dataStore.streamExpiryDates()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertThat(expiryDates).hasSize(10).containsEntry(toKey(3), 1003L);
+        Map<ByteArray, Long> creationDates = dataStore.streamCreationDates()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertThat(creationDates).hasSize(10).containsEntry(toKey(7), 107L);
+
+        dataStore.removeKeys(List.of(toKey(3), toKey(7)));
+        assertThat(dataStore.getMap()).hasSize(8);
+        assertThat(dataStore.getMap().containsKey(toKey(3))).isFalse();
+
+        // The dates survive the serialization of not decoded entries
+        assertThat(dataStore.toProto().getMapEntriesList())
+                .filteredOn(entry -> ByteArray.fromProto(entry.getKey()).equals(toKey(5)))
+                .singleElement()
+                .satisfies(entry -> assertThat(entry.getExpiryDate()).isEqualTo(1005L));
+    }
+
+    @Test
+    void mappedStoreAppliesLogRecordsWithoutDecoding() throws Exception {
+        bisq.network.protobuf.DataStore.Builder builder = bisq.network.protobuf.DataStore.newBuilder();
+        for (int i = 0; i < 10; i++) {
+            builder.addMapEntries(createUndecodableEntry(i));
+        }
+        DataStore<DataRequest> dataStore = DataStore.fromMappedProto(builder.build().toByteString());
+
+        dataStore.applyLogRecord(createUndecodableEntry(10).toByteArray());
+        dataStore.applyLogRecord(DataStore.toRemovalLogRecord(toKey(3)));
+
+        assertThat(dataStore.getMap()).hasSize(10);
+        assertThat(dataStore.getMap().containsKey(toKey(3))).isFalse();
+        // The filter entries are built from the stored sequence numbers
+        Map<ByteArray, Integer> sequenceNumbers = dataStore.streamSequenceNumbers()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertThat(sequenceNumbers).hasSize(10).containsEntry(toKey(10), 20);
+        // The mailbox index is built from the stored receiverKeyIds
+        Map<ByteArray, String> receiverKeyIds = dataStore.streamReceiverKeyIds()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertThat(receiverKeyIds).hasSize(10).containsEntry(toKey(10), "receiverKeyId10");
+    }
+
+    // Stress test of the sequence number checks done by the storage services inside the compute of the map entry.
+    // Many threads update few keys with shuffled sequence numbers. The accepted updates of a key must be strictly
+    // increasing (like the persisted log entries) and the map must end up with the highest sequence number.
+    @Test
+    void concurrentSequenceNumberUpdates() throws Exception {
+        int numKeys = 4;
+        int numThreads = 8;
+        int maxSequenceNumber = 500;
+        List<AuthenticatedDataRequest> requests = IntStream.rangeClosed(1, maxSequenceNumber)
+                .mapToObj(sequenceNumber -> {
+                    AuthenticatedDataRequest request = mock(AuthenticatedDataRequest.class);
+                    when(request.getSequenceNumber()).thenReturn(sequenceNumber);
+                    return request;
+                })
+                .collect(Collectors.toList());
+        DataStore<AuthenticatedDataRequest> dataStore = new DataStore<>();
+        Map<ByteArray, AuthenticatedDataRequest> map = dataStore.getMap();
+        Map<ByteArray, List<Integer>> acceptedByKey = new ConcurrentHashMap<>();
+        AtomicInteger numInvocations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < numThreads; thread++) {
+                futures.add(executor.submit(() -> {
+                    List<AuthenticatedDataRequest> shuffled = new ArrayList<>(requests);
+                    Collections.shuffle(shuffled);
+                    start.await();
+                    for (AuthenticatedDataRequest request : shuffled) {
+                        for (int i = 0; i < numKeys; i++) {
+                            map.compute(toKey(i), (key, requestFromMap) -> {
+                                numInvocations.incrementAndGet();
+                                if (requestFromMap != null && request.getSequenceNumber() <= requestFromMap.getSequenceNumber()) {
+                                    return requestFromMap;
+                                }
+                                acceptedByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(request.getSequenceNumber());
+                                return request;
+                            });
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(numInvocations.get()).isEqualTo(numThreads * numKeys * maxSequenceNumber);
+        for (int i = 0; i < numKeys; i++) {
+            assertThat(map.get(toKey(i)).getSequenceNumber()).isEqualTo(maxSequenceNumber);
+            assertThat(acceptedByKey.get(toKey(i))).isSorted().doesNotHaveDuplicates();
+        }
+    }
+
+    // Not a strict benchmark, only logs the allocated bytes and time of a read with a copied map and with the view.
+    @Test
+    void readWithoutCopy() {
+        for (int numEntries : new int[]{10_000, 50_000, 100_000}) {
+            DataStore<DataRequest> dataStore = createDataStore(numEntries);
+            // Warm up
+            for (int i = 0; i < 10; i++) {
+                new DataStore<>(dataStore.getMap()).getMap().values().size();
+                dataStore.getValues().stream().count();
+            }
+
+            long copyAllocated = measure("copy", numEntries,
+                    () -> (int) new DataStore<>(dataStore.getMap()).getMap().values().stream().count());
+            long viewAllocated = measure("view", numEntries,
+                    () -> (int) dataStore.getValues().stream().count());
+            assertThat(viewAllocated).isLessThan(copyAllocated);
+        }
+    }
+
+    private long measure(String name, int numEntries, IntSupplier read) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int iterations = 20;
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long ts = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertThat(read.getAsInt()).isEqualTo(numEntries);
+        }
+        long duration = (System.nanoTime() - ts) / iterations;
+        long allocated = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / iterations;
+        log.info("{} entries, {}: {} bytes allocated and {} ns per read", numEntries, name, allocated, duration);
+        return allocated;
+    }
+
+    private DataStore<DataRequest> createDataStore(int numEntries) {
+        DataStore<DataRequest> dataStore = new DataStore<>();
+        for (int i = 0; i < numEntries; i++) {
+            dataStore.getMap().put(toKey(i), dataRequest);
+        }
+        return dataStore;
+    }
+
+    // An empty DataRequest cannot be decoded, so any access to the value would throw
+    private static bisq.network.protobuf.DataStore.MapEntry createUndecodableEntry(int i) {
+        return bisq.network.protobuf.DataStore.MapEntry.newBuilder()
+                .setKey(toKey(i).toProto())
+                .setValue(bisq.network.protobuf.DataRequest.getDefaultInstance())
+                .setExpiryDate(Long.MAX_VALUE)
+                .setCreated(100 + i)
+                .setSequenceNumber(2 * i)
+                .setReceiverKeyId("receiverKeyId" + i)
+                .build();
+    }
+
+    private static ByteArray toKey(int i) {
+        return new ByteArray(ByteBuffer.allocate(20).putInt(i).array());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p;
+
+import bisq.network.p2p.message.EncodedEnvelopePayloadMessage;
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.Node;
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.network.p2p.services.data.broadcast.BroadcastMessage;
+import bisq.network.p2p.services.data.broadcast.BroadcastResult;
+import bisq.network.p2p.services.data.broadcast.Broadcaster;
+import bisq.network.p2p.services.peergroup.PeerGroupService;
+import bisq.security.pow.ProofOfWork;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EncodedEnvelopePayloadMessageTests {
+    private static final int NUM_PEERS = 20;
+
+    private static class CountingMessage implements BroadcastMessage {
+        private final AtomicInteger numToProtoCalls = new AtomicInteger();
+
+        @Override
+        public bisq.network.protobuf.EnvelopePayloadMessage toProto() {
+            numToProtoCalls.incrementAndGet();
+            return getNetworkMessageBuilder()
+                    .setPing(bisq.network.protobuf.Ping.newBuilder().setNonce(42))
+                    .build();
+        }
+
+        @Override
+        public double getCostFactor() {
+            return 0.05;
+        }
+    }
+
+    @Test
+    void serializeOncePerBroadcast() {
+        CountingMessage message = new CountingMessage();
+        EncodedEnvelopePayloadMessage encodedMessage = new EncodedEnvelopePayloadMessage(message);
+
+        for (int i = 0; i < NUM_PEERS; i++) {
+            NetworkEnvelope networkEnvelope = new NetworkEnvelope(createToken(encodedMessage.getSerialized(), i), encodedMessage);
+            networkEnvelope.getSerializedSize();
+            networkEnvelope.toByteArray();
+        }
+
+        assertThat(message.numToProtoCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void splicedBytesEqualProtoBytes() throws IOException {
+        CountingMessage message = new CountingMessage();
+        EncodedEnvelopePayloadMessage encodedMessage = new EncodedEnvelopePayloadMessage(message);
+        AuthorizationToken token = createToken(encodedMessage.getSerialized(), 7);
+
+        NetworkEnvelope encodedEnvelope = new NetworkEnvelope(token, encodedMessage);
+        NetworkEnvelope networkEnvelope = new NetworkEnvelope(token, message);
+        assertThat(encodedEnvelope.toByteArray()).isEqualTo(networkEnvelope.toProto().toByteArray());
+        assertThat(encodedEnvelope).isEqualTo(networkEnvelope);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        encodedEnvelope.writeDelimitedTo(outputStream);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        networkEnvelope.toProto().writeDelimitedTo(expected);
+        assertThat(outputStream.toByteArray()).isEqualTo(expected.toByteArray());
+
+        bisq.network.protobuf.NetworkEnvelope parsed = bisq.network.protobuf.NetworkEnvelope.parseFrom(encodedEnvelope.toByteArray());
+        assertThat(NetworkEnvelope.fromProto(parsed).getAuthorizationToken()).isEqualTo(token);
+    }
+
+    @Test
+    void broadcastToSeveralConnections() throws Exception {
+        Node node = mock(Node.class);
+        when(node.isInitialized()).thenReturn(true);
+        List<Connection> connections = IntStream.range(0, NUM_PEERS)
+                .mapToObj(i -> mock(Connection.class))
+                .collect(Collectors.toList());
+        PeerGroupService peerGroupService = mock(PeerGroupService.class);
+        when(peerGroupService.getAllConnections()).thenAnswer(invocation -> connections.stream());
+
+        // Stands in for the node, which creates the AuthorizationToken per connection and writes the envelope
+        List<EncodedEnvelopePayloadMessage> encodedMessages = Collections.synchronizedList(new ArrayList<>());
+        Map<Connection, AuthorizationToken> tokens = new ConcurrentHashMap<>();
+        Map<Connection, byte[]> sentBytes = new ConcurrentHashMap<>();
+        when(node.sendAsync(any(EncodedEnvelopePayloadMessage.class), any(Connection.class))).thenAnswer(invocation -> {
+            EncodedEnvelopePayloadMessage encodedMessage = invocation.getArgument(0);
+            Connection connection = invocation.getArgument(1);
+            AuthorizationToken token = createToken(encodedMessage.getSerialized(), connections.indexOf(connection));
+            encodedMessages.add(encodedMessage);
+            tokens.put(connection, token);
+            sentBytes.put(connection, new NetworkEnvelope(token, encodedMessage).toByteArray());
+            return CompletableFuture.completedFuture(connection);
+        });
+
+        CountingMessage message = new CountingMessage();
+        BroadcastResult result = new Broadcaster(node, peerGroupService).broadcast(message).get(10, TimeUnit.SECONDS);
+
+        assertThat(result.getNumSuccess()).isEqualTo(NUM_PEERS);
+        assertThat(result.getNumFaults()).isEqualTo(0);
+        // All connections got the same encoded message, so the message was serialized only once
+        assertThat(message.numToProtoCalls.get()).isEqualTo(1);
+        assertThat(encodedMessages).hasSize(NUM_PEERS).allMatch(encodedMessage -> encodedMessage == encodedMessages.get(0));
+        assertThat(sentBytes.keySet()).containsExactlyInAnyOrderElementsOf(connections);
+        // Each connection got its own token, spliced into the same bytes as if the envelope was serialized as a whole
+        for (Connection connection : connections) {
+            byte[] expected = new NetworkEnvelope(tokens.get(connection), message).toProto().toByteArray();
+            assertThat(sentBytes.get(connection)).isEqualTo(expected);
+        }
+    }
+
+    private AuthorizationToken createToken(byte[] payload, int messageCounter) {
+        ProofOfWork proofOfWork = new ProofOfWork(payload, messageCounter, new byte[32], 2, new byte[8], 1);
+        return new AuthorizationToken(proofOfWork, messageCounter);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.storage.ExpiryIndex;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpiryIndexTests {
+    @Test
+    void pollDueReturnsOnlyDueKeys() {
+        ExpiryIndex expiryIndex = new ExpiryIndex();
+        expiryIndex.put(toKey(1), 100);
+        expiryIndex.put(toKey(2), 300);
+        expiryIndex.put(toKey(3), 200);
+        expiryIndex.put(toKey(4), Long.MAX_VALUE);
+
+        assertThat(expiryIndex.size()).isEqualTo(3);
+        assertThat(expiryIndex.pollDue(100)).isEmpty();
+        assertThat(expiryIndex.pollDue(250)).containsExactly(toKey(1), toKey(3));
+        assertThat(expiryIndex.pollDue(250)).isEmpty();
+        assertThat(expiryIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void updatedAndRemovedKeysAreNotPolled() {
+        ExpiryIndex expiryIndex = new ExpiryIndex();
+        expiryIndex.put(toKey(1), 100);
+        expiryIndex.put(toKey(2), 100);
+        expiryIndex.put(toKey(3), 100);
+
+        // Refresh extends the expiry date, remove drops it
+        expiryIndex.put(toKey(1), 1000);
+        expiryIndex.remove(toKey(2));
+        // A full scan does not override the expiry date of an update
+        expiryIndex.putIfAbsent(toKey(1), 100);
+
+        assertThat(expiryIndex.pollDue(500)).containsExactly(toKey(3));
+        assertThat(expiryIndex.pollDue(2000)).containsExactly(toKey(1));
+        assertThat(expiryIndex.size()).isZero();
+    }
+
+    @Test
+    void frequentUpdatesDoNotAccumulate() {
+        ExpiryIndex expiryIndex = new ExpiryIndex();
+        for (int i = 0; i < 100_000; i++) {
+            expiryIndex.put(toKey(i % 10), i);
+        }
+
+        assertThat(expiryIndex.size()).isEqualTo(10);
+        assertThat(expiryIndex.pollDue(99_990)).isEmpty();
+        assertThat(expiryIndex.pollDue(100_000)).hasSize(10);
+    }
+
+    private static ByteArray toKey(int i) {
+        return new ByteArray(ByteBuffer.allocate(20).putInt(i).array());
+    }
+}
@@ -42,6 +42,8 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
@@ -58,6 +60,8 @@ import static org.mockito.Mockito.mock;
 
 @Slf4j
 public class InboundConnectionsManagerTests {
+    private static final int SOCKET_TIMEOUT = 120_000;
+
     private final Path tmpDir = FileUtils.createTempDir();
     private final AuthorizationService authorizationService = createAuthorizationService();
     private final List<TransportType> supportedTransportTypes = new ArrayList<>(1);
@@ -86,6 +90,7 @@ public class InboundConnectionsManagerTests {
                 myCapability,
                 new NetworkLoad(),
                 authorizationService,
+                SOCKET_TIMEOUT,
                 serverSocketChannel,
                 selector,
                 mock(Node.class)
@@ -93,35 +98,7 @@ public class InboundConnectionsManagerTests {
 
         inboundConnectionsManager.registerOpAccept();
 
-        Thread serverThread = new Thread(() -> {
-            try {
-                while (selector.select() > 0) {
-                    Set<SelectionKey> readyKeys = selector.selectedKeys();
-                    Iterator<SelectionKey> keyIterator = readyKeys.iterator();
-
-                    while (keyIterator.hasNext()) {
-                        SelectionKey selectionKey = keyIterator.next();
-                        keyIterator.remove();
-
-                        if (selectionKey.isAcceptable()) {
-                            inboundConnectionsManager.acceptNewConnection(selectionKey);
-                        }
-
-                        if (selectionKey.isReadable()) {
-                            SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
-                            log.info("Received message from {}", socketChannel.getRemoteAddress());
-
-                            if (inboundConnectionsManager.isInboundConnection(socketChannel)) {
-                                inboundConnectionsManager.handleInboundConnection(socketChannel);
-                            }
-                        }
-                    }
-                }
-            } catch (IOException e) {
-                log.error("Error: ", e);
-            }
-        });
-        serverThread.start();
+        startSelectorThread(selector, inboundConnectionsManager);
 
         List<SocketChannel> clientConnections = new ArrayList<>();
         for (int i = 0; i < 5; i++) {
@@ -175,6 +152,7 @@ public class InboundConnectionsManagerTests {
                 myCapability,
                 new NetworkLoad(),
                 authorizationService,
+                SOCKET_TIMEOUT,
                 serverSocketChannel,
                 selector,
                 mock(Node.class)
@@ -182,35 +160,7 @@ public class InboundConnectionsManagerTests {
 
         inboundConnectionsManager.registerOpAccept();
 
-        Thread serverThread = new Thread(() -> {
-            try {
-                while (selector.select() > 0) {
-                    Set<SelectionKey> readyKeys = selector.selectedKeys();
-                    Iterator<SelectionKey> keyIterator = readyKeys.iterator();
-
-                    while (keyIterator.hasNext()) {
-                        SelectionKey selectionKey = keyIterator.next();
-                        keyIterator.remove();
-
-                        if (selectionKey.isAcceptable()) {
-                            inboundConnectionsManager.acceptNewConnection(selectionKey);
-                        }
-
-                        if (selectionKey.isReadable()) {
-                            SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
-                            log.info("Received message from {}", socketChannel.getRemoteAddress());
-
-                            if (inboundConnectionsManager.isInboundConnection(socketChannel)) {
-                                inboundConnectionsManager.handleInboundConnection(socketChannel);
-                            }
-                        }
-                    }
-                }
-            } catch (IOException e) {
-                log.error("Error: ", e);
-            }
-        });
-        serverThread.start();
+        startSelectorThread(selector, inboundConnectionsManager);
 
         List<SocketChannel> clientConnections = new ArrayList<>();
         for (int i = 0; i < 5; i++) {
@@ -245,6 +195,92 @@ public class InboundConnectionsManagerTests {
         assertThat(receivedReplies).isEqualTo(5);
     }
 
+    @Test
+    void closeChannelIfHandshakeTimesOut() throws IOException {
+        ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+        serverSocketChannel.configureBlocking(false);
+
+        Address myAddress = Address.localHost(NetworkUtils.findFreeSystemPort());
+        InetSocketAddress socketAddress = new InetSocketAddress(
+                InetAddress.getLocalHost(),
+                myAddress.getPort()
+        );
+        serverSocketChannel.socket().bind(socketAddress);
+
+        Capability myCapability = new Capability(myAddress, supportedTransportTypes);
+
+        Selector selector = SelectorProvider.provider().openSelector();
+        InboundConnectionsManager inboundConnectionsManager = new InboundConnectionsManager(
+                mock(BanList.class),
+                myCapability,
+                new NetworkLoad(),
+                authorizationService,
+                100,
+                serverSocketChannel,
+                selector,
+                mock(Node.class)
+        );
+
+        inboundConnectionsManager.registerOpAccept();
+        startSelectorThread(selector, inboundConnectionsManager);
+
+        // We connect but never send the handshake request
+        SocketChannel socketChannel = SocketChannel.open();
+        socketChannel.connect(socketAddress);
+
+        NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = new NetworkEnvelopeSocketChannel(socketChannel);
+        List<NetworkEnvelope> initialMessages = networkEnvelopeSocketChannel.receiveNetworkEnvelopes();
+
+        assertThat(initialMessages).isEmpty();
+        // End of stream, as the server closed the channel
+        assertThat(socketChannel.isOpen()).isFalse();
+        selector.close();
+    }
+
+    private void startSelectorThread(Selector selector, InboundConnectionsManager inboundConnectionsManager) {
+        Thread serverThread = new Thread(() -> {
+            try {
+                while (selector.isOpen()) {
+                    // A return value of 0 is expected if the selector got woken up, e.g. for changing interest ops.
+                    selector.select(100);
+                    inboundConnectionsManager.closeTimedOutChannels();
+                    Set<SelectionKey> readyKeys = selector.selectedKeys();
+                    Iterator<SelectionKey> keyIterator = readyKeys.iterator();
+
+                    while (keyIterator.hasNext()) {
+                        SelectionKey selectionKey = keyIterator.next();
+                        keyIterator.remove();
+                        if (!selectionKey.isValid()) {
+                            continue;
+                        }
+
+                        if (selectionKey.isAcceptable()) {
+                            inboundConnectionsManager.acceptNewConnection(selectionKey);
+                            continue;
+                        }
+
+                        if (selectionKey.isReadable()) {
+                            SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
+                            log.info("Received message from {}", socketChannel.getRemoteAddress());
+
+                            if (inboundConnectionsManager.isInboundConnection(socketChannel)) {
+                                inboundConnectionsManager.handleInboundConnection(socketChannel);
+                            }
+                        }
+
+                        if (selectionKey.isValid() && selectionKey.isWritable()) {
+                            inboundConnectionsManager.handleWritableChannel((SocketChannel) selectionKey.channel());
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException | CancelledKeyException e) {
+                log.debug("Selector thread stopped", e);
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
     private bisq.network.protobuf.NetworkEnvelope createPoWRequest(Address myAddress, Address peerAddress) {
         List<TransportType> supportedTransportTypes = new ArrayList<>(1);
         supportedTransportTypes.add(TransportType.CLEAR);
@@ -0,0 +1,107 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p;
+
+import bisq.network.p2p.services.data.filter.FilterEntry;
+import bisq.network.p2p.services.data.filter.InvertibleBloomLookupTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvertibleBloomLookupTableTests {
+    private final Random random = new Random(1);
+
+    @Test
+    void decodeSmallDifference() {
+        List<FilterEntry> common = createEntries(10_000);
+        List<FilterEntry> onlyMine = createEntries(20);
+        List<FilterEntry> onlyPeers = createEntries(10);
+
+        // Same hash but newer sequence number at my side
+        FilterEntry peersOldVersion = common.remove(0);
+        FilterEntry myNewVersion = new FilterEntry(peersOldVersion.getHash(), peersOldVersion.getSequenceNumber() + 1);
+
+        List<FilterEntry> mine = new ArrayList<>(common);
+        mine.addAll(onlyMine);
+        mine.add(myNewVersion);
+        List<FilterEntry> peers = new ArrayList<>(common);
+        peers.addAll(onlyPeers);
+        peers.add(peersOldVersion);
+
+        int numCells = InvertibleBloomLookupTable.DEFAULT_NUM_CELLS;
+        InvertibleBloomLookupTable peersTable = InvertibleBloomLookupTable.fromProto(
+                new InvertibleBloomLookupTable(numCells, peers).toProto());
+        InvertibleBloomLookupTable myTable = new InvertibleBloomLookupTable(numCells, mine);
+
+        Optional<InvertibleBloomLookupTable.Difference> difference = myTable.subtract(peersTable).decode();
+        assertThat(difference).isPresent();
+
+        Set<FilterEntry> expectedMissingAtPeer = new HashSet<>(onlyMine);
+        expectedMissingAtPeer.add(myNewVersion);
+        assertThat(difference.get().getMissingInSubtrahend()).isEqualTo(expectedMissingAtPeer);
+
+        Set<FilterEntry> expectedMissingAtMe = new HashSet<>(onlyPeers);
+        expectedMissingAtMe.add(peersOldVersion);
+        assertThat(difference.get().getMissingInMinuend()).isEqualTo(expectedMissingAtMe);
+
+        assertThat(peersTable.toProto().getSerializedSize()).isLessThan(8 * 1024);
+    }
+
+    @Test
+    void decodeFailsAtLargeDifference() {
+        InvertibleBloomLookupTable myTable = new InvertibleBloomLookupTable(InvertibleBloomLookupTable.DEFAULT_NUM_CELLS,
+                createEntries(1000));
+        InvertibleBloomLookupTable peersTable = new InvertibleBloomLookupTable(InvertibleBloomLookupTable.DEFAULT_NUM_CELLS);
+        assertThat(myTable.subtract(peersTable).decode()).isEmpty();
+    }
+
+    @Test
+    void decodeDifferenceOfEstimatedSize() {
+        List<FilterEntry> common = createEntries(5_000);
+        List<FilterEntry> mine = new ArrayList<>(common);
+        mine.addAll(createEntries(500));
+
+        int numCells = InvertibleBloomLookupTable.getNumCellsForDifference(500).orElseThrow();
+        InvertibleBloomLookupTable myTable = new InvertibleBloomLookupTable(numCells, mine);
+        InvertibleBloomLookupTable peersTable = new InvertibleBloomLookupTable(numCells, common);
+        Optional<InvertibleBloomLookupTable.Difference> difference = myTable.subtract(peersTable).decode();
+        assertThat(difference).isPresent();
+        assertThat(difference.get().getMissingInSubtrahend()).hasSize(500);
+
+        assertThat(InvertibleBloomLookupTable.getNumCellsForDifference(0)).contains(InvertibleBloomLookupTable.DEFAULT_NUM_CELLS);
+        assertThat(InvertibleBloomLookupTable.getNumCellsForDifference(InvertibleBloomLookupTable.MAX_NUM_CELLS)).isEmpty();
+    }
+
+    private List<FilterEntry> createEntries(int numEntries) {
+        List<FilterEntry> entries = new ArrayList<>();
+        for (int i = 0; i < numEntries; i++) {
+            byte[] hash = new byte[20];
+            random.nextBytes(hash);
+            entries.add(new FilterEntry(hash, random.nextInt(100)));
+        }
+        return entries;
+    }
+}
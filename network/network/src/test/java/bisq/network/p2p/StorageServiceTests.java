@@ -0,0 +1,70 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p;
+
+import bisq.common.util.FileUtils;
+import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataStorageService;
+import bisq.persistence.PersistenceService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StorageServiceTests {
+
+    @Test
+    void getOrCreateStoreConcurrently() throws Exception {
+        String baseDir = FileUtils.createTempDir().toAbsolutePath().toString();
+        StorageService storageService = new StorageService(new PersistenceService(baseDir), false);
+
+        int numThreads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<CompletableFuture<CompletableFuture<AuthenticatedDataStorageService>>> futures = IntStream.range(0, numThreads)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            startLatch.await();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                        return storageService.getOrCreateAuthenticatedDataStore("TestData");
+                    }, executor))
+                    .collect(Collectors.toList());
+            startLatch.countDown();
+
+            List<AuthenticatedDataStorageService> stores = futures.stream()
+                    .map(future -> future.join().join())
+                    .collect(Collectors.toList());
+            // All callers get the same store instance, which got created only once
+            AuthenticatedDataStorageService store = storageService.getOrCreateAuthenticatedDataStore("TestData").join();
+            assertThat(stores).allMatch(e -> e == store);
+        } finally {
+            executor.shutdownNow();
+            storageService.shutdown();
+        }
+    }
+}
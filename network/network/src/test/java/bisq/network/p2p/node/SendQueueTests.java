@@ -0,0 +1,342 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.network.p2p.node.authorization.ReplayWindow;
+import bisq.network.p2p.node.network_load.ConnectionMetrics;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.filter.DataFilter;
+import bisq.network.p2p.services.data.inventory.InventoryRequest;
+import bisq.network.p2p.services.peergroup.keepalive.Ping;
+import bisq.security.pow.ProofOfWork;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SendQueueTests {
+    private static final long TIMEOUT_SEC = 5;
+
+    // Simulates a slow peer: each write stays pending until the test completes its future.
+    private static class PendingWriter implements SendQueue.Writer {
+        private final BlockingQueue<CompletableFuture<Void>> writeFutures = new LinkedBlockingQueue<>();
+        private final List<List<NetworkEnvelope>> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableFuture<Void> write(List<NetworkEnvelope> networkEnvelopes) {
+            batches.add(networkEnvelopes);
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            writeFutures.add(future);
+            return future;
+        }
+
+        private void completeNextWrite() throws InterruptedException {
+            CompletableFuture<Void> future = writeFutures.poll(TIMEOUT_SEC, TimeUnit.SECONDS);
+            assertThat(future).isNotNull();
+            future.complete(null);
+        }
+    }
+
+    private static class TestDataRequest implements DataRequest {
+        @Override
+        public bisq.network.protobuf.EnvelopePayloadMessage toProto() {
+            return getNetworkMessageBuilder()
+                    .setPing(bisq.network.protobuf.Ping.newBuilder().setNonce(1))
+                    .build();
+        }
+
+        @Override
+        public double getCostFactor() {
+            return 0.1;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return false;
+        }
+
+        @Override
+        public long getExpiryDate() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public long getCreated() {
+            return 0;
+        }
+
+        @Override
+        public int getMaxMapSize() {
+            return 100;
+        }
+    }
+
+    private ExecutorService executor;
+    private ConnectionMetrics connectionMetrics;
+    private PendingWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        connectionMetrics = new ConnectionMetrics();
+        writer = new PendingWriter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void coalesceQueuedEnvelopesIntoOneWrite() throws Exception {
+        SendQueue sendQueue = createSendQueue(100, SendQueue.OverflowPolicy.BLOCK, () -> {
+        });
+        CompletableFuture<Void> first = sendQueue.enqueue(createNetworkEnvelope(1));
+        awaitNumBatches(1);
+        List<CompletableFuture<Void>> queued = new ArrayList<>();
+        for (int i = 2; i <= 11; i++) {
+            queued.add(sendQueue.enqueue(createNetworkEnvelope(i)));
+        }
+
+        // The futures complete only after the bytes have been written, and the envelopes stay queued meanwhile
+        assertThat(first).isNotDone();
+        assertThat(sendQueue.size()).isEqualTo(10);
+        assertThat(connectionMetrics.getSendQueueDepth()).isEqualTo(11);
+        assertThat(connectionMetrics.getBytesInFlight()).isPositive();
+
+        writer.completeNextWrite();
+        first.get(TIMEOUT_SEC, TimeUnit.SECONDS);
+        writer.completeNextWrite();
+        CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new)).get(TIMEOUT_SEC, TimeUnit.SECONDS);
+
+        assertThat(writer.batches).hasSize(2);
+        assertThat(writer.batches.get(0)).hasSize(1);
+        assertThat(writer.batches.get(1)).hasSize(10);
+        assertThat(connectionMetrics.getSendQueueDepth()).isZero();
+        assertThat(connectionMetrics.getBytesInFlight()).isZero();
+    }
+
+    @Test
+    void dropLowestPriorityAtOverflow() throws Exception {
+        SendQueue sendQueue = createSendQueue(3, SendQueue.OverflowPolicy.DROP_LOWEST_PRIORITY, () -> {
+        });
+        // Taken by the writer, so the queue is empty again
+        CompletableFuture<Void> writing = sendQueue.enqueue(createNetworkEnvelope(1));
+        awaitNumBatches(1);
+
+        CompletableFuture<Void> normal = sendQueue.enqueue(createNetworkEnvelope(2));
+        CompletableFuture<Void> low1 = sendQueue.enqueue(createNetworkEnvelope(new TestDataRequest(), 3));
+        CompletableFuture<Void> low2 = sendQueue.enqueue(createNetworkEnvelope(new TestDataRequest(), 4));
+        assertThat(sendQueue.size()).isEqualTo(3);
+
+        // The most recent of the lowest priority envelopes gets dropped
+        CompletableFuture<Void> inventoryRequest = sendQueue.enqueue(createNetworkEnvelope(
+                new InventoryRequest(new DataFilter(new ArrayList<>()), 1), 5));
+        assertOverflow(low2);
+        assertThat(low1).isNotDone();
+
+        CompletableFuture<Void> close = sendQueue.enqueue(createNetworkEnvelope(new CloseConnectionMessage(CloseReason.SHUTDOWN), 6));
+        assertOverflow(low1);
+
+        // No queued envelope has a lower priority, so the new one gets rejected
+        assertOverflow(sendQueue.enqueue(createNetworkEnvelope(new TestDataRequest(), 7)));
+        assertOverflow(sendQueue.enqueue(createNetworkEnvelope(8)));
+        assertThat(sendQueue.size()).isEqualTo(3);
+
+        writer.completeNextWrite();
+        writer.completeNextWrite();
+        CompletableFuture.allOf(writing, normal, inventoryRequest, close).get(TIMEOUT_SEC, TimeUnit.SECONDS);
+        // Written in the order they got queued
+        assertThat(writer.batches.get(1)).extracting(networkEnvelope -> networkEnvelope.getAuthorizationToken().getMessageCounter())
+                .containsExactly(2, 5, 6);
+    }
+
+    @Test
+    void blockSenderAtOverflow() throws Exception {
+        SendQueue sendQueue = createSendQueue(1, SendQueue.OverflowPolicy.BLOCK, () -> {
+        });
+        sendQueue.enqueue(createNetworkEnvelope(1));
+        awaitNumBatches(1);
+        CompletableFuture<Void> queued = sendQueue.enqueue(createNetworkEnvelope(2));
+
+        ExecutorService sender = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<CompletableFuture<Void>> blocked = CompletableFuture.supplyAsync(() ->
+                    sendQueue.enqueue(createNetworkEnvelope(3)), sender);
+            sleep(200);
+            assertThat(blocked).isNotDone();
+
+            writer.completeNextWrite();
+            CompletableFuture<Void> unblocked = blocked.get(TIMEOUT_SEC, TimeUnit.SECONDS);
+            writer.completeNextWrite();
+            queued.get(TIMEOUT_SEC, TimeUnit.SECONDS);
+            writer.completeNextWrite();
+            unblocked.get(TIMEOUT_SEC, TimeUnit.SECONDS);
+        } finally {
+            sender.shutdownNow();
+        }
+    }
+
+    @Test
+    void closeAtOverflow() throws Exception {
+        AtomicInteger numOverflows = new AtomicInteger();
+        SendQueue sendQueue = createSendQueue(1, SendQueue.OverflowPolicy.CLOSE, numOverflows::incrementAndGet);
+        sendQueue.enqueue(createNetworkEnvelope(1));
+        awaitNumBatches(1);
+        sendQueue.enqueue(createNetworkEnvelope(2));
+
+        CompletableFuture<Void> rejected = sendQueue.enqueue(createNetworkEnvelope(3));
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(ConnectionException.class);
+        assertThat(numOverflows.get()).isEqualTo(1);
+    }
+
+    @Test
+    void failedWriteFailsQueuedEnvelopes() throws Exception {
+        SendQueue sendQueue = createSendQueue(10, SendQueue.OverflowPolicy.BLOCK, () -> {
+        });
+        CompletableFuture<Void> writing = sendQueue.enqueue(createNetworkEnvelope(1));
+        awaitNumBatches(1);
+        CompletableFuture<Void> queued = sendQueue.enqueue(createNetworkEnvelope(2));
+
+        writer.writeFutures.poll(TIMEOUT_SEC, TimeUnit.SECONDS).completeExceptionally(new IOException("Broken pipe"));
+        assertThatThrownBy(() -> writing.get(TIMEOUT_SEC, TimeUnit.SECONDS)).hasCauseInstanceOf(ConnectionException.class);
+        assertThatThrownBy(() -> queued.get(TIMEOUT_SEC, TimeUnit.SECONDS)).hasCauseInstanceOf(ConnectionException.class);
+        assertThat(sendQueue.enqueue(createNetworkEnvelope(3))).isCompletedExceptionally();
+    }
+
+    @Test
+    void priorityByMessageType() {
+        assertThat(SendQueue.getPriority(new CloseConnectionMessage(CloseReason.SHUTDOWN))).isEqualTo(SendQueue.PRIORITY_HIGH);
+        assertThat(SendQueue.getPriority(new TestDataRequest())).isEqualTo(SendQueue.PRIORITY_LOW);
+        // Inventory messages are BroadcastMessages but sent point-to-point
+        assertThat(SendQueue.getPriority(new InventoryRequest(new DataFilter(new ArrayList<>()), 1))).isEqualTo(SendQueue.PRIORITY_NORMAL);
+        assertThat(SendQueue.getPriority(new Ping(1))).isEqualTo(SendQueue.PRIORITY_NORMAL);
+    }
+
+    @Test
+    void reorderedMessageCountersAreAcceptedByReplayWindow() throws Exception {
+        int numMessages = 5000;
+        int numSenders = 16;
+        List<Integer> writtenCounters = new CopyOnWriteArrayList<>();
+        CountDownLatch blocker = new CountDownLatch(1);
+        ExecutorService writerExecutor = Executors.newSingleThreadExecutor();
+        ExecutorService senders = Executors.newFixedThreadPool(numSenders);
+        try {
+            SendQueue sendQueue = new SendQueue(new SendQueue.Config(1000, SendQueue.OverflowPolicy.BLOCK),
+                    networkEnvelopes -> {
+                        await(blocker);
+                        networkEnvelopes.forEach(networkEnvelope ->
+                                writtenCounters.add(networkEnvelope.getAuthorizationToken().getMessageCounter()));
+                        return CompletableFuture.completedFuture(null);
+                    },
+                    writerExecutor,
+                    new ConnectionMetrics(),
+                    () -> {
+                    });
+
+            // As in Node.sendAsync the counter is assigned before minting, which takes a variable time, and before
+            // the message is queued. The queue is full while the writer is blocked, so senders wait for space.
+            AtomicInteger messageCounter = new AtomicInteger();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < numMessages; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    int counter = messageCounter.incrementAndGet();
+                    sleep(ThreadLocalRandom.current().nextInt(3));
+                    return sendQueue.enqueue(createNetworkEnvelope(counter));
+                }, senders).thenCompose(future -> future));
+            }
+            sleep(200);
+            blocker.countDown();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+            assertThat(writtenCounters).hasSize(numMessages);
+            ReplayWindow replayWindow = new ReplayWindow();
+            writtenCounters.forEach(counter -> assertThat(replayWindow.tryAccept(counter)).isTrue());
+        } finally {
+            senders.shutdownNow();
+            writerExecutor.shutdownNow();
+        }
+    }
+
+    private SendQueue createSendQueue(int capacity, SendQueue.OverflowPolicy overflowPolicy, Runnable overflowHandler) {
+        return new SendQueue(new SendQueue.Config(capacity, overflowPolicy),
+                writer,
+                executor,
+                connectionMetrics,
+                overflowHandler);
+    }
+
+    private void awaitNumBatches(int numBatches) {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SEC);
+        while (writer.batches.size() < numBatches && System.currentTimeMillis() < deadline) {
+            sleep(10);
+        }
+        assertThat(writer.batches).hasSize(numBatches);
+    }
+
+    private static void assertOverflow(CompletableFuture<Void> future) {
+        assertThat(future).isCompletedExceptionally();
+        assertThatThrownBy(future::join).hasCauseInstanceOf(SendQueueOverflowException.class);
+    }
+
+    static NetworkEnvelope createNetworkEnvelope(int messageCounter) {
+        return createNetworkEnvelope(new Ping(messageCounter), messageCounter);
+    }
+
+    static NetworkEnvelope createNetworkEnvelope(EnvelopePayloadMessage message, int messageCounter) {
+        byte[] payload = message.toProto().toByteArray();
+        ProofOfWork proofOfWork = new ProofOfWork(payload, messageCounter, new byte[32], 2, new byte[8], 1);
+        return new NetworkEnvelope(new AuthorizationToken(proofOfWork, messageCounter), message);
+    }
+
+    static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplayWindowTests {
+    @Test
+    void rejectDuplicates() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        assertThat(replayWindow.tryAccept(0)).isTrue();
+        assertThat(replayWindow.tryAccept(1)).isTrue();
+        assertThat(replayWindow.tryAccept(1)).isFalse();
+        assertThat(replayWindow.tryAccept(0)).isFalse();
+        assertThat(replayWindow.tryAccept(-1)).isFalse();
+    }
+
+    @Test
+    void isAcceptableDoesNotConsumeCounter() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        assertThat(replayWindow.isAcceptable(3)).isTrue();
+        assertThat(replayWindow.isAcceptable(3)).isTrue();
+        assertThat(replayWindow.tryAccept(3)).isTrue();
+        assertThat(replayWindow.isAcceptable(3)).isFalse();
+        assertThat(replayWindow.isAcceptable(2)).isTrue();
+        assertThat(replayWindow.isAcceptable(3 + ReplayWindow.WINDOW_SIZE)).isTrue();
+        assertThat(replayWindow.isAcceptable(-1)).isFalse();
+    }
+
+    @Test
+    void acceptOutOfOrderInsideWindow() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        assertThat(replayWindow.tryAccept(10)).isTrue();
+        assertThat(replayWindow.tryAccept(5)).isTrue();
+        assertThat(replayWindow.tryAccept(5)).isFalse();
+        assertThat(replayWindow.tryAccept(9)).isTrue();
+
+        assertThat(replayWindow.tryAccept(10 + ReplayWindow.WINDOW_SIZE)).isTrue();
+        // 10 has left the window
+        assertThat(replayWindow.tryAccept(10)).isFalse();
+        assertThat(replayWindow.tryAccept(11)).isTrue();
+    }
+
+    @Test
+    void constantMemoryWithManyMessages() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        int bitmapLength = replayWindow.getBitmapLength();
+        int numMessages = 5_000_000;
+        for (int counter = 1; counter <= numMessages; counter++) {
+            // Every 100th message arrives one position late
+            if (counter % 100 == 50) {
+                assertThat(replayWindow.tryAccept(counter + 1)).isTrue();
+                assertThat(replayWindow.tryAccept(counter)).isTrue();
+                counter++;
+            } else {
+                assertThat(replayWindow.tryAccept(counter)).isTrue();
+            }
+        }
+        assertThat(replayWindow.getBitmapLength()).isEqualTo(bitmapLength);
+        for (int counter = numMessages - ReplayWindow.WINDOW_SIZE + 1; counter <= numMessages; counter++) {
+            assertThat(replayWindow.tryAccept(counter)).isFalse();
+        }
+        assertThat(replayWindow.tryAccept(1)).isFalse();
+        assertThat(replayWindow.tryAccept(numMessages + 1)).isTrue();
+    }
+}
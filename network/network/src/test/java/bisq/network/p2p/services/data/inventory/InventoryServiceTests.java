@@ -0,0 +1,140 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.inventory;
+
+import bisq.common.data.ByteArray;
+import bisq.common.data.Pair;
+import bisq.network.common.Address;
+import bisq.network.common.TransportType;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.node.Capability;
+import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.Feature;
+import bisq.network.p2p.node.Node;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.filter.DataFilter;
+import bisq.network.p2p.services.peergroup.PeerGroupService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InventoryServiceTests {
+    private final Node node = mock(Node.class);
+    private final Connection connection = mock(Connection.class);
+
+    @Test
+    void chunkerSplitsEntriesBySerializedSize() {
+        List<DataRequest> entries = List.of(createEntry(40), createEntry(40), createEntry(40), createEntry(150), createEntry(10));
+        InventoryService.InventoryChunker chunker = new InventoryService.InventoryChunker(entries.iterator(), 100);
+
+        List<List<Integer>> chunkSizes = new ArrayList<>();
+        while (chunker.hasMoreEntries()) {
+            chunkSizes.add(chunker.nextChunk().stream()
+                    .map(entry -> entry.getSecond().getBytes().length)
+                    .collect(Collectors.toList()));
+        }
+
+        // An entry larger than the max chunk size gets a chunk on its own
+        assertThat(chunkSizes).containsExactly(List.of(40, 40), List.of(40), List.of(150), List.of(10));
+        // The serialized form is used for the size and for sorting, so each entry is serialized only once
+        entries.forEach(entry -> verify(entry, times(1)).serialize());
+    }
+
+    @Test
+    void chunkerReturnsEmptyChunkForEmptyInventory() {
+        InventoryService.InventoryChunker chunker = new InventoryService.InventoryChunker(new ArrayList<DataRequest>().iterator(), 100);
+        List<Pair<DataRequest, ByteArray>> chunk = chunker.nextChunk();
+        assertThat(chunk).isEmpty();
+        assertThat(chunker.hasMoreEntries()).isFalse();
+    }
+
+    @Test
+    void sendInventoryInChunksWhileStreamingEntries() {
+        when(connection.getPeersCapability()).thenReturn(new Capability(Address.localHost(1234),
+                new ArrayList<>(List.of(TransportType.CLEAR)),
+                new ArrayList<>(List.of(Feature.INVENTORY_CHUNKS))));
+        CompletableFuture<Connection> firstChunkSent = new CompletableFuture<>();
+        when(node.sendAsync(any(EnvelopePayloadMessage.class), eq(connection)))
+                .thenReturn(firstChunkSent)
+                .thenReturn(CompletableFuture.completedFuture(connection));
+
+        // 3 entries fit into a chunk of 1 MB
+        int numEntries = 10;
+        List<DataRequest> entries = IntStream.range(0, numEntries)
+                .mapToObj(i -> createEntry(300_000))
+                .collect(Collectors.toList());
+        AtomicInteger numStreamedEntries = new AtomicInteger();
+        InventoryService inventoryService = new InventoryService(node, mock(PeerGroupService.class),
+                dataFilter -> new LazyInventory(entries.stream().peek(e -> numStreamedEntries.incrementAndGet()), numEntries));
+
+        inventoryService.onMessage(new InventoryRequest(new DataFilter(new ArrayList<>()), 1), connection, "nodeId");
+
+        // The next chunk is only built after the previous one was sent
+        verify(node, timeout(5000)).sendAsync(any(EnvelopePayloadMessage.class), eq(connection));
+        assertThat(numStreamedEntries.get()).isEqualTo(4);
+
+        firstChunkSent.complete(connection);
+        ArgumentCaptor<EnvelopePayloadMessage> captor = ArgumentCaptor.forClass(EnvelopePayloadMessage.class);
+        verify(node, timeout(5000).times(4)).sendAsync(captor.capture(), eq(connection));
+        List<InventoryResponse> responses = captor.getAllValues().stream()
+                .map(message -> (InventoryResponse) message)
+                .collect(Collectors.toList());
+        assertThat(responses).extracting(InventoryResponse::getChunkIndex).containsExactly(0, 1, 2, 3);
+        assertThat(responses).extracting(InventoryResponse::isHasMoreChunks).containsExactly(true, true, true, false);
+        assertThat(responses).extracting(response -> response.getInventory().getEntries().size()).containsExactly(3, 3, 3, 1);
+        assertThat(responses.stream().flatMap(response -> response.getInventory().getEntries().stream()))
+                .containsExactlyInAnyOrderElementsOf(entries);
+        assertThat(numStreamedEntries.get()).isEqualTo(numEntries);
+    }
+
+    @Test
+    void chunkIndexMismatchFailsRequest() {
+        List<Inventory> receivedChunks = new ArrayList<>();
+        InventoryHandler handler = new InventoryHandler(node, connection, receivedChunks::add);
+        CompletableFuture<Void> future = handler.request(new DataFilter(new ArrayList<>()));
+
+        handler.onNetworkMessage(new InventoryResponse(new Inventory(new ArrayList<DataRequest>(), 0), handler.getNonce(), 0, true));
+        assertThat(future).isNotDone();
+
+        // Chunk 1 is missing
+        handler.onNetworkMessage(new InventoryResponse(new Inventory(new ArrayList<DataRequest>(), 0), handler.getNonce(), 2, false));
+        assertThat(future).isCompletedExceptionally();
+        assertThat(receivedChunks).hasSize(1);
+        verify(connection).removeListener(handler);
+    }
+
+    private static DataRequest createEntry(int size) {
+        DataRequest entry = mock(DataRequest.class);
+        when(entry.serialize()).thenReturn(new byte[size]);
+        return entry;
+    }
+}
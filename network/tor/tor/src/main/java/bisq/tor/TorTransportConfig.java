@@ -44,7 +44,9 @@ public class TorTransportConfig implements TransportConfig {
                 (int) TimeUnit.SECONDS.toMillis(config.getInt("socketTimeout")),
                 config.getBoolean("testNetwork"),
                 parseDirectoryAuthorities(config.getList("directoryAuthorities")),
-                parseTorrcOverrideConfig(config.getConfig("torrcOverrides"))
+                parseTorrcOverrideConfig(config.getConfig("torrcOverrides")),
+                config.hasPath("sendQueueCapacity") ? config.getInt("sendQueueCapacity") : 1000,
+                config.hasPath("sendQueueOverflowPolicy") ? config.getString("sendQueueOverflowPolicy") : "DROP_LOWEST_PRIORITY"
         );
     }
 
@@ -88,18 +90,24 @@ public class TorTransportConfig implements TransportConfig {
     private final boolean isTestNetwork;
     private final Set<DirectoryAuthority> directoryAuthorities;
     private final Map<String, String> torrcOverrides;
+    private final int sendQueueCapacity;
+    private final String sendQueueOverflowPolicy;
 
     public TorTransportConfig(Path dataDir,
                               int defaultNodePort,
                               int socketTimeout,
                               boolean isTestNetwork,
                               Set<DirectoryAuthority> directoryAuthorities,
-                              Map<String, String> torrcOverrides) {
+                              Map<String, String> torrcOverrides,
+                              int sendQueueCapacity,
+                              String sendQueueOverflowPolicy) {
         this.defaultNodePort = defaultNodePort;
         this.isTestNetwork = isTestNetwork;
         this.dataDir = dataDir;
         this.socketTimeout = socketTimeout;
         this.directoryAuthorities = directoryAuthorities;
         this.torrcOverrides = torrcOverrides;
+        this.sendQueueCapacity = sendQueueCapacity;
+        this.sendQueueOverflowPolicy = sendQueueOverflowPolicy;
     }
 }
\ No newline at end of file
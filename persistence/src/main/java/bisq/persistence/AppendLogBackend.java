@@ -0,0 +1,186 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.persistence;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Backend which keeps the last written store as snapshot in the usual file and appends later changes as records to a
+ * log file next to it. At read the records are applied to the snapshot. Writing the whole store compacts the log, as
+ * all records are contained in the new snapshot.
+ * <p>
+ * The log file consists of length delimited records. If the last record was only partially written (e.g. at a crash)
+ * it gets dropped at read.
+ */
+@Slf4j
+public class AppendLogBackend<T extends AppendLogPersistableStore<T>> implements PersistenceBackend<T> {
+    public static final String LOG_EXTENSION = ".log";
+
+    private final PersistableStoreFileManager storeFileManager;
+    private final PersistableStoreReaderWriter<T> snapshotReaderWriter;
+    @Getter
+    private final Path logFilePath;
+    private final Supplier<T> emptyStoreSupplier;
+    private final Optional<MemoryMappedStoreReader<T>> memoryMappedStoreReader;
+    // Opened lazily at the first append
+    private OutputStream logOutputStream;
+    @Getter
+    private int numRecords;
+
+    /**
+     * @param emptyStoreSupplier Provides the store to apply the records to in case there is no snapshot.
+     */
+    public AppendLogBackend(Path storePath, Supplier<T> emptyStoreSupplier) {
+        this(storePath, emptyStoreSupplier, Optional.empty());
+    }
+
+    /**
+     * @param memoryMappedDecoder If present, the snapshot is read with a {@link MemoryMappedStoreReader} using that
+     *                            decoder.
+     */
+    public AppendLogBackend(Path storePath,
+                            Supplier<T> emptyStoreSupplier,
+                            Optional<Function<ByteString, T>> memoryMappedDecoder) {
+        storeFileManager = new PersistableStoreFileManager(storePath);
+        snapshotReaderWriter = new PersistableStoreReaderWriter<>(storeFileManager);
+        logFilePath = storePath.resolveSibling(storePath.getFileName() + LOG_EXTENSION);
+        this.emptyStoreSupplier = emptyStoreSupplier;
+        memoryMappedStoreReader = memoryMappedDecoder.map(decoder -> new MemoryMappedStoreReader<>(storePath, decoder));
+    }
+
+    @Override
+    public synchronized Optional<T> read() {
+        Optional<T> snapshot = readSnapshot();
+        if (!Files.exists(logFilePath)) {
+            return snapshot;
+        }
+
+        T persistableStore = snapshot.orElseGet(emptyStoreSupplier);
+        int numReplayed = 0;
+        long validLength = 0;
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(logFilePath.toFile()))) {
+            int firstByte;
+            while ((firstByte = inputStream.read()) != -1) {
+                int size = CodedInputStream.readRawVarint32(firstByte, inputStream);
+                byte[] record = inputStream.readNBytes(size);
+                if (record.length < size) {
+                    log.warn("Last record in {} was not completely written. We drop it.", logFilePath);
+                    break;
+                }
+                persistableStore.applyLogRecord(record);
+                numReplayed++;
+                validLength += CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+            }
+        } catch (IOException e) {
+            log.error("Couldn't read records from " + logFilePath + ". We use the " + numReplayed +
+                    " records read until the error.", e);
+        }
+        truncateLog(validLength);
+        numRecords = numReplayed;
+        log.info("Applied {} records from {}", numReplayed, logFilePath);
+        return Optional.of(persistableStore);
+    }
+
+    /**
+     * Writes the whole store as new snapshot and deletes the log, as all changes are contained in the snapshot.
+     */
+    @Override
+    public synchronized boolean write(T persistableStore) {
+        if (!snapshotReaderWriter.write(persistableStore)) {
+            // We keep the log, so we do not lose the changes since the last successful snapshot
+            return false;
+        }
+        closeLog();
+        try {
+            Files.deleteIfExists(logFilePath);
+            numRecords = 0;
+        } catch (IOException e) {
+            log.error("Couldn't delete " + logFilePath, e);
+        }
+        return true;
+    }
+
+    public synchronized void append(byte[] record) {
+        try {
+            if (logOutputStream == null) {
+                storeFileManager.createParentDirectoriesIfNotExisting();
+                logOutputStream = new BufferedOutputStream(new FileOutputStream(logFilePath.toFile(), true));
+            }
+            CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(logOutputStream);
+            codedOutputStream.writeUInt32NoTag(record.length);
+            codedOutputStream.writeRawBytes(record);
+            codedOutputStream.flush();
+            logOutputStream.flush();
+            numRecords++;
+        } catch (IOException e) {
+            log.error("Couldn't append record to " + logFilePath, e);
+            closeLog();
+        }
+    }
+
+    private Optional<T> readSnapshot() {
+        if (memoryMappedStoreReader.isPresent()) {
+            Optional<T> snapshot = memoryMappedStoreReader.get().read();
+            if (snapshot.isPresent()) {
+                return snapshot;
+            }
+            // In case of an error we try the regular read which handles corrupted files as well
+        }
+        return snapshotReaderWriter.read();
+    }
+
+    private void truncateLog(long validLength) {
+        try (RandomAccessFile file = new RandomAccessFile(logFilePath.toFile(), "rw")) {
+            if (file.length() > validLength) {
+                file.setLength(validLength);
+            }
+        } catch (IOException e) {
+            log.error("Couldn't truncate " + logFilePath, e);
+        }
+    }
+
+    private void closeLog() {
+        if (logOutputStream != null) {
+            try {
+                logOutputStream.close();
+            } catch (IOException e) {
+                log.error("Couldn't close " + logFilePath, e);
+            }
+            logOutputStream = null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.persistence;
+
+import java.io.IOException;
+
+/**
+ * A PersistableStore which can be persisted with the AppendLogPersistence. Changes are appended as records to a log
+ * file and applied to the last written store at read.
+ */
+public interface AppendLogPersistableStore<T extends PersistableStore<T>> extends PersistableStore<T> {
+    /**
+     * Applies a record created by the client to this store. Records must be idempotent, as a record might be
+     * applied again to a store which contains the change already.
+     */
+    void applyLogRecord(byte[] record) throws IOException;
+}
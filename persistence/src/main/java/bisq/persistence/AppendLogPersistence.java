@@ -0,0 +1,103 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.persistence;
+
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Persistence which appends single changes to a log instead of writing the whole store at each change. Once the log
+ * has reached maxNumRecords we write the whole store and start a new log. The compaction is done on the persistence
+ * scheduler, so it does not block the caller.
+ */
+@Slf4j
+public class AppendLogPersistence<T extends AppendLogPersistableStore<T>> extends Persistence<T> {
+    public static final int DEFAULT_MAX_NUM_RECORDS = 10_000;
+
+    private final AppendLogBackend<T> appendLogBackend;
+    private final PersistableStore<T> persistableStore;
+    private final int maxNumRecords;
+
+    /**
+     * @param persistableStore   The store which gets written at compaction.
+     * @param emptyStoreSupplier Provides the store to apply the records to in case there is no snapshot.
+     */
+    public AppendLogPersistence(String directory,
+                                String fileName,
+                                PersistableStore<T> persistableStore,
+                                Supplier<T> emptyStoreSupplier,
+                                int maxNumRecords) {
+        this(directory, fileName, persistableStore, emptyStoreSupplier, Optional.empty(), maxNumRecords,
+                PersistenceScheduler.Priority.NORMAL);
+    }
+
+    /**
+     * @param memoryMappedDecoder If present, the store file is memory mapped at read and passed to that decoder.
+     */
+    public AppendLogPersistence(String directory,
+                                String fileName,
+                                PersistableStore<T> persistableStore,
+                                Supplier<T> emptyStoreSupplier,
+                                Optional<Function<ByteString, T>> memoryMappedDecoder,
+                                int maxNumRecords,
+                                PersistenceScheduler.Priority priority) {
+        this(createStorePath(directory, fileName), persistableStore, emptyStoreSupplier, memoryMappedDecoder,
+                maxNumRecords, priority);
+    }
+
+    private AppendLogPersistence(Path storePath,
+                                 PersistableStore<T> persistableStore,
+                                 Supplier<T> emptyStoreSupplier,
+                                 Optional<Function<ByteString, T>> memoryMappedDecoder,
+                                 int maxNumRecords,
+                                 PersistenceScheduler.Priority priority) {
+        this(storePath,
+                new AppendLogBackend<>(storePath, emptyStoreSupplier, memoryMappedDecoder),
+                persistableStore,
+                maxNumRecords,
+                priority);
+    }
+
+    private AppendLogPersistence(Path storePath,
+                                 AppendLogBackend<T> appendLogBackend,
+                                 PersistableStore<T> persistableStore,
+                                 int maxNumRecords,
+                                 PersistenceScheduler.Priority priority) {
+        super(storePath, appendLogBackend, priority);
+        this.appendLogBackend = appendLogBackend;
+        this.persistableStore = persistableStore;
+        this.maxNumRecords = maxNumRecords;
+    }
+
+    public CompletableFuture<Void> appendAsync(byte[] record) {
+        return runAsync(() -> {
+            appendLogBackend.append(record);
+            if (appendLogBackend.getNumRecords() >= maxNumRecords) {
+                log.info("Log of {} has reached {} records. We write the whole store.", getStorePath(), maxNumRecords);
+                persist(persistableStore.getClone());
+            }
+        });
+    }
+}
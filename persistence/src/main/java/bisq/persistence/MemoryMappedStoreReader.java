@@ -0,0 +1,74 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.persistence;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.UnsafeByteOperations;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Reads a store file by memory mapping it instead of reading it into the heap. The serialized store is passed to the
+ * decoder as ByteString which aliases the mapped region, so the store can build an index and decode its entries
+ * lazily.
+ * <p>
+ * On Windows a file cannot be replaced as long as a mapped region of it is referenced, so it must not be used there.
+ */
+@Slf4j
+public class MemoryMappedStoreReader<T extends PersistableStore<T>> {
+    private final Path storeFilePath;
+    private final Function<ByteString, T> decoder;
+
+    public MemoryMappedStoreReader(Path storeFilePath, Function<ByteString, T> decoder) {
+        this.storeFilePath = storeFilePath;
+        this.decoder = decoder;
+    }
+
+    public Optional<T> read() {
+        if (!Files.exists(storeFilePath)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel fileChannel = FileChannel.open(storeFilePath, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+            // We wrap the buffer as immutable ByteString, as only then the parser aliases bytes fields instead of
+            // copying them.
+            CodedInputStream inputStream = UnsafeByteOperations.unsafeWrap(buffer).newCodedInput();
+            inputStream.enableAliasing(true);
+            int size = inputStream.readRawVarint32();
+            int oldLimit = inputStream.pushLimit(size);
+            Any any = Any.parseFrom(inputStream);
+            inputStream.popLimit(oldLimit);
+            return Optional.of(decoder.apply(any.getValue()));
+        } catch (Exception e) {
+            log.error("Couldn't read " + storeFilePath + " memory mapped.", e);
+            return Optional.empty();
+        }
+    }
+}
@@ -29,7 +29,7 @@ import java.nio.file.Path;
 import java.util.Optional;
 
 @Slf4j
-public class PersistableStoreReaderWriter<T extends PersistableStore<T>> {
+public class PersistableStoreReaderWriter<T extends PersistableStore<T>> implements PersistenceBackend<T> {
 
     private final PersistableStoreFileManager storeFileManager;
     private final Path storeFilePath;
@@ -41,6 +41,7 @@ public class PersistableStoreReaderWriter<T extends PersistableStore<T>> {
         this.parentDirectoryPath = storeFilePath.getParent();
     }
 
+    @Override
     public synchronized Optional<T> read() {
         File storeFile = storeFilePath.toFile();
         if (!storeFile.exists()) {
@@ -60,13 +61,15 @@ public class PersistableStoreReaderWriter<T extends PersistableStore<T>> {
         return Optional.empty();
     }
 
-    public synchronized void write(T persistableStore) {
+    @Override
+    public synchronized boolean write(T persistableStore) {
         storeFileManager.createParentDirectoriesIfNotExisting();
 
         try {
             writeStoreToTempFile(persistableStore);
             storeFileManager.tryToBackupCurrentStoreFile();
             storeFileManager.renameTempFileToCurrentFile();
+            return true;
 
         } catch (CouldNotSerializePersistableStore e) {
             log.error("Couldn't serialize " + persistableStore, e);
@@ -75,6 +78,7 @@ public class PersistableStoreReaderWriter<T extends PersistableStore<T>> {
             log.error("Couldn't write persistable store to disk. Trying restore backup.", e);
             storeFileManager.restoreBackupFileIfCurrentFileNotExisting();
         }
+        return false;
     }
 
     private PersistableStore<?> readStoreFromFile() throws IOException {
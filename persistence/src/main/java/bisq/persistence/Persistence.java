@@ -17,7 +17,6 @@
 
 package bisq.persistence;
 
-import bisq.common.threading.ExecutorFactory;
 import bisq.common.util.StringUtils;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -25,25 +24,42 @@ import lombok.extern.slf4j.Slf4j;
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
 @Slf4j
 public class Persistence<T extends PersistableStore<T>> {
     public static final String EXTENSION = ".protobuf";
 
-    private static final ExecutorService executorService = ExecutorFactory.newSingleThreadExecutor("Persistence-io-pool");
+    // Stores are read and written in parallel, but all reads, writes and appends of one store are executed in order
+    private static final PersistenceScheduler scheduler = new PersistenceScheduler(PersistenceScheduler.DEFAULT_NUM_WORKERS);
 
     @Getter
     private final Path storePath;
 
-    private final PersistableStoreReaderWriter<T> persistableStoreReaderWriter;
+    private final PersistenceBackend<T> backend;
+    private final PersistenceScheduler.TaskQueue taskQueue;
 
     public Persistence(String directory, String fileName) {
+        this(directory, fileName, PersistenceScheduler.Priority.NORMAL);
+    }
+
+    public Persistence(String directory, String fileName, PersistenceScheduler.Priority priority) {
+        this(createStorePath(directory, fileName), priority);
+    }
+
+    private Persistence(Path storePath, PersistenceScheduler.Priority priority) {
+        this(storePath, new PersistableStoreReaderWriter<>(new PersistableStoreFileManager(storePath)), priority);
+    }
+
+    public Persistence(Path storePath, PersistenceBackend<T> backend, PersistenceScheduler.Priority priority) {
+        this.storePath = storePath;
+        this.backend = backend;
+        taskQueue = scheduler.createTaskQueue(storePath.getFileName().toString(), priority);
+    }
+
+    public static Path createStorePath(String directory, String fileName) {
         String storageFileName = StringUtils.camelCaseToSnakeCase(fileName);
-        storePath = Path.of(directory, storageFileName + EXTENSION);
-        var storeFileManager = new PersistableStoreFileManager(storePath);
-        persistableStoreReaderWriter = new PersistableStoreReaderWriter<>(storeFileManager);
+        return Path.of(directory, storageFileName + EXTENSION);
     }
 
     public CompletableFuture<Optional<T>> readAsync(Consumer<T> consumer) {
@@ -51,17 +67,31 @@ public class Persistence<T extends PersistableStore<T>> {
     }
 
     public CompletableFuture<Optional<T>> readAsync() {
-        return CompletableFuture.supplyAsync(persistableStoreReaderWriter::read, executorService);
+        return taskQueue.submit(backend::read);
     }
 
+    /**
+     * If a previous write has not been started yet, it gets replaced by that write and both share the returned future.
+     */
     public CompletableFuture<Void> persistAsync(T serializable) {
-        return CompletableFuture.runAsync(() -> {
-            Thread.currentThread().setName("Persistence.persist-" + storePath);
-            persist(serializable);
-        }, executorService);
+        return taskQueue.submitWrite(() -> persist(serializable));
+    }
+
+    public PersistenceMetrics getMetrics() {
+        return taskQueue.getMetrics();
+    }
+
+    /**
+     * Runs the task after all previously submitted tasks of that store.
+     */
+    protected CompletableFuture<Void> runAsync(Runnable task) {
+        return taskQueue.submit(() -> {
+            task.run();
+            return null;
+        });
     }
 
     protected void persist(T persistableStore) {
-        persistableStoreReaderWriter.write(persistableStore);
+        backend.write(persistableStore);
     }
 }
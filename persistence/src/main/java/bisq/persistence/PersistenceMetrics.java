@@ -0,0 +1,59 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.persistence;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Write and queue metrics of a single store. The latency of a write is measured from the time the first write
+ * request got queued until the write completed, so it includes the time waiting behind other stores.
+ */
+@Getter
+@ToString
+public class PersistenceMetrics {
+    private volatile long numWrites;
+    private volatile long numCoalescedWrites;
+    private volatile long lastWriteLatency;
+    private volatile long maxWriteLatency;
+    private volatile long totalWriteLatency;
+    private volatile int queueSize;
+    private volatile int maxQueueSize;
+
+    synchronized void onWriteCoalesced() {
+        numCoalescedWrites++;
+    }
+
+    synchronized void onWriteCompleted(long latency) {
+        numWrites++;
+        lastWriteLatency = latency;
+        maxWriteLatency = Math.max(maxWriteLatency, latency);
+        totalWriteLatency += latency;
+    }
+
+    synchronized void onQueueSizeChanged(int queueSize) {
+        this.queueSize = queueSize;
+        maxQueueSize = Math.max(maxQueueSize, queueSize);
+    }
+
+    public long getAverageWriteLatency() {
+        long numWrites = this.numWrites;
+        return numWrites == 0 ? 0 : totalWriteLatency / numWrites;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.persistence;
+
+import bisq.common.threading.ExecutorFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Executes the IO tasks of all stores on a small pool of worker threads.
+ * <p>
+ * Each store has its own TaskQueue. Tasks of a queue are executed in order and never in parallel. A write which is
+ * still waiting for execution as the last task of the queue gets replaced by a later write request of the same store,
+ * so only the latest state is written, and as the waiting write is executed after the current one, the last state of
+ * a burst is always written. If other tasks have been queued after the waiting write, the later write gets queued
+ * after them to keep the order.
+ * <p>
+ * After each task the workers pick the queue with the highest priority next, so a store with a higher priority only
+ * waits for the currently running tasks, not for all queued tasks of the lower priority stores.
+ */
+@Slf4j
+public class PersistenceScheduler {
+    public static final int DEFAULT_NUM_WORKERS = 3;
+    private static final long SLOW_WRITE_LATENCY = 2000;
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    private final ExecutorService workers;
+    private final PriorityBlockingQueue<TaskQueue> readyQueues = new PriorityBlockingQueue<>(16,
+            Comparator.comparing((TaskQueue queue) -> queue.priority).thenComparingLong(queue -> queue.readySequence));
+    private final AtomicLong sequence = new AtomicLong();
+
+    public PersistenceScheduler(int numWorkers) {
+        workers = ExecutorFactory.newFixedThreadPool("Persistence-io-pool", numWorkers);
+    }
+
+    public TaskQueue createTaskQueue(String name, Priority priority) {
+        return new TaskQueue(name, priority);
+    }
+
+    private void onReady(TaskQueue queue) {
+        queue.readySequence = sequence.incrementAndGet();
+        readyQueues.add(queue);
+        // Each ready queue gets one execution, so the number of executions matches the number of ready queues
+        workers.execute(this::runNext);
+    }
+
+    private void runNext() {
+        TaskQueue queue = readyQueues.poll();
+        if (queue != null) {
+            queue.runNext();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // TaskQueue
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public class TaskQueue {
+        private final String name;
+        private final Priority priority;
+        @Getter
+        private final PersistenceMetrics metrics = new PersistenceMetrics();
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+        // Set while the queue is in readyQueues or a task of it is running
+        private boolean scheduled;
+        private volatile long readySequence;
+        // Last added write if it has not been started yet. Later write requests replace its write as long as no other
+        // task has been added after it.
+        private WriteTask pendingWrite;
+
+        private TaskQueue(String name, Priority priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+
+        public <R> CompletableFuture<R> submit(Supplier<R> supplier) {
+            CompletableFuture<R> future = new CompletableFuture<>();
+            add(() -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            });
+            return future;
+        }
+
+        /**
+         * If the last queued task is a write which has not been started yet, its write gets replaced and its future is
+         * returned.
+         */
+        public CompletableFuture<Void> submitWrite(Runnable write) {
+            synchronized (this) {
+                if (pendingWrite != null && tasks.peekLast() == pendingWrite) {
+                    pendingWrite.write = write;
+                    metrics.onWriteCoalesced();
+                    return pendingWrite.future;
+                }
+                pendingWrite = new WriteTask(write);
+                add(pendingWrite);
+                return pendingWrite.future;
+            }
+        }
+
+        private void add(Runnable task) {
+            boolean becameReady;
+            synchronized (this) {
+                tasks.add(task);
+                metrics.onQueueSizeChanged(tasks.size());
+                becameReady = !scheduled;
+                scheduled = true;
+            }
+            if (becameReady) {
+                onReady(this);
+            }
+        }
+
+        private void runNext() {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.poll();
+                metrics.onQueueSizeChanged(tasks.size());
+                if (task == pendingWrite) {
+                    pendingWrite = null;
+                }
+            }
+            if (task != null) {
+                try {
+                    task.run();
+                } catch (Throwable throwable) {
+                    log.error("Persistence task of {} failed", name, throwable);
+                }
+            }
+            boolean hasMoreTasks;
+            synchronized (this) {
+                hasMoreTasks = !tasks.isEmpty();
+                scheduled = hasMoreTasks;
+            }
+            if (hasMoreTasks) {
+                onReady(this);
+            }
+        }
+
+        private class WriteTask implements Runnable {
+            private final CompletableFuture<Void> future = new CompletableFuture<>();
+            private final long queued = System.currentTimeMillis();
+            private volatile Runnable write;
+
+            private WriteTask(Runnable write) {
+                this.write = write;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    write.run();
+                    future.complete(null);
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+                long latency = System.currentTimeMillis() - queued;
+                metrics.onWriteCompleted(latency);
+                if (latency > SLOW_WRITE_LATENCY) {
+                    log.info("Writing {} took {} ms including the time in the queue. {}", name, latency, metrics);
+                }
+            }
+        }
+    }
+}
@@ -19,13 +19,17 @@ package bisq.persistence;
 
 import bisq.common.proto.Proto;
 import bisq.common.util.CompletableFutureUtils;
+import com.google.protobuf.ByteString;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Slf4j
 public class PersistenceService {
@@ -44,6 +48,17 @@ public class PersistenceService {
         return getOrCreatePersistence(client, "db", persistableStore.getClass().getSimpleName(), persistableStore);
     }
 
+    /**
+     * @param priority Stores with a higher priority are written before queued writes of stores with a lower priority.
+     *                 Use HIGH for stores where a lost write would cause loss of funds or identities and LOW for
+     *                 network data which can be received again from the network.
+     */
+    public <T extends PersistableStore<T>> Persistence<T> getOrCreatePersistence(PersistenceClient<T> client,
+                                                                                 PersistableStore<T> persistableStore,
+                                                                                 PersistenceScheduler.Priority priority) {
+        return getOrCreatePersistence(client, "db", persistableStore, priority);
+    }
+
     public <T extends PersistableStore<T>> Persistence<T> getOrCreatePersistence(PersistenceClient<T> client,
                                                                                  String subDir,
                                                                                  PersistableStore<T> persistableStore) {
@@ -54,11 +69,68 @@ public class PersistenceService {
                                                                                  String subDir,
                                                                                  String fileName,
                                                                                  PersistableStore<T> persistableStore) {
+        return getOrCreatePersistence(client, subDir, fileName, persistableStore, PersistenceScheduler.Priority.NORMAL);
+    }
+
+    public <T extends PersistableStore<T>> Persistence<T> getOrCreatePersistence(PersistenceClient<T> client,
+                                                                                 String subDir,
+                                                                                 PersistableStore<T> persistableStore,
+                                                                                 PersistenceScheduler.Priority priority) {
+        return getOrCreatePersistence(client, subDir, persistableStore.getClass().getSimpleName(), persistableStore, priority);
+    }
+
+    public <T extends PersistableStore<T>> Persistence<T> getOrCreatePersistence(PersistenceClient<T> client,
+                                                                                 String subDir,
+                                                                                 String fileName,
+                                                                                 PersistableStore<T> persistableStore,
+                                                                                 PersistenceScheduler.Priority priority) {
+        Persistence<T> persistence = new Persistence<>(baseDir + File.separator + subDir, fileName, priority);
+        register(client, persistableStore, persistence);
+        return persistence;
+    }
+
+    /**
+     * Creates a persistence which appends changes to a log. The client has to append the changes with
+     * {@link AppendLogPersistence#appendAsync(byte[])}. A call of {@link PersistenceClient#persist()} writes the whole
+     * store and compacts the log.
+     */
+    public <T extends AppendLogPersistableStore<T>> AppendLogPersistence<T> getOrCreateAppendLogPersistence(PersistenceClient<T> client,
+                                                                                                           String subDir,
+                                                                                                           String fileName,
+                                                                                                           PersistableStore<T> persistableStore,
+                                                                                                           Supplier<T> emptyStoreSupplier) {
+        return getOrCreateAppendLogPersistence(client, subDir, fileName, persistableStore, emptyStoreSupplier,
+                Optional.empty(), PersistenceScheduler.Priority.NORMAL);
+    }
+
+    /**
+     * @param memoryMappedDecoder If present, the store file is memory mapped at read and the serialized store is
+     *                            passed to that decoder. See {@link MemoryMappedStoreReader}.
+     */
+    public <T extends AppendLogPersistableStore<T>> AppendLogPersistence<T> getOrCreateAppendLogPersistence(PersistenceClient<T> client,
+                                                                                                           String subDir,
+                                                                                                           String fileName,
+                                                                                                           PersistableStore<T> persistableStore,
+                                                                                                           Supplier<T> emptyStoreSupplier,
+                                                                                                           Optional<Function<ByteString, T>> memoryMappedDecoder,
+                                                                                                           PersistenceScheduler.Priority priority) {
+        AppendLogPersistence<T> persistence = new AppendLogPersistence<>(baseDir + File.separator + subDir,
+                fileName,
+                persistableStore,
+                emptyStoreSupplier,
+                memoryMappedDecoder,
+                AppendLogPersistence.DEFAULT_MAX_NUM_RECORDS,
+                priority);
+        register(client, persistableStore, persistence);
+        return persistence;
+    }
+
+    private <T extends PersistableStore<T>> void register(PersistenceClient<T> client,
+                                                          PersistableStore<T> persistableStore,
+                                                          Persistence<T> persistence) {
         PersistableStoreResolver.addResolver(persistableStore.getResolver());
         clients.add(client);
-        Persistence<T> persistence = new Persistence<>(baseDir + File.separator + subDir, fileName);
         persistenceInstances.add(persistence);
-        return persistence;
     }
 
     public CompletableFuture<Boolean> readAllPersisted() {
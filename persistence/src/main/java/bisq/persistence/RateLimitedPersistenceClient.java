@@ -17,25 +17,25 @@
 
 package bisq.persistence;
 
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * This implementation of PersistenceClient drops persist requests if they happen too frequently.
- * It registers a shutdown hook and persists at shutdown. If the JVM got terminated non-gracefully
- * (e.g. kill signal or JVM crash) the shutdown hook is not executed (but any other approach to write in such cases
- * would fail as well).
+ * This implementation of PersistenceClient limits the write frequency. If persist requests happen too frequently,
+ * a single trailing write is scheduled at the end of the rate limit interval, which writes the state at that time.
+ * So the last state is always written, but only once per interval.
+ * It registers a shutdown hook and writes a pending trailing write at shutdown. If the JVM got terminated
+ * non-gracefully (e.g. kill signal or JVM crash) the shutdown hook is not executed (but any other approach to write
+ * in such cases would fail as well).
  * As there is no guarantee that the last data are persisted in case of such unexpected terminations, it should be only
  * used if data loss is not critical (e.g. network data) and when write frequency is rather high.
  */
 @Slf4j
 public abstract class RateLimitedPersistenceClient<T extends PersistableStore<T>> implements PersistenceClient<T> {
-    private volatile long lastWrite;
-    @Getter
-    private volatile boolean dropped;
-    private volatile boolean writeInProgress;
+    private long lastWrite;
+    private CompletableFuture<Boolean> trailingWrite;
 
     public RateLimitedPersistenceClient() {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -45,32 +45,44 @@ public abstract class RateLimitedPersistenceClient<T extends PersistableStore<T>
     }
 
     @Override
-    public CompletableFuture<Boolean> persist() {
-        boolean tooFast = System.currentTimeMillis() - lastWrite < getMaxWriteRateInMs();
-        dropped = tooFast || writeInProgress;
-        if (dropped) {
-            return CompletableFuture.completedFuture(false);
-        } else {
-            lastWrite = System.currentTimeMillis();
-            writeInProgress = true;
-            dropped = false;
-            return getPersistence()
-                    .persistAsync(getPersistableStore().getClone())
-                    .handle((r, t) -> {
-                        writeInProgress = false;
-                        return true;
-                    });
+    public synchronized CompletableFuture<Boolean> persist() {
+        if (trailingWrite != null) {
+            // The trailing write takes the clone when it gets executed, so it covers that change as well
+            return trailingWrite;
         }
+        long delay = lastWrite + getMaxWriteRateInMs() - System.currentTimeMillis();
+        if (delay <= 0) {
+            return write();
+        }
+        trailingWrite = CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                .thenCompose(nil -> {
+                    synchronized (this) {
+                        trailingWrite = null;
+                        return write();
+                    }
+                });
+        return trailingWrite;
     }
 
     protected long getMaxWriteRateInMs() {
         return 1000;
     }
 
+    private CompletableFuture<Boolean> write() {
+        lastWrite = System.currentTimeMillis();
+        return getPersistence()
+                .persistAsync(getPersistableStore().getClone())
+                .thenApply(nil -> true);
+    }
+
     private void persistOnShutdown() {
-        if (dropped) {
-            dropped = false;
+        boolean hasTrailingWrite;
+        synchronized (this) {
+            hasTrailingWrite = trailingWrite != null;
+            trailingWrite = null;
+        }
+        if (hasTrailingWrite) {
             getPersistence().persist(getPersistableStore().getClone());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.persistence;
+
+import bisq.common.data.StringLongPair;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AppendLogBackendTests {
+    @BeforeAll
+    static void setup() {
+        PersistableStoreResolver.addResolver(new TimestampStore().getResolver());
+    }
+
+    @Test
+    void replayRecordsOnSnapshot(@TempDir Path tempDir) {
+        var backend = new AppendLogBackend<>(tempDir.resolve("protoFile"), TimestampStore::new);
+        var timestampStore = new TimestampStore();
+        timestampStore.getTimestampsByProfileId().put("A", 1L);
+        backend.write(timestampStore);
+
+        backend.append(toRecord("A", 2L));
+        backend.append(toRecord("B", 3L));
+        assertThat(backend.getNumRecords()).isEqualTo(2);
+
+        Optional<TimestampStore> readStore = new AppendLogBackend<>(tempDir.resolve("protoFile"), TimestampStore::new).read();
+        assertThat(readStore).isPresent();
+        Map<String, Long> timestampsByProfileId = readStore.get().getTimestampsByProfileId();
+        assertThat(timestampsByProfileId).containsEntry("A", 2L).containsEntry("B", 3L).hasSize(2);
+    }
+
+    @Test
+    void replayRecordsWithoutSnapshot(@TempDir Path tempDir) {
+        var backend = new AppendLogBackend<>(tempDir.resolve("protoFile"), TimestampStore::new);
+        backend.append(toRecord("A", 1L));
+
+        Optional<TimestampStore> readStore = new AppendLogBackend<>(tempDir.resolve("protoFile"), TimestampStore::new).read();
+        assertThat(readStore).isPresent();
+        assertThat(readStore.get().getTimestampsByProfileId()).containsEntry("A", 1L).hasSize(1);
+    }
+
+    @Test
+    void writeCompactsLog(@TempDir Path tempDir) {
+        var backend = new AppendLogBackend<>(tempDir.resolve("protoFile"), TimestampStore::new);
+        backend.append(toRecord("A", 1L));
+        assertThat(backend.getLogFilePath()).exists();
+
+        var timestampStore = new TimestampStore();
+        timestampStore.getTimestampsByProfileId().put("A", 1L);
+        assertThat(backend.write(timestampStore)).isTrue();
+        assertThat(backend.getLogFilePath()).doesNotExist();
+        assertThat(backend.getNumRecords()).isZero();
+
+        backend.append(toRecord("B", 2L));
+        Optional<TimestampStore> readStore = new AppendLogBackend<>(tempDir.resolve("protoFile"), TimestampStore::new).read();
+        assertThat(readStore).isPresent();
+        assertThat(readStore.get().getTimestampsByProfileId()).containsEntry("A", 1L).containsEntry("B", 2L);
+    }
+
+    @Test
+    void dropPartiallyWrittenRecord(@TempDir Path tempDir) throws IOException {
+        var backend = new AppendLogBackend<>(tempDir.resolve("protoFile"), TimestampStore::new);
+        backend.append(toRecord("A", 1L));
+        backend.append(toRecord("B", 2L));
+        Path logFilePath = backend.getLogFilePath();
+        long length = Files.size(logFilePath);
+        try (RandomAccessFile file = new RandomAccessFile(logFilePath.toFile(), "rw")) {
+            file.setLength(length - 2);
+        }
+
+        var readBackend = new AppendLogBackend<>(tempDir.resolve("protoFile"), TimestampStore::new);
+        Optional<TimestampStore> readStore = readBackend.read();
+        assertThat(readStore).isPresent();
+        assertThat(readStore.get().getTimestampsByProfileId()).containsEntry("A", 1L).hasSize(1);
+        assertThat(readBackend.getNumRecords()).isEqualTo(1);
+
+        // New records are appended after the last complete record
+        readBackend.append(toRecord("C", 3L));
+        readStore = new AppendLogBackend<>(tempDir.resolve("protoFile"), TimestampStore::new).read();
+        assertThat(readStore).isPresent();
+        assertThat(readStore.get().getTimestampsByProfileId()).containsEntry("A", 1L).containsEntry("C", 3L).hasSize(2);
+    }
+
+    private static byte[] toRecord(String key, long value) {
+        return new StringLongPair(key, value).toProto().toByteArray();
+    }
+}
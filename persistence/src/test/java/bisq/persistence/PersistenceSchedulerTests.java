@@ -0,0 +1,108 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersistenceSchedulerTests {
+    @Test
+    void coalesceQueuedWrites() throws Exception {
+        var scheduler = new PersistenceScheduler(1);
+        PersistenceScheduler.TaskQueue taskQueue = scheduler.createTaskQueue("store", PersistenceScheduler.Priority.NORMAL);
+        List<Integer> written = new CopyOnWriteArrayList<>();
+
+        // Block the queue so the following writes are queued
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CompletableFuture<Void> first = taskQueue.submitWrite(() -> {
+            started.countDown();
+            await(blocker);
+        });
+        await(started);
+        CompletableFuture<Void> second = taskQueue.submitWrite(() -> written.add(2));
+        CompletableFuture<Void> third = taskQueue.submitWrite(() -> written.add(3));
+        blocker.countDown();
+
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+        assertThat(third).isSameAs(second);
+        assertThat(written).containsExactly(3);
+        assertThat(taskQueue.getMetrics().getNumWrites()).isEqualTo(2);
+        assertThat(taskQueue.getMetrics().getNumCoalescedWrites()).isEqualTo(1);
+    }
+
+    @Test
+    void doNotCoalesceWritesAcrossOtherTasks() throws Exception {
+        var scheduler = new PersistenceScheduler(1);
+        PersistenceScheduler.TaskQueue taskQueue = scheduler.createTaskQueue("store", PersistenceScheduler.Priority.NORMAL);
+        List<String> executed = new CopyOnWriteArrayList<>();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CompletableFuture<Void> first = taskQueue.submitWrite(() -> {
+            started.countDown();
+            await(blocker);
+        });
+        await(started);
+        CompletableFuture<Void> second = taskQueue.submitWrite(() -> executed.add("write2"));
+        CompletableFuture<Boolean> read = taskQueue.submit(() -> executed.add("read"));
+        CompletableFuture<Void> third = taskQueue.submitWrite(() -> executed.add("write3"));
+        CompletableFuture<Void> fourth = taskQueue.submitWrite(() -> executed.add("write4"));
+        blocker.countDown();
+
+        CompletableFuture.allOf(first, second, read, third, fourth).get(5, TimeUnit.SECONDS);
+        assertThat(third).isNotSameAs(second);
+        assertThat(fourth).isSameAs(third);
+        assertThat(executed).containsExactly("write2", "read", "write4");
+        assertThat(taskQueue.getMetrics().getNumCoalescedWrites()).isEqualTo(1);
+    }
+
+    @Test
+    void higherPriorityRunsFirst() throws Exception {
+        var scheduler = new PersistenceScheduler(1);
+        PersistenceScheduler.TaskQueue blocking = scheduler.createTaskQueue("blocking", PersistenceScheduler.Priority.NORMAL);
+        PersistenceScheduler.TaskQueue low = scheduler.createTaskQueue("low", PersistenceScheduler.Priority.LOW);
+        PersistenceScheduler.TaskQueue high = scheduler.createTaskQueue("high", PersistenceScheduler.Priority.HIGH);
+        List<String> executed = new CopyOnWriteArrayList<>();
+
+        CountDownLatch blocker = new CountDownLatch(1);
+        CompletableFuture<Void> blocked = blocking.submitWrite(() -> await(blocker));
+        CompletableFuture<Boolean> lowFuture = low.submit(() -> executed.add("low"));
+        CompletableFuture<Boolean> highFuture = high.submit(() -> executed.add("high"));
+        blocker.countDown();
+
+        CompletableFuture.allOf(blocked, lowFuture, highFuture).get(5, TimeUnit.SECONDS);
+        assertThat(executed).containsExactly("high", "low");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
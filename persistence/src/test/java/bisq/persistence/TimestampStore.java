@@ -29,7 +29,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
-public final class TimestampStore  implements PersistableStore<TimestampStore> {
+public final class TimestampStore implements AppendLogPersistableStore<TimestampStore> {
     @Getter
     private final Map<String, Long> timestampsByProfileId = new ConcurrentHashMap<>();
 
@@ -68,6 +68,12 @@ public final class TimestampStore  implements PersistableStore<TimestampStore> {
         };
     }
 
+    @Override
+    public void applyLogRecord(byte[] record) throws InvalidProtocolBufferException {
+        StringLongPair pair = StringLongPair.fromProto(bisq.common.protobuf.StringLongPair.parseFrom(record));
+        timestampsByProfileId.put(pair.getKey(), pair.getValue());
+    }
+
     @Override
     public TimestampStore getClone() {
         return new TimestampStore(timestampsByProfileId);
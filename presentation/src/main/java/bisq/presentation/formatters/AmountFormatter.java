@@ -19,7 +19,7 @@ package bisq.presentation.formatters;
 
 import bisq.common.locale.LocaleRepository;
 import bisq.common.monetary.Monetary;
-import bisq.common.util.DecimalFormatters;
+import bisq.common.util.FixedPointFormatters;
 import lombok.extern.slf4j.Slf4j;
 
 import java.text.DecimalFormatSymbols;
@@ -54,11 +54,11 @@ public class AmountFormatter {
     }
 
     public static String formatAmount(Monetary amount, Locale locale) {
-        return getDecimalFormat(amount, locale, true).format(amount.asDouble());
+        return getFormat(amount, locale, true).format(amount.getValue(), amount.getPrecision());
     }
 
     public static String formatAmount(Monetary amount, Locale locale, boolean useLowPrecision) {
-        return getDecimalFormat(amount, locale, useLowPrecision).format(amount.asDouble());
+        return getFormat(amount, locale, useLowPrecision).format(amount.getValue(), amount.getPrecision());
     }
 
     public static String formatWithDecimalGroups(Monetary amount, Locale locale, boolean useLowPrecision) {
@@ -83,13 +83,13 @@ public class AmountFormatter {
 
     public static String formatMinAmount(Optional<Long> optionalMinAmount, Monetary amount, Locale locale, boolean useLowPrecision) {
         return optionalMinAmount
-                .map(minAmount -> getDecimalFormat(amount, locale, useLowPrecision).format(amount.toDouble(minAmount)) + " - ")
+                .map(minAmount -> getFormat(amount, locale, useLowPrecision).format(minAmount, amount.getPrecision()) + " - ")
                 .orElse("");
     }
 
-    private static DecimalFormatters.Format getDecimalFormat(Monetary amount, Locale locale, boolean useLowPrecision) {
+    private static FixedPointFormatters.Format getFormat(Monetary amount, Locale locale, boolean useLowPrecision) {
         return useLowPrecision ?
-                DecimalFormatters.getDecimalFormat(locale, amount.getLowPrecision()) :
-                DecimalFormatters.getDecimalFormat(locale, amount.getPrecision());
+                FixedPointFormatters.getFormat(locale, amount.getLowPrecision()) :
+                FixedPointFormatters.getFormat(locale, amount.getPrecision());
     }
 }
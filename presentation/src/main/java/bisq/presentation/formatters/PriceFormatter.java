@@ -19,7 +19,7 @@ package bisq.presentation.formatters;
 
 import bisq.common.locale.LocaleRepository;
 import bisq.common.monetary.PriceQuote;
-import bisq.common.util.DecimalFormatters;
+import bisq.common.util.FixedPointFormatters;
 
 import java.util.Locale;
 
@@ -45,15 +45,15 @@ public class PriceFormatter {
     }
 
     public static String format(PriceQuote priceQuote, Locale locale) {
-        return getDecimalFormat(priceQuote, locale, true).format(priceQuote.asDouble());
+        return getFormat(priceQuote, locale, true).format(priceQuote.getValue(), priceQuote.getPrecision());
     }
 
     public static String format(PriceQuote priceQuote, Locale locale, boolean useLowPrecision) {
-        return getDecimalFormat(priceQuote, locale, useLowPrecision).format(priceQuote.asDouble());
+        return getFormat(priceQuote, locale, useLowPrecision).format(priceQuote.getValue(), priceQuote.getPrecision());
     }
 
-    private static DecimalFormatters.Format getDecimalFormat(PriceQuote priceQuote, Locale locale, boolean useLowPrecision) {
+    private static FixedPointFormatters.Format getFormat(PriceQuote priceQuote, Locale locale, boolean useLowPrecision) {
         int precision = useLowPrecision ? priceQuote.getLowPrecision() : priceQuote.getPrecision();
-        return DecimalFormatters.getDecimalFormat(locale, precision);
+        return FixedPointFormatters.getFormat(locale, precision);
     }
 }
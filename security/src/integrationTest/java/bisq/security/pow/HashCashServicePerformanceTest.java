@@ -0,0 +1,54 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security.pow;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Not a unit test, only logs the minting time for different parallelism and difficulty settings.
+ */
+@Slf4j
+public class HashCashServicePerformanceTest {
+    @Test
+    public void testPerformance() {
+        // ProofOfWork accepts payloads up to 20 000 bytes
+        byte[] payload = new byte[16 * 1024];
+        new Random().nextBytes(payload);
+        byte[] challenge = new byte[32];
+        int iterations = 10;
+        int maxParallelism = Runtime.getRuntime().availableProcessors();
+        for (int parallelism = 1; parallelism <= maxParallelism; parallelism *= 2) {
+            HashCashService hashCashService = new HashCashService(parallelism);
+            for (int log2Difficulty = 8; log2Difficulty <= 16; log2Difficulty += 4) {
+                long ts = System.currentTimeMillis();
+                for (int i = 0; i < iterations; i++) {
+                    new Random().nextBytes(challenge);
+                    ProofOfWork proofOfWork = hashCashService.mint(payload, challenge, Math.pow(2, log2Difficulty)).join();
+                    assertTrue(hashCashService.verify(proofOfWork));
+                }
+                log.info("parallelism={}, difficulty=Math.pow(2, {}): average={} ms", parallelism, log2Difficulty,
+                        (System.currentTimeMillis() - ts) / iterations);
+            }
+        }
+    }
+}
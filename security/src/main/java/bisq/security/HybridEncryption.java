@@ -35,11 +35,12 @@ import static com.google.common.base.Preconditions.checkArgument;
  */
 @Slf4j
 public class HybridEncryption {
+    private static final SharedSecretCache sharedSecretCache = new SharedSecretCache();
 
     public static ConfidentialData encryptAndSign(byte[] message, PublicKey receiverPublicKey, KeyPair senderKeyPair)
             throws GeneralSecurityException {
         // Create shared secret with our private key and receivers public key
-        SecretKey sharedAesSecretKey = AesGcm.generateSharedAesSecretKey(senderKeyPair.getPrivate(), receiverPublicKey);
+        SecretKey sharedAesSecretKey = sharedSecretCache.getSharedAesSecretKey(senderKeyPair, receiverPublicKey);
 
         byte[] iv = AesGcm.generateIv().getIV();
         byte[] cipherText = AesGcm.encrypt(sharedAesSecretKey, iv, message);
@@ -55,11 +56,22 @@ public class HybridEncryption {
         byte[] cipherText = confidentialData.getCipherText();
         byte[] signature = confidentialData.getSignature();
 
-        PublicKey senderPublicKey = KeyGeneration.generatePublic(encodedSenderPublicKey);
+        PublicKey senderPublicKey = sharedSecretCache.getPublicKey(encodedSenderPublicKey);
         checkArgument(SignatureUtil.verify(cipherText, signature, senderPublicKey), "Invalid signature");
 
         // Create shared secret with our private key and senders public key
-        SecretKey sharedAesSecretKey = AesGcm.generateSharedAesSecretKey(receiversKeyPair.getPrivate(), senderPublicKey);
+        SecretKey sharedAesSecretKey = sharedSecretCache.getSharedAesSecretKey(receiversKeyPair, senderPublicKey);
         return AesGcm.decrypt(sharedAesSecretKey, iv, cipherText);
     }
+
+    /**
+     * Wipes the cached shared secrets. Call at shutdown.
+     */
+    public static void clearCache() {
+        sharedSecretCache.clear();
+    }
+
+    static int getNumCachedSecrets() {
+        return sharedSecretCache.getNumSecrets();
+    }
 }
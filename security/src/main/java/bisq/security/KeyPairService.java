@@ -19,6 +19,7 @@ package bisq.security;
 
 import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceClient;
+import bisq.persistence.PersistenceScheduler;
 import bisq.persistence.PersistenceService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -36,7 +37,9 @@ import java.security.interfaces.DSAPrivateKey;
 import java.security.spec.DSAPublicKeySpec;
 import java.security.spec.KeySpec;
 import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
@@ -49,7 +52,7 @@ public class KeyPairService implements PersistenceClient<KeyPairStore> {
     private final Persistence<KeyPairStore> persistence;
 
     public KeyPairService(PersistenceService persistenceService) {
-        persistence = persistenceService.getOrCreatePersistence(this, persistableStore);
+        persistence = persistenceService.getOrCreatePersistence(this, persistableStore, PersistenceScheduler.Priority.HIGH);
     }
 
     public CompletableFuture<Boolean> initialize() {
@@ -62,6 +65,12 @@ public class KeyPairService implements PersistenceClient<KeyPairStore> {
         }
     }
 
+    public Set<String> getKeyIds() {
+        synchronized (persistableStore) {
+            return new HashSet<>(persistableStore.getKeyPairsById().keySet());
+        }
+    }
+
     public KeyPair getOrCreateKeyPair(String keyId) {
         try {
             return getOrCreateKeyPairAsync(keyId).get();
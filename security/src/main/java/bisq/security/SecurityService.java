@@ -47,6 +47,7 @@ public class SecurityService implements Service {
     @Override
     public CompletableFuture<Boolean> shutdown() {
         log.info("shutdown");
+        HybridEncryption.clearCache();
         return CompletableFuture.completedFuture(true);
     }
 }
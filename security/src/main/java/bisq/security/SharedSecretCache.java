@@ -0,0 +1,147 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.security;
+
+import bisq.common.data.ByteArray;
+import com.google.common.primitives.Bytes;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the decoded public keys of peers and the ECDH shared secrets with them, so that the key agreement is done
+ * only once per peer and not for each message. Both caches are bounded LRU caches. Shared secrets expire after
+ * MAX_SECRET_AGE and their bytes are wiped at eviction, expiry and clear.
+ * <p>
+ * The cached secret bytes are wrapped into a new SecretKeySpec at each use. SecretKeySpec holds a copy we cannot
+ * wipe, but it is short living and only referenced during one encryption or decryption.
+ */
+@Slf4j
+class SharedSecretCache {
+    private static final int MAX_SECRETS = 1000;
+    private static final int MAX_PUBLIC_KEYS = 1000;
+    private static final long MAX_SECRET_AGE = TimeUnit.MINUTES.toMillis(30);
+
+    private static class CachedSecret {
+        private final byte[] secret;
+        private final String algorithm;
+        private final long created = System.currentTimeMillis();
+
+        private CachedSecret(SecretKey secretKey) {
+            secret = secretKey.getEncoded();
+            algorithm = secretKey.getAlgorithm();
+        }
+
+        private boolean isExpired(long now) {
+            return now - created > MAX_SECRET_AGE;
+        }
+
+        private SecretKey toSecretKey() {
+            return new SecretKeySpec(secret, algorithm);
+        }
+
+        private void wipe() {
+            Arrays.fill(secret, (byte) 0);
+        }
+    }
+
+    private final Map<ByteArray, CachedSecret> secrets = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteArray, CachedSecret> eldest) {
+            if (size() > MAX_SECRETS) {
+                eldest.getValue().wipe();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final Map<ByteArray, PublicKey> publicKeys = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteArray, PublicKey> eldest) {
+            return size() > MAX_PUBLIC_KEYS;
+        }
+    };
+
+    SecretKey getSharedAesSecretKey(KeyPair ownKeyPair, PublicKey peerPublicKey) throws GeneralSecurityException {
+        ByteArray cacheKey = new ByteArray(DigestUtil.sha256(Bytes.concat(ownKeyPair.getPublic().getEncoded(),
+                peerPublicKey.getEncoded())));
+        long now = System.currentTimeMillis();
+        synchronized (secrets) {
+            CachedSecret cachedSecret = secrets.get(cacheKey);
+            if (cachedSecret != null) {
+                if (!cachedSecret.isExpired(now)) {
+                    return cachedSecret.toSecretKey();
+                }
+                secrets.remove(cacheKey);
+                cachedSecret.wipe();
+            }
+        }
+
+        // We do the key agreement outside the lock. Concurrent calls for the same peer would only cause a redundant
+        // key agreement.
+        SecretKey secretKey = AesGcm.generateSharedAesSecretKey(ownKeyPair.getPrivate(), peerPublicKey);
+        synchronized (secrets) {
+            CachedSecret previous = secrets.put(cacheKey, new CachedSecret(secretKey));
+            if (previous != null) {
+                previous.wipe();
+            }
+        }
+        return secretKey;
+    }
+
+    PublicKey getPublicKey(byte[] encodedPublicKey) throws GeneralSecurityException {
+        ByteArray cacheKey = new ByteArray(encodedPublicKey);
+        synchronized (publicKeys) {
+            PublicKey publicKey = publicKeys.get(cacheKey);
+            if (publicKey != null) {
+                return publicKey;
+            }
+        }
+        PublicKey publicKey = KeyGeneration.generatePublic(encodedPublicKey);
+        synchronized (publicKeys) {
+            publicKeys.put(cacheKey, publicKey);
+        }
+        return publicKey;
+    }
+
+    void clear() {
+        synchronized (secrets) {
+            secrets.values().forEach(CachedSecret::wipe);
+            secrets.clear();
+        }
+        synchronized (publicKeys) {
+            publicKeys.clear();
+        }
+    }
+
+    int getNumSecrets() {
+        synchronized (secrets) {
+            return secrets.size();
+        }
+    }
+}
@@ -17,13 +17,19 @@
 
 package bisq.security.pow;
 
-import bisq.security.DigestUtil;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.primitives.Longs;
 import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.crypto.digests.SHA256Digest;
 
+import javax.annotation.Nullable;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * HashCash implementation for proof of work
@@ -33,7 +39,60 @@ import java.util.concurrent.CompletableFuture;
  */
 @Slf4j
 public class HashCashService extends ProofOfWorkService {
+    // Below that difficulty minting takes only a few ms and the overhead of parallel workers is not worth it
+    private static final int MIN_LEADING_ZEROS_FOR_PARALLEL_MINT = 10;
+    // Number of hashes a worker calculates before checking if another worker has found a solution
+    private static final int CHECK_INTERVAL = 256;
+
+    // Shared by all instances, so that concurrent mints do not use more threads than we have cores. Tasks of
+    // concurrent mints get queued. The worker threads are daemon threads, so the pool does not need to be shut down.
+    private static final ForkJoinPool MINT_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    // Each thread uses its own hashing state. Minting is hot code, so we avoid allocations per hash.
+    private static final ThreadLocal<Hasher> HASHER = ThreadLocal.withInitial(Hasher::new);
+
+    /**
+     * Hashes payload||challenge||counter. The constant payload||challenge prefix is hashed only once and for each
+     * counter we continue from a copy of the midstate of the prefix, so only the 8 counter bytes get hashed.
+     * The results are identical to hashing the concatenated bytes.
+     */
+    private static final class Hasher {
+        private final SHA256Digest prefixDigest = new SHA256Digest();
+        private final SHA256Digest digest = new SHA256Digest();
+        private final byte[] counterBytes = new byte[Long.BYTES];
+        private final byte[] hash = new byte[32];
+
+        private Hasher init(byte[] payload, @Nullable byte[] challenge) {
+            prefixDigest.reset();
+            prefixDigest.update(payload, 0, payload.length);
+            if (challenge != null) {
+                prefixDigest.update(challenge, 0, challenge.length);
+            }
+            return this;
+        }
+
+        // The returned array is reused at the next call
+        private byte[] hash(long counter) {
+            digest.reset(prefixDigest);
+            // Big endian as in Longs.toByteArray
+            for (int i = Long.BYTES - 1; i >= 0; i--) {
+                counterBytes[i] = (byte) counter;
+                counter >>= 8;
+            }
+            digest.update(counterBytes, 0, counterBytes.length);
+            digest.doFinal(hash, 0);
+            return hash;
+        }
+    }
+
+    private final int parallelism;
+
     public HashCashService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public HashCashService(int parallelism) {
+        this.parallelism = Math.max(1, Math.min(parallelism, MINT_POOL.getParallelism()));
     }
 
     @Override
@@ -43,12 +102,9 @@ public class HashCashService extends ProofOfWorkService {
         return CompletableFuture.supplyAsync(() -> {
             long ts = System.currentTimeMillis();
             int log2Difficulty = toNumLeadingZeros(difficulty);
-            byte[] hash;
-            long counter = 0;
-            do {
-                hash = toSha256Hash(payload, challenge, ++counter);
-            }
-            while (numberOfLeadingZeros(hash) <= log2Difficulty);
+            long counter = parallelism > 1 && log2Difficulty >= MIN_LEADING_ZEROS_FOR_PARALLEL_MINT ?
+                    mintInParallel(payload, challenge, log2Difficulty) :
+                    mint(payload, challenge, log2Difficulty, 1, 1, new AtomicLong(-1));
             byte[] solution = Longs.toByteArray(counter);
             ProofOfWork proofOfWork = new ProofOfWork(payload, counter, challenge, difficulty, solution,
                     System.currentTimeMillis() - ts);
@@ -59,9 +115,9 @@ public class HashCashService extends ProofOfWorkService {
 
     @Override
     public boolean verify(ProofOfWork proofOfWork) {
-        byte[] hash = toSha256Hash(proofOfWork.getPayload(),
-                proofOfWork.getChallenge(),
-                proofOfWork.getCounter());
+        byte[] hash = HASHER.get()
+                .init(proofOfWork.getPayload(), proofOfWork.getChallenge())
+                .hash(proofOfWork.getCounter());
         return numberOfLeadingZeros(hash) > toNumLeadingZeros(proofOfWork.getDifficulty());
     }
 
@@ -79,6 +135,11 @@ public class HashCashService extends ProofOfWorkService {
         return value.getBytes(StandardCharsets.UTF_8);
     }
 
+    @VisibleForTesting
+    static byte[] hash(byte[] payload, @Nullable byte[] challenge, long counter) {
+        return HASHER.get().init(payload, challenge).hash(counter).clone();
+    }
+
     @VisibleForTesting
     static int numberOfLeadingZeros(byte[] bytes) {
         int numberOfLeadingZeros = 0;
@@ -91,11 +152,39 @@ public class HashCashService extends ProofOfWorkService {
         return numberOfLeadingZeros;
     }
 
-    private static byte[] toSha256Hash(byte[] payload, byte[] challenge, long counter) {
-        byte[] preImage = org.bouncycastle.util.Arrays.concatenate(payload,
-                challenge,
-                Longs.toByteArray(counter));
-        return DigestUtil.sha256(preImage);
+    // The nonce space is split into interleaved sequences, worker i tries the counters i+1, i+1+parallelism, ...
+    // The first worker finding a solution sets the result and the others stop.
+    private long mintInParallel(byte[] payload, byte[] challenge, int log2Difficulty) {
+        AtomicLong result = new AtomicLong(-1);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            long startCounter = i + 1;
+            tasks.add(MINT_POOL.submit(() -> mint(payload, challenge, log2Difficulty, startCounter, parallelism, result)));
+        }
+        tasks.forEach(ForkJoinTask::join);
+        return result.get();
+    }
+
+    private static long mint(byte[] payload,
+                             byte[] challenge,
+                             int log2Difficulty,
+                             long startCounter,
+                             int step,
+                             AtomicLong result) {
+        Hasher hasher = HASHER.get().init(payload, challenge);
+        long counter = startCounter;
+        int numHashes = 0;
+        while (true) {
+            byte[] hash = hasher.hash(counter);
+            if (numberOfLeadingZeros(hash) > log2Difficulty) {
+                result.compareAndSet(-1, counter);
+                return result.get();
+            }
+            if (++numHashes % CHECK_INTERVAL == 0 && result.get() != -1) {
+                return result.get();
+            }
+            counter += step;
+        }
     }
 
 
@@ -45,6 +45,21 @@ public class HybridEncryptionTest {
         assertArrayEquals(message, decrypted);
     }
 
+    @Test
+    void sharedSecretIsCached() throws GeneralSecurityException {
+        HybridEncryption.clearCache();
+        for (int i = 0; i < 10; i++) {
+            byte[] message = ("hello" + i).getBytes();
+            ConfidentialData confidentialData = HybridEncryption.encryptAndSign(message, keyPairReceiver.getPublic(), keyPairSender);
+            assertArrayEquals(message, HybridEncryption.decryptAndVerify(confidentialData, keyPairReceiver));
+        }
+        // One secret for the sender side and one for the receiver side
+        assertEquals(2, HybridEncryption.getNumCachedSecrets());
+
+        HybridEncryption.clearCache();
+        assertEquals(0, HybridEncryption.getNumCachedSecrets());
+    }
+
     @Test
     void decryptWithWrongKey() throws GeneralSecurityException {
         byte[] message = "hello".getBytes();
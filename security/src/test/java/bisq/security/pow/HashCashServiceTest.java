@@ -0,0 +1,90 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security.pow;
+
+import bisq.security.DigestUtil;
+import com.google.common.primitives.Longs;
+import org.bouncycastle.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashCashServiceTest {
+    @Test
+    public void testParallelMint() {
+        byte[] payload = new byte[1000];
+        new Random().nextBytes(payload);
+        byte[] challenge = new byte[32];
+        new Random().nextBytes(challenge);
+
+        HashCashService hashCashService = new HashCashService(4);
+        for (int i = 0; i < 10; i++) {
+            ProofOfWork proofOfWork = hashCashService.mint(payload, challenge, Math.pow(2, 12)).join();
+            assertTrue(hashCashService.verify(proofOfWork));
+        }
+    }
+
+    @Test
+    public void testHashIsIdenticalToConcatenatedHash() {
+        Random random = new Random();
+        byte[] payload = new byte[16 * 1024];
+        random.nextBytes(payload);
+        byte[] challenge = new byte[32];
+        random.nextBytes(challenge);
+
+        List<Long> counters = new ArrayList<>(List.of(0L, 1L, -1L, 255L, 256L, Long.MAX_VALUE, Long.MIN_VALUE));
+        for (int i = 0; i < 100; i++) {
+            counters.add(random.nextLong());
+        }
+        for (long counter : counters) {
+            assertArrayEquals(DigestUtil.sha256(Arrays.concatenate(payload, challenge, Longs.toByteArray(counter))),
+                    HashCashService.hash(payload, challenge, counter));
+            // Without challenge as used for nym proof of work
+            assertArrayEquals(DigestUtil.sha256(Arrays.concatenate(payload, Longs.toByteArray(counter))),
+                    HashCashService.hash(payload, null, counter));
+        }
+
+        // The hasher is reused per thread, so a different prefix must not be affected by the previous one
+        byte[] otherPayload = new byte[100];
+        random.nextBytes(otherPayload);
+        assertArrayEquals(DigestUtil.sha256(Arrays.concatenate(otherPayload, challenge, Longs.toByteArray(42))),
+                HashCashService.hash(otherPayload, challenge, 42));
+    }
+
+    @Test
+    public void testVerify() {
+        byte[] payload = new byte[1000];
+        new Random().nextBytes(payload);
+        HashCashService hashCashService = new HashCashService(1);
+        ProofOfWork proofOfWork = hashCashService.mint(payload, null, Math.pow(2, 8)).join();
+        assertTrue(hashCashService.verify(proofOfWork));
+
+        // A wrong counter must fail if its hash does not have enough leading zeros
+        ProofOfWork invalid = new ProofOfWork(payload, proofOfWork.getCounter() + 1, null, proofOfWork.getDifficulty(),
+                proofOfWork.getSolution(), 0);
+        byte[] invalidHash = DigestUtil.sha256(Arrays.concatenate(payload, Longs.toByteArray(invalid.getCounter())));
+        assertEquals(HashCashService.numberOfLeadingZeros(invalidHash) > HashCashService.toNumLeadingZeros(invalid.getDifficulty()),
+                hashCashService.verify(invalid));
+    }
+}
@@ -30,6 +30,7 @@ import bisq.offer.payment_method.BitcoinPaymentMethodSpec;
 import bisq.offer.payment_method.FiatPaymentMethodSpec;
 import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceClient;
+import bisq.persistence.PersistenceScheduler;
 import bisq.trade.ServiceProvider;
 import bisq.trade.TradeException;
 import bisq.trade.bisq_easy.protocol.*;
@@ -62,7 +63,7 @@ public class BisqEasyTradeService implements PersistenceClient<BisqEasyTradeStor
     private final BannedUserService bannedUserService;
 
     public BisqEasyTradeService(ServiceProvider serviceProvider) {
-        persistence = serviceProvider.getPersistenceService().getOrCreatePersistence(this, persistableStore);
+        persistence = serviceProvider.getPersistenceService().getOrCreatePersistence(this, persistableStore, PersistenceScheduler.Priority.HIGH);
         this.serviceProvider = serviceProvider;
         bannedUserService = serviceProvider.getUserService().getBannedUserService();
     }
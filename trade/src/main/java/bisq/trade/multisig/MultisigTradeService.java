@@ -26,6 +26,7 @@ import bisq.network.identity.NetworkId;
 import bisq.offer.multisig.MultisigOffer;
 import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceClient;
+import bisq.persistence.PersistenceScheduler;
 import bisq.trade.ServiceProvider;
 import bisq.trade.TradeException;
 import bisq.trade.multisig.protocol.*;
@@ -53,7 +54,7 @@ public class MultisigTradeService implements PersistenceClient<MultisigTradeStor
     private final Map<String, MultisigProtocol> tradeProtocolById = new ConcurrentHashMap<>();
 
     public MultisigTradeService(ServiceProvider serviceProvider) {
-        persistence = serviceProvider.getPersistenceService().getOrCreatePersistence(this, persistableStore);
+        persistence = serviceProvider.getPersistenceService().getOrCreatePersistence(this, persistableStore, PersistenceScheduler.Priority.HIGH);
         this.serviceProvider = serviceProvider;
     }
 
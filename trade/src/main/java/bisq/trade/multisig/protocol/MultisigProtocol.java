@@ -30,6 +30,12 @@ public abstract class MultisigProtocol extends Protocol<MultisigTrade> {
         super(serviceProvider, model);
     }
 
+    @Override
+    protected boolean isEventHandlerReuseEnabled() {
+        // Our event handlers only hold the serviceProvider and the trade, so we can reuse them
+        return true;
+    }
+
     @Override
     protected EventHandler newEventHandlerFromClass(Class<? extends EventHandler> handlerClass) {
         try {
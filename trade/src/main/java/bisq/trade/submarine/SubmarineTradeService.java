@@ -26,6 +26,7 @@ import bisq.network.identity.NetworkId;
 import bisq.offer.submarine.SubmarineOffer;
 import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceClient;
+import bisq.persistence.PersistenceScheduler;
 import bisq.trade.ServiceProvider;
 import bisq.trade.TradeException;
 import bisq.trade.protocol.Protocol;
@@ -54,7 +55,7 @@ public class SubmarineTradeService implements PersistenceClient<SubmarineTradeSt
 
     public SubmarineTradeService(ServiceProvider serviceProvider) {
         this.serviceProvider = serviceProvider;
-        persistence = serviceProvider.getPersistenceService().getOrCreatePersistence(this, persistableStore);
+        persistence = serviceProvider.getPersistenceService().getOrCreatePersistence(this, persistableStore, PersistenceScheduler.Priority.HIGH);
     }
 
 
@@ -28,6 +28,7 @@ import bisq.network.NetworkService;
 import bisq.network.p2p.services.data.DataService;
 import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceClient;
+import bisq.persistence.PersistenceScheduler;
 import bisq.persistence.PersistenceService;
 import bisq.security.AesSecretKey;
 import bisq.security.EncryptedData;
@@ -83,7 +84,7 @@ public class UserIdentityService implements PersistenceClient<UserIdentityStore>
                                IdentityService identityService,
                                NetworkService networkService) {
         this.config = config;
-        persistence = persistenceService.getOrCreatePersistence(this, persistableStore);
+        persistence = persistenceService.getOrCreatePersistence(this, persistableStore, PersistenceScheduler.Priority.HIGH);
         this.identityService = identityService;
         this.networkService = networkService;
     }
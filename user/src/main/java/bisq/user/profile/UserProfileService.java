@@ -32,9 +32,17 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 @Slf4j
 public class UserProfileService implements PersistenceClient<UserProfileStore>, DataService.Listener, Service {
+    public interface Listener {
+        void onUserProfileAdded(UserProfile userProfile);
+
+        default void onUserProfileRemoved(UserProfile userProfile) {
+        }
+    }
+
     private static final String SEPARATOR_START = " [";
     private static final String SEPARATOR_END = "]";
 
@@ -45,6 +53,7 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
     private final NetworkService networkService;
     @Getter
     private final Observable<Integer> numUserProfiles = new Observable<>();
+    private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
 
     public UserProfileService(PersistenceService persistenceService,
                               NetworkService networkService) {
@@ -118,6 +127,14 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
         persist();
     }
 
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
     public ObservableSet<String> getIgnoredUserProfileIds() {
         return persistableStore.getIgnoredUserProfileIds();
     }
@@ -147,6 +164,7 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
             }
             numUserProfiles.set(getUserProfileById().values().size());
             persist();
+            listeners.forEach(listener -> listener.onUserProfileAdded(userProfile));
         }
     }
 
@@ -159,6 +177,7 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
             }
             numUserProfiles.set(getUserProfileById().values().size());
             persist();
+            listeners.forEach(listener -> listener.onUserProfileRemoved(userProfile));
         }
     }
 
@@ -101,6 +101,7 @@ public class AccountAgeService extends SourceReputationService<AuthorizedAccount
 
     @Override
     public void onAuthorizedDataRemoved(AuthorizedData authorizedData) {
+        super.onAuthorizedDataRemoved(authorizedData);
         if (authorizedData.getAuthorizedDistributedData() instanceof AuthorizedAccountAgeData) {
             AuthorizedAccountAgeData data = (AuthorizedAccountAgeData) authorizedData.getAuthorizedDistributedData();
             String userProfileId = data.getProfileId();
@@ -84,6 +84,7 @@ public class ProfileAgeService extends SourceReputationService<AuthorizedTimesta
 
     @Override
     public void onAuthorizedDataRemoved(AuthorizedData authorizedData) {
+        super.onAuthorizedDataRemoved(authorizedData);
         if (authorizedData.getAuthorizedDistributedData() instanceof AuthorizedTimestampData) {
             AuthorizedTimestampData timestampData = (AuthorizedTimestampData) authorizedData.getAuthorizedDistributedData();
             String userProfileId = timestampData.getProfileId();
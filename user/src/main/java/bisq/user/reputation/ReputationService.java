@@ -27,16 +27,31 @@ import bisq.user.identity.UserIdentityService;
 import bisq.user.profile.UserProfile;
 import bisq.user.profile.UserProfileService;
 import com.google.common.annotations.VisibleForTesting;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Getter
 @Slf4j
 public class ReputationService implements Service {
+    // Sorted scores of all user profiles with the ReputationScores derived from them. As the relative score and the
+    // ranking depend on all scores, a snapshot gets outdated at any score change and is recreated at the next read.
+    private static final class ScoresSnapshot {
+        private final long version;
+        private final long[] sortedScores;
+        private final Map<String, ReputationScore> reputationScoreByUserProfileId = new ConcurrentHashMap<>();
+
+        private ScoresSnapshot(long version, long[] sortedScores) {
+            this.version = version;
+            this.sortedScores = sortedScores;
+        }
+    }
+
     private final ProofOfBurnService proofOfBurnService;
     private final BondedReputationService bondedReputationService;
     private final AccountAgeService accountAgeService;
@@ -44,6 +59,10 @@ public class ReputationService implements Service {
     private final Observable<String> changedUserProfileScore = new Observable<>();
     private final Map<String, Long> scoreByUserProfileId = new ConcurrentHashMap<>();
     private final ProfileAgeService profileAgeService;
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong scoresVersion = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private volatile ScoresSnapshot scoresSnapshot = new ScoresSnapshot(0, new long[0]);
 
     public ReputationService(PersistenceService persistenceService,
                              NetworkService networkService,
@@ -124,15 +143,24 @@ public class ReputationService implements Service {
     }
 
     public Optional<ReputationScore> findReputationScore(String userProfileId) {
-        if (!scoreByUserProfileId.containsKey(userProfileId)) {
+        Long score = scoreByUserProfileId.get(userProfileId);
+        if (score == null) {
             return Optional.empty();
         }
-        long score = scoreByUserProfileId.get(userProfileId);
-        double relativeScore = getRelativeScore(score, scoreByUserProfileId.values());
-        int index = getIndex(score, scoreByUserProfileId.values());
-        int rank = scoreByUserProfileId.size() - index;
-        double relativeRanking = (index + 1) / (double) scoreByUserProfileId.size();
-        return Optional.of(new ReputationScore(score, relativeScore, rank, relativeRanking));
+        ScoresSnapshot snapshot = getScoresSnapshot();
+        ReputationScore cached = snapshot.reputationScoreByUserProfileId.get(userProfileId);
+        if (cached != null && cached.getTotalScore() == score) {
+            return Optional.of(cached);
+        }
+
+        long[] sortedScores = snapshot.sortedScores;
+        double relativeScore = getRelativeScore(score, sortedScores);
+        int index = getIndex(score, sortedScores);
+        int rank = sortedScores.length - index;
+        double relativeRanking = (index + 1) / (double) sortedScores.length;
+        ReputationScore reputationScore = new ReputationScore(score, relativeScore, rank, relativeRanking);
+        snapshot.reputationScoreByUserProfileId.put(userProfileId, reputationScore);
+        return Optional.of(reputationScore);
     }
 
     private void onUserProfileScoreChanged(String userProfileId) {
@@ -144,20 +172,58 @@ public class ReputationService implements Service {
                 accountAgeService.getScore(userProfileId) +
                 signedWitnessService.getScore(userProfileId) +
                 profileAgeService.getScore(userProfileId);
-        scoreByUserProfileId.put(userProfileId, score);
+        Long previous = scoreByUserProfileId.put(userProfileId, score);
+        if (previous == null || previous != score) {
+            scoresVersion.incrementAndGet();
+        }
         changedUserProfileScore.set(userProfileId);
     }
 
+    private ScoresSnapshot getScoresSnapshot() {
+        ScoresSnapshot snapshot = scoresSnapshot;
+        long version = scoresVersion.get();
+        if (snapshot.version == version) {
+            return snapshot;
+        }
+        // If a score changes while we create the snapshot, the version is outdated and the next read creates a new one
+        ScoresSnapshot newSnapshot = new ScoresSnapshot(version, toSortedArray(scoreByUserProfileId.values()));
+        scoresSnapshot = newSnapshot;
+        return newSnapshot;
+    }
+
     @VisibleForTesting
     static double getRelativeScore(long candidateScore, Collection<Long> scores) {
-        long bestScore = scores.stream().max(Comparator.comparing(Long::longValue)).orElse(0L);
-        return bestScore > 0 ? candidateScore / (double) bestScore : 0;
+        return getRelativeScore(candidateScore, toSortedArray(scores));
     }
 
     @VisibleForTesting
     static int getIndex(long candidateScore, Collection<Long> scores) {
-        List<Long> list = new ArrayList<>(scores);
-        Collections.sort(list);
-        return list.indexOf(candidateScore);
+        return getIndex(candidateScore, toSortedArray(scores));
+    }
+
+    private static double getRelativeScore(long candidateScore, long[] sortedScores) {
+        long bestScore = sortedScores.length > 0 ? sortedScores[sortedScores.length - 1] : 0;
+        return bestScore > 0 ? candidateScore / (double) bestScore : 0;
+    }
+
+    // Index of the first occurrence of the candidateScore, or -1 if not contained
+    private static int getIndex(long candidateScore, long[] sortedScores) {
+        int low = 0;
+        int high = sortedScores.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedScores[mid] < candidateScore) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < sortedScores.length && sortedScores[low] == candidateScore ? low : -1;
+    }
+
+    private static long[] toSortedArray(Collection<Long> scores) {
+        long[] sortedScores = scores.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sortedScores);
+        return sortedScores;
     }
 }
\ No newline at end of file
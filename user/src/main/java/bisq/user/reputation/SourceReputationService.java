@@ -21,6 +21,7 @@ import bisq.bonded_roles.bonded_role.AuthorizedBondedRolesService;
 import bisq.common.application.Service;
 import bisq.common.data.ByteArray;
 import bisq.common.observable.Observable;
+import bisq.common.timer.Scheduler;
 import bisq.network.NetworkService;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.services.data.DataService;
@@ -46,8 +47,11 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 
 @Slf4j
-public abstract class SourceReputationService<T extends AuthorizedDistributedData> implements DataService.Listener, Service {
+public abstract class SourceReputationService<T extends AuthorizedDistributedData> implements DataService.Listener,
+        UserProfileService.Listener, Service {
     protected static final long DAY_AS_MS = TimeUnit.DAYS.toMillis(1);
+    // The scores depend on the age of the data in days, so we re-evaluate them periodically
+    private static final long SCORE_UPDATE_INTERVAL_MIN = 60;
 
     public static long getAgeInDays(long date) {
         return (System.currentTimeMillis() - date) / DAY_AS_MS;
@@ -64,6 +68,11 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
     protected final Map<String, Long> scoreByUserProfileId = new ConcurrentHashMap<>();
     @Getter
     protected final Observable<String> userProfileIdOfUpdatedScore = new Observable<>();
+    // Reverse index of the user profile keys, so we do not need to iterate all profiles for each data
+    private final Map<ByteArray, String> userProfileIdByKey = new ConcurrentHashMap<>();
+    // Data for which we do not know the user profile yet
+    private final Map<ByteArray, Set<T>> pendingDataSetByKey = new ConcurrentHashMap<>();
+    private Optional<Scheduler> scoreUpdateScheduler = Optional.empty();
 
     public SourceReputationService(NetworkService networkService,
                                    UserIdentityService userIdentityService,
@@ -79,36 +88,87 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
 
     public CompletableFuture<Boolean> initialize() {
         log.info("initialize");
+        userProfileService.addListener(this);
+        userProfileService.getUserProfileById().values()
+                .forEach(userProfile -> userProfileIdByKey.put(getUserProfileKey(userProfile), userProfile.getId()));
         networkService.getDataService().ifPresent(dataService -> dataService.getAuthorizedData().forEach(this::onAuthorizedDataAdded));
         networkService.addDataServiceListener(this);
+        scoreUpdateScheduler = Optional.of(Scheduler.run(this::updateScores)
+                .periodically(SCORE_UPDATE_INTERVAL_MIN, SCORE_UPDATE_INTERVAL_MIN, TimeUnit.MINUTES));
         return CompletableFuture.completedFuture(true);
     }
 
     public CompletableFuture<Boolean> shutdown() {
         log.info("shutdown");
         networkService.removeDataServiceListener(this);
+        userProfileService.removeListener(this);
+        scoreUpdateScheduler.ifPresent(Scheduler::stop);
         return CompletableFuture.completedFuture(true);
     }
 
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // DataService.Listener
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
     @Override
     public void onAuthorizedDataAdded(AuthorizedData authorizedData) {
         findRelevantData(authorizedData.getAuthorizedDistributedData())
                 .ifPresent(data -> {
-                    ByteArray providedHash = getDataKey(data);
-                    userProfileService.getUserProfileById().values().stream()
-                            .filter(userProfile -> getUserProfileKey(userProfile).equals(providedHash))
-                            .forEach(userProfile -> {
-                                ByteArray hash = getUserProfileKey(userProfile);
-                                if (!dataSetByHash.containsKey(hash)) {
-                                    dataSetByHash.put(hash, new HashSet<>());
-                                }
-                                Set<T> dataSet = dataSetByHash.get(hash);
-                                addToDataSet(dataSet, data);
-                                putScore(userProfile.getId(), dataSet);
-                            });
+                    ByteArray key = getDataKey(data);
+                    String userProfileId = userProfileIdByKey.get(key);
+                    if (userProfileId != null) {
+                        addData(userProfileId, key, data);
+                        return;
+                    }
+
+                    // We check again inside the compute, as the user profile might have been added in the meantime.
+                    // It removes the pending data after it got added to the index.
+                    pendingDataSetByKey.compute(key, (k, pendingDataSet) -> {
+                        if (userProfileIdByKey.containsKey(k)) {
+                            return pendingDataSet;
+                        }
+                        Set<T> result = pendingDataSet != null ? pendingDataSet : new HashSet<>();
+                        result.add(data);
+                        return result;
+                    });
+                    String addedUserProfileId = userProfileIdByKey.get(key);
+                    if (addedUserProfileId != null) {
+                        addData(addedUserProfileId, key, data);
+                    }
                 });
     }
 
+    @Override
+    public void onAuthorizedDataRemoved(AuthorizedData authorizedData) {
+        findRelevantData(authorizedData.getAuthorizedDistributedData())
+                .ifPresent(data -> pendingDataSetByKey.computeIfPresent(getDataKey(data), (key, pendingDataSet) -> {
+                    pendingDataSet.remove(data);
+                    return pendingDataSet.isEmpty() ? null : pendingDataSet;
+                }));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // UserProfileService.Listener
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onUserProfileAdded(UserProfile userProfile) {
+        ByteArray key = getUserProfileKey(userProfile);
+        userProfileIdByKey.put(key, userProfile.getId());
+        Set<T> pendingDataSet = pendingDataSetByKey.remove(key);
+        if (pendingDataSet != null) {
+            pendingDataSet.forEach(data -> addData(userProfile.getId(), key, data));
+        }
+    }
+
+    @Override
+    public void onUserProfileRemoved(UserProfile userProfile) {
+        userProfileIdByKey.remove(getUserProfileKey(userProfile), userProfile.getId());
+    }
+
+
     protected abstract Optional<T> findRelevantData(AuthorizedDistributedData authorizedDistributedData);
 
     // Some services don't support multiple entries and will override that method
@@ -120,12 +180,45 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
 
     protected abstract ByteArray getUserProfileKey(UserProfile userProfile);
 
+    private void addData(String userProfileId, ByteArray key, T data) {
+        Set<T> dataSet = dataSetByHash.computeIfAbsent(key, k -> new HashSet<>());
+        synchronized (dataSet) {
+            addToDataSet(dataSet, data);
+            putScore(userProfileId, dataSet);
+        }
+    }
+
     protected void putScore(String userProfileId, Set<T> dataSet) {
-        long score = dataSet.stream().mapToLong(this::calculateScore).sum();
-        scoreByUserProfileId.put(userProfileId, score);
+        scoreByUserProfileId.put(userProfileId, calculateScore(dataSet));
         userProfileIdOfUpdatedScore.set(userProfileId);
     }
 
+    private long calculateScore(Set<T> dataSet) {
+        long score = 0;
+        for (T data : dataSet) {
+            score += calculateScore(data);
+        }
+        return score;
+    }
+
+    // Only the scores which have changed by the increased age of the data get updated and notified
+    private void updateScores() {
+        dataSetByHash.forEach((key, dataSet) -> {
+            String userProfileId = userProfileIdByKey.get(key);
+            if (userProfileId == null) {
+                return;
+            }
+            synchronized (dataSet) {
+                long score = calculateScore(dataSet);
+                Long previous = scoreByUserProfileId.get(userProfileId);
+                if (previous != null && previous != score) {
+                    scoreByUserProfileId.put(userProfileId, score);
+                    userProfileIdOfUpdatedScore.set(userProfileId);
+                }
+            }
+        });
+    }
+
     protected boolean send(UserIdentity userIdentity, EnvelopePayloadMessage request) {
         checkArgument(!bannedUserService.isUserProfileBanned(userIdentity.getUserProfile()));
         if (authorizedBondedRolesService.getAuthorizedOracleNodes().isEmpty()) {